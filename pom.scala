@@ -20,6 +20,7 @@ object Plugins {
   val bundle = "org.apache.felix" % "maven-bundle-plugin" % "3.3.0"
   val clean = "org.apache.maven.plugins" % "maven-clean-plugin" % "3.0.0"
   val jar = "org.apache.maven.plugins" % "maven-jar-plugin" % "2.5"
+  val surefire = "org.apache.maven.plugins" % "maven-surefire-plugin" % "3.2.5"
   val reproducibleBuild = "io.github.zlika" % "reproducible-build-maven-plugin" % "0.7"
   val translate = "io.takari.polyglot" % "polyglot-translate-plugin" % "0.3.1"
   val javadoc = "org.apache.maven.plugins" % "maven-javadoc-plugin" % "3.0.1"
@@ -182,6 +183,34 @@ Model(
           )
         )
       ),
+      Plugin(
+        Plugins.surefire,
+        executions = Seq(
+          Execution(
+            id = "default-test",
+            configuration = Config(
+              excludes = Config(
+                exclude = "**/JfrEventTest.java"
+              )
+            )
+          ),
+          // The JFR events must be enabled before JfrEvent is initialized,
+          // so they are tested in their own JVM
+          Execution(
+            id = "jfr-events",
+            phase = "test",
+            goals = Seq("test"),
+            configuration = Config(
+              includes = Config(
+                include = "**/JfrEventTest.java"
+              ),
+              systemPropertyVariables = Config(
+                `lambdatest.jfr` = "true"
+              )
+            )
+          )
+        )
+      ),
       Plugin(
         Plugins.jar,
         executions = Seq(
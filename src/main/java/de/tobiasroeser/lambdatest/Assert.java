@@ -25,6 +25,15 @@ public class Assert {
 	private static final List<Class<?>> DOUBLE_TYPES = Arrays.asList(Float.class, Double.class);
 
 	/* package */ static void fail(final String userGivenMessageOrNull, final String msg, final Object... args) {
+		failWith(null, userGivenMessageOrNull, msg, args);
+	}
+
+	/**
+	 * Fails with an error created for the given bound expect context, or for
+	 * the context of the current thread, if `null`.
+	 */
+	/* package */ static void failWith(final ExpectContext bound, final String userGivenMessageOrNull,
+			final String msg, final Object... args) {
 		final String formatted;
 		if (args == null || args.length == 0) {
 			formatted = msg;
@@ -84,7 +93,7 @@ public class Assert {
 			finalMsg = userGivenMessageOrNull + " -- Details: " + formatted;
 		}
 		LoggerFactory.getLogger(Assert.class).error("Assertion failed: {}", finalMsg);
-		throw new AssertionError(finalMsg);
+		throw ExpectContext.newAssertionError(bound, finalMsg);
 	}
 
 	// TODO: add asserts for all primitive parameter types
@@ -94,14 +103,19 @@ public class Assert {
 	}
 
 	public static void assertEquals(final Object actual, final Object expected, final String msg) {
+		assertEquals(null, actual, expected, msg);
+	}
+
+	/* package */ static void assertEquals(final ExpectContext bound, final Object actual, final Object expected,
+			final String msg) {
 		if (actual == expected) {
 			return;
 		}
 		if (actual == null) {
-			fail(msg, "Actual was null but expected: {0}", expected);
+			failWith(bound, msg, "Actual was null but expected: {0}", expected);
 		}
 		if (expected == null) {
-			fail(msg, "Expected null but was: {0}", actual);
+			failWith(bound, msg, "Expected null but was: {0}", actual);
 		}
 
 		// from here on, actual and expected are not null
@@ -111,22 +125,23 @@ public class Assert {
 
 		if (expectedClass.isArray()) {
 			if (!actualClass.isArray()) {
-				fail(msg, "Expected an array, but got a {0}", actualClass.getName());
+				failWith(bound, msg, "Expected an array, but got a {0}", actualClass.getName());
 			}
 
 			final int expectedLength = Array.getLength(expected);
 			final int actualLength = Array.getLength(actual);
 			if (expectedLength != actualLength) {
-				fail(msg, "Actual array length of {0} does not match expected length of {1}. Expected {2} but was {3}",
+				failWith(bound, msg,
+						"Actual array length of {0} does not match expected length of {1}. Expected {2} but was {3}",
 						actualLength, expectedLength, expected, actual);
 			}
 			for (int i = 0; i < expectedLength; i++) {
 				final Object exp = Array.get(expected, i);
 				final Object act = Array.get(actual, i);
 				try {
-					assertEquals(act, exp);
+					assertEquals(bound, act, exp, null);
 				} catch (final AssertionError e) {
-					fail(msg,
+					failWith(bound, msg,
 							"Arrays differ at index {0}. Expected {1} but was {2}. Error for element at index {0}: {3}",
 							i,
 							expected, actual, e.getMessage());
@@ -137,7 +152,7 @@ public class Assert {
 
 		// expected in not an array but actual is
 		if (actualClass.isArray()) {
-			fail(msg, "Got an array, but did not expected one. Expected a {0}", expectedClass.getName());
+			failWith(bound, msg, "Got an array, but did not expected one. Expected a {0}", expectedClass.getName());
 		}
 
 		// now check for equality, and if not introspect further
@@ -158,23 +173,26 @@ public class Assert {
 									+ ((String) expected).substring(i);
 							final String actualWithMarker = ((String) actual).substring(0, i) + "[*]"
 									+ ((String) actual).substring(i);
-							fail(msg, "Strings differ at index {0} (see [*] marker). Expected \"{1}\" but was \"{2}\".",
+							failWith(bound, msg,
+									"Strings differ at index {0} (see [*] marker). Expected \"{1}\" but was \"{2}\".",
 									i, expectedWithMarker, actualWithMarker);
 						}
 					} else {
-						fail(msg, "Strings differ at index {0}. Actual is too short. Expected \"{1}\" but was \"{2}\".",
+						failWith(bound, msg,
+								"Strings differ at index {0}. Actual is too short. Expected \"{1}\" but was \"{2}\".",
 								i, expected, actual);
 					}
 				}
 			}
 			if (expChars.length < actChars.length) {
-				fail(msg, "Strings differ at index {0}. Actual is too long. Expected \"{1}\" but was \"{2}\".",
+				failWith(bound, msg,
+						"Strings differ at index {0}. Actual is too long. Expected \"{1}\" but was \"{2}\".",
 						expChars.length, expected, actual);
 			}
 		}
 		// Handle true and false values without any further toString examination
 		if (Boolean.class.isAssignableFrom(expectedClass) && Boolean.class.isAssignableFrom(actualClass)) {
-			fail(msg, "Actual {0} is not equal to {1}", actual, expected);
+			failWith(bound, msg, "Actual {0} is not equal to {1}", actual, expected);
 		}
 
 		// we try to analyze some kind of collections and iterators
@@ -189,7 +207,7 @@ public class Assert {
 			final int expectedLength = ((Collection<?>) expected).size();
 			final int actualLength = ((Collection<?>) actual).size();
 			if (expectedLength != actualLength) {
-				fail(msg,
+				failWith(bound, msg,
 						"Actual collection length of {0} does not match expected length of {1}. Expected {2} but was {3}",
 						actualLength, expectedLength, expected, actual);
 			}
@@ -203,10 +221,10 @@ public class Assert {
 			final List<?> spareInActual = Util.filter((Iterable<?>) actual,
 					act -> !((Set<?>) expected).contains(act));
 			if (missingInActual.size() == ((Set<?>) expected).size()) {
-				fail(msg, "Sets are not equal. All elements differ. Expected {0} but was {1}",
+				failWith(bound, msg, "Sets are not equal. All elements differ. Expected {0} but was {1}",
 						expected, actual);
 			}
-			fail(msg,
+			failWith(bound, msg,
 					"Sets are not equal. Expected {0} but was {1}. {2} expected elements missing in actual set: {3}. {4} unexpected elements in actual set: {5}",
 					expected,
 					actual,
@@ -257,9 +275,10 @@ public class Assert {
 				final Object exp = expIt.next();
 				final Object act = actIt.next();
 				try {
-					assertEquals(act, exp);
+					assertEquals(bound, act, exp, null);
 				} catch (final AssertionError e) {
-					fail(msg, "{0} differ at index {1}. Expected {2} but was {3}. Error for element at index {1}: {4}",
+					failWith(bound, msg,
+							"{0} differ at index {1}. Expected {2} but was {3}. Error for element at index {1}: {4}",
 							itName, i,
 							expected, actual, e.getMessage());
 				}
@@ -270,19 +289,21 @@ public class Assert {
 		if (!actualClass.equals(expectedClass)) {
 			if (LONG_TYPES.contains(actualClass) && LONG_TYPES.contains(expectedClass)
 					&& ((Number) actual).longValue() == ((Number) expected).longValue()) {
-				fail(msg, "Actual {0} of type {1} is not equal to {2} of type {3}, but their long values are equal.",
+				failWith(bound, msg,
+						"Actual {0} of type {1} is not equal to {2} of type {3}, but their long values are equal.",
 						actual.toString(), actualClass.getName(),
 						expected.toString(), expectedClass.getName());
 			}
 
 			if (DOUBLE_TYPES.contains(actualClass) && DOUBLE_TYPES.contains(expectedClass)
 					&& ((Number) actual).doubleValue() == ((Number) expected).doubleValue()) {
-				fail(msg, "Actual {0} of type {1} is not equal to {2} of type {3}, but their double values are equal.",
+				failWith(bound, msg,
+						"Actual {0} of type {1} is not equal to {2} of type {3}, but their double values are equal.",
 						actual.toString(), actualClass.getName(),
 						expected.toString(), expectedClass.getName());
 			}
 
-			fail(msg, "Actual {0} of type {1} is not equal to {2} of type {3}.",
+			failWith(bound, msg, "Actual {0} of type {1} is not equal to {2} of type {3}.",
 					actual.toString(), actualClass.getName(),
 					expected.toString(), expectedClass.getName());
 		}
@@ -291,15 +312,15 @@ public class Assert {
 		// but only if these are not simple numbers
 		if (!LONG_TYPES.contains(expectedClass) && !LONG_TYPES.contains(actualClass)) {
 			try {
-				assertEquals(actual.toString(), expected.toString());
+				assertEquals(bound, actual.toString(), expected.toString(), null);
 			} catch (final AssertionError e) {
-				fail(msg, "Actual {0} is not equal to {1}. Also their toString() differ: {2}",
+				failWith(bound, msg, "Actual {0} is not equal to {1}. Also their toString() differ: {2}",
 						actual.toString(), expected.toString(),
 						e.getMessage());
 			}
 		}
 
-		fail(msg, "Actual {0} is not equal to {1}.", actual, expected);
+		failWith(bound, msg, "Actual {0} is not equal to {1}.", actual, expected);
 	}
 
 	public static void assertNotEquals(final Object actual, final Object expected) {
@@ -307,17 +328,26 @@ public class Assert {
 	}
 
 	public static void assertNotEquals(final Object actual, final Object expected, final String msg) {
+		assertNotEquals(null, actual, expected, msg);
+	}
+
+	/* package */ static void assertNotEquals(final ExpectContext bound, final Object actual, final Object expected,
+			final String msg) {
 		try {
-			assertEquals(actual, expected);
+			assertEquals(bound, actual, expected, null);
 		} catch (final AssertionError e) {
 			return;
 		}
-		fail(msg, "Actual {0} is equal to {1} but shouldn't.", actual, expected);
+		failWith(bound, msg, "Actual {0} is equal to {1} but shouldn't.", actual, expected);
 	}
 
 	public static void assertTrue(final boolean actual, final String msg) {
+		assertTrue(null, actual, msg);
+	}
+
+	/* package */ static void assertTrue(final ExpectContext bound, final boolean actual, final String msg) {
 		if (!actual) {
-			fail(msg, "Actual {0} is not true", actual);
+			failWith(bound, msg, "Actual {0} is not true", actual);
 		}
 	}
 
@@ -326,8 +356,12 @@ public class Assert {
 	}
 
 	public static void assertFalse(final boolean actual, final String msg) {
+		assertFalse(null, actual, msg);
+	}
+
+	/* package */ static void assertFalse(final ExpectContext bound, final boolean actual, final String msg) {
 		if (actual) {
-			fail(msg, "Actual {0} is not false", actual);
+			failWith(bound, msg, "Actual {0} is not false", actual);
 		}
 	}
 
@@ -346,8 +380,12 @@ public class Assert {
 	 * @since 0.3.0
 	 */
 	public static void assertNull(final Object actual, final String msg) {
+		assertNull(null, actual, msg);
+	}
+
+	/* package */ static void assertNull(final ExpectContext bound, final Object actual, final String msg) {
 		if (actual != null) {
-			fail(msg, "Actual [{0}] should be null", actual);
+			failWith(bound, msg, "Actual [{0}] should be null", actual);
 		}
 	}
 
@@ -374,8 +412,12 @@ public class Assert {
 	 * @since 0.3.0
 	 */
 	public static void assertNotNull(final Object actual, final String msg) {
+		assertNotNull(null, actual, msg);
+	}
+
+	/* package */ static void assertNotNull(final ExpectContext bound, final Object actual, final String msg) {
 		if (actual == null) {
-			fail(msg, "Actual should be not null");
+			failWith(bound, msg, "Actual should be not null");
 		}
 	}
 
@@ -0,0 +1,186 @@
+package de.tobiasroeser.lambdatest;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Locale;
+
+import de.tobiasroeser.lambdatest.internal.Statistics;
+
+/**
+ * The statistics of a benchmark.
+ *
+ * A benchmark measures its iterations in samples. Each sample is the average
+ * time per operation of a batch of consecutive operations, so the overhead and
+ * the granularity of the clock are negligible even for very short operations.
+ * All times are in nanoseconds per operation.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class BenchmarkResult implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The confidence level of the confidence interval of the mean.
+	 */
+	public static final double CONFIDENCE_LEVEL = 0.99;
+
+	private final int samples;
+	private final long operationsPerSample;
+	private final double mean;
+	private final double standardDeviation;
+	private final double min;
+	private final double max;
+	private final double p50;
+	private final double p90;
+	private final double p99;
+
+	/**
+	 * Computes the statistics of the given samples.
+	 *
+	 * @param samples
+	 *            The time per operation of each sample in nanoseconds.
+	 * @param operationsPerSample
+	 *            The number of operations measured per sample.
+	 */
+	public static BenchmarkResult of(final double[] samples, final long operationsPerSample) {
+		if (samples.length == 0) {
+			throw new IllegalArgumentException("At least one sample is required");
+		}
+		final double[] sorted = samples.clone();
+		Arrays.sort(sorted);
+		double sum = 0;
+		for (final double sample : sorted) {
+			sum += sample;
+		}
+		final double mean = sum / sorted.length;
+		double squares = 0;
+		for (final double sample : sorted) {
+			squares += (sample - mean) * (sample - mean);
+		}
+		final double standardDeviation = sorted.length > 1 ? Math.sqrt(squares / (sorted.length - 1)) : 0;
+		return new BenchmarkResult(sorted.length, operationsPerSample, mean, standardDeviation, sorted[0],
+				sorted[sorted.length - 1], percentile(sorted, 0.5), percentile(sorted, 0.9),
+				percentile(sorted, 0.99));
+	}
+
+	/**
+	 * The percentile of the sorted values (nearest rank).
+	 */
+	private static double percentile(final double[] sorted, final double p) {
+		final int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	public BenchmarkResult(final int samples, final long operationsPerSample, final double mean,
+			final double standardDeviation, final double min, final double max, final double p50, final double p90,
+			final double p99) {
+		this.samples = samples;
+		this.operationsPerSample = operationsPerSample;
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+		this.min = min;
+		this.max = max;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+	}
+
+	/**
+	 * The number of samples.
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * The number of operations measured per sample.
+	 */
+	public long getOperationsPerSample() {
+		return operationsPerSample;
+	}
+
+	/**
+	 * The mean time per operation in nanoseconds.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * The sample standard deviation of the time per operation in nanoseconds.
+	 */
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * The median time per operation in nanoseconds.
+	 */
+	public double getP50() {
+		return p50;
+	}
+
+	public double getP90() {
+		return p90;
+	}
+
+	public double getP99() {
+		return p99;
+	}
+
+	/**
+	 * The half width of the confidence interval of the mean (see
+	 * {@link #CONFIDENCE_LEVEL}) in nanoseconds, or `NaN` for a single sample.
+	 */
+	public double getConfidenceIntervalHalfWidth() {
+		if (samples < 2) {
+			return Double.NaN;
+		}
+		return Statistics.tCriticalValue99(samples - 1) * standardDeviation / Math.sqrt(samples);
+	}
+
+	public double getConfidenceIntervalLower() {
+		return mean - getConfidenceIntervalHalfWidth();
+	}
+
+	public double getConfidenceIntervalUpper() {
+		return mean + getConfidenceIntervalHalfWidth();
+	}
+
+	/**
+	 * Formats a time per operation, which might be fractional.
+	 */
+	public static String formatNanos(final double nanos) {
+		if (Double.isNaN(nanos)) {
+			return "n/a";
+		} else if (nanos < 1000.0) {
+			return String.format(Locale.ROOT, "%.2f ns", nanos);
+		} else if (nanos < 1000000.0) {
+			return String.format(Locale.ROOT, "%.2f us", nanos / 1000.0);
+		} else if (nanos < 1000000000.0) {
+			return String.format(Locale.ROOT, "%.2f ms", nanos / 1000000.0);
+		} else {
+			return String.format(Locale.ROOT, "%.3f s", nanos / 1000000000.0);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return formatNanos(mean) + "/op +/- " + formatNanos(getConfidenceIntervalHalfWidth()) + " ("
+				+ Math.round(CONFIDENCE_LEVEL * 100) + "% CI), p50: " + formatNanos(p50) + ", p90: "
+				+ formatNanos(p90) + ", p99: " + formatNanos(p99) + ", min: " + formatNanos(min) + ", max: "
+				+ formatNanos(max) + ", " + samples + " samples of " + operationsPerSample + " ops";
+	}
+
+}
@@ -0,0 +1,42 @@
+package de.tobiasroeser.lambdatest;
+
+/**
+ * The output a failed test case wrote to `System.out` and `System.err`, when
+ * output capturing is enabled.
+ *
+ * It is attached as suppressed exception to the error of the failed test
+ * case, so it is part of the stack trace shown by the reporters and the
+ * underlying test framework. It has no stack trace of its own.
+ *
+ * @since 0.9.0
+ */
+public class CapturedOutput extends Throwable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String output;
+	private final long truncatedBytes;
+
+	public CapturedOutput(final String testName, final String output, final long truncatedBytes) {
+		super("Output of test \"" + testName + "\""
+				+ (truncatedBytes > 0 ? " (first " + truncatedBytes + " bytes truncated)" : "") + ":\n" + output,
+				null, false, false);
+		this.output = output;
+		this.truncatedBytes = truncatedBytes;
+	}
+
+	/**
+	 * The captured output, or its tail if it was truncated.
+	 */
+	public String getOutput() {
+		return output;
+	}
+
+	/**
+	 * The number of bytes truncated from the start of the output.
+	 */
+	public long getTruncatedBytes() {
+		return truncatedBytes;
+	}
+
+}
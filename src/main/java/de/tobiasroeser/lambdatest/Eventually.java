@@ -0,0 +1,390 @@
+package de.tobiasroeser.lambdatest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.tobiasroeser.lambdatest.internal.Scheduler;
+
+/**
+ * Expectations, which need to hold eventually, e.g. after an asynchronous
+ * pipeline processed some input.
+ *
+ * The given block is checked repeatedly, until it completes without an
+ * exception or the timeout expires. Expectations inside the block always fail
+ * fast, so a failed attempt ends at the first failed expectation. Between
+ * attempts, the delay grows exponentially as defined by the
+ * {@link PollPolicy}. A {@link WakeUp} can trigger the next attempt early,
+ * e.g. when the checked state changed.
+ *
+ * If the block does not succeed in time, the expectation fails with an
+ * {@link AssertionError} reporting the number of attempts, with the last
+ * failure as cause.
+ *
+ * [source,java]
+ * ----
+ * queue.submit(job);
+ * expectEventually(Duration.ofSeconds(5), () -> expectEquals(job.getState(), State.DONE));
+ * ----
+ *
+ * @since 0.9.0
+ */
+public class Eventually {
+
+	/**
+	 * Expect that the given block succeeds within the given timeout, checking
+	 * it with the default {@link PollPolicy}.
+	 *
+	 * @see #expectEventually(Duration, PollPolicy, RunnableWithException)
+	 */
+	public static void expectEventually(final Duration timeout, final RunnableWithException block)
+			throws InterruptedException {
+		expectEventually(timeout, PollPolicy.DEFAULT, block);
+	}
+
+	/**
+	 * Expect that the given block succeeds within the given timeout.
+	 *
+	 * The block is checked in the current thread, which waits between the
+	 * attempts. If the block does not succeed in time, the failure is handled
+	 * like any failed expectation, so it is collected, if expectations don't
+	 * fail fast.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for the block to succeed.
+	 * @param pollPolicy
+	 *            The delays between the attempts.
+	 * @param block
+	 *            The block to check. It fails with an exception, e.g. a failed
+	 *            expectation, as long as the expected state is not reached.
+	 * @throws InterruptedException
+	 *             If the current thread was interrupted while waiting.
+	 */
+	public static void expectEventually(final Duration timeout, final PollPolicy pollPolicy,
+			final RunnableWithException block) throws InterruptedException {
+		ExpectContext.countExpectation();
+		final long deadline = System.nanoTime() + timeout.toNanos();
+		final WakeUp wakeUp = pollPolicy.getWakeUp();
+		long delayNanos = pollPolicy.getInitialDelay().toNanos();
+		int attempts = 0;
+		Throwable lastFailure;
+		while (true) {
+			++attempts;
+			final long signals = wakeUp == null ? 0 : wakeUp.signals();
+			lastFailure = attempt(block);
+			if (lastFailure == null) {
+				return;
+			}
+			final long remainingNanos = deadline - System.nanoTime();
+			if (remainingNanos <= 0) {
+				break;
+			}
+			final long waitNanos = Math.min(delayNanos, remainingNanos);
+			if (wakeUp == null) {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			} else {
+				wakeUp.await(signals, waitNanos);
+			}
+			delayNanos = pollPolicy.nextDelayNanos(delayNanos);
+		}
+		ExpectContext.handleAssertionError(failure(timeout, attempts, lastFailure));
+	}
+
+	/**
+	 * Expect that the given block succeeds within the given timeout, checking
+	 * it with the default {@link PollPolicy} without blocking the current
+	 * thread.
+	 *
+	 * @see #expectEventuallyAsync(Duration, PollPolicy, RunnableWithException)
+	 */
+	public static CompletionStage<Void> expectEventuallyAsync(final Duration timeout,
+			final RunnableWithException block) {
+		return expectEventuallyAsync(timeout, PollPolicy.DEFAULT, block);
+	}
+
+	/**
+	 * Expect that the given block succeeds within the given timeout, without
+	 * blocking the current thread.
+	 *
+	 * The attempts run on a single thread shared by all asynchronous
+	 * expectations, so no thread is blocked while waiting. Hence, the block
+	 * must be quick and must not block. The returned stage completes normally,
+	 * when the block succeeded, and exceptionally with an
+	 * {@link AssertionError}, if it did not succeed in time. Use it e.g. as
+	 * the result of an asynchronous test case.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for the block to succeed.
+	 * @param pollPolicy
+	 *            The delays between the attempts.
+	 * @param block
+	 *            The block to check. It fails with an exception, e.g. a failed
+	 *            expectation, as long as the expected state is not reached.
+	 */
+	public static CompletionStage<Void> expectEventuallyAsync(final Duration timeout, final PollPolicy pollPolicy,
+			final RunnableWithException block) {
+		final AsyncPoll poll = new AsyncPoll(timeout, pollPolicy, block);
+		poll.schedule(0);
+		return poll.result;
+	}
+
+	/**
+	 * Runs the given block once with fail-fast expectations.
+	 *
+	 * @return The failure of the block, or `null`, if it succeeded.
+	 */
+	private static Throwable attempt(final RunnableWithException block) {
+		// no expect context means fail fast
+		final ExpectContext outer = ExpectContext.swapThreadContext(null);
+		try {
+			block.run();
+			return null;
+		} catch (final AssertionError | Exception e) {
+			return e;
+		} finally {
+			ExpectContext.swapThreadContext(outer);
+		}
+	}
+
+	private static AssertionError failure(final Duration timeout, final int attempts, final Throwable lastFailure) {
+		return new AssertionError("Expectation did not hold within " + timeout.toMillis() + " ms after " + attempts
+				+ (attempts == 1 ? " attempt" : " attempts") + ". Last failure: " + lastFailure, lastFailure);
+	}
+
+	/**
+	 * The attempts of an asynchronous expectation. Attempts never run
+	 * concurrently, as each is triggered exactly once, either by its timer or
+	 * by a wake-up.
+	 */
+	private static class AsyncPoll {
+		private final Duration timeout;
+		private final PollPolicy pollPolicy;
+		private final RunnableWithException block;
+		private final long deadline;
+		private final CompletableFuture<Void> result = new CompletableFuture<>();
+		private long delayNanos;
+		private int attempts;
+
+		AsyncPoll(final Duration timeout, final PollPolicy pollPolicy, final RunnableWithException block) {
+			this.timeout = timeout;
+			this.pollPolicy = pollPolicy;
+			this.block = block;
+			this.deadline = System.nanoTime() + timeout.toNanos();
+			this.delayNanos = pollPolicy.getInitialDelay().toNanos();
+		}
+
+		void schedule(final long delayNanos) {
+			final AtomicBoolean fired = new AtomicBoolean();
+			final WakeUp wakeUp = pollPolicy.getWakeUp();
+			final Runnable[] onSignal = new Runnable[1];
+			final Runnable attempt = () -> {
+				if (fired.compareAndSet(false, true)) {
+					if (wakeUp != null) {
+						wakeUp.removeListener(onSignal[0]);
+					}
+					poll();
+				}
+			};
+			final ScheduledFuture<?> timer = Scheduler.getInstance().schedule(attempt,
+					TimeUnit.NANOSECONDS.toMillis(delayNanos));
+			if (wakeUp != null && delayNanos > 0) {
+				onSignal[0] = () -> {
+					timer.cancel(false);
+					Scheduler.getInstance().schedule(attempt, 0);
+				};
+				wakeUp.addListener(onSignal[0]);
+			}
+		}
+
+		private void poll() {
+			if (result.isDone()) {
+				return;
+			}
+			try {
+				++attempts;
+				final WakeUp wakeUp = pollPolicy.getWakeUp();
+				final long signals = wakeUp == null ? 0 : wakeUp.signals();
+				final Throwable failure = attempt(block);
+				if (failure == null) {
+					result.complete(null);
+					return;
+				}
+				final long remainingNanos = deadline - System.nanoTime();
+				if (remainingNanos <= 0) {
+					result.completeExceptionally(failure(timeout, attempts, failure));
+					return;
+				}
+				final long waitNanos = Math.min(delayNanos, remainingNanos);
+				delayNanos = pollPolicy.nextDelayNanos(delayNanos);
+				// don't miss a wake-up signalled during the attempt
+				schedule(wakeUp != null && wakeUp.signals() != signals ? 0 : waitNanos);
+			} catch (final Throwable t) {
+				// e.g. a StackOverflowError of the block, which the scheduler would swallow
+				result.completeExceptionally(t);
+			}
+		}
+	}
+
+	/**
+	 * Defines the delays between the attempts of an eventually-expectation.
+	 *
+	 * The first delay is the initial delay, each following delay is the
+	 * previous one multiplied by the factor, but not longer than the maximum
+	 * delay. By default, the delay starts with 10 ms and doubles up to 1 s.
+	 *
+	 * This class is immutable and thus thread-safe.
+	 *
+	 * @since 0.9.0
+	 */
+	public static class PollPolicy {
+
+		public static final PollPolicy DEFAULT = new PollPolicy(Duration.ofMillis(10), 2.0, Duration.ofSeconds(1),
+				null);
+
+		private final Duration initialDelay;
+		private final double factor;
+		private final Duration maxDelay;
+		private final WakeUp wakeUp;
+
+		private PollPolicy(final Duration initialDelay, final double factor, final Duration maxDelay,
+				final WakeUp wakeUp) {
+			this.initialDelay = initialDelay;
+			this.factor = factor;
+			this.maxDelay = maxDelay;
+			this.wakeUp = wakeUp;
+		}
+
+		public Duration getInitialDelay() {
+			return initialDelay;
+		}
+
+		public double getFactor() {
+			return factor;
+		}
+
+		public Duration getMaxDelay() {
+			return maxDelay;
+		}
+
+		/**
+		 * The wake-up to trigger the next attempt early, or `null`.
+		 */
+		public WakeUp getWakeUp() {
+			return wakeUp;
+		}
+
+		public PollPolicy withInitialDelay(final Duration initialDelay) {
+			if (initialDelay.isNegative()) {
+				throw new IllegalArgumentException("The initial delay must not be negative");
+			}
+			return new PollPolicy(initialDelay, factor, maxDelay, wakeUp);
+		}
+
+		public PollPolicy withFactor(final double factor) {
+			if (factor < 1.0) {
+				throw new IllegalArgumentException("The factor must be at least 1");
+			}
+			return new PollPolicy(initialDelay, factor, maxDelay, wakeUp);
+		}
+
+		public PollPolicy withMaxDelay(final Duration maxDelay) {
+			if (maxDelay.isNegative()) {
+				throw new IllegalArgumentException("The maximum delay must not be negative");
+			}
+			return new PollPolicy(initialDelay, factor, maxDelay, wakeUp);
+		}
+
+		/**
+		 * Use the given wake-up to trigger the next attempt early.
+		 *
+		 * @param wakeUp
+		 *            The wake-up or `null`.
+		 */
+		public PollPolicy withWakeUp(final WakeUp wakeUp) {
+			return new PollPolicy(initialDelay, factor, maxDelay, wakeUp);
+		}
+
+		/* package */ long nextDelayNanos(final long delayNanos) {
+			return (long) Math.min(delayNanos * factor, maxDelay.toNanos());
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "(initialDelay=" + initialDelay + ",factor=" + factor + ",maxDelay="
+					+ maxDelay + ",wakeUp=" + wakeUp + ")";
+		}
+	}
+
+	/**
+	 * Triggers the next attempt of all eventually-expectations using it, which
+	 * are currently waiting, e.g. when the checked state changed.
+	 *
+	 * [source,java]
+	 * ----
+	 * final Eventually.WakeUp wakeUp = new Eventually.WakeUp();
+	 * pipeline.onOutput(event -> wakeUp.signal());
+	 * expectEventually(Duration.ofSeconds(5), Eventually.PollPolicy.DEFAULT.withWakeUp(wakeUp),
+	 *   () -> expectEquals(pipeline.getProcessedCount(), 100));
+	 * ----
+	 *
+	 * This class is thread-safe.
+	 *
+	 * @since 0.9.0
+	 */
+	public static class WakeUp {
+
+		/** All below is guarded by this. */
+		private long signals;
+		private final Set<Runnable> listeners = new LinkedHashSet<>();
+
+		/**
+		 * Triggers the next attempt of all waiting eventually-expectations.
+		 */
+		public void signal() {
+			final List<Runnable> toNotify;
+			synchronized (this) {
+				++signals;
+				notifyAll();
+				toNotify = new ArrayList<>(listeners);
+				listeners.clear();
+			}
+			for (final Runnable listener : toNotify) {
+				listener.run();
+			}
+		}
+
+		/* package */ synchronized long signals() {
+			return signals;
+		}
+
+		/**
+		 * Waits, until a signal was sent after the given number of signals, or
+		 * the timeout expired.
+		 */
+		/* package */ synchronized void await(final long signalsBefore, final long timeoutNanos)
+				throws InterruptedException {
+			final long deadline = System.nanoTime() + timeoutNanos;
+			long remainingNanos = timeoutNanos;
+			while (signals == signalsBefore && remainingNanos > 0) {
+				TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+				remainingNanos = deadline - System.nanoTime();
+			}
+		}
+
+		/* package */ synchronized void addListener(final Runnable listener) {
+			listeners.add(listener);
+		}
+
+		/* package */ synchronized void removeListener(final Runnable listener) {
+			listeners.remove(listener);
+		}
+	}
+
+}
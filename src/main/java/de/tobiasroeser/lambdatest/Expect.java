@@ -1,8 +1,14 @@
 package de.tobiasroeser.lambdatest;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.Map;
 
+import de.tobiasroeser.lambdatest.internal.AllocationMeter;
+import de.tobiasroeser.lambdatest.internal.GarbageCollection;
+import de.tobiasroeser.lambdatest.internal.ObjectGraph;
+
 /**
  * Various assertion methods plus the ability to disable default fail-fast
  * behavior to collect as much assertion errors as possible.
@@ -12,6 +18,28 @@ import java.util.Map;
  */
 public class Expect {
 
+	/**
+	 * The default number of unmeasured invocations of allocation checks.
+	 *
+	 * @see #expectAllocatesAtMost(long, RunnableWithException)
+	 */
+	public static final int DEFAULT_ALLOCATION_WARMUP = 10000;
+
+	/**
+	 * The default number of measured invocations of allocation checks.
+	 *
+	 * @see #expectAllocatesAtMost(long, RunnableWithException)
+	 */
+	public static final int DEFAULT_ALLOCATION_ITERATIONS = 10000;
+
+	/**
+	 * The maximal number of garbage collections requested by collectability
+	 * checks.
+	 *
+	 * @see #expectCollectable(F0)
+	 */
+	public static final int DEFAULT_GC_ATTEMPTS = 10;
+
 	/**
 	 * Expect that the given actual value is `null`.
 	 * 
@@ -24,6 +52,7 @@ public class Expect {
 	 * @since 0.3.0
 	 */
 	public static void expectNull(final Object actual, final String msg) {
+		ExpectContext.countExpectation();
 		try {
 			Assert.assertNull(actual, msg);
 		} catch (final AssertionError e) {
@@ -55,6 +84,7 @@ public class Expect {
 	 * @since 0.3.0
 	 */
 	public static void expectNotNull(final Object actual, final String msg) {
+		ExpectContext.countExpectation();
 		try {
 			Assert.assertNotNull(actual, msg);
 		} catch (final AssertionError e) {
@@ -85,6 +115,7 @@ public class Expect {
 	 *            An additional message to output if the expectation failed.
 	 */
 	public static void expectEquals(final Object actual, final Object expected, final String msg) {
+		ExpectContext.countExpectation();
 		try {
 			Assert.assertEquals(actual, expected, msg);
 		} catch (final AssertionError e) {
@@ -108,6 +139,7 @@ public class Expect {
 	}
 
 	public static void expectNotEquals(final Object actual, final Object expected, final String msg) {
+		ExpectContext.countExpectation();
 		try {
 			Assert.assertNotEquals(actual, expected, msg);
 		} catch (final AssertionError e) {
@@ -128,6 +160,7 @@ public class Expect {
 	}
 
 	public static void expectTrue(final boolean actual, final String msg) {
+		ExpectContext.countExpectation();
 		try {
 			Assert.assertTrue(actual, msg);
 		} catch (final AssertionError e) {
@@ -154,6 +187,7 @@ public class Expect {
 	 *            An additional message to output if the expectation failed.
 	 */
 	public static void expectFalse(final boolean actual, final String msg) {
+		ExpectContext.countExpectation();
 		try {
 			Assert.assertFalse(actual, msg);
 		} catch (final AssertionError e) {
@@ -225,6 +259,175 @@ public class Expect {
 		return ExpectMap.expectMap(actual);
 	}
 
+	/**
+	 * Expect that the given block succeeds within the given timeout. The block
+	 * is checked repeatedly, with exponentially growing delays in between.
+	 *
+	 * @see Eventually#expectEventually(Duration, RunnableWithException)
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for the block to succeed.
+	 * @param block
+	 *            The block to check.
+	 * @since 0.9.0
+	 */
+	public static void expectEventually(final Duration timeout, final RunnableWithException block)
+			throws InterruptedException {
+		Eventually.expectEventually(timeout, block);
+	}
+
+	/**
+	 * Expect that the given block succeeds within the given timeout. The block
+	 * is checked repeatedly, with delays defined by the given poll policy.
+	 *
+	 * @see Eventually#expectEventually(Duration, Eventually.PollPolicy,
+	 *      RunnableWithException)
+	 *
+	 * @param timeout
+	 *            The maximum time to wait for the block to succeed.
+	 * @param pollPolicy
+	 *            The delays between the attempts.
+	 * @param block
+	 *            The block to check.
+	 * @since 0.9.0
+	 */
+	public static void expectEventually(final Duration timeout, final Eventually.PollPolicy pollPolicy,
+			final RunnableWithException block) throws InterruptedException {
+		Eventually.expectEventually(timeout, pollPolicy, block);
+	}
+
+	/**
+	 * Expect that the given block allocates at most the given number of bytes
+	 * per invocation on average, measured with the per-thread allocation
+	 * counter of the JVM.
+	 *
+	 * The block is invoked {@value #DEFAULT_ALLOCATION_WARMUP} times first, so
+	 * the JIT compiler can optimize it (e.g. eliminate allocations by escape
+	 * analysis), and then {@value #DEFAULT_ALLOCATION_ITERATIONS} times measured.
+	 * Allocations of other threads are not measured. Fractions of a byte per
+	 * invocation, e.g. of one-off lazy initialization, are tolerated.
+	 *
+	 * @param bytes
+	 *            The maximal number of bytes allocated per invocation.
+	 * @param block
+	 *            The block to measure.
+	 * @throws UnsupportedOperationException
+	 *             If the JVM does not support measuring allocated bytes.
+	 * @throws Exception
+	 *             The first exception thrown by the block.
+	 * @since 0.9.0
+	 */
+	public static void expectAllocatesAtMost(final long bytes, final RunnableWithException block)
+			throws Exception {
+		expectAllocatesAtMost(bytes, DEFAULT_ALLOCATION_WARMUP, DEFAULT_ALLOCATION_ITERATIONS, block);
+	}
+
+	/**
+	 * Expect that the given block allocates at most the given number of bytes
+	 * per invocation on average.
+	 *
+	 * @see #expectAllocatesAtMost(long, RunnableWithException)
+	 *
+	 * @param bytes
+	 *            The maximal number of bytes allocated per invocation.
+	 * @param warmup
+	 *            The number of unmeasured invocations.
+	 * @param iterations
+	 *            The number of measured invocations.
+	 * @param block
+	 *            The block to measure.
+	 * @since 0.9.0
+	 */
+	public static void expectAllocatesAtMost(final long bytes, final int warmup, final int iterations,
+			final RunnableWithException block) throws Exception {
+		ExpectContext.countExpectation();
+		final long allocated = AllocationMeter.measure(warmup, iterations, block);
+		if (allocated / iterations > bytes) {
+			try {
+				Assert.fail(null,
+						"Expected at most {0} bytes allocated per invocation, but allocated {1} bytes per invocation ({2} bytes in {3} invocations after {4} warmup invocations)",
+						String.valueOf(bytes), String.format(Locale.ROOT, "%.1f", (double) allocated / iterations),
+						String.valueOf(allocated), String.valueOf(iterations), String.valueOf(warmup));
+			} catch (final AssertionError e) {
+				ExpectContext.handleAssertionError(e);
+			}
+		}
+	}
+
+	/**
+	 * Expect that the given block does not allocate, after the JIT compiler
+	 * optimized it.
+	 *
+	 * @see #expectAllocatesAtMost(long, RunnableWithException)
+	 *
+	 * @param block
+	 *            The block to measure.
+	 * @since 0.9.0
+	 */
+	public static void expectNoAllocation(final RunnableWithException block) throws Exception {
+		expectAllocatesAtMost(0, block);
+	}
+
+	/**
+	 * Expect that the object created by the given supplier can be garbage
+	 * collected after the supplier returned, e.g. to check that it is not
+	 * leaked by a cache or a listener registration done in the supplier.
+	 *
+	 * Only a weak reference to the object is kept. Garbage collections are
+	 * requested up to {@value #DEFAULT_GC_ATTEMPTS} times, waiting a bit
+	 * longer after each request, so a failure takes a few seconds.
+	 *
+	 * @param supplier
+	 *            Creates the object to check. Must not return `null`.
+	 * @throws InterruptedException
+	 *             If the current thread was interrupted while waiting for the
+	 *             garbage collector.
+	 * @since 0.9.0
+	 */
+	public static void expectCollectable(final F0<?> supplier) throws InterruptedException {
+		ExpectContext.countExpectation();
+		final GarbageCollection.Watched watched = GarbageCollection.watch(supplier);
+		if (!GarbageCollection.awaitCollected(watched, DEFAULT_GC_ATTEMPTS)) {
+			try {
+				Assert.fail(null, "Expected object of type {0} to be collectable, but it was still reachable after {1} garbage collection requests",
+						watched.getType(), String.valueOf(DEFAULT_GC_ATTEMPTS));
+			} catch (final AssertionError e) {
+				ExpectContext.handleAssertionError(e);
+			}
+		}
+	}
+
+	/**
+	 * Expect that the objects reachable from the given object occupy at most
+	 * the given number of bytes on the heap, e.g. to check that a cache does
+	 * not retain more than intended.
+	 *
+	 * The size is estimated by walking the object graph reflectively.
+	 * Objects shared with other parts of the application are included,
+	 * while classes, static fields and the referents of weak and soft
+	 * references are not. On failure, the classes with the most bytes are
+	 * listed.
+	 *
+	 * @param object
+	 *            The root of the object graph to measure.
+	 * @param bytes
+	 *            The maximal number of bytes.
+	 * @since 0.9.0
+	 */
+	public static void expectRetainedSizeAtMost(final Object object, final long bytes) {
+		ExpectContext.countExpectation();
+		final ObjectGraph.Footprint footprint = ObjectGraph.measure(object);
+		if (footprint.getBytes() > bytes) {
+			try {
+				Assert.fail(null, "Expected at most {0} bytes retained, but {1} objects retained {2} bytes, most by:\n{3}",
+						String.valueOf(bytes), String.valueOf(footprint.getObjects()),
+						String.valueOf(footprint.getBytes()), footprint.describeLargestClasses(5));
+			} catch (final AssertionError e) {
+				ExpectContext.handleAssertionError(e);
+			}
+		}
+	}
+
 	public static <T extends Throwable> T intercept(final Class<T> exceptionType,
 			final RunnableWithException throwing) throws Exception {
 		return intercept(exceptionType, ".*", throwing);
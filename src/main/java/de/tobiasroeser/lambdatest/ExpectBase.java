@@ -2,12 +2,31 @@ package de.tobiasroeser.lambdatest;
 
 class ExpectBase<T extends ExpectBase<T>> {
 
+	/**
+	 * The context to report failed expectations to, or `null` to use the
+	 * context of the current thread.
+	 */
+	private final ExpectContext context;
+
+	ExpectBase() {
+		this(null);
+	}
+
+	ExpectBase(final ExpectContext context) {
+		this.context = context;
+	}
+
+	/* package */ ExpectContext context() {
+		return context;
+	}
+
 	protected T check(final boolean cond, final String msg, final Object... args) {
+		ExpectContext.countExpectation(context);
 		if (!cond) {
 			try {
-				Assert.fail(null, msg, args);
+				Assert.failWith(context, null, msg, args);
 			} catch (final AssertionError e) {
-				ExpectContext.handleAssertionError(e);
+				ExpectContext.handleAssertionError(context, e);
 			}
 		}
 		@SuppressWarnings("unchecked")
@@ -15,4 +34,28 @@ class ExpectBase<T extends ExpectBase<T>> {
 		return t;
 	}
 
+	protected T checkEquals(final Object actual, final Object expected) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertEquals(context, actual, expected, null);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+		@SuppressWarnings("unchecked")
+		final T t = (T) this;
+		return t;
+	}
+
+	protected T checkNotEquals(final Object actual, final Object expected) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertNotEquals(context, actual, expected, null);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+		@SuppressWarnings("unchecked")
+		final T t = (T) this;
+		return t;
+	}
+
 }
@@ -42,6 +42,11 @@ public class ExpectCollection<T> extends ExpectBase<ExpectCollection<T>> {
 	 *            The Collection to check.
 	 */
 	public ExpectCollection(final Collection<T> actual) {
+		this(actual, null);
+	}
+
+	/* package */ ExpectCollection(final Collection<T> actual, final ExpectContext context) {
+		super(context);
 		check(actual != null, "Actual is not a Collection but null.");
 		this.actual = actual;
 	}
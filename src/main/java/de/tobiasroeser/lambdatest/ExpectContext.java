@@ -1,45 +1,104 @@
 package de.tobiasroeser.lambdatest;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
-import de.tobiasroeser.lambdatest.internal.Util;
+import de.tobiasroeser.lambdatest.internal.CallSite;
+import de.tobiasroeser.lambdatest.internal.JfrEvent;
 
 public class ExpectContext {
 
 	private static ThreadLocal<ExpectContext> threadContext = new ThreadLocal<ExpectContext>();
 
+	private static final ThreadLocal<long[]> expectationCount = ThreadLocal.withInitial(() -> new long[1]);
+
+	/** The number of active users of the expectation count, see {@link #startCountingExpectations()}. */
+	private static final AtomicInteger expectationCounters = new AtomicInteger();
+
 	/* package */ static ExpectContext threadContext() {
 		return threadContext.get();
 	}
 
+	/**
+	 * Replaces the expect context of the current thread.
+	 *
+	 * @param context
+	 *            The new context, or `null` to run without context.
+	 * @return The replaced context, to be restored afterwards.
+	 * @since 0.9.0
+	 */
+	public static ExpectContext swapThreadContext(final ExpectContext context) {
+		final ExpectContext previous = threadContext.get();
+		threadContext.set(context);
+		return previous;
+	}
+
+	/**
+	 * Runs the given code with the given expect context, e.g. to run a test
+	 * case in another thread than the one which set up its context. While the
+	 * code runs, the current thread owns the context, and the expectations it
+	 * checks are counted for the thread finishing the context.
+	 *
+	 * @param context
+	 *            The context, or `null` to run without context.
+	 * @param code
+	 *            The code to run.
+	 * @since 0.9.0
+	 */
+	public static void runWith(final ExpectContext context, final RunnableWithException code) throws Exception {
+		final ExpectContext previous = swapThreadContext(context);
+		final Thread previousOwner = context == null ? null : context.owner;
+		final long countAtStart = expectationCount.get()[0];
+		if (context != null) {
+			context.owner = Thread.currentThread();
+		}
+		try {
+			code.run();
+		} finally {
+			if (context != null) {
+				context.owner = previousOwner;
+				context.boundExpectationCount.add(expectationCount.get()[0] - countAtStart);
+			}
+			swapThreadContext(previous);
+		}
+	}
+
 	public static void setup(final boolean failEarly) {
+		setup(failEarly, CollectionPolicy.DEFAULT);
+	}
+
+	/**
+	 * Sets up the expect context of the current thread.
+	 *
+	 * @param failEarly
+	 *            If `true`, the first failed expectation throws.
+	 * @param policy
+	 *            How failed expectations are collected, if not failing early.
+	 * @since 0.9.0
+	 */
+	public static void setup(final boolean failEarly, final CollectionPolicy policy) {
 		if (threadContext.get() != null) {
 			System.out.println("Warning: Overriding already setup expect context");
 		}
-		threadContext.set(new ExpectContext(failEarly));
+		threadContext.set(new ExpectContext(failEarly, policy));
 	}
 
 	public static void finish() {
 		final ExpectContext context = threadContext.get();
 		threadContext.set(null);
 		if (context != null) {
+			expectationCount.get()[0] += context.boundExpectationCount.sum();
 			final List<AssertionError> errors = context.getErrors();
 			if (errors.isEmpty()) {
 				return;
-			} else if (errors.size() == 1) {
+			} else if (errors.size() == 1 && context.getFailedCount() == 1) {
 				throw errors.get(0);
 			} else {
-				// TODO: create a multi-Exception
-				final List<String> formatted = Util.map(errors, error -> {
-					final String msg = error.getClass().getName() + ": " + error.getMessage() + "\n\tat " +
-							Util.mkString(error.getStackTrace(), "\n\tat ");
-					return msg;
-				});
-
-				throw new AssertionError("" + errors.size()
-						+ " expectations failed\n--------------------------------------------------\n" +
-						Util.mkString(formatted, "\n\n") + "\n--------------------------------------------------");
+				throw new MultipleFailuresError(errors, context.getFailedCount());
 			}
 		}
 	}
@@ -48,34 +107,355 @@ public class ExpectContext {
 		threadContext.set(null);
 	}
 
+	/**
+	 * The total number of expectations checked by the current thread so far,
+	 * regardless of their outcome. The difference of the counts before and
+	 * after a test gives the number of expectations checked by that test.
+	 *
+	 * Expectations are only counted while counting is started, see
+	 * {@link #startCountingExpectations()}.
+	 *
+	 * @since 0.9.0
+	 */
+	public static long getExpectationCount() {
+		return expectationCount.get()[0];
+	}
+
+	/**
+	 * Starts counting expectations, e.g. when a test starts, whose
+	 * expectations should be counted. Each call must be followed by a call of
+	 * {@link #stopCountingExpectations()}. Without any started counting,
+	 * checking an expectation does not access the thread-local count.
+	 *
+	 * @since 0.9.0
+	 */
+	public static void startCountingExpectations() {
+		expectationCounters.incrementAndGet();
+	}
+
+	/**
+	 * Stops counting expectations started by
+	 * {@link #startCountingExpectations()}.
+	 *
+	 * @since 0.9.0
+	 */
+	public static void stopCountingExpectations() {
+		expectationCounters.decrementAndGet();
+	}
+
+	/* package */ static void countExpectation() {
+		if (expectationCounters.get() > 0) {
+			++expectationCount.get()[0];
+		}
+	}
+
+	/**
+	 * Counts an expectation for the given bound context, or for the current
+	 * thread, if `null`.
+	 */
+	/* package */ static void countExpectation(final ExpectContext bound) {
+		if (bound == null) {
+			countExpectation();
+		} else if (expectationCounters.get() > 0) {
+			bound.boundExpectationCount.increment();
+		}
+	}
+
+	/**
+	 * The expectations bound to the expect context of the current thread.
+	 *
+	 * Other than the static methods of {@link Expect}, they can also be used
+	 * from other threads.
+	 *
+	 * @throws IllegalStateException
+	 *             If no expect context is set up for the current thread.
+	 * @since 0.9.0
+	 */
+	public static Expectations expectations() {
+		final ExpectContext context = threadContext.get();
+		if (context == null) {
+			throw new IllegalStateException("No expect context set up for the current thread");
+		}
+		return context.expectations;
+	}
+
+	/**
+	 * Creates the error for a failed expectation with the given message for
+	 * the given bound context, or for the context of the current thread, if
+	 * `null`.
+	 *
+	 * Without a collecting expect context, or if its policy collects complete
+	 * stack traces, this is a plain {@link AssertionError}. Otherwise, the
+	 * stack trace is not filled in, but contains only the call site, or
+	 * nothing at all, if the error will not be collected anyway.
+	 */
+	/* package */ static AssertionError newAssertionError(final ExpectContext bound, final String msg) {
+		final ExpectContext context = bound != null ? bound : threadContext.get();
+		if (context == null || context.getFailEarly()) {
+			return new AssertionError(msg);
+		}
+		final CollectionPolicy policy = context.getPolicy();
+		if (!context.willCollect(msg)) {
+			return new StacklessAssertionError(msg, NO_FRAMES);
+		} else if (policy.isCallSiteOnly()) {
+			final StackTraceElement callSite = CallSite.find();
+			return new StacklessAssertionError(msg,
+					callSite == null ? NO_FRAMES : new StackTraceElement[] { callSite });
+		} else {
+			return new AssertionError(msg);
+		}
+	}
+
 	/* package */ static void handleAssertionError(AssertionError e) {
 		final ExpectContext context = threadContext.get();
-		if (context != null && !context.getFailEarly()) {
+		final boolean collect = context != null && !context.getFailEarly();
+		JfrEvent.EXPECTATION_FAILED.emit(e.getMessage(), collect);
+		if (collect) {
 			context.addAssertionError(e);
 		} else {
 			throw e;
 		}
 	}
 
+	/**
+	 * Handles the error of a failed expectation for the given bound context,
+	 * or for the context of the current thread, if `null`.
+	 *
+	 * When failing fast, the error is thrown. If thrown in another thread than
+	 * the one owning the context, it is also collected, so the test fails,
+	 * even if the other thread swallows it.
+	 */
+	/* package */ static void handleAssertionError(final ExpectContext bound, final AssertionError e) {
+		if (bound == null) {
+			handleAssertionError(e);
+			return;
+		}
+		final boolean foreignThread = bound.owner != Thread.currentThread();
+		final boolean collect = !bound.getFailEarly() || foreignThread;
+		JfrEvent.EXPECTATION_FAILED.emit(e.getMessage(), collect);
+		if (collect) {
+			bound.addAssertionError(e);
+		}
+		if (bound.getFailEarly()) {
+			throw e;
+		}
+	}
+
+	private static final StackTraceElement[] NO_FRAMES = new StackTraceElement[0];
+
 	// END OF STATIC PART
 
 	private final boolean failEarly;
-	private final List<AssertionError> errors = new LinkedList<>();
+	private final CollectionPolicy policy;
+	private volatile Thread owner = Thread.currentThread();
+	private final Expectations expectations = new Expectations(this);
+	private final LongAdder boundExpectationCount = new LongAdder();
+	private final List<AssertionError> errors = new ArrayList<>();
+	/** The collected errors by message, if grouped. */
+	private final Map<String, Group> groups;
+	private long failedCount;
 
 	public ExpectContext(final boolean failEarly) {
+		this(failEarly, CollectionPolicy.DEFAULT);
+	}
+
+	/**
+	 * @since 0.9.0
+	 */
+	public ExpectContext(final boolean failEarly, final CollectionPolicy policy) {
 		this.failEarly = failEarly;
+		this.policy = policy;
+		this.groups = policy.isGroupByMessage() ? new HashMap<>() : null;
 	}
 
 	public boolean getFailEarly() {
 		return failEarly;
 	}
 
-	public void addAssertionError(final AssertionError error) {
-		errors.add(error);
+	/**
+	 * @since 0.9.0
+	 */
+	public CollectionPolicy getPolicy() {
+		return policy;
 	}
 
-	public List<AssertionError> getErrors() {
-		return errors;
+	/**
+	 * `true`, if an error with the given message would be collected as a new
+	 * error.
+	 */
+	private synchronized boolean willCollect(final String msg) {
+		return (groups == null || !groups.containsKey(msg)) && errors.size() < policy.getMaxErrors();
+	}
+
+	/**
+	 * Adds the given error according to the collection policy. It is dropped,
+	 * when the maximum number of errors is reached, or, when grouping by
+	 * message, only counted, if an error with the same message was already
+	 * collected.
+	 */
+	public synchronized void addAssertionError(final AssertionError error) {
+		++failedCount;
+		if (groups != null) {
+			final Group group = groups.get(error.getMessage());
+			if (group != null) {
+				++group.count;
+				return;
+			}
+		}
+		if (errors.size() < policy.getMaxErrors()) {
+			if (groups != null) {
+				groups.put(error.getMessage(), new Group(errors.size()));
+			}
+			errors.add(error);
+		}
+	}
+
+	/**
+	 * The collected errors. When grouping by message, errors, which occurred
+	 * multiple times, are replaced by an error with the number of occurrences
+	 * appended to the message.
+	 */
+	public synchronized List<AssertionError> getErrors() {
+		if (groups == null) {
+			return new ArrayList<>(errors);
+		}
+		final List<AssertionError> grouped = new ArrayList<>(errors);
+		for (final Group group : groups.values()) {
+			if (group.count > 1) {
+				final AssertionError first = errors.get(group.index);
+				final AssertionError repeated = new StacklessAssertionError(
+						first.getMessage() + " (failed " + group.count + " times)", first.getStackTrace());
+				grouped.set(group.index, repeated);
+			}
+		}
+		return grouped;
+	}
+
+	/**
+	 * The number of failed expectations, including those not collected.
+	 *
+	 * @since 0.9.0
+	 */
+	public synchronized long getFailedCount() {
+		return failedCount;
+	}
+
+	private static class Group {
+		final int index;
+		long count = 1;
+
+		Group(final int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * An {@link AssertionError}, which does not fill in its stack trace, but
+	 * has the given one. It is rendered like a plain {@link AssertionError}.
+	 */
+	private static class StacklessAssertionError extends AssertionError {
+		private static final long serialVersionUID = 1L;
+
+		StacklessAssertionError(final String msg, final StackTraceElement[] stackTrace) {
+			super(msg);
+			setStackTrace(stackTrace);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+
+		@Override
+		public String toString() {
+			final String msg = getLocalizedMessage();
+			return msg == null ? AssertionError.class.getName() : AssertionError.class.getName() + ": " + msg;
+		}
+	}
+
+	/**
+	 * Defines, how failed expectations are collected, when expectations don't
+	 * fail fast.
+	 *
+	 * By default, all errors are collected with their complete stack trace. For
+	 * tests, which check many values and might fail systematically (e.g. in a
+	 * loop over many rows), a policy with a limit, grouping and call sites only
+	 * keeps memory and time bounded:
+	 *
+	 * [source,java]
+	 * ----
+	 * setExpectCollectionPolicy(ExpectContext.CollectionPolicy.DEFAULT
+	 *   .withMaxErrors(100)
+	 *   .withGroupByMessage(true)
+	 *   .withCallSiteOnly(true));
+	 * ----
+	 *
+	 * This class is immutable and thus thread-safe.
+	 *
+	 * @since 0.9.0
+	 */
+	public static class CollectionPolicy {
+
+		/**
+		 * Collects all errors with their complete stack trace.
+		 */
+		public static final CollectionPolicy DEFAULT = new CollectionPolicy(Integer.MAX_VALUE, false, false);
+
+		private final int maxErrors;
+		private final boolean groupByMessage;
+		private final boolean callSiteOnly;
+
+		private CollectionPolicy(final int maxErrors, final boolean groupByMessage, final boolean callSiteOnly) {
+			this.maxErrors = maxErrors;
+			this.groupByMessage = groupByMessage;
+			this.callSiteOnly = callSiteOnly;
+		}
+
+		/**
+		 * The maximum number of collected errors. Further errors are only
+		 * counted.
+		 */
+		public int getMaxErrors() {
+			return maxErrors;
+		}
+
+		/**
+		 * If `true`, errors with the same message are collected only once,
+		 * together with the number of their occurrences.
+		 */
+		public boolean isGroupByMessage() {
+			return groupByMessage;
+		}
+
+		/**
+		 * If `true`, collected errors contain only the stack frame of their
+		 * call site (the first frame outside of LambdaTest and the test
+		 * frameworks) instead of a complete stack trace.
+		 */
+		public boolean isCallSiteOnly() {
+			return callSiteOnly;
+		}
+
+		public CollectionPolicy withMaxErrors(final int maxErrors) {
+			if (maxErrors < 1) {
+				throw new IllegalArgumentException("At least one error must be collected");
+			}
+			return new CollectionPolicy(maxErrors, groupByMessage, callSiteOnly);
+		}
+
+		public CollectionPolicy withGroupByMessage(final boolean groupByMessage) {
+			return new CollectionPolicy(maxErrors, groupByMessage, callSiteOnly);
+		}
+
+		public CollectionPolicy withCallSiteOnly(final boolean callSiteOnly) {
+			return new CollectionPolicy(maxErrors, groupByMessage, callSiteOnly);
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "(maxErrors=" + maxErrors + ",groupByMessage=" + groupByMessage
+					+ ",callSiteOnly=" + callSiteOnly + ")";
+		}
 	}
 
 }
@@ -8,6 +8,11 @@ public class ExpectDouble extends ExpectBase<ExpectDouble> {
 	 * Creates and instance for the given non-null map.
 	 */
 	public ExpectDouble(Double actual) {
+		this(actual, null);
+	}
+
+	/* package */ ExpectDouble(final Double actual, final ExpectContext context) {
+		super(context);
 		check(actual != null, "Actual is not a Double but null");
 		this.actual = actual;
 	}
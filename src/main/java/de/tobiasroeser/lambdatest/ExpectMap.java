@@ -34,6 +34,11 @@ public class ExpectMap<K, V> extends ExpectBase<ExpectMap<K, V>> {
      * @param actual The non-null map.
      */
     public ExpectMap(final Map<K, V> actual) {
+        this(actual, null);
+    }
+
+    /* package */ ExpectMap(final Map<K, V> actual, final ExpectContext context) {
+        super(context);
         check(actual != null, "Actual is not a Map but null");
         this.actual = actual;
     }
@@ -94,7 +99,7 @@ public class ExpectMap<K, V> extends ExpectBase<ExpectMap<K, V>> {
      * further checks.
      */
     public ExpectCollection<V> values() {
-        return ExpectCollection.expectCollection(actual.values());
+        return new ExpectCollection<>(actual.values(), context());
     }
 
     /**
@@ -102,14 +107,14 @@ public class ExpectMap<K, V> extends ExpectBase<ExpectMap<K, V>> {
      * checks.
      */
     public ExpectCollection<K> keys() {
-        return ExpectCollection.expectCollection(actual.keySet());
+        return new ExpectCollection<>(actual.keySet(), context());
     }
 
     /**
      * Returns an {@link ExpectCollection} to futher check the map's entry set.
      */
     public ExpectCollection<Entry<K, V>> entrySet() {
-        return ExpectCollection.expectCollection(actual.entrySet());
+        return new ExpectCollection<>(actual.entrySet(), context());
     }
 
 }
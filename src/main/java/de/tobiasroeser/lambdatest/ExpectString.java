@@ -1,8 +1,5 @@
 package de.tobiasroeser.lambdatest;
 
-import static de.tobiasroeser.lambdatest.Expect.expectEquals;
-import static de.tobiasroeser.lambdatest.Expect.expectNotEquals;
-
 /**
  * Various self descriptive methods to check properties of a given string.
  *
@@ -12,18 +9,21 @@ public class ExpectString extends ExpectBase<ExpectString> {
 	private String actual;
 
 	public ExpectString(final String actual) {
+		this(actual, null);
+	}
+
+	/* package */ ExpectString(final String actual, final ExpectContext context) {
+		super(context);
 		check(actual != null, "Actual is not a String but null");
 		this.actual = actual;
 	}
 
 	public ExpectString isEqual(final String expected) {
-		expectEquals(actual, expected);
-		return this;
+		return checkEquals(actual, expected);
 	}
 
 	public ExpectString isNotEqual(final String expected) {
-		expectNotEquals(actual, expected);
-		return this;
+		return checkNotEquals(actual, expected);
 	}
 
 	public ExpectString isEqualIgnoreCase(final String expected) {
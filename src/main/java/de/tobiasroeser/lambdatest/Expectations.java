@@ -0,0 +1,220 @@
+package de.tobiasroeser.lambdatest;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The expect-methods of {@link Expect}, bound to the {@link ExpectContext} of
+ * a single test case.
+ *
+ * Other than the static methods of {@link Expect}, which look up the context
+ * of the current thread for each expectation, these methods report directly
+ * to the bound context. Thus, they can also be used from other threads, e.g.
+ * in executors, `CompletableFuture` callbacks or parallel streams. A failed
+ * expectation in another thread fails the test case, even if that thread
+ * swallows the error. Expectations checked after the test case finished are
+ * not reported.
+ *
+ * Test cases get their expectations as parameter, when registered with
+ * {@link de.tobiasroeser.lambdatest.generic.FreeSpecBase#test(String, ProcedureWithException)}:
+ *
+ * [source,java]
+ * ----
+ * test("async computation", expect -> {
+ *   CompletableFuture.supplyAsync(() -> 42)
+ *     .thenAccept(result -> expect.expectEquals(result, 42))
+ *     .get();
+ * });
+ * ----
+ *
+ * This class is thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class Expectations {
+
+	private final ExpectContext context;
+
+	/* package */ Expectations(final ExpectContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Expect that the given actual value is `null`.
+	 *
+	 * @see Expect#expectNull(Object, String)
+	 */
+	public void expectNull(final Object actual, final String msg) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertNull(context, actual, msg);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+	}
+
+	/**
+	 * Expect that the given actual value is `null`.
+	 *
+	 * @see Expect#expectNull(Object)
+	 */
+	public void expectNull(final Object actual) {
+		expectNull(actual, null);
+	}
+
+	/**
+	 * Expect that the given actual value is not `null`.
+	 *
+	 * @see Expect#expectNotNull(Object, String)
+	 */
+	public void expectNotNull(final Object actual, final String msg) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertNotNull(context, actual, msg);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+	}
+
+	/**
+	 * Expect that the given actual value is not `null`.
+	 *
+	 * @see Expect#expectNotNull(Object)
+	 */
+	public void expectNotNull(final Object actual) {
+		expectNotNull(actual, null);
+	}
+
+	/**
+	 * Check object equality.
+	 *
+	 * @see Expect#expectEquals(Object, Object, String)
+	 */
+	public void expectEquals(final Object actual, final Object expected, final String msg) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertEquals(context, actual, expected, msg);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+	}
+
+	/**
+	 * Check object equality.
+	 *
+	 * @see Expect#expectEquals(Object, Object)
+	 */
+	public void expectEquals(final Object actual, final Object expected) {
+		expectEquals(actual, expected, null);
+	}
+
+	/**
+	 * Check for non-equal objects.
+	 *
+	 * @see Expect#expectNotEquals(Object, Object, String)
+	 */
+	public void expectNotEquals(final Object actual, final Object expected, final String msg) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertNotEquals(context, actual, expected, msg);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+	}
+
+	/**
+	 * Check for non-equal objects.
+	 *
+	 * @see Expect#expectNotEquals(Object, Object)
+	 */
+	public void expectNotEquals(final Object actual, final Object expected) {
+		expectNotEquals(actual, expected, null);
+	}
+
+	/**
+	 * Expect that the given value is `true`.
+	 *
+	 * @see Expect#expectTrue(boolean, String)
+	 */
+	public void expectTrue(final boolean actual, final String msg) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertTrue(context, actual, msg);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+	}
+
+	/**
+	 * Expect that the given value is `true`.
+	 *
+	 * @see Expect#expectTrue(boolean)
+	 */
+	public void expectTrue(final boolean actual) {
+		expectTrue(actual, null);
+	}
+
+	/**
+	 * Expect that the given value is `false`.
+	 *
+	 * @see Expect#expectFalse(boolean, String)
+	 */
+	public void expectFalse(final boolean actual, final String msg) {
+		ExpectContext.countExpectation(context);
+		try {
+			Assert.assertFalse(context, actual, msg);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(context, e);
+		}
+	}
+
+	/**
+	 * Expect that the given value is `false`.
+	 *
+	 * @see Expect#expectFalse(boolean)
+	 */
+	public void expectFalse(final boolean actual) {
+		expectFalse(actual, null);
+	}
+
+	/**
+	 * Check for non-null {@link Double} and provided further checks on the
+	 * actual double in a fluent API.
+	 *
+	 * @see Expect#expectDouble(Double)
+	 */
+	public ExpectDouble expectDouble(final Double actual) {
+		return new ExpectDouble(actual, context);
+	}
+
+	/**
+	 * Check for non-null {@link String} and provided further checks on the
+	 * actual string in a fluent API.
+	 *
+	 * @see Expect#expectString(String)
+	 */
+	public ExpectString expectString(final String actual) {
+		return new ExpectString(actual, context);
+	}
+
+	/**
+	 * Check for non-null {@link Collection} and provides further checks on the
+	 * actual collection in a fluent API.
+	 *
+	 * @see Expect#expectCollection(Collection)
+	 */
+	public <T> ExpectCollection<T> expectCollection(final Collection<T> actual) {
+		return new ExpectCollection<>(actual, context);
+	}
+
+	/**
+	 * Check for non-null {@link Map} and provides further checks on the actual
+	 * map in a fluent API.
+	 *
+	 * @see Expect#expectMap(Map)
+	 */
+	public <K, V> ExpectMap<K, V> expectMap(final Map<K, V> actual) {
+		return new ExpectMap<>(actual, context);
+	}
+
+}
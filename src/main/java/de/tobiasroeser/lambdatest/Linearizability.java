@@ -0,0 +1,463 @@
+package de.tobiasroeser.lambdatest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks, whether a concurrent history of operations is linearizable, i.e.
+ * whether all operations appear to take effect atomically at some point
+ * between their invocation and their response, consistent with a sequential
+ * model of the data structure.
+ *
+ * Record the operations of all threads with a {@link History}, and check it
+ * against a {@link Model} with
+ * {@link #expectLinearizable(History, Model)}.
+ *
+ * [source,java]
+ * ----
+ * final Linearizability.History history = new Linearizability.History();
+ * // in each of several threads
+ * history.record("offer", value, () -> queue.offer(value));
+ * history.record("poll", null, () -> queue.poll());
+ * // afterwards
+ * Linearizability.expectLinearizable(history, new QueueModel());
+ * ----
+ *
+ * The search for a linearization follows the algorithm of Wing and Gong with
+ * the memoization of Lowe: each combination of already linearized operations
+ * and model state is explored only once, so histories of thousands of
+ * operations can be checked in seconds, if the model states are compact. If
+ * the model partitions the operations (e.g. by the key of a map), each
+ * partition is checked independently, as linearizability is a local property.
+ *
+ * @since 0.9.0
+ */
+public class Linearizability {
+
+	/**
+	 * The sequential specification of a data structure.
+	 *
+	 * States must not be `null`, must be immutable and must implement `equals`
+	 * and `hashCode`, as they are memoized.
+	 *
+	 * @param <S>
+	 *            The type of the state.
+	 */
+	public interface Model<S> {
+
+		/**
+		 * The initial state of the data structure.
+		 */
+		S initialState();
+
+		/**
+		 * Applies an operation to a state.
+		 *
+		 * @return The new state, or `null`, if the recorded output of the
+		 *         operation is not possible in the given state.
+		 */
+		S step(S state, Operation operation);
+
+		/**
+		 * The partition of an operation. Operations of different partitions must
+		 * not affect each other, e.g. operations on different keys of a map.
+		 *
+		 * @return The partition key, or `null` to check all operations in a
+		 *         single partition.
+		 */
+		default Object partition(final Operation operation) {
+			return null;
+		}
+
+	}
+
+	/**
+	 * A completed operation of a {@link History}.
+	 */
+	public static class Operation {
+
+		private final String thread;
+		private final String name;
+		private final Object input;
+		private final Object output;
+		private final long invoke;
+		private final long response;
+
+		Operation(final String thread, final String name, final Object input, final Object output, final long invoke,
+				final long response) {
+			this.thread = thread;
+			this.name = name;
+			this.input = input;
+			this.output = output;
+			this.invoke = invoke;
+			this.response = response;
+		}
+
+		public String getThread() {
+			return thread;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Object getInput() {
+			return input;
+		}
+
+		public Object getOutput() {
+			return output;
+		}
+
+		/**
+		 * The logical timestamp of the invocation. Timestamps of a history are
+		 * unique and ordered in real time.
+		 */
+		public long getInvoke() {
+			return invoke;
+		}
+
+		/**
+		 * The logical timestamp of the response.
+		 */
+		public long getResponse() {
+			return response;
+		}
+
+		@Override
+		public String toString() {
+			return name + "(" + (input == null ? "" : input) + ") -> " + output + " [" + thread + ", " + invoke
+					+ ".." + response + "]";
+		}
+
+	}
+
+	/**
+	 * A thread-safe recorder of concurrent operations.
+	 */
+	public static class History {
+
+		private final AtomicLong clock = new AtomicLong();
+		private final ConcurrentLinkedQueue<Operation> operations = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Runs and records an operation.
+		 *
+		 * Operations throwing an exception are not recorded, so they should not
+		 * have any effect on the data structure.
+		 *
+		 * @param name
+		 *            The name of the operation.
+		 * @param input
+		 *            The input of the operation, or `null`.
+		 * @param call
+		 *            The operation, returning its output.
+		 * @return The output of the operation.
+		 */
+		public <T> T record(final String name, final Object input, final Callable<T> call) throws Exception {
+			final long invoke = clock.getAndIncrement();
+			final T output = call.call();
+			final long response = clock.getAndIncrement();
+			operations.add(new Operation(Thread.currentThread().getName(), name, input, output, invoke, response));
+			return output;
+		}
+
+		/**
+		 * The recorded operations.
+		 */
+		public List<Operation> getOperations() {
+			return new ArrayList<>(operations);
+		}
+
+	}
+
+	/**
+	 * The outcome of a check.
+	 */
+	public static class Result {
+
+		private final boolean linearizable;
+		private final List<Operation> linearization;
+		private final List<Operation> blocked;
+		private final int operationCount;
+
+		Result(final boolean linearizable, final List<Operation> linearization, final List<Operation> blocked,
+				final int operationCount) {
+			this.linearizable = linearizable;
+			this.linearization = Collections.unmodifiableList(linearization);
+			this.blocked = Collections.unmodifiableList(blocked);
+			this.operationCount = operationCount;
+		}
+
+		public boolean isLinearizable() {
+			return linearizable;
+		}
+
+		/**
+		 * A valid linearization of all operations, if linearizable, else the
+		 * longest valid linearization found of the partition, which could not
+		 * be linearized.
+		 */
+		public List<Operation> getLinearization() {
+			return linearization;
+		}
+
+		/**
+		 * If not linearizable, the operations, which could not be linearized
+		 * after the longest linearization found.
+		 */
+		public List<Operation> getBlocked() {
+			return blocked;
+		}
+
+		@Override
+		public String toString() {
+			if (linearizable) {
+				return "History of " + operationCount + " operations is linearizable";
+			}
+			final StringBuilder sb = new StringBuilder("History of ").append(operationCount)
+					.append(" operations is not linearizable.\nLongest valid linearization (")
+					.append(linearization.size()).append(" operations):");
+			final int skipped = Math.max(0, linearization.size() - 20);
+			if (skipped > 0) {
+				sb.append("\n  ... ").append(skipped).append(" more");
+			}
+			for (final Operation operation : linearization.subList(skipped, linearization.size())) {
+				sb.append("\n  ").append(operation);
+			}
+			sb.append("\nNone of these operations could be linearized next:");
+			for (final Operation operation : blocked) {
+				sb.append("\n  ").append(operation);
+			}
+			return sb.toString();
+		}
+
+	}
+
+	/**
+	 * Checks, whether the recorded history is linearizable with respect to the
+	 * given model.
+	 */
+	public static <S> Result check(final History history, final Model<S> model) {
+		final List<Operation> operations = history.getOperations();
+		final Map<Object, List<Operation>> partitions = new LinkedHashMap<>();
+		for (final Operation operation : operations) {
+			final Object key = model.partition(operation);
+			List<Operation> partition = partitions.get(key);
+			if (partition == null) {
+				partition = new ArrayList<>();
+				partitions.put(key, partition);
+			}
+			partition.add(operation);
+		}
+		final List<Operation> linearization = new ArrayList<>(operations.size());
+		for (final List<Operation> partition : partitions.values()) {
+			final Result result = new Search<S>(partition, model).run();
+			if (!result.isLinearizable()) {
+				return new Result(false, result.getLinearization(), result.getBlocked(), operations.size());
+			}
+			linearization.addAll(result.getLinearization());
+		}
+		return new Result(true, linearization, Collections.<Operation> emptyList(), operations.size());
+	}
+
+	/**
+	 * Expect that the recorded history is linearizable with respect to the
+	 * given model. A failure describes the longest valid linearization found
+	 * and the operations, which could not be linearized after it.
+	 */
+	public static <S> void expectLinearizable(final History history, final Model<S> model) {
+		ExpectContext.countExpectation();
+		final Result result = check(history, model);
+		if (!result.isLinearizable()) {
+			try {
+				// the message is passed as argument, as it must not be interpreted as pattern
+				Assert.fail(null, "{0}", result.toString());
+			} catch (final AssertionError e) {
+				ExpectContext.handleAssertionError(e);
+			}
+		}
+	}
+
+	/**
+	 * An invocation or response event in the doubly linked list of pending
+	 * events.
+	 */
+	private static class Entry {
+		final Operation operation;
+		final int index;
+		final boolean isCall;
+		/** The matching return entry of a call entry. */
+		Entry match;
+		Entry prev;
+		Entry next;
+
+		Entry(final Operation operation, final int index, final boolean isCall) {
+			this.operation = operation;
+			this.index = index;
+			this.isCall = isCall;
+		}
+
+		long time() {
+			return isCall ? operation.invoke : operation.response;
+		}
+
+		/** Removes the call and its return entry from the list. */
+		void lift() {
+			prev.next = next;
+			next.prev = prev;
+			match.prev.next = match.next;
+			if (match.next != null) {
+				match.next.prev = match.prev;
+			}
+		}
+
+		/** Reinserts the call and its return entry into the list. */
+		void unlift() {
+			match.prev.next = match;
+			if (match.next != null) {
+				match.next.prev = match;
+			}
+			prev.next = this;
+			next.prev = this;
+		}
+	}
+
+	private static class Search<S> {
+
+		private final List<Operation> operations;
+		private final Model<S> model;
+
+		Search(final List<Operation> operations, final Model<S> model) {
+			this.operations = operations;
+			this.model = model;
+		}
+
+		private static class Frame<S> {
+			final Entry entry;
+			final S state;
+
+			Frame(final Entry entry, final S state) {
+				this.entry = entry;
+				this.state = state;
+			}
+		}
+
+		private static class Memo {
+			final BitSet linearized;
+			final Object state;
+			final int hash;
+
+			Memo(final BitSet linearized, final Object state) {
+				this.linearized = linearized;
+				this.state = state;
+				this.hash = 31 * linearized.hashCode() + Objects.hashCode(state);
+			}
+
+			@Override
+			public int hashCode() {
+				return hash;
+			}
+
+			@Override
+			public boolean equals(final Object obj) {
+				if (!(obj instanceof Memo)) {
+					return false;
+				}
+				final Memo other = (Memo) obj;
+				return hash == other.hash && linearized.equals(other.linearized)
+						&& Objects.equals(state, other.state);
+			}
+		}
+
+		Result run() {
+			// head is a sentinel, so lift and unlift don't need to handle the start
+			final Entry head = new Entry(null, -1, false);
+			final List<Entry> events = new ArrayList<>(2 * operations.size());
+			for (int i = 0; i < operations.size(); ++i) {
+				final Operation operation = operations.get(i);
+				final Entry call = new Entry(operation, i, true);
+				final Entry ret = new Entry(operation, i, false);
+				call.match = ret;
+				events.add(call);
+				events.add(ret);
+			}
+			events.sort((a, b) -> Long.compare(a.time(), b.time()));
+			Entry last = head;
+			for (final Entry event : events) {
+				last.next = event;
+				event.prev = last;
+				last = event;
+			}
+
+			final Set<Memo> memo = new HashSet<>();
+			final Deque<Frame<S>> stack = new ArrayDeque<>();
+			final BitSet linearized = new BitSet(operations.size());
+			List<Operation> longest = null;
+			List<Operation> blocked = null;
+			S state = model.initialState();
+			Entry entry = head.next;
+			while (head.next != null) {
+				if (entry.isCall) {
+					final S newState = model.step(state, entry.operation);
+					if (newState != null) {
+						final BitSet newLinearized = (BitSet) linearized.clone();
+						newLinearized.set(entry.index);
+						if (memo.add(new Memo(newLinearized, newState))) {
+							stack.push(new Frame<S>(entry, state));
+							state = newState;
+							linearized.set(entry.index);
+							entry.lift();
+							entry = head.next;
+							continue;
+						}
+					}
+					entry = entry.next;
+				} else {
+					// the operation of this return must have been linearized before
+					if (longest == null || stack.size() > longest.size()) {
+						longest = new ArrayList<>(stack.size());
+						for (final Frame<S> frame : stack) {
+							longest.add(frame.entry.operation);
+						}
+						Collections.reverse(longest);
+						blocked = new ArrayList<>();
+						for (Entry pending = head.next; pending != entry; pending = pending.next) {
+							if (pending.isCall) {
+								blocked.add(pending.operation);
+							}
+						}
+					}
+					if (stack.isEmpty()) {
+						return new Result(false, longest, blocked, operations.size());
+					}
+					final Frame<S> frame = stack.pop();
+					state = frame.state;
+					linearized.clear(frame.entry.index);
+					frame.entry.unlift();
+					entry = frame.entry.next;
+				}
+			}
+			final List<Operation> linearization = new ArrayList<>(stack.size());
+			for (final Frame<S> frame : stack) {
+				linearization.add(frame.entry.operation);
+			}
+			Collections.reverse(linearization);
+			return new Result(true, linearization, Collections.<Operation> emptyList(), operations.size());
+		}
+
+	}
+
+}
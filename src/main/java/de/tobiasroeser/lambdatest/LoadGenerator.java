@@ -0,0 +1,134 @@
+package de.tobiasroeser.lambdatest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import de.tobiasroeser.lambdatest.internal.LatencyHistogram;
+
+/**
+ * Drives a block of code at a fixed rate from multiple worker threads.
+ *
+ * Requests are scheduled on a global timeline: request `n` is intended to
+ * start `n / rate` after the start. Each worker takes the next request, waits
+ * until its intended start, and runs it. Its latency is measured from the
+ * intended start, so when the block stalls, the requests queued up behind it
+ * are accounted with their waiting time, instead of being silently omitted.
+ *
+ * Usually, load tests are added with
+ * {@link de.tobiasroeser.lambdatest.generic.FreeSpecBase#loadTest(String, int, double, java.time.Duration, RunnableWithException, ProcedureWithException)}.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class LoadGenerator {
+
+	/** Waits shorter than this are spun instead of parked, as parking is imprecise. */
+	private static final long SPIN_NANOS = 50000;
+
+	private final int threads;
+	private final double targetRate;
+	private final long durationNanos;
+
+	public LoadGenerator(final int threads, final double targetRate, final long durationNanos) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is required");
+		}
+		if (!(targetRate > 0)) {
+			throw new IllegalArgumentException("The target rate must be positive");
+		}
+		if (durationNanos <= 0) {
+			throw new IllegalArgumentException("The duration must be positive");
+		}
+		this.threads = threads;
+		this.targetRate = targetRate;
+		this.durationNanos = durationNanos;
+	}
+
+	/**
+	 * Runs the load test and waits for it to finish. If the current thread
+	 * gets interrupted, the workers get interrupted and stopped.
+	 *
+	 * @param testName
+	 *            The name of the test, used in the names of the worker threads.
+	 * @param block
+	 *            The request to run.
+	 * @param firstError
+	 *            Set to the first error of the block, if any.
+	 */
+	public LoadTestResult run(final String testName, final RunnableWithException block,
+			final AtomicReference<Throwable> firstError) throws InterruptedException {
+		final double intervalNanos = 1e9 / targetRate;
+		final long requestCount = Math.max(1, (long) (durationNanos / intervalNanos));
+		final AtomicLong nextRequest = new AtomicLong();
+		final AtomicLong errors = new AtomicLong();
+		final AtomicLong lastCompletion = new AtomicLong();
+		final LatencyHistogram[] histograms = new LatencyHistogram[threads];
+		final Thread[] workers = new Thread[threads];
+		// give all workers some time to start, before the first request is due
+		final long start = System.nanoTime() + 10000000L;
+		for (int t = 0; t < threads; ++t) {
+			final LatencyHistogram histogram = new LatencyHistogram();
+			histograms[t] = histogram;
+			workers[t] = new Thread(() -> {
+				long completion = start;
+				long request;
+				while ((request = nextRequest.getAndIncrement()) < requestCount) {
+					final long intended = start + (long) (request * intervalNanos);
+					if (!awaitNanoTime(intended)) {
+						break;
+					}
+					try {
+						block.run();
+					} catch (final Throwable e) {
+						errors.incrementAndGet();
+						firstError.compareAndSet(null, e);
+					}
+					completion = System.nanoTime();
+					histogram.record(completion - intended);
+				}
+				lastCompletion.accumulateAndGet(completion, Math::max);
+			}, "LambdaTest-Load-" + (t + 1) + "-" + testName);
+			workers[t].setDaemon(true);
+			workers[t].start();
+		}
+		try {
+			for (final Thread worker : workers) {
+				worker.join();
+			}
+		} catch (final InterruptedException e) {
+			nextRequest.set(requestCount);
+			for (final Thread worker : workers) {
+				worker.interrupt();
+			}
+			throw e;
+		}
+		final LatencyHistogram latencies = new LatencyHistogram();
+		for (final LatencyHistogram histogram : histograms) {
+			latencies.add(histogram);
+		}
+		return new LoadTestResult(threads, targetRate, lastCompletion.get() - start, errors.get(), latencies);
+	}
+
+	/**
+	 * Waits until {@link System#nanoTime()} reached the given time.
+	 *
+	 * @return `false`, if the thread got interrupted.
+	 */
+	private static boolean awaitNanoTime(final long time) {
+		long remaining;
+		while ((remaining = time - System.nanoTime()) > 0) {
+			if (Thread.currentThread().isInterrupted()) {
+				return false;
+			}
+			if (remaining > SPIN_NANOS) {
+				LockSupport.parkNanos(remaining - SPIN_NANOS);
+			} else {
+				Thread.yield();
+			}
+		}
+		return !Thread.currentThread().isInterrupted();
+	}
+
+}
@@ -0,0 +1,195 @@
+package de.tobiasroeser.lambdatest;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import de.tobiasroeser.lambdatest.internal.LatencyHistogram;
+
+/**
+ * The throughput and latency distribution of a load test.
+ *
+ * Latencies are measured from the time each request was scheduled to start
+ * at the target rate, not from the time it actually started. So requests
+ * delayed by a stalled system are accounted with their waiting time
+ * (avoiding "coordinated omission"), as experienced by clients sending at a
+ * fixed rate. Percentiles are accurate to less than 1%.
+ *
+ * Use the `expect`-methods in the expectations of a load test to check the
+ * result, e.g.:
+ *
+ * [source,java]
+ * ----
+ * loadTest("get", 4, 50000, Duration.ofSeconds(10), () -> cache.get("key"), result -> {
+ *   result.expectLatencyAtPercentileAtMost(99, Duration.ofMillis(5));
+ *   result.expectThroughputAtLeast(50000);
+ * });
+ * ----
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class LoadTestResult {
+
+	private final int threads;
+	private final double targetRate;
+	private final long elapsedNanos;
+	private final long errorCount;
+	private final LatencyHistogram latencies;
+
+	/**
+	 * @param threads
+	 *            The number of worker threads.
+	 * @param targetRate
+	 *            The target rate in requests per second.
+	 * @param elapsedNanos
+	 *            The time from the start of the first request until the
+	 *            completion of the last one.
+	 * @param errorCount
+	 *            The number of failed requests.
+	 * @param latencies
+	 *            The latencies of all completed requests. The result takes
+	 *            ownership, so it must not be changed afterwards.
+	 */
+	/* package */ LoadTestResult(final int threads, final double targetRate, final long elapsedNanos,
+			final long errorCount, final LatencyHistogram latencies) {
+		this.threads = threads;
+		this.targetRate = targetRate;
+		this.elapsedNanos = elapsedNanos;
+		this.errorCount = errorCount;
+		this.latencies = latencies;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * The target rate in requests per second.
+	 */
+	public double getTargetRate() {
+		return targetRate;
+	}
+
+	/**
+	 * The time from the start of the first request until the completion of
+	 * the last one in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * The number of completed requests, including the failed ones.
+	 */
+	public long getCount() {
+		return latencies.getTotalCount();
+	}
+
+	/**
+	 * The number of failed requests.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * The achieved throughput in completed requests per second.
+	 */
+	public double getThroughput() {
+		return elapsedNanos <= 0 ? 0 : getCount() * 1e9 / elapsedNanos;
+	}
+
+	public long getMinLatencyNanos() {
+		return latencies.getMin();
+	}
+
+	public double getMeanLatencyNanos() {
+		return latencies.getMean();
+	}
+
+	public long getMaxLatencyNanos() {
+		return latencies.getMax();
+	}
+
+	/**
+	 * The latency at the given percentile in nanoseconds.
+	 *
+	 * @param percentile
+	 *            The percentile between `0` and `100`, e.g. `99.9`.
+	 */
+	public long getLatencyNanosAtPercentile(final double percentile) {
+		return latencies.getValueAtPercentile(percentile);
+	}
+
+	/**
+	 * Expect that the latency at the given percentile is at most the given
+	 * maximum.
+	 *
+	 * @param percentile
+	 *            The percentile between `0` and `100`, e.g. `99.9`.
+	 * @param max
+	 *            The maximal latency.
+	 */
+	public void expectLatencyAtPercentileAtMost(final double percentile, final Duration max) {
+		ExpectContext.countExpectation();
+		final long actual = getLatencyNanosAtPercentile(percentile);
+		if (actual > max.toNanos()) {
+			try {
+				Assert.fail(null, "Expected latency at percentile {0} of at most {1}, but was {2}",
+						formatPercentile(percentile), BenchmarkResult.formatNanos(max.toNanos()),
+						BenchmarkResult.formatNanos(actual));
+			} catch (final AssertionError e) {
+				ExpectContext.handleAssertionError(e);
+			}
+		}
+	}
+
+	/**
+	 * Expect that the achieved throughput is at least the given rate.
+	 *
+	 * @param requestsPerSecond
+	 *            The minimal throughput in requests per second.
+	 */
+	public void expectThroughputAtLeast(final double requestsPerSecond) {
+		ExpectContext.countExpectation();
+		final double actual = getThroughput();
+		if (actual < requestsPerSecond) {
+			try {
+				Assert.fail(null, "Expected a throughput of at least {0}, but was {1}", formatRate(requestsPerSecond),
+						formatRate(actual));
+			} catch (final AssertionError e) {
+				ExpectContext.handleAssertionError(e);
+			}
+		}
+	}
+
+	private static String formatPercentile(final double percentile) {
+		return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+	}
+
+	/**
+	 * Formats a rate, e.g. `48.5k/s`.
+	 */
+	public static String formatRate(final double requestsPerSecond) {
+		if (requestsPerSecond < 1000.0) {
+			return String.format(Locale.ROOT, "%.1f/s", requestsPerSecond);
+		} else if (requestsPerSecond < 1000000.0) {
+			return String.format(Locale.ROOT, "%.1fk/s", requestsPerSecond / 1000.0);
+		} else {
+			return String.format(Locale.ROOT, "%.2fM/s", requestsPerSecond / 1000000.0);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return formatRate(getThroughput()) + " (target: " + formatRate(targetRate) + ", " + threads
+				+ " threads), latency p50: " + BenchmarkResult.formatNanos(getLatencyNanosAtPercentile(50))
+				+ ", p90: " + BenchmarkResult.formatNanos(getLatencyNanosAtPercentile(90)) + ", p99: "
+				+ BenchmarkResult.formatNanos(getLatencyNanosAtPercentile(99)) + ", p99.9: "
+				+ BenchmarkResult.formatNanos(getLatencyNanosAtPercentile(99.9)) + ", max: "
+				+ BenchmarkResult.formatNanos(getMaxLatencyNanos()) + ", " + getCount() + " requests, "
+				+ errorCount + " errors";
+	}
+
+}
@@ -0,0 +1,107 @@
+package de.tobiasroeser.lambdatest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.internal.StackTraces;
+
+/**
+ * Signals, that multiple expectations of a test case failed, when
+ * expectations are not configured to fail fast.
+ *
+ * The failed expectations are available via {@link #getFailures()}. The
+ * message is rendered lazily, when it is requested the first time, and
+ * contains only the first {@value #MAX_RENDERED_FAILURES} failures with their
+ * call sites, so collecting many failures stays cheap.
+ *
+ * @since 0.9.0
+ */
+public class MultipleFailuresError extends AssertionError {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximal number of failures rendered into the message.
+	 */
+	public static final int MAX_RENDERED_FAILURES = 20;
+
+	/** The maximal number of non-framework frames rendered per failure. */
+	private static final int MAX_RENDERED_FRAMES = 3;
+
+	private static final String SEPARATOR = "--------------------------------------------------";
+
+	private final List<AssertionError> failures;
+	private final long failedCount;
+	private transient volatile String message;
+
+	public MultipleFailuresError(final List<? extends AssertionError> failures) {
+		this(failures, failures.size());
+	}
+
+	/**
+	 * @param failures
+	 *            The collected failures.
+	 * @param failedCount
+	 *            The number of failed expectations, which might be larger than
+	 *            the number of collected failures, when failures were dropped
+	 *            or grouped (see {@link ExpectContext.CollectionPolicy}).
+	 */
+	public MultipleFailuresError(final List<? extends AssertionError> failures, final long failedCount) {
+		this.failures = Collections.unmodifiableList(new ArrayList<>(failures));
+		this.failedCount = Math.max(failedCount, failures.size());
+	}
+
+	/**
+	 * All collected failed expectations, in the order they failed.
+	 */
+	public List<AssertionError> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * The number of failed expectations, including those not collected.
+	 */
+	public long getFailedCount() {
+		return failedCount;
+	}
+
+	@Override
+	public String getMessage() {
+		String msg = message;
+		if (msg == null) {
+			msg = render();
+			message = msg;
+		}
+		return msg;
+	}
+
+	private String render() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(failedCount).append(" expectations failed");
+		if (failedCount > failures.size()) {
+			sb.append(" (").append(failures.size()).append(" collected)");
+		}
+		sb.append('\n').append(SEPARATOR);
+		final int rendered = Math.min(failures.size(), MAX_RENDERED_FAILURES);
+		for (int i = 0; i < rendered; ++i) {
+			final AssertionError failure = failures.get(i);
+			sb.append(i == 0 ? "\n" : "\n\n").append(failure);
+			int frames = 0;
+			for (final StackTraceElement frame : failure.getStackTrace()) {
+				if (frames >= MAX_RENDERED_FRAMES) {
+					break;
+				}
+				if (!StackTraces.isFrameworkFrame(frame)) {
+					sb.append("\n\tat ").append(frame);
+					++frames;
+				}
+			}
+		}
+		if (failures.size() > rendered) {
+			sb.append("\n\n... and ").append(failures.size() - rendered).append(" more failed expectations");
+		}
+		return sb.append('\n').append(SEPARATOR).toString();
+	}
+
+}
@@ -0,0 +1,137 @@
+package de.tobiasroeser.lambdatest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The configuration of performance baselines, to detect performance
+ * regressions across test runs.
+ *
+ * The baseline of a test suite is stored in the file `<directory>/<suite
+ * name>.baseline`, with all characters except letters, digits, `.`, `_` and
+ * `-` of the suite name replaced by `_`. For each test case it contains the
+ * wall-clock times of the last 10 recorded runs, and for each benchmark its
+ * last recorded {@link BenchmarkResult}.
+ *
+ * Baselines are only recorded, when explicitly requested with
+ * {@link #withUpdate(boolean)}, or by running the tests with the system
+ * property `lambdatest.updateBaselines=true`, e.g.
+ * `mvn test -Dlambdatest.updateBaselines=true`. Record multiple runs, to give
+ * the baseline of test cases a distribution.
+ *
+ * Otherwise, a test case is regarded as regression, if it is slower than its
+ * baseline by more than the threshold and the minimum difference, and lies
+ * outside the 99% prediction interval of the recorded runs (if there are at
+ * least two). A benchmark is regarded as regression, if its mean is slower
+ * by more than the threshold, and the one-sided Welch's t-test shows it is
+ * significantly slower at the 0.5% level. Regressions fail the test case, or, if configured
+ * with `withFailOnRegression(false)`, are reported as suite warnings.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class PerformanceBaseline {
+
+	/**
+	 * The system property to record the baselines instead of checking them.
+	 */
+	public static final String UPDATE_PROPERTY = "lambdatest.updateBaselines";
+
+	/**
+	 * A baseline stored in the given directory, with a threshold of 20%, a
+	 * minimum difference of 10 ms, failing on regressions, and updated, if the
+	 * system property {@link #UPDATE_PROPERTY} is `true`.
+	 */
+	public static PerformanceBaseline in(final Path directory) {
+		if (directory == null) {
+			throw new IllegalArgumentException("A directory is required to store the baselines");
+		}
+		return new PerformanceBaseline(directory, 0.2, Duration.ofMillis(10), true,
+				Boolean.getBoolean(UPDATE_PROPERTY));
+	}
+
+	private final Path directory;
+	private final double threshold;
+	private final Duration minimumDifference;
+	private final boolean failOnRegression;
+	private final boolean update;
+
+	private PerformanceBaseline(final Path directory, final double threshold, final Duration minimumDifference,
+			final boolean failOnRegression, final boolean update) {
+		this.directory = directory;
+		this.threshold = threshold;
+		this.minimumDifference = minimumDifference;
+		this.failOnRegression = failOnRegression;
+		this.update = update;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * The relative slowdown tolerated, e.g. `0.2` for 20%.
+	 */
+	public double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Tolerate the given relative slowdown, e.g. `0.2` for 20%.
+	 */
+	public PerformanceBaseline withThreshold(final double threshold) {
+		if (!(threshold >= 0)) {
+			throw new IllegalArgumentException("The threshold must not be negative");
+		}
+		return new PerformanceBaseline(directory, threshold, minimumDifference, failOnRegression, update);
+	}
+
+	/**
+	 * The absolute slowdown of test cases tolerated in any case, as very short
+	 * test cases vary a lot relative to their duration. It does not apply to
+	 * benchmarks.
+	 */
+	public Duration getMinimumDifference() {
+		return minimumDifference;
+	}
+
+	public PerformanceBaseline withMinimumDifference(final Duration minimumDifference) {
+		if (minimumDifference == null || minimumDifference.isNegative()) {
+			throw new IllegalArgumentException("The minimum difference must not be negative");
+		}
+		return new PerformanceBaseline(directory, threshold, minimumDifference, failOnRegression, update);
+	}
+
+	public boolean isFailOnRegression() {
+		return failOnRegression;
+	}
+
+	/**
+	 * Fail test cases with a performance regression, or only report a suite
+	 * warning.
+	 */
+	public PerformanceBaseline withFailOnRegression(final boolean failOnRegression) {
+		return new PerformanceBaseline(directory, threshold, minimumDifference, failOnRegression, update);
+	}
+
+	public boolean isUpdate() {
+		return update;
+	}
+
+	/**
+	 * Record the measurements of succeeded test cases as baseline, instead of
+	 * checking them.
+	 */
+	public PerformanceBaseline withUpdate(final boolean update) {
+		return new PerformanceBaseline(directory, threshold, minimumDifference, failOnRegression, update);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(directory=" + directory + ",threshold=" + threshold
+				+ ",minimumDifference=" + minimumDifference + ",failOnRegression=" + failOnRegression + ",update="
+				+ update + ")";
+	}
+
+}
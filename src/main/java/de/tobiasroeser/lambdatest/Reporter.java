@@ -29,4 +29,63 @@ public interface Reporter {
 
 	void suiteWarning(String suiteName, String warning);
 
+	/**
+	 * Called after a test case finished, regardless of its outcome. This is
+	 * always called after {@link #testSucceeded(LambdaTestCase)},
+	 * {@link #testFailed(LambdaTestCase, Throwable)} or
+	 * {@link #testSkipped(LambdaTestCase, String)}.
+	 *
+	 * @param test
+	 *            The finished test case.
+	 * @param timing
+	 *            The wall-clock time, CPU time and allocated bytes of the test
+	 *            thread while running the test case.
+	 * @since 0.9.0
+	 */
+	default void testFinished(final LambdaTestCase test, final Timing timing) {
+		// ignored by default
+	}
+
+	/**
+	 * Called when a benchmark measured its result, before the outcome of its
+	 * test case is reported.
+	 *
+	 * @param test
+	 *            The test case of the benchmark.
+	 * @param result
+	 *            The statistics of the measured iterations.
+	 * @since 0.9.0
+	 */
+	default void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+		// ignored by default
+	}
+
+	/**
+	 * Called when a load test finished sending requests, before the outcome of
+	 * its test case is reported.
+	 *
+	 * @param test
+	 *            The test case of the load test.
+	 * @param result
+	 *            The throughput and latency distribution.
+	 * @since 0.9.0
+	 */
+	default void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+		// ignored by default
+	}
+
+	/**
+	 * Called after all test cases of a test suite finished.
+	 *
+	 * @param suiteName
+	 *            The name of the finished test suite.
+	 * @param total
+	 *            The wall-clock time elapsed since the suite started, and the
+	 *            sum of CPU time and allocated bytes of all test cases.
+	 * @since 0.9.0
+	 */
+	default void suiteFinished(final String suiteName, final Timing total) {
+		// ignored by default
+	}
+
 }
@@ -0,0 +1,260 @@
+package de.tobiasroeser.lambdatest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A stress test of concurrent code, to check its thread-safety.
+ *
+ * In each iteration, a fresh state is created, and all actors run
+ * concurrently on it, each in its own thread. After all actors finished, the
+ * optional arbiter observes the final state. The results of the actors and
+ * the arbiter form the outcome of the iteration. The outcomes of all
+ * iterations are counted, and can be checked with the `expect`-methods of
+ * the {@link StressResult}.
+ *
+ * [source,java]
+ * ----
+ * Stress.forState(() -> new AtomicInteger())
+ *   .actor(counter -> counter.incrementAndGet())
+ *   .actor(counter -> counter.incrementAndGet())
+ *   .arbiter(counter -> counter.get())
+ *   .run(1000000)
+ *   .expectOnly("1, 2, 2", "2, 1, 2");
+ * ----
+ *
+ * To keep the overhead per iteration minimal, the iterations are run in
+ * batches: the actor threads are started once, and for each batch they are
+ * released together by a spinning start barrier, each running over the
+ * states of the whole batch. So actors of the same iteration run at about
+ * the same time, without a synchronization between the iterations, which
+ * could hide races. As the actors spin while waiting, there should be at
+ * least as many CPU cores as actors.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @param <S>
+ *            The type of the state.
+ * @since 0.9.0
+ */
+public class Stress<S> {
+
+	/** The default number of iterations per batch. */
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+
+	/** Spins before yielding, while waiting at a barrier. */
+	private static final int SPINS_BEFORE_YIELD = 1000;
+
+	/**
+	 * Starts a stress test, creating a fresh state for each iteration with the
+	 * given factory.
+	 */
+	public static <S> Stress<S> forState(final F0<? extends S> stateFactory) {
+		return new Stress<S>(stateFactory, new ArrayList<Actor<S>>(), null, DEFAULT_BATCH_SIZE);
+	}
+
+	private static class Actor<S> {
+		private final FunctionWithException<? super S, ?> function;
+		private final boolean hasResult;
+
+		Actor(final FunctionWithException<? super S, ?> function, final boolean hasResult) {
+			this.function = function;
+			this.hasResult = hasResult;
+		}
+	}
+
+	private final F0<? extends S> stateFactory;
+	private final List<Actor<S>> actors;
+	private final FunctionWithException<? super S, ?> arbiter;
+	private final int batchSize;
+
+	private Stress(final F0<? extends S> stateFactory, final List<Actor<S>> actors,
+			final FunctionWithException<? super S, ?> arbiter, final int batchSize) {
+		this.stateFactory = stateFactory;
+		this.actors = actors;
+		this.arbiter = arbiter;
+		this.batchSize = batchSize;
+	}
+
+	private Stress<S> withActor(final Actor<S> actor) {
+		final List<Actor<S>> newActors = new ArrayList<>(actors);
+		newActors.add(actor);
+		return new Stress<S>(stateFactory, newActors, arbiter, batchSize);
+	}
+
+	/**
+	 * Adds an actor, whose result is part of the outcome.
+	 */
+	public Stress<S> actor(final FunctionWithException<? super S, ?> actor) {
+		return withActor(new Actor<S>(actor, true));
+	}
+
+	/**
+	 * Adds an actor without result.
+	 */
+	public Stress<S> actorWithoutResult(final ProcedureWithException<? super S> actor) {
+		return withActor(new Actor<S>(state -> {
+			actor.apply(state);
+			return null;
+		}, false));
+	}
+
+	/**
+	 * Sets the arbiter, which observes the state after all actors finished.
+	 * Its result is the last part of the outcome.
+	 */
+	public Stress<S> arbiter(final FunctionWithException<? super S, ?> arbiter) {
+		return new Stress<S>(stateFactory, actors, arbiter, batchSize);
+	}
+
+	/**
+	 * Sets the number of iterations run per batch.
+	 */
+	public Stress<S> batchSize(final int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		return new Stress<S>(stateFactory, actors, arbiter, batchSize);
+	}
+
+	/**
+	 * Runs the given number of iterations and counts their outcomes.
+	 *
+	 * @throws Exception
+	 *             The first exception thrown by an actor or the arbiter.
+	 * @throws InterruptedException
+	 *             If the current thread was interrupted, e.g. by a test
+	 *             timeout while an actor is deadlocked. The actor threads are
+	 *             interrupted and stopped.
+	 */
+	public StressResult run(final long iterations) throws Exception {
+		if (actors.isEmpty()) {
+			throw new IllegalStateException("At least one actor is required");
+		}
+		if (iterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is required");
+		}
+		final int actorCount = actors.size();
+		final Object[] states = new Object[batchSize];
+		final Object[][] results = new Object[actorCount][batchSize];
+		// the number of the current batch, actors start a batch when it changes
+		final AtomicInteger batch = new AtomicInteger();
+		final AtomicInteger finished = new AtomicInteger();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final int[] batchLength = new int[1];
+		final boolean[] stop = new boolean[1];
+
+		final Thread[] threads = new Thread[actorCount];
+		for (int a = 0; a < actorCount; ++a) {
+			final Actor<S> actor = actors.get(a);
+			final Object[] actorResults = results[a];
+			threads[a] = new Thread(() -> {
+				int seenBatch = 0;
+				while (true) {
+					try {
+						awaitChange(batch, seenBatch);
+					} catch (final InterruptedException e) {
+						// the run was stopped
+						return;
+					}
+					seenBatch = batch.get();
+					// the volatile read of batch made stop, batchLength and states visible
+					if (stop[0]) {
+						return;
+					}
+					try {
+						for (int i = 0; i < batchLength[0]; ++i) {
+							@SuppressWarnings("unchecked")
+							final S state = (S) states[i];
+							actorResults[i] = actor.function.apply(state);
+						}
+					} catch (final Throwable t) {
+						error.compareAndSet(null, t);
+					}
+					finished.incrementAndGet();
+				}
+			}, "LambdaTest-Stress-Actor-" + (a + 1));
+			threads[a].setDaemon(true);
+			threads[a].start();
+		}
+
+		final Map<List<Object>, Long> outcomes = new HashMap<>();
+		try {
+			long remaining = iterations;
+			while (remaining > 0 && error.get() == null) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				batchLength[0] = (int) Math.min(batchSize, remaining);
+				for (int i = 0; i < batchLength[0]; ++i) {
+					states[i] = stateFactory.apply();
+				}
+				finished.set(0);
+				// release the actors
+				batch.incrementAndGet();
+				int finishedCount;
+				while ((finishedCount = finished.get()) < actorCount) {
+					awaitChange(finished, finishedCount);
+				}
+				for (int i = 0; i < batchLength[0] && error.get() == null; ++i) {
+					final List<Object> outcome = new ArrayList<>(actorCount + 1);
+					for (int a = 0; a < actorCount; ++a) {
+						if (actors.get(a).hasResult) {
+							outcome.add(results[a][i]);
+						}
+					}
+					if (arbiter != null) {
+						@SuppressWarnings("unchecked")
+						final S state = (S) states[i];
+						outcome.add(arbiter.apply(state));
+					}
+					final Long count = outcomes.get(outcome);
+					outcomes.put(outcome, count == null ? 1L : count + 1);
+				}
+				remaining -= batchLength[0];
+			}
+		} finally {
+			stop[0] = true;
+			batch.incrementAndGet();
+			// also wakes up actors blocked in the tested code, e.g. after an interrupt because of a deadlock
+			for (final Thread thread : threads) {
+				thread.interrupt();
+			}
+			Arrays.fill(states, null);
+		}
+		final Throwable firstError = error.get();
+		if (firstError instanceof Exception) {
+			throw (Exception) firstError;
+		} else if (firstError instanceof Error) {
+			throw (Error) firstError;
+		} else if (firstError != null) {
+			throw new RuntimeException(firstError);
+		}
+		return new StressResult(iterations, outcomes);
+	}
+
+	/**
+	 * Waits until the value differs from the given one, spinning first and
+	 * then yielding, to also make progress with less CPU cores than threads.
+	 *
+	 * @throws InterruptedException
+	 *             If the current thread was interrupted while waiting.
+	 */
+	private static void awaitChange(final AtomicInteger value, final int current) throws InterruptedException {
+		int spins = 0;
+		while (value.get() == current) {
+			if (++spins > SPINS_BEFORE_YIELD) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				Thread.yield();
+			}
+		}
+	}
+
+}
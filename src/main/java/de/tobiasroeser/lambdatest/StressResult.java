@@ -0,0 +1,155 @@
+package de.tobiasroeser.lambdatest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.tobiasroeser.lambdatest.internal.Util;
+
+/**
+ * The counted outcomes of a {@link Stress} test.
+ *
+ * An outcome is rendered as the results of the actors and the arbiter,
+ * separated by `, `, e.g. `1, 2, 2`. The `expect`-methods check the outcomes
+ * with the usual handling of failed expectations, reporting all observed
+ * outcomes with their counts on failure.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class StressResult {
+
+	private final long iterations;
+	private final Map<String, Long> outcomes;
+
+	/**
+	 * @param iterations
+	 *            The number of iterations.
+	 * @param outcomes
+	 *            The observed outcomes with their counts.
+	 */
+	public StressResult(final long iterations, final Map<? extends List<?>, Long> outcomes) {
+		this.iterations = iterations;
+		final List<Map.Entry<String, Long>> entries = new ArrayList<>();
+		final Map<String, Long> rendered = new LinkedHashMap<>();
+		for (final Map.Entry<? extends List<?>, Long> outcome : outcomes.entrySet()) {
+			final String key = render(outcome.getKey());
+			final Long count = rendered.get(key);
+			rendered.put(key, count == null ? outcome.getValue() : count + outcome.getValue());
+		}
+		entries.addAll(rendered.entrySet());
+		// most frequent outcomes first
+		entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+		final Map<String, Long> sorted = new LinkedHashMap<>();
+		for (final Map.Entry<String, Long> entry : entries) {
+			sorted.put(entry.getKey(), entry.getValue());
+		}
+		this.outcomes = Collections.unmodifiableMap(sorted);
+	}
+
+	private static String render(final List<?> outcome) {
+		final List<String> parts = new ArrayList<>(outcome.size());
+		for (final Object part : outcome) {
+			if (part != null && part.getClass().isArray()) {
+				// deepToString handles arrays of primitives only as elements
+				final String wrapped = Arrays.deepToString(new Object[] { part });
+				parts.add(wrapped.substring(1, wrapped.length() - 1));
+			} else {
+				parts.add(String.valueOf(part));
+			}
+		}
+		return Util.mkString(parts, ", ");
+	}
+
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * The observed outcomes with their counts, the most frequent first.
+	 */
+	public Map<String, Long> getOutcomes() {
+		return outcomes;
+	}
+
+	/**
+	 * The number of iterations with the given outcome.
+	 */
+	public long getCount(final String outcome) {
+		final Long count = outcomes.get(outcome);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Expect that the given outcomes were never observed.
+	 */
+	public StressResult expectForbidden(final String... forbidden) {
+		ExpectContext.countExpectation();
+		final List<String> observed = new ArrayList<>();
+		for (final String outcome : forbidden) {
+			if (outcomes.containsKey(outcome)) {
+				observed.add(outcome);
+			}
+		}
+		if (!observed.isEmpty()) {
+			fail("Forbidden outcomes were observed: " + Util.mkString(observed, "[", "], [", "]"));
+		}
+		return this;
+	}
+
+	/**
+	 * Expect that only the given outcomes were observed. Not all of them need
+	 * to be observed.
+	 */
+	public StressResult expectOnly(final String... allowed) {
+		ExpectContext.countExpectation();
+		final Set<String> allowedSet = new HashSet<>(Arrays.asList(allowed));
+		final List<String> unexpected = new ArrayList<>();
+		for (final String outcome : outcomes.keySet()) {
+			if (!allowedSet.contains(outcome)) {
+				unexpected.add(outcome);
+			}
+		}
+		if (!unexpected.isEmpty()) {
+			fail("Unexpected outcomes were observed: " + Util.mkString(unexpected, "[", "], [", "]"));
+		}
+		return this;
+	}
+
+	/**
+	 * Expect that the given outcome was observed at least once, e.g. to make
+	 * sure, the stress test is able to provoke a race at all.
+	 */
+	public StressResult expectObserved(final String outcome) {
+		ExpectContext.countExpectation();
+		if (!outcomes.containsKey(outcome)) {
+			fail("Outcome [" + outcome + "] was not observed");
+		}
+		return this;
+	}
+
+	private void fail(final String msg) {
+		try {
+			// the message is passed as argument, as it must not be interpreted as pattern
+			Assert.fail(null, "{0}\n{1}", msg, this);
+		} catch (final AssertionError e) {
+			ExpectContext.handleAssertionError(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("Observed outcomes in ").append(iterations).append(" iterations:");
+		for (final Map.Entry<String, Long> outcome : outcomes.entrySet()) {
+			sb.append("\n  [").append(outcome.getKey()).append("]: ").append(outcome.getValue());
+		}
+		return sb.toString();
+	}
+
+}
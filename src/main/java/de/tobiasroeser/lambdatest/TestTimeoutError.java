@@ -0,0 +1,84 @@
+package de.tobiasroeser.lambdatest;
+
+/**
+ * Signals, that a test case did not finish within its timeout.
+ *
+ * The message contains a thread dump (including deadlock detection) captured
+ * at the time the timeout expired. The cause, if any, is the error the
+ * interrupted test case finally threw. Test cases not responding to the
+ * interruption are abandoned. Asynchronous test cases are not
+ * interrupted, but their `CompletionStage` gets cancelled.
+ *
+ * @since 0.9.0
+ */
+public class TestTimeoutError extends AssertionError {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long timeoutMillis;
+	private final String diagnostic;
+
+	public TestTimeoutError(final String testName, final long timeoutMillis, final String diagnostic,
+			final Throwable cause) {
+		super("Test \"" + testName + "\" timed out after " + timeoutMillis + " ms and was interrupted.\n"
+				+ diagnostic, cause);
+		this.timeoutMillis = timeoutMillis;
+		this.diagnostic = diagnostic;
+	}
+
+	/**
+	 * Creates the error for an asynchronous test case, which did not complete
+	 * within its timeout.
+	 */
+	public TestTimeoutError(final String testName, final long timeoutMillis, final String diagnostic) {
+		super("Test \"" + testName + "\" did not complete within its timeout of " + timeoutMillis + " ms.\n"
+				+ diagnostic);
+		this.timeoutMillis = timeoutMillis;
+		this.diagnostic = diagnostic;
+	}
+
+	private TestTimeoutError(final long timeoutMillis, final String message, final String diagnostic) {
+		super(message);
+		this.timeoutMillis = timeoutMillis;
+		this.diagnostic = diagnostic;
+	}
+
+	/**
+	 * Creates the error for a test case, which did not finish within its
+	 * timeout and did not respond to the interruption either, e.g. because it
+	 * is deadlocked. Its thread is abandoned.
+	 */
+	public static TestTimeoutError unresponsive(final String testName, final long timeoutMillis,
+			final String diagnostic) {
+		return new TestTimeoutError(timeoutMillis, "Test \"" + testName + "\" timed out after " + timeoutMillis
+				+ " ms and did not respond to the interruption, so its thread was abandoned.\n" + diagnostic,
+				diagnostic);
+	}
+
+	/**
+	 * Creates the error for a test case, which was not run, as the time budget
+	 * of its suite already expired.
+	 *
+	 * @param suiteTimeoutMillis
+	 *            The suite timeout.
+	 */
+	public static TestTimeoutError suiteTimeoutExpired(final String testName, final long suiteTimeoutMillis) {
+		return new TestTimeoutError(suiteTimeoutMillis,
+				"Test \"" + testName + "\" was not run, as the suite timeout of " + suiteTimeoutMillis + " ms expired.",
+				"");
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * The thread dump captured when the timeout expired, a note for
+	 * asynchronous test cases, or an empty string for test cases not run
+	 * because of an expired suite timeout.
+	 */
+	public String getDiagnostic() {
+		return diagnostic;
+	}
+
+}
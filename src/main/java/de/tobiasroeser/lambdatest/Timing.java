@@ -0,0 +1,116 @@
+package de.tobiasroeser.lambdatest;
+
+import java.io.Serializable;
+import java.util.Locale;
+
+/**
+ * Resource usage of a test case or a whole test suite.
+ *
+ * Values which could not be measured (e.g. because the JVM does not support
+ * it) are negative.
+ *
+ * This class is immutable and thus thread-safe.
+ *
+ * @since 0.9.0
+ */
+public class Timing implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final Timing ZERO = new Timing(0, 0, 0);
+
+	private final long wallNanos;
+	private final long cpuNanos;
+	private final long allocatedBytes;
+
+	/**
+	 * @param wallNanos
+	 *            The elapsed wall-clock time in nanoseconds.
+	 * @param cpuNanos
+	 *            The consumed CPU time in nanoseconds, or `-1` if unknown.
+	 * @param allocatedBytes
+	 *            The allocated heap memory in bytes, or `-1` if unknown.
+	 */
+	public Timing(final long wallNanos, final long cpuNanos, final long allocatedBytes) {
+		this.wallNanos = wallNanos;
+		this.cpuNanos = cpuNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * The elapsed wall-clock time in nanoseconds.
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * The consumed CPU time in nanoseconds, or a negative value if unknown.
+	 */
+	public long getCpuNanos() {
+		return cpuNanos;
+	}
+
+	/**
+	 * The allocated heap memory in bytes, or a negative value if unknown.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	public long getWallMillis() {
+		return wallNanos / 1000000L;
+	}
+
+	/**
+	 * Sums up CPU time and allocated bytes, but uses the given wall-clock time.
+	 * Unknown values stay unknown.
+	 */
+	public Timing plus(final Timing other, final long wallNanos) {
+		return new Timing(
+				wallNanos,
+				cpuNanos < 0 || other.cpuNanos < 0 ? -1 : cpuNanos + other.cpuNanos,
+				allocatedBytes < 0 || other.allocatedBytes < 0 ? -1 : allocatedBytes + other.allocatedBytes);
+	}
+
+	/**
+	 * Sums up all values of this and the other timing. Unknown values stay
+	 * unknown.
+	 */
+	public Timing plus(final Timing other) {
+		return plus(other, wallNanos + other.wallNanos);
+	}
+
+	public static String formatNanos(final long nanos) {
+		if (nanos < 0) {
+			return "n/a";
+		} else if (nanos < 1000000L) {
+			return String.format(Locale.ROOT, "%.3f ms", nanos / 1000000.0);
+		} else if (nanos < 1000000000L) {
+			return String.format(Locale.ROOT, "%d ms", nanos / 1000000L);
+		} else {
+			return String.format(Locale.ROOT, "%.3f s", nanos / 1000000000.0);
+		}
+	}
+
+	public static String formatBytes(final long bytes) {
+		if (bytes < 0) {
+			return "n/a";
+		} else if (bytes < 1024L) {
+			return bytes + " B";
+		} else if (bytes < 1024L * 1024L) {
+			return String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+		} else if (bytes < 1024L * 1024L * 1024L) {
+			return String.format(Locale.ROOT, "%.1f MiB", bytes / (1024.0 * 1024.0));
+		} else {
+			return String.format(Locale.ROOT, "%.1f GiB", bytes / (1024.0 * 1024.0 * 1024.0));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return formatNanos(wallNanos) + " (cpu: " + formatNanos(cpuNanos) + ", allocated: "
+				+ formatBytes(allocatedBytes) + ")";
+	}
+
+}
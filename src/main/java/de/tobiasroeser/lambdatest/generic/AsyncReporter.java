@@ -0,0 +1,300 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.LoadTestResult;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.internal.LoggerFactory;
+import de.tobiasroeser.lambdatest.internal.Procedure1;
+import de.tobiasroeser.lambdatest.internal.RingBuffer;
+
+/**
+ * A Reporter that wraps another reporter and calls it asynchronously from a
+ * single background thread.
+ *
+ * Test threads only put the events into a bounded lock-free ring buffer and
+ * continue immediately, so slow output (e.g. to the console) no longer slows
+ * down the tests or serializes parallel test threads. As all events are
+ * delivered by one thread in the order they were reported, the wrapped
+ * reporter does not need to be thread-safe and sees the events of each test
+ * suite in order.
+ *
+ * When the buffer is full, the {@link OverflowPolicy} decides, whether the
+ * test thread waits for free space or the event is dropped. Suite events and
+ * test failures are never dropped.
+ *
+ * {@link #suiteFinished(String, Timing)} waits until all events are delivered,
+ * so the output of a test suite is complete, when it returns.
+ *
+ * The background thread is started with the first reported event, together
+ * with a JVM shutdown hook, which delivers pending events on shutdown.
+ * {@link #close()} stops the thread and removes the shutdown hook, so a
+ * reporter which is no longer used should be closed.
+ *
+ * [source,java]
+ * ----
+ * FreeSpecBase.setDefaultReporter(new AsyncReporter(new DefaultReporter()));
+ * ----
+ *
+ * @since 0.9.0
+ */
+public class AsyncReporter implements Reporter {
+
+	/**
+	 * What to do, when an event is reported while the buffer is full.
+	 */
+	public enum OverflowPolicy {
+		/** Wait until the background thread freed some space. */
+		BLOCK,
+		/**
+		 * Drop the test event, unless it reports a test failure. The number of
+		 * dropped events is reported as suite warning when the next suite
+		 * finishes.
+		 */
+		DROP
+	}
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static final int BATCH_SIZE = 64;
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	private final Reporter underlying;
+	private final OverflowPolicy overflowPolicy;
+	private final RingBuffer<Procedure1<Reporter>> buffer;
+	/** The background thread, started lazily. */
+	private volatile Thread consumer;
+	/** Guarded by `this`. */
+	private Thread shutdownHook;
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile boolean consumerParked;
+	private volatile boolean closed;
+
+	public AsyncReporter(final Reporter underlying) {
+		this(underlying, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * @param underlying
+	 *            The reporter to call from the background thread.
+	 * @param capacity
+	 *            The maximum number of buffered events, rounded up to the next
+	 *            power of two.
+	 * @param overflowPolicy
+	 *            What to do, when the buffer is full.
+	 */
+	public AsyncReporter(final Reporter underlying, final int capacity, final OverflowPolicy overflowPolicy) {
+		this.underlying = underlying;
+		this.overflowPolicy = overflowPolicy;
+		this.buffer = new RingBuffer<>(capacity);
+	}
+
+	public Reporter getUnderlying() {
+		return underlying;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * The number of dropped events not yet reported as suite warning.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Starts the background thread and registers the shutdown hook, if not
+	 * already done.
+	 *
+	 * @return The background thread, or `null` if closed.
+	 */
+	private Thread startConsumer() {
+		Thread thread = consumer;
+		if (thread == null) {
+			synchronized (this) {
+				thread = consumer;
+				if (thread == null && !closed) {
+					thread = new Thread(this::consume, "LambdaTest-AsyncReporter-" + threadCounter.incrementAndGet());
+					thread.setDaemon(true);
+					thread.start();
+					shutdownHook = new Thread(() -> flush(SHUTDOWN_TIMEOUT_MILLIS));
+					Runtime.getRuntime().addShutdownHook(shutdownHook);
+					consumer = thread;
+				}
+			}
+		}
+		return thread;
+	}
+
+	private void consume() {
+		final Procedure1<Procedure1<Reporter>> deliver = this::deliver;
+		while (true) {
+			if (buffer.drain(deliver, BATCH_SIZE) > 0) {
+				continue;
+			}
+			if (closed && buffer.isEmpty()) {
+				return;
+			}
+			consumerParked = true;
+			// re-check after announcing, that we park, to not miss a wake-up
+			if (buffer.isEmpty()) {
+				LockSupport.parkNanos(this, MAX_PARK_NANOS);
+			}
+			consumerParked = false;
+		}
+	}
+
+	private void deliver(final Procedure1<Reporter> event) {
+		try {
+			event.apply(underlying);
+		} catch (final Throwable e) {
+			LoggerFactory.getLogger(AsyncReporter.class).error("Reporter {} failed", underlying, e);
+		}
+	}
+
+	private void enqueue(final Procedure1<Reporter> event, final boolean droppable) {
+		final Thread thread = closed ? null : startConsumer();
+		if (thread == null || Thread.currentThread() == thread) {
+			// no background thread anymore or called back from the underlying
+			// reporter
+			synchronized (underlying) {
+				deliver(event);
+			}
+			return;
+		}
+		while (!buffer.offer(event)) {
+			if (droppable && overflowPolicy == OverflowPolicy.DROP) {
+				dropped.incrementAndGet();
+				return;
+			}
+			LockSupport.unpark(thread);
+			LockSupport.parkNanos(this, 10000L);
+		}
+		if (consumerParked) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Waits until all events reported so far are delivered to the underlying
+	 * reporter.
+	 *
+	 * @param timeoutMillis
+	 *            The maximum time to wait.
+	 * @return `true` if all events were delivered, `false` if the timeout
+	 *         elapsed.
+	 */
+	public boolean flush(final long timeoutMillis) {
+		final Thread thread = consumer;
+		if (closed || thread == null || Thread.currentThread() == thread) {
+			// nothing reported yet, or called back from the underlying reporter
+			return true;
+		}
+		final CountDownLatch latch = new CountDownLatch(1);
+		enqueue(r -> latch.countDown(), false);
+		try {
+			return latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Delivers all pending events, stops the background thread and removes
+	 * the shutdown hook. Events reported afterwards are delivered
+	 * synchronously.
+	 */
+	public void close() {
+		flush(SHUTDOWN_TIMEOUT_MILLIS);
+		final Thread hook;
+		synchronized (this) {
+			closed = true;
+			hook = shutdownHook;
+			shutdownHook = null;
+		}
+		final Thread thread = consumer;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+		if (hook != null && Thread.currentThread() != hook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(hook);
+			} catch (final IllegalStateException e) {
+				// already shutting down
+			}
+		}
+	}
+
+	@Override
+	public void testStart(final LambdaTestCase test) {
+		enqueue(r -> r.testStart(test), true);
+	}
+
+	@Override
+	public void testSkipped(final LambdaTestCase test, final String message) {
+		enqueue(r -> r.testSkipped(test, message), true);
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		// failures are never dropped
+		enqueue(r -> r.testFailed(test, error), false);
+	}
+
+	@Override
+	public void testSucceeded(final LambdaTestCase test) {
+		enqueue(r -> r.testSucceeded(test), true);
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		enqueue(r -> r.testFinished(test, timing), true);
+	}
+
+	@Override
+	public void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+		enqueue(r -> r.benchmarkResult(test, result), false);
+	}
+
+	@Override
+	public void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+		enqueue(r -> r.loadTestResult(test, result), false);
+	}
+
+	@Override
+	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		enqueue(r -> r.suiteStart(suiteName, tests), false);
+	}
+
+	@Override
+	public void suiteWarning(final String suiteName, final String warning) {
+		enqueue(r -> r.suiteWarning(suiteName, warning), false);
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		enqueue(r -> {
+			final long droppedCount = dropped.getAndSet(0);
+			if (droppedCount > 0) {
+				r.suiteWarning(suiteName, "Dropped " + droppedCount + " reporter events because the buffer was full");
+			}
+			r.suiteFinished(suiteName, total);
+		}, false);
+		flush(Long.MAX_VALUE);
+	}
+
+}
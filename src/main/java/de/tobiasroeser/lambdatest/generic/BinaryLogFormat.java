@@ -0,0 +1,74 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The file format written by {@link BinaryLogReporter} and read by
+ * {@link BinaryLogReader}.
+ *
+ * The file starts with the 8 byte {@link #MAGIC}, followed by records. All
+ * numbers are big-endian. A record type of `0` marks the end of the log, as
+ * the file is zero-filled beyond the last written record.
+ *
+ * Names of suites, sections, tests and error types, as well as sections are
+ * written once as definition records and are referenced by their id
+ * afterwards. Messages and stack traces are mostly unique, so they are
+ * written as text records directly before the event using them, which
+ * references them by the id {@link #INLINE}, in the order of its values:
+ *
+ * ----
+ * STRING:  byte type, byte[3] unused, int id, int length, byte[length] utf8
+ * SECTION: byte type, byte[3] unused, int id, int parentId, int nameId
+ * TEXT:    byte type, byte[3] unused, int length, byte[length] utf8
+ * ----
+ *
+ * All events use the same fixed layout of {@link #EVENT_SIZE} bytes:
+ *
+ * ----
+ * byte type, byte flags, byte[2] unused, int suiteId, int sectionId, int nameId, long a, long b, long c
+ * ----
+ *
+ * The meaning of `a`, `b` and `c` depends on the event type, unused values are
+ * `0` and absent ids are `-1`.
+ */
+class BinaryLogFormat {
+
+	static final byte[] MAGIC = "LTEVLOG1".getBytes(StandardCharsets.US_ASCII);
+
+	static final byte END = 0;
+	static final byte STRING = 1;
+	static final byte SECTION = 2;
+	/** a: number of declared tests, b: start time in epoch millis */
+	static final byte SUITE_START = 3;
+	/** A test of the last started suite, in declaration order. */
+	static final byte TEST_DECLARED = 4;
+	/** a: thread id, b: start time in epoch millis */
+	static final byte TEST_START = 5;
+	static final byte TEST_SUCCEEDED = 6;
+	/** a: message id ({@link #INLINE}) */
+	static final byte TEST_SKIPPED = 7;
+	/**
+	 * a: error type id, b: message id ({@link #INLINE}), c: stack trace id
+	 * ({@link #INLINE}), flags: {@link #FLAG_ASSERTION}
+	 */
+	static final byte TEST_FAILED = 8;
+	/** a: wall nanos, b: CPU nanos, c: allocated bytes */
+	static final byte TEST_FINISHED = 9;
+	/** a: warning id ({@link #INLINE}) */
+	static final byte SUITE_WARNING = 10;
+	/** a: wall nanos, b: CPU nanos, c: allocated bytes */
+	static final byte SUITE_FINISHED = 11;
+	static final byte TEXT = 12;
+
+	/** The id of a text written directly before the event. */
+	static final int INLINE = -2;
+
+	/** The error of a failed test was an {@link AssertionError}. */
+	static final byte FLAG_ASSERTION = 1;
+
+	static final int STRING_HEADER_SIZE = 12;
+	static final int TEXT_HEADER_SIZE = 8;
+	static final int SECTION_SIZE = 16;
+	static final int EVENT_SIZE = 40;
+
+}
@@ -0,0 +1,221 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.generic.BinaryLogFormat.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
+
+/**
+ * Reads a log written by {@link BinaryLogReporter} and replays all events to
+ * another {@link Reporter}, e.g. to produce console output, JUnit XML or JSON
+ * Lines after the test run.
+ *
+ * Errors of failed tests are replayed with their original type, message and
+ * stack trace, but not as their original class.
+ *
+ * It can also be used from the command line:
+ *
+ * ----
+ * java -cp de.tototec.lambdatest.jar de.tobiasroeser.lambdatest.generic.BinaryLogReader &lt;log&gt; [console | junit-xml &lt;dir&gt; | json &lt;file&gt;]
+ * ----
+ *
+ * @since 0.9.0
+ */
+public class BinaryLogReader {
+
+	private static final String CAUSED_BY = "Caused by: ";
+
+	private final Path file;
+
+	public BinaryLogReader(final Path file) {
+		this.file = file;
+	}
+
+	private static class ReplayState {
+		private final List<String> strings = new ArrayList<>();
+		private final List<Section> sections = new ArrayList<>();
+		/** The texts written before the current event. */
+		private final Queue<String> texts = new ArrayDeque<>();
+		/** Test cases per suite id, by section and name id. */
+		private final Map<Integer, Map<Long, DefaultTestCase>> tests = new HashMap<>();
+		private String startedSuite;
+		private List<DefaultTestCase> declaredTests;
+
+		private String string(final long id) {
+			if (id == INLINE) {
+				return texts.remove();
+			}
+			return id < 0 ? null : strings.get((int) id);
+		}
+
+		private DefaultTestCase test(final int suiteId, final int sectionId, final int nameId) {
+			final Map<Long, DefaultTestCase> suiteTests = tests.computeIfAbsent(suiteId, id -> new HashMap<>());
+			return suiteTests.computeIfAbsent(((long) sectionId << 32) | (nameId & 0xffffffffL),
+					key -> new DefaultTestCase(sectionId < 0 ? null : sections.get(sectionId), string(nameId),
+							string(suiteId), () -> {
+								throw new UnsupportedOperationException("Replayed test cases can not be run");
+							}));
+		}
+	}
+
+	/**
+	 * Replays all events of the log to the given reporter.
+	 */
+	public void replay(final Reporter reporter) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			final byte[] magic = new byte[MAGIC.length];
+			in.readFully(magic);
+			if (!Arrays.equals(magic, MAGIC)) {
+				throw new IOException("Not a LambdaTest binary log: " + file);
+			}
+			final ReplayState state = new ReplayState();
+			while (true) {
+				final byte type;
+				try {
+					type = in.readByte();
+				} catch (final EOFException e) {
+					break;
+				}
+				if (type == END) {
+					break;
+				}
+				final byte flags = in.readByte();
+				in.readShort();
+				if (type == STRING) {
+					final int id = in.readInt();
+					final byte[] bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+					state.strings.add(id, new String(bytes, StandardCharsets.UTF_8));
+					continue;
+				}
+				if (type == TEXT) {
+					final byte[] bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+					state.texts.add(new String(bytes, StandardCharsets.UTF_8));
+					continue;
+				}
+				if (type == SECTION) {
+					final int id = in.readInt();
+					final int parentId = in.readInt();
+					final int nameId = in.readInt();
+					state.sections.add(id,
+							new Section(state.string(nameId), parentId < 0 ? null : state.sections.get(parentId)));
+					continue;
+				}
+				final int suiteId = in.readInt();
+				final int sectionId = in.readInt();
+				final int nameId = in.readInt();
+				final long a = in.readLong();
+				final long b = in.readLong();
+				final long c = in.readLong();
+				if (type == TEST_DECLARED) {
+					state.declaredTests.add(state.test(suiteId, sectionId, nameId));
+					continue;
+				}
+				if (state.startedSuite != null) {
+					// all tests are declared now
+					reporter.suiteStart(state.startedSuite, state.declaredTests);
+					state.startedSuite = null;
+					state.declaredTests = null;
+				}
+				replayEvent(reporter, state, type, flags, suiteId, sectionId, nameId, a, b, c);
+			}
+			if (state.startedSuite != null) {
+				reporter.suiteStart(state.startedSuite, state.declaredTests);
+			}
+		}
+	}
+
+	private void replayEvent(final Reporter reporter, final ReplayState state, final byte type, final byte flags,
+			final int suiteId, final int sectionId, final int nameId, final long a, final long b, final long c)
+			throws IOException {
+		switch (type) {
+		case SUITE_START:
+			state.startedSuite = state.string(suiteId);
+			state.declaredTests = new ArrayList<>((int) a);
+			break;
+		case TEST_START:
+			reporter.testStart(state.test(suiteId, sectionId, nameId));
+			break;
+		case TEST_SUCCEEDED:
+			reporter.testSucceeded(state.test(suiteId, sectionId, nameId));
+			break;
+		case TEST_SKIPPED:
+			reporter.testSkipped(state.test(suiteId, sectionId, nameId), state.string(a));
+			break;
+		case TEST_FAILED:
+			reporter.testFailed(state.test(suiteId, sectionId, nameId), recordedError(state.string(a),
+					state.string(b), state.string(c), (flags & FLAG_ASSERTION) != 0));
+			break;
+		case TEST_FINISHED:
+			reporter.testFinished(state.test(suiteId, sectionId, nameId), new Timing(a, b, c));
+			break;
+		case SUITE_WARNING:
+			reporter.suiteWarning(state.string(suiteId), state.string(a));
+			break;
+		case SUITE_FINISHED:
+			reporter.suiteFinished(state.string(suiteId), new Timing(a, b, c));
+			state.tests.remove(suiteId);
+			break;
+		default:
+			throw new IOException("Unsupported record type " + type + " in binary log " + file);
+		}
+	}
+
+	/**
+	 * Recreates the error including its causes, which are parsed from the
+	 * `Caused by:` lines of the stack trace.
+	 */
+	private static RecordedError recordedError(final String type, final String message, final String stackTrace,
+			final boolean assertion) {
+		final RecordedError error = new RecordedError(type, message, stackTrace, assertion);
+		if (stackTrace != null) {
+			Throwable last = error;
+			for (final String line : stackTrace.split("\r?\n")) {
+				if (line.startsWith(CAUSED_BY)) {
+					final String cause = line.substring(CAUSED_BY.length());
+					final int sep = cause.indexOf(": ");
+					final RecordedError recordedCause = sep < 0
+							? new RecordedError(cause, null, null, false)
+							: new RecordedError(cause.substring(0, sep), cause.substring(sep + 2), null, false);
+					last.initCause(recordedCause);
+					last = recordedCause;
+				}
+			}
+		}
+		return error;
+	}
+
+	public static void main(final String[] args) throws Exception {
+		if (args.length == 1 || (args.length == 2 && "console".equals(args[1]))) {
+			new BinaryLogReader(Paths.get(args[0])).replay(new DefaultReporter());
+		} else if (args.length == 3 && "junit-xml".equals(args[1])) {
+			new BinaryLogReader(Paths.get(args[0])).replay(new JUnitXmlReporter(Paths.get(args[2])));
+		} else if (args.length == 3 && "json".equals(args[1])) {
+			try (JsonLinesReporter reporter = new JsonLinesReporter(Paths.get(args[2]))) {
+				new BinaryLogReader(Paths.get(args[0])).replay(reporter);
+			}
+		} else {
+			System.err.println("Usage: BinaryLogReader <log> [console | junit-xml <dir> | json <file>]");
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.generic.BinaryLogFormat.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.internal.Escape;
+
+/**
+ * A Reporter appending all events as compact binary records to a
+ * memory-mapped file.
+ *
+ * Each event is a fixed-size record of a few numbers. Names are written only
+ * once and referenced by id afterwards, so reporting an event costs a few
+ * stores into the mapped memory and no formatting or system call. Messages
+ * and stack traces are written along with their event, so they are not kept
+ * in memory.
+ * As the operating system writes the mapped memory back to the file, the log
+ * also survives a crash of the JVM.
+ *
+ * Use {@link BinaryLogReader} to convert the log into console output, JUnit XML
+ * or JSON Lines after the test run.
+ *
+ * @see BinaryLogFormat
+ * @since 0.9.0
+ */
+public class BinaryLogReporter implements Reporter, Closeable {
+
+	private static final int REGION_SIZE = 4 * 1024 * 1024;
+
+	private final Path file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	/** The file position of the start of {@link #buffer}. */
+	private long regionStart;
+
+	/** The ids of suite, section, test and error type names. */
+	private final Map<String, Integer> strings = new HashMap<>();
+	/** The ids of the sections of running suites. */
+	private final Map<Section, Integer> sections = new IdentityHashMap<>();
+	private int nextSectionId;
+	private final Map<LambdaTestCase, int[]> tests = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new log file. An existing file will be overwritten.
+	 */
+	public BinaryLogReporter(final Path file) {
+		this.file = file;
+		try {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			map(0, REGION_SIZE);
+			buffer.put(MAGIC);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Could not create binary log " + file, e);
+		}
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	private void map(final long position, final int size) throws IOException {
+		buffer = channel.map(MapMode.READ_WRITE, position, size);
+		regionStart = position;
+	}
+
+	/**
+	 * Makes sure, the next `size` bytes fit into the mapped region.
+	 */
+	private void ensureCapacity(final int size) {
+		if (buffer.remaining() < size) {
+			try {
+				map(regionStart + buffer.position(), Math.max(REGION_SIZE, size));
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not extend binary log " + file, e);
+			}
+		}
+	}
+
+	private int string(final String string) {
+		if (string == null) {
+			return -1;
+		}
+		Integer id = strings.get(string);
+		if (id == null) {
+			id = strings.size();
+			strings.put(string, id);
+			final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			ensureCapacity(STRING_HEADER_SIZE + bytes.length);
+			buffer.put(STRING).put((byte) 0).putShort((short) 0).putInt(id).putInt(bytes.length).put(bytes);
+		}
+		return id;
+	}
+
+	/**
+	 * Writes a text record for the next event.
+	 *
+	 * @return The id to reference the text from the event.
+	 */
+	private int inline(final String text) {
+		if (text == null) {
+			return -1;
+		}
+		final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(TEXT_HEADER_SIZE + bytes.length);
+		buffer.put(TEXT).put((byte) 0).putShort((short) 0).putInt(bytes.length).put(bytes);
+		return INLINE;
+	}
+
+	private int section(final Section section) {
+		if (section == null) {
+			return -1;
+		}
+		Integer id = sections.get(section);
+		if (id == null) {
+			final int parentId = section(section.getParent());
+			final int nameId = string(section.getName());
+			id = nextSectionId++;
+			sections.put(section, id);
+			ensureCapacity(SECTION_SIZE);
+			buffer.put(SECTION).put((byte) 0).putShort((short) 0).putInt(id).putInt(parentId).putInt(nameId);
+		}
+		return id;
+	}
+
+	private int[] testIds(final LambdaTestCase test) {
+		int[] ids = tests.get(test);
+		if (ids == null) {
+			ids = new int[] { string(test.getSuiteName()), section(test.getSection().orNull()),
+					string(test.getName()) };
+			tests.put(test, ids);
+		}
+		return ids;
+	}
+
+	private void event(final byte type, final byte flags, final int suiteId, final int sectionId, final int nameId,
+			final long a, final long b, final long c) {
+		ensureCapacity(EVENT_SIZE);
+		buffer.put(type).put(flags).putShort((short) 0).putInt(suiteId).putInt(sectionId).putInt(nameId)
+				.putLong(a).putLong(b).putLong(c);
+	}
+
+	private void testEvent(final byte type, final LambdaTestCase test, final long a, final long b, final long c) {
+		final int[] ids = testIds(test);
+		event(type, (byte) 0, ids[0], ids[1], ids[2], a, b, c);
+	}
+
+	@Override
+	public synchronized void testStart(final LambdaTestCase test) {
+		testEvent(TEST_START, test, Thread.currentThread().getId(), System.currentTimeMillis(), 0);
+	}
+
+	@Override
+	public synchronized void testSkipped(final LambdaTestCase test, final String message) {
+		final int[] ids = testIds(test);
+		event(TEST_SKIPPED, (byte) 0, ids[0], ids[1], ids[2], inline(message), 0, 0);
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		// render outside the lock
+		final String stackTrace = Escape.stackTrace(error);
+		synchronized (this) {
+			final int[] ids = testIds(test);
+			final int typeId = string(RecordedError.typeOf(error));
+			final int messageId = inline(error.getMessage());
+			final int stackTraceId = inline(stackTrace);
+			event(TEST_FAILED, RecordedError.isAssertion(error) ? FLAG_ASSERTION : (byte) 0, ids[0], ids[1], ids[2],
+					typeId, messageId, stackTraceId);
+		}
+	}
+
+	@Override
+	public synchronized void testSucceeded(final LambdaTestCase test) {
+		testEvent(TEST_SUCCEEDED, test, 0, 0, 0);
+	}
+
+	@Override
+	public synchronized void testFinished(final LambdaTestCase test, final Timing timing) {
+		testEvent(TEST_FINISHED, test, timing.getWallNanos(), timing.getCpuNanos(), timing.getAllocatedBytes());
+	}
+
+	@Override
+	public synchronized void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		event(SUITE_START, (byte) 0, string(suiteName), -1, -1, tests.size(), System.currentTimeMillis(), 0);
+		for (final LambdaTestCase test : tests) {
+			testEvent(TEST_DECLARED, test, 0, 0, 0);
+		}
+	}
+
+	@Override
+	public synchronized void suiteWarning(final String suiteName, final String warning) {
+		final int suiteId = string(suiteName);
+		event(SUITE_WARNING, (byte) 0, suiteId, -1, -1, inline(warning), 0, 0);
+	}
+
+	@Override
+	public synchronized void suiteFinished(final String suiteName, final Timing total) {
+		event(SUITE_FINISHED, (byte) 0, string(suiteName), -1, -1, total.getWallNanos(), total.getCpuNanos(),
+				total.getAllocatedBytes());
+		// test and section ids of this suite are no longer needed
+		final Iterator<LambdaTestCase> it = tests.keySet().iterator();
+		while (it.hasNext()) {
+			final LambdaTestCase test = it.next();
+			if (suiteName.equals(test.getSuiteName())) {
+				for (Section section = test.getSection().orNull(); section != null; section = section.getParent()) {
+					sections.remove(section);
+				}
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Closes the log and truncates the file to the written records.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		final long size = regionStart + buffer.position();
+		buffer.force();
+		buffer = null;
+		try {
+			channel.truncate(size);
+		} catch (final IOException e) {
+			// some platforms do not allow to truncate a mapped file, the zero
+			// filled tail marks the end of the log anyway
+		}
+		channel.close();
+	}
+
+}
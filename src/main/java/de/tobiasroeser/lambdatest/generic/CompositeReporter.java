@@ -0,0 +1,113 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.LoadTestResult;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Timing;
+
+/**
+ * A Reporter forwarding all events to multiple other reporters, e.g. to
+ * produce console output and a machine readable report at the same time.
+ *
+ * [source,java]
+ * ----
+ * FreeSpecBase.setDefaultReporter(new CompositeReporter(
+ *   FreeSpecBase.getDefaultReporter(),
+ *   new JUnitXmlReporter(Paths.get("target/test-reports"))));
+ * ----
+ *
+ * @since 0.9.0
+ */
+public class CompositeReporter implements Reporter {
+
+	private final List<Reporter> reporters;
+
+	public CompositeReporter(final Reporter... reporters) {
+		this(Arrays.asList(reporters));
+	}
+
+	public CompositeReporter(final List<? extends Reporter> reporters) {
+		this.reporters = Collections.unmodifiableList(new ArrayList<>(reporters));
+	}
+
+	public List<Reporter> getReporters() {
+		return reporters;
+	}
+
+	@Override
+	public void testStart(final LambdaTestCase test) {
+		for (final Reporter reporter : reporters) {
+			reporter.testStart(test);
+		}
+	}
+
+	@Override
+	public void testSkipped(final LambdaTestCase test, final String message) {
+		for (final Reporter reporter : reporters) {
+			reporter.testSkipped(test, message);
+		}
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		for (final Reporter reporter : reporters) {
+			reporter.testFailed(test, error);
+		}
+	}
+
+	@Override
+	public void testSucceeded(final LambdaTestCase test) {
+		for (final Reporter reporter : reporters) {
+			reporter.testSucceeded(test);
+		}
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		for (final Reporter reporter : reporters) {
+			reporter.testFinished(test, timing);
+		}
+	}
+
+	@Override
+	public void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+		for (final Reporter reporter : reporters) {
+			reporter.benchmarkResult(test, result);
+		}
+	}
+
+	@Override
+	public void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+		for (final Reporter reporter : reporters) {
+			reporter.loadTestResult(test, result);
+		}
+	}
+
+	@Override
+	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		for (final Reporter reporter : reporters) {
+			reporter.suiteStart(suiteName, tests);
+		}
+	}
+
+	@Override
+	public void suiteWarning(final String suiteName, final String warning) {
+		for (final Reporter reporter : reporters) {
+			reporter.suiteWarning(suiteName, warning);
+		}
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		for (final Reporter reporter : reporters) {
+			reporter.suiteFinished(suiteName, total);
+		}
+	}
+
+}
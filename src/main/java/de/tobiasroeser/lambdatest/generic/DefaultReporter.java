@@ -1,27 +1,125 @@
 package de.tobiasroeser.lambdatest.generic;
 
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
+import de.tobiasroeser.lambdatest.BenchmarkResult;
 import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.LoadTestResult;
 import de.tobiasroeser.lambdatest.Optional;
 import de.tobiasroeser.lambdatest.Reporter;
 import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
 import de.tobiasroeser.lambdatest.internal.AnsiColor;
 import de.tobiasroeser.lambdatest.internal.AnsiColor.Color;
+import de.tobiasroeser.lambdatest.internal.StackTraces;
 
 /**
  * The default reporter outputs to a PrintStream.
  *
+ * Tests running longer than the slow test threshold (see
+ * {@link #setSlowTestThreshold(Duration)}) are marked with their timing, and
+ * the slowest of them are listed again, when the test suite finished.
+ *
+ * This reporter is thread-safe. The output of each event is rendered before a
+ * short lock is taken to print it, so tests running in parallel are not
+ * serialized by the reporter. As the results of parallel tests may still
+ * interleave across sections, you can enable grouped output (see
+ * {@link #setGroupedOutput(boolean)}), which buffers the results of all tests
+ * in a section and prints them as one block, once all of them finished.
+ *
  */
 public class DefaultReporter implements Reporter {
 
+	/**
+	 * The default threshold, above which a test is considered slow.
+	 *
+	 * @since 0.9.0
+	 */
+	public static final Duration DEFAULT_SLOW_TEST_THRESHOLD = Duration.ofSeconds(1);
+
+	private static final int SLOWEST_TESTS_COUNT = 5;
+
+	/** The number of stack trace fingerprints remembered for deduplication. */
+	private static final int STACK_TRACE_CACHE_SIZE = 256;
+
 	private final AnsiColor ansi = new AnsiColor();
 	private final PrintStream out;
 	private final boolean showStacktrace;
-	private Map<String, Section> lastSuiteSection = new LinkedHashMap<>();
+	private volatile long slowTestThresholdNanos = DEFAULT_SLOW_TEST_THRESHOLD.toNanos();
+	private volatile boolean groupedOutput = false;
+	private volatile boolean filterStackTraces = true;
+	private volatile boolean deduplicateStackTraces = true;
+
+	/** Guards all mutable state below and the output. */
+	private final Object lock = new Object();
+	private final Map<String, Section> lastSuiteSection = new HashMap<>();
+	private final Map<String, PriorityQueue<SlowTest>> slowestTests = new HashMap<>();
+	private final Map<String, SuiteOutput> suiteOutputs = new HashMap<>();
+	/** Results of benchmarks and load tests, printed when the test case finished. */
+	private final Map<LambdaTestCase, List<String>> measurements = new IdentityHashMap<>();
+	private final Map<Long, RepeatedStackTrace> stackTraces = new LinkedHashMap<Long, RepeatedStackTrace>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Long, RepeatedStackTrace> eldest) {
+			return size() > STACK_TRACE_CACHE_SIZE;
+		}
+	};
+
+	private static class RepeatedStackTrace {
+		private final String firstTest;
+		private int count = 1;
+
+		RepeatedStackTrace(final String firstTest) {
+			this.firstTest = firstTest;
+		}
+	}
+
+	private static class SlowTest {
+		private final String name;
+		private final Timing timing;
+
+		SlowTest(final String name, final Timing timing) {
+			this.name = name;
+			this.timing = timing;
+		}
+	}
+
+	/**
+	 * Buffered output of a suite in grouped output mode.
+	 */
+	private static class SuiteOutput {
+		/** All blocks in declaration order. */
+		private final List<Block> blocks = new ArrayList<>();
+		private final Map<LambdaTestCase, Block> blockOfTest = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Consecutive test cases of the same section, which are printed together.
+	 */
+	private static class Block {
+		private final Section section;
+		private final List<LambdaTestCase> tests = new ArrayList<>();
+		private final Map<LambdaTestCase, StringBuilder> output = new IdentityHashMap<>();
+		private int pending;
+
+		Block(final Section section) {
+			this.section = section;
+		}
+	}
 
 	/**
 	 * Creates a reporter with output to STDOUT and full stacktraces.
@@ -53,6 +151,88 @@ public class DefaultReporter implements Reporter {
 		this.showStacktrace = showStacktrace;
 	}
 
+	/**
+	 * Set the threshold, above which a test is considered slow.
+	 *
+	 * @param threshold
+	 *            The threshold or `null` to never consider tests as slow.
+	 * @since 0.9.0
+	 */
+	public void setSlowTestThreshold(final Duration threshold) {
+		this.slowTestThresholdNanos = threshold == null ? Long.MAX_VALUE : threshold.toNanos();
+	}
+
+	/**
+	 * Enable or disable grouped output. If enabled, the results of the tests of
+	 * a section are buffered and printed together as one block including the
+	 * section headers, once all tests of the section finished. Blocks are
+	 * printed in the order they complete. This keeps the output readable, when
+	 * tests run in parallel.
+	 *
+	 * The output of incomplete blocks is printed, when the suite finished.
+	 *
+	 * @since 0.9.0
+	 */
+	public void setGroupedOutput(final boolean groupedOutput) {
+		this.groupedOutput = groupedOutput;
+	}
+
+	public boolean isGroupedOutput() {
+		return groupedOutput;
+	}
+
+	/**
+	 * Enable or disable filtering of stack traces. If enabled (the default),
+	 * the frames of test frameworks, reflection and LambdaTest itself are left
+	 * out of the stack traces of failed tests.
+	 *
+	 * @since 0.9.0
+	 */
+	public void setFilterStackTraces(final boolean filterStackTraces) {
+		this.filterStackTraces = filterStackTraces;
+	}
+
+	public boolean isFilterStackTraces() {
+		return filterStackTraces;
+	}
+
+	/**
+	 * Enable or disable deduplication of stack traces. If enabled (the
+	 * default), a stack trace is printed in full only for the first failed
+	 * test. Later failures with the same stack trace (the same error types
+	 * thrown at the same code locations, regardless of their messages), e.g.
+	 * of data-driven tests, only print their messages and a reference to the
+	 * first test.
+	 *
+	 * @since 0.9.0
+	 */
+	public void setDeduplicateStackTraces(final boolean deduplicateStackTraces) {
+		this.deduplicateStackTraces = deduplicateStackTraces;
+	}
+
+	public boolean isDeduplicateStackTraces() {
+		return deduplicateStackTraces;
+	}
+
+	/**
+	 * Records the stack trace fingerprint of a failed test.
+	 *
+	 * @return `null`, if the stack trace was not seen before, else a note
+	 *         referring to the first test with this stack trace.
+	 */
+	private String repeatedStackTrace(final long fingerprint, final LambdaTestCase test) {
+		synchronized (lock) {
+			final RepeatedStackTrace repeated = stackTraces.get(fingerprint);
+			if (repeated == null) {
+				stackTraces.put(fingerprint, new RepeatedStackTrace(test.getSectionAndTestName(" / ")));
+				return null;
+			}
+			++repeated.count;
+			return "\t... same stack trace as test \"" + repeated.firstTest + "\" (seen " + repeated.count
+					+ " times)";
+		}
+	}
+
 	@Override
 	public void testStart(final LambdaTestCase test) {
 		// we ignore the start for now
@@ -87,83 +267,263 @@ public class DefaultReporter implements Reporter {
 	}
 
 	protected void reportSectionUntilParent(final String suiteName, final Section section, final Section parent) {
-		if (section == null || section.equals(parent))
+		final StringBuilder sb = new StringBuilder();
+		renderSectionUntilParent(sb, section, parent);
+		print(sb);
+	}
+
+	private void renderSectionUntilParent(final StringBuilder sb, final Section section, final Section parent) {
+		if (section == null || section.equals(parent)) {
 			return;
-		else {
-			reportSectionUntilParent(suiteName, section.getParent(), parent);
-			out.println(indent(section.getParent()) + ansi.fg(Color.GREEN) + "- " + section.getName() + ansi.reset());
 		}
+		renderSectionUntilParent(sb, section.getParent(), parent);
+		sb.append(indent(section.getParent())).append(ansi.fg(Color.GREEN)).append("- ").append(section.getName())
+				.append(ansi.reset()).append(System.lineSeparator());
 	}
 
-	private void reportSectionOnce(final LambdaTestCase test) {
-		final String suiteName = test.getSuiteName();
-
+	/**
+	 * Renders the headers of all sections, which were not already reported
+	 * for the last test of the suite. Must be called while holding the lock.
+	 */
+	private void renderSectionOnce(final StringBuilder sb, final String suiteName, final Section section) {
 		final Section lastSection = lastSuiteSection.get(suiteName);
-		lastSuiteSection.put(suiteName, test.getSection().orNull());
+		lastSuiteSection.put(suiteName, section);
 
-		if (test.getSection().isDefined() && (lastSection == null || !lastSection.equals(test.getSection().orNull()))) {
-			final Optional<Section> sameParent = findSameOrInParent(test.getSection().get(), lastSection);
-			reportSectionUntilParent(test.getSuiteName(), test.getSection().orNull(), sameParent.orNull());
+		if (section != null && !section.equals(lastSection)) {
+			final Optional<Section> sameParent = findSameOrInParent(section, lastSection);
+			renderSectionUntilParent(sb, section, sameParent.orNull());
 		}
 	}
 
+	private void print(final CharSequence output) {
+		synchronized (lock) {
+			out.print(output);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Prints the rendered result of a test, or buffers it in grouped output
+	 * mode.
+	 */
+	private void reportResult(final LambdaTestCase test, final String result) {
+		synchronized (lock) {
+			final Block block = groupedOutput ? findBlock(test) : null;
+			if (block != null) {
+				StringBuilder buffer = block.output.get(test);
+				if (buffer == null) {
+					buffer = new StringBuilder();
+					block.output.put(test, buffer);
+				}
+				buffer.append(result);
+			} else {
+				final StringBuilder sb = new StringBuilder();
+				renderSectionOnce(sb, test.getSuiteName(), test.getSection().orNull());
+				sb.append(result);
+				print(sb);
+			}
+		}
+	}
+
+	/**
+	 * Must be called while holding the lock.
+	 */
+	private Block findBlock(final LambdaTestCase test) {
+		final SuiteOutput suiteOutput = suiteOutputs.get(test.getSuiteName());
+		return suiteOutput == null ? null : suiteOutput.blockOfTest.get(test);
+	}
+
+	/**
+	 * Prints the buffered output of a block including the section headers.
+	 * Must be called while holding the lock.
+	 */
+	private void printBlock(final String suiteName, final Block block) {
+		if (block.output.isEmpty()) {
+			return;
+		}
+		final StringBuilder sb = new StringBuilder();
+		renderSectionOnce(sb, suiteName, block.section);
+		for (final LambdaTestCase test : block.tests) {
+			final StringBuilder output = block.output.get(test);
+			if (output != null) {
+				sb.append(output);
+			}
+		}
+		block.output.clear();
+		print(sb);
+	}
+
 	@Override
 	public void testSkipped(final LambdaTestCase test, final String message) {
-		reportSectionOnce(test);
 		final String testName = test.getName();
 		if (PENDING_DEFAULT_MSG.equals(message)) {
-			out.println(indent(test) + ansi.fg(Color.YELLOW) + "- " + testName + " (pending)" + ansi.reset());
+			reportResult(test, indent(test) + ansi.fg(Color.YELLOW) + "- " + testName + " (pending)" + ansi.reset()
+					+ System.lineSeparator());
 		} else {
-			out.println(
-					indent(test) + ansi.fg(Color.YELLOW) + "- " + testName + " (pending): " + message + ansi.reset());
+			reportResult(test, indent(test) + ansi.fg(Color.YELLOW) + "- " + testName + " (pending): " + message
+					+ ansi.reset() + System.lineSeparator());
 		}
 	}
 
 	@Override
 	public void testFailed(final LambdaTestCase test, final Throwable error) {
-		reportSectionOnce(test);
+		final StringWriter result = new StringWriter();
+		final PrintWriter pw = new PrintWriter(result);
 		try {
-			out.println(indent(test) + ansi.fg(Color.RED) + "- " + test.getName() + " *** FAILED ***");
-			// System.out.println(e.getMessage());
-			if (showStacktrace) {
-				error.printStackTrace(out);
+			pw.println(indent(test) + ansi.fg(Color.RED) + "- " + test.getName() + " *** FAILED ***");
+			if (!showStacktrace) {
+				pw.print(StackTraces.renderMessages(error));
+			} else if (error instanceof RecordedError) {
+				// a replayed error with its original stack trace
+				error.printStackTrace(pw);
 			} else {
-				out.println(error.getClass().getName() + ": " + error.getMessage());
-			}
-			Throwable oldCause = error;
-			Throwable cause = error.getCause();
-			// unpack exception stack
-			while (cause != null && cause != oldCause) {
-				out.print("Caused by: ");
-				if (showStacktrace) {
-					cause.printStackTrace(out);
+				final boolean filter = filterStackTraces;
+				final String repeated = deduplicateStackTraces
+						? repeatedStackTrace(StackTraces.fingerprint(error, filter), test)
+						: null;
+				if (repeated == null) {
+					pw.print(StackTraces.render(error, filter));
 				} else {
-					out.println(error.getClass().getName() + ": " + error.getMessage());
+					pw.print(StackTraces.renderMessages(error));
+					pw.println(repeated);
 				}
-				oldCause = cause;
-				cause = cause.getCause();
 			}
 		} finally {
-			out.print(ansi.reset());
+			pw.print(ansi.reset());
+			pw.flush();
 		}
+		reportResult(test, result.toString());
 	}
 
 	@Override
 	public void testSucceeded(final LambdaTestCase test) {
-		reportSectionOnce(test);
-		out.println(indent(test) + ansi.fg(Color.GREEN) + "- " + test.getName() + ansi.reset());
+		reportResult(test, indent(test) + ansi.fg(Color.GREEN) + "- " + test.getName() + ansi.reset()
+				+ System.lineSeparator());
 	}
 
 	@Override
 	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
-		out.println("Running " + ansi.fg(Color.CYAN) + tests.size()
+		final String header = "Running " + ansi.fg(Color.CYAN) + tests.size()
 				+ ansi.reset() + " tests in " + ansi.fg(Color.CYAN)
-				+ suiteName + ansi.reset() + ":");
+				+ suiteName + ansi.reset() + ":" + System.lineSeparator();
+		synchronized (lock) {
+			if (groupedOutput) {
+				final SuiteOutput suiteOutput = new SuiteOutput();
+				Block block = null;
+				for (final LambdaTestCase test : tests) {
+					final Section section = test.getSection().orNull();
+					if (block == null || (section == null ? block.section != null : !section.equals(block.section))) {
+						block = new Block(section);
+						suiteOutput.blocks.add(block);
+					}
+					block.tests.add(test);
+					++block.pending;
+					suiteOutput.blockOfTest.put(test, block);
+				}
+				suiteOutputs.put(suiteName, suiteOutput);
+			}
+			print(header);
+		}
 	}
 
 	@Override
 	public void suiteWarning(final String suiteName, final String warning) {
-		out.println(suiteName + ": " + warning);
+		print(suiteName + ": " + warning + System.lineSeparator());
+	}
+
+	/**
+	 * Remembers the result, which is printed below the test case, when it
+	 * finished.
+	 */
+	@Override
+	public void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+		addMeasurement(test, "benchmark: " + result);
+	}
+
+	/**
+	 * Remembers the result, which is printed below the test case, when it
+	 * finished.
+	 */
+	@Override
+	public void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+		addMeasurement(test, "load test: " + result);
+	}
+
+	private void addMeasurement(final LambdaTestCase test, final String measurement) {
+		synchronized (lock) {
+			List<String> testMeasurements = measurements.get(test);
+			if (testMeasurements == null) {
+				testMeasurements = new ArrayList<>();
+				measurements.put(test, testMeasurements);
+			}
+			testMeasurements.add(measurement);
+		}
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		final List<String> testMeasurements;
+		synchronized (lock) {
+			testMeasurements = measurements.remove(test);
+		}
+		if (testMeasurements != null) {
+			for (final String measurement : testMeasurements) {
+				reportResult(test, indent(test) + "  " + ansi.fg(Color.CYAN) + "(" + measurement + ")"
+						+ ansi.reset() + System.lineSeparator());
+			}
+		}
+		final boolean slow = timing.getWallNanos() >= slowTestThresholdNanos;
+		if (slow) {
+			reportResult(test, indent(test) + "  " + ansi.fg(Color.YELLOW) + "(slow: " + timing + ")" + ansi.reset()
+					+ System.lineSeparator());
+		}
+		synchronized (lock) {
+			if (slow) {
+				PriorityQueue<SlowTest> slowest = slowestTests.get(test.getSuiteName());
+				if (slowest == null) {
+					// the fastest of the slowest tests is at the head
+					slowest = new PriorityQueue<>(Comparator.comparingLong(t -> t.timing.getWallNanos()));
+					slowestTests.put(test.getSuiteName(), slowest);
+				}
+				slowest.add(new SlowTest(test.getSectionAndTestName(" / "), timing));
+				if (slowest.size() > SLOWEST_TESTS_COUNT) {
+					slowest.poll();
+				}
+			}
+			final Block block = findBlock(test);
+			if (block != null && --block.pending == 0) {
+				printBlock(test.getSuiteName(), block);
+			}
+		}
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		final List<SlowTest> slowest;
+		synchronized (lock) {
+			final SuiteOutput suiteOutput = suiteOutputs.remove(suiteName);
+			if (suiteOutput != null) {
+				for (final Block block : suiteOutput.blocks) {
+					printBlock(suiteName, block);
+				}
+			}
+			lastSuiteSection.remove(suiteName);
+			final PriorityQueue<SlowTest> queue = slowestTests.remove(suiteName);
+			slowest = queue == null ? Collections.<SlowTest> emptyList() : new ArrayList<>(queue);
+		}
+		final StringBuilder sb = new StringBuilder();
+		sb.append("Finished tests in ").append(ansi.fg(Color.CYAN)).append(suiteName).append(ansi.reset())
+				.append(" after ").append(total).append(System.lineSeparator());
+		if (!slowest.isEmpty()) {
+			slowest.sort(Comparator.comparingLong((SlowTest t) -> t.timing.getWallNanos()).reversed());
+			sb.append(ansi.fg(Color.YELLOW)).append("Slowest tests:").append(ansi.reset())
+					.append(System.lineSeparator());
+			for (final SlowTest test : slowest) {
+				sb.append(ansi.fg(Color.YELLOW)).append("- ").append(test.name).append(ansi.reset()).append(": ")
+						.append(test.timing).append(System.lineSeparator());
+			}
+		}
+		print(sb);
 	}
 
 }
@@ -1,5 +1,10 @@
 package de.tobiasroeser.lambdatest.generic;
 
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
 import de.tobiasroeser.lambdatest.LambdaTestCase;
 import de.tobiasroeser.lambdatest.Optional;
 import de.tobiasroeser.lambdatest.RunnableWithException;
@@ -17,16 +22,62 @@ public class DefaultTestCase implements LambdaTestCase {
 	private final String name;
 	private final RunnableWithException test;
 	private final String suiteName;
+	private final Duration timeout;
+	private final Callable<? extends CompletionStage<?>> asyncTest;
 
 	public DefaultTestCase(
 			final Section section,
 			final String name,
 			final String suiteName,
-			final RunnableWithException test) {
+			final RunnableWithException test,
+			final Duration timeout) {
 		this.section = section;
 		this.name = name;
 		this.suiteName = suiteName;
 		this.test = test;
+		this.timeout = timeout;
+		this.asyncTest = null;
+	}
+
+	/**
+	 * Creates an asynchronous test case.
+	 *
+	 * @param asyncTest
+	 *            The test case, which returns a `CompletionStage`, which
+	 *            completes normally, if the test case is successful.
+	 * @since 0.9.0
+	 */
+	public DefaultTestCase(
+			final Section section,
+			final String name,
+			final String suiteName,
+			final Duration timeout,
+			final Callable<? extends CompletionStage<?>> asyncTest) {
+		this.section = section;
+		this.name = name;
+		this.suiteName = suiteName;
+		this.test = () -> {
+			try {
+				asyncTest.call().toCompletableFuture().get();
+			} catch (final ExecutionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				} else if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+		};
+		this.timeout = timeout;
+		this.asyncTest = asyncTest;
+	}
+
+	public DefaultTestCase(
+			final Section section,
+			final String name,
+			final String suiteName,
+			final RunnableWithException test) {
+		this(section, name, suiteName, test, null);
 	}
 
 	public DefaultTestCase(
@@ -63,12 +114,44 @@ public class DefaultTestCase implements LambdaTestCase {
 		return getSectionAndTestName(" / ");
 	}
 
+	/**
+	 * The test case. For asynchronous test cases, this blocks until the
+	 * returned `CompletionStage` completed.
+	 */
 	public RunnableWithException getTest() {
 		return test;
 	}
 
+	/**
+	 * `true`, if this is an asynchronous test case.
+	 *
+	 * @since 0.9.0
+	 */
+	public boolean isAsync() {
+		return asyncTest != null;
+	}
+
+	/**
+	 * The asynchronous test case, if this is one.
+	 *
+	 * @since 0.9.0
+	 */
+	public Optional<Callable<? extends CompletionStage<?>>> getAsyncTest() {
+		return Optional.lift(asyncTest);
+	}
+
 	public String getSuiteName() {
 		return suiteName;
 	}
 
+	/**
+	 * The timeout of this test case, if it has one. If not, the default timeout
+	 * of the test suite applies.
+	 *
+	 * @since 0.9.0
+	 */
+	public Optional<Duration> getTimeout() {
+		return Optional.lift(timeout);
+	}
+
 }
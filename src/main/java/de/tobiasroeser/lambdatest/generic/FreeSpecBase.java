@@ -2,16 +2,53 @@ package de.tobiasroeser.lambdatest.generic;
 
 import static de.tobiasroeser.lambdatest.internal.Util.find;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+import de.tobiasroeser.lambdatest.CapturedOutput;
+import de.tobiasroeser.lambdatest.ExpectContext;
+import de.tobiasroeser.lambdatest.Expectations;
 import de.tobiasroeser.lambdatest.Intercept;
 import de.tobiasroeser.lambdatest.LambdaTest;
+import de.tobiasroeser.lambdatest.LoadGenerator;
+import de.tobiasroeser.lambdatest.LoadTestResult;
 import de.tobiasroeser.lambdatest.Optional;
+import de.tobiasroeser.lambdatest.PerformanceBaseline;
+import de.tobiasroeser.lambdatest.ProcedureWithException;
 import de.tobiasroeser.lambdatest.Reporter;
 import de.tobiasroeser.lambdatest.RunnableWithException;
 import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.TestTimeoutError;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.internal.AsyncTestRun;
+import de.tobiasroeser.lambdatest.internal.BaselineFile;
+import de.tobiasroeser.lambdatest.internal.Benchmark;
+import de.tobiasroeser.lambdatest.internal.JfrEvent;
+import de.tobiasroeser.lambdatest.internal.OutputCapture;
+import de.tobiasroeser.lambdatest.internal.Scheduler;
+import de.tobiasroeser.lambdatest.internal.StackSampler;
+import de.tobiasroeser.lambdatest.internal.ThreadMetrics;
+import de.tobiasroeser.lambdatest.internal.Watchdog;
 
 /**
  * Common base class containing framework agnostic implementation of
@@ -29,6 +66,22 @@ public abstract class FreeSpecBase implements LambdaTest {
 	 */
 	private static final ThreadLocal<Section> sectionHolder = new ThreadLocal<Section>();
 
+	/** The sampling interval of slow tests. */
+	private static final long PROFILING_INTERVAL_MILLIS = 10;
+
+	/** The maximal number of bytes of captured output kept per test case. */
+	private static final int CAPTURE_OUTPUT_LIMIT = 64 * 1024;
+
+	/**
+	 * Runs the bodies of test cases with a timeout, so they can be abandoned,
+	 * if they don't respond to the interruption.
+	 */
+	private static final ExecutorService timedTestExecutor = Executors.newCachedThreadPool(runnable -> {
+		final Thread thread = new Thread(runnable, "LambdaTest-Test");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	private static Reporter defaultReporter = new LoggingWrappingReporter(new DefaultReporter());
 
 	public static Reporter getDefaultReporter() {
@@ -76,8 +129,31 @@ public abstract class FreeSpecBase implements LambdaTest {
 	private final List<DefaultTestCase> testCases = new LinkedList<>();
 	private String suiteName = getClass().getName();
 	private boolean expectFailFast;
+	private ExpectContext.CollectionPolicy expectCollectionPolicy = ExpectContext.CollectionPolicy.DEFAULT;
 	private boolean runInParallel = false;
+	private Duration defaultTimeout;
+	private Duration suiteTimeout;
+	private Duration profilingThreshold;
+	private Path profilingDirectory;
+	private boolean captureOutput = false;
+	private int maxOutstandingAsyncTests = 256;
+	private PerformanceBaseline performanceBaseline;
+	/** Loaded lazily, when the first test case finished. */
+	private BaselineFile baselineFile;
+	private boolean baselineFileFailed = false;
+	/** Benchmarks and load tests, whose wall-clock time is not checked against the baseline. */
+	private final Set<DefaultTestCase> measuringTestCases = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final Map<DefaultTestCase, AsyncTestRun> asyncRuns = new ConcurrentHashMap<>();
+	private final Queue<AsyncTestRun> pendingAsyncRuns = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger outstandingAsyncRuns = new AtomicInteger();
+	/** Guards {@link #startPendingAsyncTests()} against concurrent and reentrant calls. */
+	private final AtomicInteger asyncLaunchRequests = new AtomicInteger();
 	private volatile boolean lazyInitPending = true;
+	private volatile boolean suiteStarted = false;
+	private boolean suiteFinished = false;
+	private long suiteStartNanos;
+	private Timing suiteTiming = Timing.ZERO;
+	private JfrEvent.Span suiteEvent;
 
 	public boolean getRunInParallel() {
 		return runInParallel;
@@ -97,6 +173,209 @@ public abstract class FreeSpecBase implements LambdaTest {
 		this.expectFailFast = failFast;
 	}
 
+	/**
+	 * How failed expectations are collected, when expectations don't fail
+	 * fast.
+	 *
+	 * @since 0.9.0
+	 */
+	public ExpectContext.CollectionPolicy getExpectCollectionPolicy() {
+		return expectCollectionPolicy;
+	}
+
+	/**
+	 * Set, how failed expectations are collected, when expectations don't
+	 * fail fast (see {@link #setExpectFailFast(boolean)}). By default, all
+	 * failed expectations are collected with their complete stack trace.
+	 *
+	 * @param policy
+	 *            The collection policy.
+	 * @since 0.9.0
+	 */
+	public void setExpectCollectionPolicy(final ExpectContext.CollectionPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("A collection policy is required");
+		}
+		this.expectCollectionPolicy = policy;
+	}
+
+	/**
+	 * The timeout applied to all test cases without an explicit timeout.
+	 *
+	 * @since 0.9.0
+	 */
+	public Optional<Duration> getDefaultTimeout() {
+		return Optional.lift(defaultTimeout);
+	}
+
+	/**
+	 * Set the timeout applied to each test case of this suite, which doesn't
+	 * have its own timeout. This is a per test case timeout; to limit the run
+	 * time of the whole suite, use {@link #setSuiteTimeout(Duration)}.
+	 *
+	 * A test case running longer than its timeout gets interrupted and fails
+	 * with a {@link TestTimeoutError}, which contains a thread dump taken at the
+	 * time the timeout expired. All timeouts are enforced by a single shared
+	 * watchdog thread.
+	 *
+	 * @param timeout
+	 *            The timeout or `null` for no timeout.
+	 * @since 0.9.0
+	 */
+	public void setDefaultTimeout(final Duration timeout) {
+		this.defaultTimeout = timeout;
+	}
+
+	/**
+	 * The time budget of the whole suite.
+	 *
+	 * @since 0.9.0
+	 */
+	public Optional<Duration> getSuiteTimeout() {
+		return Optional.lift(suiteTimeout);
+	}
+
+	/**
+	 * Set the time budget of the whole suite, counted from the start of its
+	 * first test case.
+	 *
+	 * Each test case runs with the lower of its own timeout and the remaining
+	 * budget. When the budget expires, the running test cases get interrupted
+	 * and fail with a {@link TestTimeoutError}, and all test cases started
+	 * afterwards fail immediately. Asynchronous test cases get at most the
+	 * budget remaining when they are scheduled.
+	 *
+	 * @param timeout
+	 *            The budget or `null` for no suite timeout.
+	 * @since 0.9.0
+	 */
+	public void setSuiteTimeout(final Duration timeout) {
+		this.suiteTimeout = timeout;
+	}
+
+	/**
+	 * The milliseconds left of the suite timeout, or {@link Long#MAX_VALUE}
+	 * without suite timeout.
+	 */
+	private long remainingSuiteMillis(final Duration budget) {
+		if (budget == null) {
+			return Long.MAX_VALUE;
+		}
+		return budget.toMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - suiteStartNanos);
+	}
+
+	/**
+	 * The threshold, after which a running test case gets profiled.
+	 *
+	 * @see #setSlowTestProfiling(Duration, Path)
+	 * @since 0.9.0
+	 */
+	public Optional<Duration> getSlowTestProfilingThreshold() {
+		return Optional.lift(profilingThreshold);
+	}
+
+	/**
+	 * Profile test cases of this suite, which run longer than the given
+	 * threshold.
+	 *
+	 * When a test case exceeds the threshold, its thread gets sampled every 10 ms
+	 * until it finished. The samples are
+	 * written as collapsed stacks, which can be turned into a flame graph e.g.
+	 * with https://github.com/brendangregg/FlameGraph[`flamegraph.pl`], into
+	 * the file `<directory>/<suite name>/<section and test name>.collapsed`,
+	 * with all characters except letters, digits, `.`, `_` and `-` of the
+	 * names replaced by `_`. The first frame of each stack is the name of the test case, so the files
+	 * of multiple test cases can be merged into a single flame graph.
+	 *
+	 * @param threshold
+	 *            The threshold or `null` to disable profiling.
+	 * @param directory
+	 *            The directory to write the profiles to.
+	 * @since 0.9.0
+	 */
+	public void setSlowTestProfiling(final Duration threshold, final Path directory) {
+		if (threshold != null && directory == null) {
+			throw new IllegalArgumentException("A directory is required to profile slow tests");
+		}
+		this.profilingThreshold = threshold;
+		this.profilingDirectory = directory;
+	}
+
+	/**
+	 * The maximum number of asynchronous test cases, which are outstanding at
+	 * the same time, when tests run in parallel.
+	 *
+	 * @since 0.9.0
+	 */
+	public int getMaxOutstandingAsyncTests() {
+		return maxOutstandingAsyncTests;
+	}
+
+	/**
+	 * Set the maximum number of asynchronous test cases, which are outstanding
+	 * at the same time, when tests run in parallel. Defaults to 256.
+	 *
+	 * @see #testAsync(String, Callable)
+	 * @since 0.9.0
+	 */
+	public void setMaxOutstandingAsyncTests(final int maxOutstandingAsyncTests) {
+		if (maxOutstandingAsyncTests < 1) {
+			throw new IllegalArgumentException("At least one asynchronous test must be allowed");
+		}
+		this.maxOutstandingAsyncTests = maxOutstandingAsyncTests;
+	}
+
+	/**
+	 * The configuration of performance baselines of this suite, if any.
+	 *
+	 * @since 0.9.0
+	 */
+	public Optional<PerformanceBaseline> getPerformanceBaseline() {
+		return Optional.lift(performanceBaseline);
+	}
+
+	/**
+	 * Check the wall-clock time of the test cases and the results of the
+	 * benchmarks of this suite against the baseline of previous runs, to detect
+	 * performance regressions. Only succeeded test cases are checked and
+	 * recorded. Asynchronous test cases are not checked.
+	 *
+	 * [source,java]
+	 * ----
+	 * setPerformanceBaseline(PerformanceBaseline.in(Paths.get("src/test/baselines")));
+	 * ----
+	 *
+	 * @param performanceBaseline
+	 *            The configuration or `null` to disable baselines.
+	 * @see PerformanceBaseline
+	 * @since 0.9.0
+	 */
+	public void setPerformanceBaseline(final PerformanceBaseline performanceBaseline) {
+		this.performanceBaseline = performanceBaseline;
+	}
+
+	public boolean getCaptureOutput() {
+		return captureOutput;
+	}
+
+	/**
+	 * Capture the output of the test cases of this suite to `System.out` and
+	 * `System.err`.
+	 *
+	 * The captured output of a test case is discarded, when it succeeds. When
+	 * it fails, its output (at most the last 64 KiB) is attached as
+	 * {@link CapturedOutput} to the error, so it is reported along with it.
+	 * Test cases running in parallel are captured separately, but output of
+	 * other threads started by a test case is not captured.
+	 *
+	 * @param captureOutput
+	 *            `true` to capture the output.
+	 * @since 0.9.0
+	 */
+	public void setCaptureOutput(final boolean captureOutput) {
+		this.captureOutput = captureOutput;
+	}
+
 	public String getSuiteName() {
 		return suiteName;
 	}
@@ -133,7 +412,327 @@ public abstract class FreeSpecBase implements LambdaTest {
 	 *            documentation for more details.
 	 */
 	public void test(final String name, final RunnableWithException testCase) {
-		final DefaultTestCase newTestCase = new DefaultTestCase(sectionHolder.get(), name, suiteName, testCase);
+		addTestCase(new DefaultTestCase(sectionHolder.get(), name, suiteName, testCase));
+	}
+
+	/**
+	 * Adds a test with a timeout to the test suite.
+	 *
+	 * @param name
+	 *            The name of the new test.
+	 * @param timeout
+	 *            The timeout of the new test. If `null`, the default timeout of
+	 *            the test suite applies.
+	 * @param testCase
+	 *            The test case.
+	 *
+	 * @see #test(String, RunnableWithException)
+	 * @see #setDefaultTimeout(Duration)
+	 * @since 0.9.0
+	 */
+	public void test(final String name, final Duration timeout, final RunnableWithException testCase) {
+		addTestCase(new DefaultTestCase(sectionHolder.get(), name, suiteName, testCase, timeout));
+	}
+
+	/**
+	 * Adds a test to the test suite, which gets the {@link Expectations} bound
+	 * to its expect context as parameter.
+	 *
+	 * Other than the static methods of {@link de.tobiasroeser.lambdatest.Expect},
+	 * the bound expectations don't look up the expect context of the current
+	 * thread for each check, and can also be used from other threads, e.g. in
+	 * asynchronous code.
+	 *
+	 * @param name
+	 *            The name of the new test.
+	 * @param testCase
+	 *            The test case.
+	 *
+	 * @see #test(String, RunnableWithException)
+	 * @since 0.9.0
+	 */
+	public void test(final String name, final ProcedureWithException<Expectations> testCase) {
+		test(name, (Duration) null, testCase);
+	}
+
+	/**
+	 * Adds a test with a timeout to the test suite, which gets the
+	 * {@link Expectations} bound to its expect context as parameter.
+	 *
+	 * @param name
+	 *            The name of the new test.
+	 * @param timeout
+	 *            The timeout of the new test. If `null`, the default timeout of
+	 *            the test suite applies.
+	 * @param testCase
+	 *            The test case.
+	 *
+	 * @see #test(String, ProcedureWithException)
+	 * @since 0.9.0
+	 */
+	public void test(final String name, final Duration timeout,
+			final ProcedureWithException<Expectations> testCase) {
+		test(name, timeout, () -> testCase.apply(ExpectContext.expectations()));
+	}
+
+	/**
+	 * Adds an asynchronous test to the test suite.
+	 *
+	 * The test case returns a `CompletionStage`, which completes normally, if
+	 * the test case succeeds, and exceptionally, if it fails. The completion
+	 * is tracked without blocking a thread per test case. When tests run in
+	 * parallel (see {@link #setRunInParallel(boolean)}), all asynchronous test
+	 * cases of the suite are started when the suite starts, with at most
+	 * {@link #getMaxOutstandingAsyncTests()} outstanding at the same time.
+	 * Otherwise, each is started, when the test framework runs it.
+	 *
+	 * Expectations checked in callbacks run in other threads, so they always
+	 * fail fast (completing the stage exceptionally). The output of
+	 * asynchronous test cases is not captured, and they are not profiled.
+	 *
+	 * @param name
+	 *            The name of the new test.
+	 * @param testCase
+	 *            The test case.
+	 * @since 0.9.0
+	 */
+	public void testAsync(final String name, final Callable<? extends CompletionStage<?>> testCase) {
+		testAsync(name, null, testCase);
+	}
+
+	/**
+	 * Adds an asynchronous test with a timeout to the test suite. When the
+	 * timeout expires, the test fails and the returned `CompletionStage` gets
+	 * cancelled.
+	 *
+	 * @param name
+	 *            The name of the new test.
+	 * @param timeout
+	 *            The timeout of the new test. If `null`, the default timeout of
+	 *            the test suite applies.
+	 * @param testCase
+	 *            The test case.
+	 *
+	 * @see #testAsync(String, Callable)
+	 * @since 0.9.0
+	 */
+	public void testAsync(final String name, final Duration timeout,
+			final Callable<? extends CompletionStage<?>> testCase) {
+		addTestCase(new DefaultTestCase(sectionHolder.get(), name, suiteName, timeout, testCase));
+	}
+
+	/**
+	 * Adds a benchmark to the test suite.
+	 *
+	 * The benchmark runs the given block `warmup` times to let the JIT
+	 * compiler optimize it, and then measures `iterations` invocations. Short
+	 * invocations are measured in batches, to not be dominated by the overhead
+	 * of reading the clock. The results of the block are consumed, so the
+	 * computation can't be eliminated as dead code. The mean time per
+	 * invocation with its 99% confidence interval, percentiles and extremes
+	 * are reported with
+	 * {@link Reporter#benchmarkResult(de.tobiasroeser.lambdatest.LambdaTestCase, BenchmarkResult)}.
+	 *
+	 * The test case fails, if the block throws an exception. The measured
+	 * numbers are only comparable for benchmarks run in the same JVM and
+	 * environment, and tests running in parallel distort them.
+	 *
+	 * @param name
+	 *            The name of the new benchmark.
+	 * @param warmup
+	 *            The number of unmeasured invocations.
+	 * @param iterations
+	 *            The number of measured invocations.
+	 * @param block
+	 *            The code to measure.
+	 * @see #benchmark(String, Duration, int, int, Callable)
+	 * @since 0.9.0
+	 */
+	public void benchmark(final String name, final int warmup, final int iterations, final Callable<?> block) {
+		benchmark(name, null, warmup, iterations, block);
+	}
+
+	/**
+	 * Adds a benchmark with a timeout to the test suite.
+	 *
+	 * @param name
+	 *            The name of the new benchmark.
+	 * @param timeout
+	 *            The timeout of the new benchmark, including the warmup. If
+	 *            `null`, the default timeout of the test suite applies.
+	 * @param warmup
+	 *            The number of unmeasured invocations.
+	 * @param iterations
+	 *            The number of measured invocations.
+	 * @param block
+	 *            The code to measure.
+	 * @see #benchmark(String, int, int, Callable)
+	 * @since 0.9.0
+	 */
+	public void benchmark(final String name, final Duration timeout, final int warmup, final int iterations,
+			final Callable<?> block) {
+		if (warmup < 0) {
+			throw new IllegalArgumentException("The number of warmup iterations must not be negative");
+		}
+		if (iterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is required");
+		}
+		final DefaultTestCase[] self = new DefaultTestCase[1];
+		self[0] = new DefaultTestCase(sectionHolder.get(), name, suiteName, () -> {
+			final BenchmarkResult result = new Benchmark().run(warmup, iterations, block);
+			getReporter().benchmarkResult(self[0], result);
+			checkBaseline(self[0], result);
+		}, timeout);
+		measuringTestCases.add(self[0]);
+		addTestCase(self[0]);
+	}
+
+	/**
+	 * Adds a benchmark of a block without result to the test suite.
+	 *
+	 * @see #benchmark(String, int, int, Callable)
+	 * @since 0.9.0
+	 */
+	public void benchmark(final String name, final int warmup, final int iterations,
+			final RunnableWithException block) {
+		benchmark(name, null, warmup, iterations, block);
+	}
+
+	/**
+	 * Adds a benchmark of a block without result and with a timeout to the
+	 * test suite.
+	 *
+	 * @see #benchmark(String, Duration, int, int, Callable)
+	 * @since 0.9.0
+	 */
+	public void benchmark(final String name, final Duration timeout, final int warmup, final int iterations,
+			final RunnableWithException block) {
+		benchmark(name, timeout, warmup, iterations, () -> {
+			block.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Adds a load test to the test suite.
+	 *
+	 * @see #loadTest(String, int, double, Duration, RunnableWithException,
+	 *      ProcedureWithException)
+	 * @since 0.9.0
+	 */
+	public void loadTest(final String name, final int threads, final double targetRate, final Duration duration,
+			final RunnableWithException request) {
+		loadTest(name, null, threads, targetRate, duration, request);
+	}
+
+	/**
+	 * Adds a load test with a timeout to the test suite.
+	 *
+	 * @see #loadTest(String, Duration, int, double, Duration,
+	 *      RunnableWithException, ProcedureWithException)
+	 * @since 0.9.0
+	 */
+	public void loadTest(final String name, final Duration timeout, final int threads, final double targetRate,
+			final Duration duration, final RunnableWithException request) {
+		loadTest(name, timeout, threads, targetRate, duration, request, result -> {
+		});
+	}
+
+	/**
+	 * Adds a load test to the test suite.
+	 *
+	 * The load test sends requests at the given target rate for the given
+	 * duration, distributed over the given number of worker threads. Requests
+	 * are scheduled at fixed intervals, and their latency is measured from
+	 * their scheduled start, so requests delayed by a stalled system are
+	 * accounted with their waiting time (see {@link LoadTestResult}). The
+	 * throughput and latency distribution are reported with
+	 * {@link Reporter#loadTestResult(de.tobiasroeser.lambdatest.LambdaTestCase, LoadTestResult)}
+	 * and then checked by the given expectations.
+	 *
+	 * [source,java]
+	 * ----
+	 * loadTest("get", 4, 50000, Duration.ofSeconds(10), () -> cache.get("key"), result -> {
+	 *   result.expectLatencyAtPercentileAtMost(99, Duration.ofMillis(5));
+	 *   result.expectThroughputAtLeast(50000);
+	 * });
+	 * ----
+	 *
+	 * The test case fails, if any request fails, with the first error as
+	 * cause. Expectations in requests run in the worker threads, so they
+	 * always fail fast. The default timeout of the test suite also applies to
+	 * load tests, so a load test running longer than it should get its own
+	 * timeout (see
+	 * {@link #loadTest(String, Duration, int, double, Duration, RunnableWithException, ProcedureWithException)}).
+	 *
+	 * @param name
+	 *            The name of the new load test.
+	 * @param threads
+	 *            The number of worker threads sending requests.
+	 * @param targetRate
+	 *            The target rate in requests per second over all threads.
+	 * @param duration
+	 *            The duration of sending requests.
+	 * @param request
+	 *            The request.
+	 * @param expectations
+	 *            The expectations on the result.
+	 * @since 0.9.0
+	 */
+	public void loadTest(final String name, final int threads, final double targetRate, final Duration duration,
+			final RunnableWithException request, final ProcedureWithException<LoadTestResult> expectations) {
+		loadTest(name, null, threads, targetRate, duration, request, expectations);
+	}
+
+	/**
+	 * Adds a load test with a timeout to the test suite.
+	 *
+	 * @param name
+	 *            The name of the new load test.
+	 * @param timeout
+	 *            The timeout of the new load test, which should be longer than
+	 *            the duration. If `null`, the default timeout of the test suite
+	 *            applies.
+	 * @param threads
+	 *            The number of worker threads sending requests.
+	 * @param targetRate
+	 *            The target rate in requests per second over all threads.
+	 * @param duration
+	 *            The duration of sending requests.
+	 * @param request
+	 *            The request.
+	 * @param expectations
+	 *            The expectations on the result.
+	 * @see #loadTest(String, int, double, Duration, RunnableWithException,
+	 *      ProcedureWithException)
+	 * @since 0.9.0
+	 */
+	public void loadTest(final String name, final Duration timeout, final int threads, final double targetRate,
+			final Duration duration, final RunnableWithException request,
+			final ProcedureWithException<LoadTestResult> expectations) {
+		final LoadGenerator generator = new LoadGenerator(threads, targetRate, duration.toNanos());
+		final DefaultTestCase[] self = new DefaultTestCase[1];
+		self[0] = new DefaultTestCase(sectionHolder.get(), name, suiteName, () -> {
+			final AtomicReference<Throwable> firstError = new AtomicReference<>();
+			final LoadTestResult result = generator.run(name, request, firstError);
+			getReporter().loadTestResult(self[0], result);
+			if (result.getErrorCount() > 0) {
+				throw new AssertionError(
+						result.getErrorCount() + " of " + result.getCount() + " requests failed (see cause)",
+						firstError.get());
+			}
+			expectations.apply(result);
+		}, timeout);
+		measuringTestCases.add(self[0]);
+		addTestCase(self[0]);
+	}
+
+	/**
+	 * Adds the given test case to the test suite, and warns about non-unique
+	 * test names.
+	 */
+	protected void addTestCase(final DefaultTestCase newTestCase) {
+		final String name = newTestCase.getName();
 		final String sectionAndTestName = newTestCase.getSectionAndTestName();
 		if (find(testCases, tc -> tc.getSectionAndTestName().equals(sectionAndTestName)).isDefined()) {
 			if (newTestCase.getSection().isDefined()) {
@@ -145,6 +744,440 @@ public abstract class FreeSpecBase implements LambdaTest {
 		this.testCases.add(newTestCase);
 	}
 
+	/**
+	 * `true`, if the first test case of this suite was started.
+	 *
+	 * @since 0.9.0
+	 */
+	public boolean isSuiteStarted() {
+		return suiteStarted;
+	}
+
+	private void startSuite() {
+		if (!suiteStarted) {
+			synchronized (this) {
+				if (!suiteStarted) {
+					suiteStartNanos = System.nanoTime();
+					suiteEvent = JfrEvent.SUITE.begin();
+					getReporter().suiteStart(suiteName, getTestCases());
+					suiteStarted = true;
+					if (getRunInParallel()) {
+						for (final DefaultTestCase testCase : getTestCases()) {
+							if (testCase.isAsync()) {
+								pendingAsyncRuns.add(asyncRun(testCase));
+							}
+						}
+					}
+				}
+			}
+			startPendingAsyncTests();
+		}
+	}
+
+	private AsyncTestRun asyncRun(final DefaultTestCase testCase) {
+		return asyncRuns.computeIfAbsent(testCase, tc -> {
+			final Duration timeout = tc.getTimeout().getOrElse(defaultTimeout);
+			final long timeoutMillis = Math.min(timeout == null ? Long.MAX_VALUE : Math.max(1, timeout.toMillis()),
+					Math.max(1, remainingSuiteMillis(suiteTimeout)));
+			return new AsyncTestRun(tc.getSectionAndTestName(), tc.getAsyncTest().get(),
+					timeoutMillis == Long.MAX_VALUE ? 0 : timeoutMillis);
+		});
+	}
+
+	/**
+	 * Starts pending asynchronous test cases, as long as the maximum number of
+	 * outstanding test cases is not reached. Called again by the
+	 * {@link Scheduler}, whenever one completes, so no test case gets started
+	 * by the thread completing another one, which might be a thread of the
+	 * code under test or one running a test case.
+	 */
+	private void startPendingAsyncTests() {
+		if (asyncLaunchRequests.getAndIncrement() != 0) {
+			// another call is already starting tests and will loop once more
+			return;
+		}
+		do {
+			AsyncTestRun run;
+			while (outstandingAsyncRuns.get() < maxOutstandingAsyncTests && (run = pendingAsyncRuns.poll()) != null) {
+				// it might have been started already by the test framework
+				if (run.start()) {
+					outstandingAsyncRuns.incrementAndGet();
+					run.getOutcome().whenComplete((error, t) -> {
+						outstandingAsyncRuns.decrementAndGet();
+						Scheduler.getInstance().execute(this::startPendingAsyncTests);
+					});
+				}
+			}
+		} while (asyncLaunchRequests.decrementAndGet() != 0);
+	}
+
+	/**
+	 * Reports the end of this test suite to the reporter, if it was started
+	 * and not already finished.
+	 *
+	 * This method is meant to be used by the framework specific runners.
+	 *
+	 * @since 0.9.0
+	 */
+	public void finishSuite() {
+		final Timing total;
+		final BaselineFile updatedBaseline;
+		synchronized (this) {
+			if (!suiteStarted || suiteFinished) {
+				return;
+			}
+			suiteFinished = true;
+			updatedBaseline = performanceBaseline != null && performanceBaseline.isUpdate() ? baselineFile : null;
+			total = new Timing(System.nanoTime() - suiteStartNanos, suiteTiming.getCpuNanos(),
+					suiteTiming.getAllocatedBytes());
+			if (suiteEvent != null) {
+				suiteEvent.end(suiteName, testCases.size());
+				suiteEvent = null;
+			}
+		}
+		if (updatedBaseline != null) {
+			try {
+				updatedBaseline.write();
+			} catch (final IOException e) {
+				getReporter().suiteWarning(suiteName,
+						"Could not write performance baseline " + updatedBaseline.getFile() + ": " + e);
+			}
+		}
+		getReporter().suiteFinished(suiteName, total);
+	}
+
+	/**
+	 * The baseline file of this suite, loaded on first use, or `null`, if
+	 * baselines are disabled or the file could not be loaded.
+	 */
+	private synchronized BaselineFile baselineFile(final PerformanceBaseline baseline) {
+		if (baselineFile == null && !baselineFileFailed) {
+			final Path file = baseline.getDirectory()
+					.resolve(suiteName.replaceAll("[^A-Za-z0-9._-]", "_") + ".baseline");
+			try {
+				baselineFile = BaselineFile.load(file);
+			} catch (final IOException e) {
+				baselineFileFailed = true;
+				getReporter().suiteWarning(suiteName, "Could not load performance baseline " + file + ": " + e);
+			}
+		}
+		return baselineFile;
+	}
+
+	/**
+	 * Records the wall-clock time of a succeeded test case, or checks it against
+	 * its baseline.
+	 *
+	 * @throws AssertionError
+	 *             If the test case is slower than its baseline, and
+	 *             regressions should fail.
+	 */
+	private void checkBaseline(final DefaultTestCase testCase, final long wallNanos) {
+		final PerformanceBaseline baseline = performanceBaseline;
+		final BaselineFile file = baseline == null ? null : baselineFile(baseline);
+		if (file == null) {
+			return;
+		}
+		final String key = testCase.getSectionAndTestName(" / ");
+		if (baseline.isUpdate()) {
+			file.recordTest(key, wallNanos);
+		} else {
+			reportRegression(baseline, testCase,
+					file.checkTest(key, wallNanos, baseline.getThreshold(), baseline.getMinimumDifference().toNanos()));
+		}
+	}
+
+	/**
+	 * Records the result of a benchmark, or checks it against its baseline.
+	 *
+	 * @throws AssertionError
+	 *             If the benchmark is slower than its baseline, and regressions
+	 *             should fail.
+	 */
+	private void checkBaseline(final DefaultTestCase testCase, final BenchmarkResult result) {
+		final PerformanceBaseline baseline = performanceBaseline;
+		final BaselineFile file = baseline == null ? null : baselineFile(baseline);
+		if (file == null) {
+			return;
+		}
+		final String key = testCase.getSectionAndTestName(" / ");
+		if (baseline.isUpdate()) {
+			file.recordBenchmark(key, result);
+		} else {
+			reportRegression(baseline, testCase, file.checkBenchmark(key, result, baseline.getThreshold()));
+		}
+	}
+
+	private void reportRegression(final PerformanceBaseline baseline, final DefaultTestCase testCase,
+			final String regression) {
+		if (regression == null) {
+			return;
+		} else if (baseline.isFailOnRegression()) {
+			throw new AssertionError(regression);
+		} else {
+			getReporter().suiteWarning(suiteName, testCase.getSectionAndTestName(" / ") + ": " + regression);
+		}
+	}
+
+	private synchronized void addToSuiteTiming(final Timing timing) {
+		suiteTiming = suiteTiming.plus(timing);
+	}
+
+	/**
+	 * Runs the given test case and reports the outcome to the reporter. Reports
+	 * the start of the test suite before the first test case.
+	 *
+	 * This method is meant to be used by the framework specific runners.
+	 *
+	 * @param testCase
+	 *            The test case to run.
+	 * @param skipExceptionType
+	 *            The framework specific exception type, which marks a skipped
+	 *            (pending) test case.
+	 * @throws Throwable
+	 *             Any error the test case failed with.
+	 * @since 0.9.0
+	 */
+	public void runTestCase(final DefaultTestCase testCase, final Class<? extends Throwable> skipExceptionType)
+			throws Throwable {
+		startSuite();
+		if (testCase.isAsync()) {
+			runAsyncTestCase(testCase, skipExceptionType);
+			return;
+		}
+		final ThreadMetrics.Measurement measurement = ThreadMetrics.start();
+		final JfrEvent.Span testEvent = JfrEvent.TEST.begin();
+		String outcome = "failed";
+		OutputCapture.Captured output = null;
+		Timing workerTiming = null;
+		try {
+			ExpectContext.setup(getExpectFailFast(), getExpectCollectionPolicy());
+			Throwable uncaughtTestError = null;
+			Throwable delayedTestError = null;
+			try {
+				getReporter().testStart(testCase);
+				final TestBodyRun run = runTimedTestBody(testCase);
+				output = run.output;
+				workerTiming = run.workerTiming;
+				if (run.error != null) {
+					throw run.error;
+				}
+			} catch (final Throwable t) {
+				uncaughtTestError = t;
+			}
+			try {
+				ExpectContext.finish();
+			} catch (final Throwable t) {
+				delayedTestError = t;
+			}
+			if (uncaughtTestError != null && delayedTestError != null) {
+				throw new AssertionError(
+						"An error occurred (see root cause) after some expectations failed. Failed Expectations:\n"
+								+ delayedTestError.getMessage(),
+						uncaughtTestError);
+			} else if (uncaughtTestError != null) {
+				// if this was a SkipException, we still detect it, else some
+				// other errors occurred before
+				throw uncaughtTestError;
+			} else if (delayedTestError != null) {
+				throw delayedTestError;
+			}
+			if (!measuringTestCases.contains(testCase)) {
+				checkBaseline(testCase, measurement.wallNanos());
+			}
+			outcome = "succeeded";
+			getReporter().testSucceeded(testCase);
+		} catch (final Throwable e) {
+			if (skipExceptionType.isInstance(e)) {
+				outcome = "skipped";
+				getReporter().testSkipped(testCase, e.getMessage());
+			} else {
+				if (output != null && !output.isEmpty()) {
+					e.addSuppressed(new CapturedOutput(testCase.getSectionAndTestName(), output.getOutput(),
+							output.getTruncatedBytes()));
+				}
+				getReporter().testFailed(testCase, e);
+			}
+			throw e;
+		} finally {
+			final Timing ownTiming = measurement.stop();
+			final Timing timing = workerTiming == null ? ownTiming
+					: ownTiming.plus(workerTiming, ownTiming.getWallNanos());
+			if (testEvent != null) {
+				testEvent.end(suiteName, testCase.getSection().map(s -> s.getFullName(" / ")).orNull(),
+						testCase.getName(), outcome);
+			}
+			addToSuiteTiming(timing);
+			getReporter().testFinished(testCase, timing);
+		}
+	}
+
+	/**
+	 * Waits for the asynchronous test case to complete, starting it, if not
+	 * already done, and reports the outcome to the reporter.
+	 */
+	private void runAsyncTestCase(final DefaultTestCase testCase, final Class<? extends Throwable> skipExceptionType)
+			throws Throwable {
+		final JfrEvent.Span testEvent = JfrEvent.TEST.begin();
+		String outcome = "failed";
+		final AsyncTestRun run = asyncRun(testCase);
+		try {
+			getReporter().testStart(testCase);
+			run.start();
+			final Throwable error = run.await();
+			if (error != null) {
+				throw error;
+			}
+			outcome = "succeeded";
+			getReporter().testSucceeded(testCase);
+		} catch (final Throwable e) {
+			if (skipExceptionType.isInstance(e)) {
+				outcome = "skipped";
+				getReporter().testSkipped(testCase, e.getMessage());
+			} else {
+				getReporter().testFailed(testCase, e);
+			}
+			throw e;
+		} finally {
+			// the test case ran on other threads, so we only know its wall-clock time
+			final Timing timing = new Timing(run.isStarted() ? run.getWallNanos() : 0, -1, -1);
+			if (testEvent != null) {
+				testEvent.end(suiteName, testCase.getSection().map(s -> s.getFullName(" / ")).orNull(),
+						testCase.getName(), outcome);
+			}
+			// don't let the unknown values make those of the suite unknown
+			addToSuiteTiming(new Timing(timing.getWallNanos(), 0, 0));
+			getReporter().testFinished(testCase, timing);
+		}
+	}
+
+	/**
+	 * The outcome of running the body of a test case.
+	 */
+	private static class TestBodyRun {
+		/** The captured output, or `null`, if not captured. */
+		OutputCapture.Captured output;
+		/** The resources used by the worker thread, or `null`, if run in the current thread. */
+		Timing workerTiming;
+		/** The error of the test case, or `null`, if it succeeded. */
+		Throwable error;
+	}
+
+	/**
+	 * Runs the body of the test case, enforcing its timeout and the suite
+	 * timeout, if any.
+	 *
+	 * Without timeout, the body runs in the current thread. Otherwise, it runs
+	 * in a worker thread with the expect context of the current thread, which
+	 * waits for it. When the timeout expires, the worker thread gets
+	 * interrupted. If it does not finish within another timeout after the
+	 * interruption, e.g. because it is deadlocked, the test case fails without
+	 * waiting any longer, and the worker thread is abandoned.
+	 */
+	private TestBodyRun runTimedTestBody(final DefaultTestCase testCase) throws Throwable {
+		final Duration timeout = testCase.getTimeout().getOrElse(defaultTimeout);
+		final Duration budget = suiteTimeout;
+		final long remainingSuiteMillis = remainingSuiteMillis(budget);
+		if (remainingSuiteMillis <= 0) {
+			throw TestTimeoutError.suiteTimeoutExpired(testCase.getSectionAndTestName(), budget.toMillis());
+		}
+		if (timeout == null && budget == null) {
+			return runCapturedTestBody(testCase);
+		}
+
+		final long testTimeoutMillis = timeout == null ? Long.MAX_VALUE : Math.max(1, timeout.toMillis());
+		final long timeoutMillis = Math.min(testTimeoutMillis, remainingSuiteMillis);
+		final String suiteNote = remainingSuiteMillis < testTimeoutMillis
+				? "The suite timeout of " + budget.toMillis() + " ms expired.\n"
+				: "";
+		final CompletableFuture<TestBodyRun> result = new CompletableFuture<>();
+		final ExpectContext context = ExpectContext.swapThreadContext(null);
+		try {
+			timedTestExecutor.execute(() -> {
+				final ThreadMetrics.Measurement measurement = ThreadMetrics.start();
+				final Watchdog.Watch watch = Watchdog.getInstance().watch(Thread.currentThread(), timeoutMillis,
+						w -> result.completeExceptionally(TestTimeoutError.unresponsive(
+								testCase.getSectionAndTestName(), timeoutMillis, suiteNote + w.getDiagnostic())));
+				final TestBodyRun[] run = new TestBodyRun[1];
+				try {
+					ExpectContext.runWith(context, () -> run[0] = runCapturedTestBody(testCase));
+				} catch (final Throwable t) {
+					// the errors of the test case are already caught by runCapturedTestBody
+					run[0] = new TestBodyRun();
+					run[0].error = t;
+				}
+				if (!watch.finish()) {
+					run[0].error = new TestTimeoutError(testCase.getSectionAndTestName(), timeoutMillis,
+							suiteNote + watch.getDiagnostic(), run[0].error);
+				}
+				run[0].workerTiming = measurement.stop();
+				result.complete(run[0]);
+			});
+			return result.get();
+		} catch (final ExecutionException e) {
+			throw e.getCause();
+		} finally {
+			ExpectContext.swapThreadContext(context);
+		}
+	}
+
+	/**
+	 * Runs the body of the test case in the current thread, capturing its
+	 * output, if enabled.
+	 */
+	private TestBodyRun runCapturedTestBody(final DefaultTestCase testCase) {
+		final TestBodyRun run = new TestBodyRun();
+		final OutputCapture.Capture capture = captureOutput ? OutputCapture.start(CAPTURE_OUTPUT_LIMIT) : null;
+		try {
+			runProfiledTestBody(testCase);
+		} catch (final Throwable t) {
+			run.error = t;
+		} finally {
+			if (capture != null) {
+				run.output = capture.stop();
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * Runs the body of the test case, profiling it, if it is slow.
+	 */
+	private void runProfiledTestBody(final DefaultTestCase testCase) throws Throwable {
+		final Duration threshold = profilingThreshold;
+		final Path directory = profilingDirectory;
+		if (threshold == null) {
+			runTestBody(testCase);
+			return;
+		}
+
+		final StackSampler.Sampling sampling = StackSampler.getInstance().sample(Thread.currentThread(),
+				Math.max(1, threshold.toMillis()), PROFILING_INTERVAL_MILLIS,
+				FreeSpecBase.class.getName() + ".runTestBody");
+		try {
+			runTestBody(testCase);
+		} finally {
+			final Map<String, Long> stacks = sampling.stop();
+			if (!stacks.isEmpty()) {
+				final Path file = directory.resolve(suiteName.replaceAll("[^A-Za-z0-9._-]", "_"))
+						.resolve(testCase.getSectionAndTestName().replaceAll("[^A-Za-z0-9._-]", "_") + ".collapsed");
+				try {
+					StackSampler.writeCollapsed(stacks, testCase.getSectionAndTestName(), file);
+				} catch (final IOException e) {
+					getReporter().suiteWarning(suiteName, "Could not write profile of slow test \""
+							+ testCase.getSectionAndTestName() + "\" to " + file + ": " + e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the body of the test case. Profiles are cut below this method.
+	 */
+	private void runTestBody(final DefaultTestCase testCase) throws Throwable {
+		testCase.getTest().run();
+	}
+
 	public List<DefaultTestCase> getTestCases() {
 		if(lazyInitPending) {
 			synchronized (this) {
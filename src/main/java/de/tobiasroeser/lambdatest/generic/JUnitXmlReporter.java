@@ -0,0 +1,220 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.internal.ChannelWriter;
+import de.tobiasroeser.lambdatest.internal.Escape;
+
+/**
+ * A Reporter writing test results in the JUnit XML format, as understood by
+ * most CI servers and dashboards.
+ *
+ * Each test suite is written to a separate file `TEST-&lt;suite name&gt;.xml`
+ * in the given directory. Test cases are streamed to the file as soon as they
+ * finished, so the memory usage does not grow with the number of tests. As
+ * the `testsuite` element has to contain the totals, a fixed-size region is
+ * reserved for them, which is overwritten when the suite finished.
+ *
+ * Test names include their sections (see
+ * {@link LambdaTestCase#getSectionAndTestName(String)}), the class name is
+ * the suite name.
+ *
+ * @since 0.9.0
+ */
+public class JUnitXmlReporter implements Reporter {
+
+	/** Space reserved for the totals in the `testsuite` element. */
+	private static final int TOTALS_SIZE = 160;
+
+	private final Path directory;
+	private final Map<String, SuiteFile> suites = new ConcurrentHashMap<>();
+	private final Map<LambdaTestCase, TestResult> results = new ConcurrentHashMap<>();
+
+	private static class SuiteFile {
+		private final ChannelWriter writer;
+		private final long totalsPosition;
+		private final List<String> warnings = new ArrayList<>();
+		private int tests;
+		private int failures;
+		private int errors;
+		private int skipped;
+
+		SuiteFile(final ChannelWriter writer, final long totalsPosition) {
+			this.writer = writer;
+			this.totalsPosition = totalsPosition;
+		}
+	}
+
+	/**
+	 * @param directory
+	 *            The directory to write the report files to. It will be
+	 *            created, if it does not exist.
+	 */
+	public JUnitXmlReporter(final Path directory) {
+		this.directory = directory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * The file, the report of the given suite is written to.
+	 */
+	public Path getReportFile(final String suiteName) {
+		return directory.resolve("TEST-" + suiteName.replaceAll("[^A-Za-z0-9._-]", "_") + ".xml");
+	}
+
+	private SuiteFile suite(final String suiteName) {
+		return suites.computeIfAbsent(suiteName, name -> {
+			try {
+				Files.createDirectories(directory);
+				final ChannelWriter writer = ChannelWriter.create(getReportFile(name));
+				writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+				writer.write("<testsuite name=\"" + Escape.xml(name) + "\" timestamp=\""
+						+ LocalDateTime.now().withNano(0) + "\"");
+				final long totalsPosition = writer.position();
+				writer.write(pad("", TOTALS_SIZE));
+				writer.write(">\n");
+				return new SuiteFile(writer, totalsPosition);
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not create JUnit XML report for suite " + name, e);
+			}
+		});
+	}
+
+	private static String pad(final String text, final int size) {
+		final StringBuilder sb = new StringBuilder(size).append(text);
+		while (sb.length() < size) {
+			sb.append(' ');
+		}
+		return sb.toString();
+	}
+
+	private static String seconds(final long nanos) {
+		return String.format(Locale.ROOT, "%.3f", Math.max(0, nanos) / 1000000000.0);
+	}
+
+	@Override
+	public void testStart(final LambdaTestCase test) {
+		// we write the test case, when it is finished
+	}
+
+	@Override
+	public void testSkipped(final LambdaTestCase test, final String message) {
+		results.put(test, TestResult.skipped(message));
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		results.put(test, TestResult.failed(error));
+	}
+
+	@Override
+	public void testSucceeded(final LambdaTestCase test) {
+		results.put(test, TestResult.succeeded());
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		final TestResult result = results.remove(test);
+		final StringBuilder sb = new StringBuilder();
+		sb.append("  <testcase name=\"").append(Escape.xml(test.getSectionAndTestName(" / ")))
+				.append("\" classname=\"").append(Escape.xml(test.getSuiteName()))
+				.append("\" time=\"").append(seconds(timing.getWallNanos())).append('"');
+		final TestResult.Status status = result == null ? TestResult.Status.SUCCEEDED : result.getStatus();
+		boolean error = false;
+		switch (status) {
+		case SKIPPED:
+			sb.append(">\n    <skipped message=\"").append(Escape.xml(result.getMessage())).append("\"/>\n")
+					.append("  </testcase>\n");
+			break;
+		case FAILED:
+			final Throwable e = result.getError();
+			error = !RecordedError.isAssertion(e);
+			final String element = error ? "error" : "failure";
+			sb.append(">\n    <").append(element)
+					.append(" message=\"").append(Escape.xml(e.getMessage()))
+					.append("\" type=\"").append(Escape.xml(RecordedError.typeOf(e))).append("\">")
+					.append(Escape.xml(Escape.stackTrace(e)))
+					.append("</").append(element).append(">\n")
+					.append("  </testcase>\n");
+			break;
+		default:
+			sb.append("/>\n");
+		}
+
+		final SuiteFile suite = suite(test.getSuiteName());
+		synchronized (suite) {
+			++suite.tests;
+			if (status == TestResult.Status.SKIPPED) {
+				++suite.skipped;
+			} else if (status == TestResult.Status.FAILED) {
+				if (error) {
+					++suite.errors;
+				} else {
+					++suite.failures;
+				}
+			}
+			try {
+				suite.writer.write(sb);
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not write JUnit XML report for suite " + test.getSuiteName(),
+						e);
+			}
+		}
+	}
+
+	@Override
+	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		suite(suiteName);
+	}
+
+	@Override
+	public void suiteWarning(final String suiteName, final String warning) {
+		final SuiteFile suite = suite(suiteName);
+		synchronized (suite) {
+			suite.warnings.add(warning);
+		}
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		final SuiteFile suite = suites.remove(suiteName);
+		if (suite == null) {
+			return;
+		}
+		synchronized (suite) {
+			try {
+				if (!suite.warnings.isEmpty()) {
+					suite.writer.write("  <system-err>");
+					for (final String warning : suite.warnings) {
+						suite.writer.write(Escape.xml(warning)).write("\n");
+					}
+					suite.writer.write("</system-err>\n");
+				}
+				suite.writer.write("</testsuite>\n");
+				suite.writer.writeAt(suite.totalsPosition, pad(
+						" tests=\"" + suite.tests + "\" failures=\"" + suite.failures + "\" errors=\"" + suite.errors
+								+ "\" skipped=\"" + suite.skipped + "\" time=\"" + seconds(total.getWallNanos()) + "\"",
+						TOTALS_SIZE));
+				suite.writer.close();
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not write JUnit XML report for suite " + suiteName, e);
+			}
+		}
+	}
+
+}
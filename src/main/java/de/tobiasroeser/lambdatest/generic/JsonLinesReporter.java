@@ -0,0 +1,250 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.LoadTestResult;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.internal.ChannelWriter;
+import de.tobiasroeser.lambdatest.internal.Escape;
+
+/**
+ * A Reporter writing one JSON object per line (JSON Lines) for each test
+ * case and suite event into a single file.
+ *
+ * Each finished test case results in one `test` record containing its suite,
+ * section path, name, status, timing and (for failed tests) the error with
+ * all its causes. Benchmarks and load tests additionally result in a
+ * `benchmark` record with their statistics in nanoseconds per operation, or a
+ * `loadTest` record with their throughput and latencies in nanoseconds. Suites result in
+ * `suiteStart`, `suiteWarning` and
+ * `suiteFinished` records. Records are streamed to the file, so the memory
+ * usage does not grow with the number of tests. The file is flushed when a
+ * suite finished.
+ *
+ * [source,json]
+ * ----
+ * {"event":"test","suite":"my.Test","section":["A String should"],"name":"be trimmed","status":"succeeded","wallNanos":1234,"cpuNanos":1000,"allocatedBytes":2048}
+ * ----
+ *
+ * @since 0.9.0
+ */
+public class JsonLinesReporter implements Reporter, Closeable {
+
+	private final Path file;
+	private final Map<LambdaTestCase, TestResult> results = new ConcurrentHashMap<>();
+	private ChannelWriter writer;
+
+	/**
+	 * @param file
+	 *            The file to write to. It will be truncated, when the first
+	 *            record is written.
+	 */
+	public JsonLinesReporter(final Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	private synchronized void writeLine(final StringBuilder record) {
+		try {
+			if (writer == null) {
+				final Path parent = file.toAbsolutePath().getParent();
+				if (parent != null) {
+					Files.createDirectories(parent);
+				}
+				writer = ChannelWriter.create(file);
+			}
+			writer.write(record.append('\n'));
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Could not write to " + file, e);
+		}
+	}
+
+	private synchronized void flush() {
+		if (writer != null) {
+			try {
+				writer.flush();
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Could not write to " + file, e);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+	}
+
+	private static StringBuilder record(final String event, final String suiteName) {
+		final StringBuilder sb = new StringBuilder(256);
+		sb.append("{\"event\":\"").append(event).append("\",\"suite\":");
+		Escape.json(sb, suiteName);
+		return sb;
+	}
+
+	private static List<String> sectionPath(final LambdaTestCase test) {
+		final List<String> path = new ArrayList<>();
+		for (Section s = test.getSection().orNull(); s != null; s = s.getParent()) {
+			path.add(s.getName());
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	private static void appendTiming(final StringBuilder sb, final Timing timing) {
+		sb.append(",\"wallNanos\":").append(timing.getWallNanos())
+				.append(",\"cpuNanos\":").append(timing.getCpuNanos())
+				.append(",\"allocatedBytes\":").append(timing.getAllocatedBytes());
+	}
+
+	private static void appendError(final StringBuilder sb, final Throwable error) {
+		sb.append("{\"type\":");
+		Escape.json(sb, RecordedError.typeOf(error));
+		sb.append(",\"message\":");
+		Escape.json(sb, error.getMessage());
+		sb.append(",\"stackTrace\":");
+		Escape.json(sb, Escape.stackTrace(error));
+		sb.append(",\"causes\":[");
+		String sep = "";
+		for (Throwable cause = error.getCause(), last = error; cause != null
+				&& cause != last; last = cause, cause = cause.getCause()) {
+			sb.append(sep).append("{\"type\":");
+			Escape.json(sb, RecordedError.typeOf(cause));
+			sb.append(",\"message\":");
+			Escape.json(sb, cause.getMessage());
+			sb.append('}');
+			sep = ",";
+		}
+		sb.append("]}");
+	}
+
+	@Override
+	public void testStart(final LambdaTestCase test) {
+		// we write the test case, when it is finished
+	}
+
+	@Override
+	public void testSkipped(final LambdaTestCase test, final String message) {
+		results.put(test, TestResult.skipped(message));
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		results.put(test, TestResult.failed(error));
+	}
+
+	@Override
+	public void testSucceeded(final LambdaTestCase test) {
+		results.put(test, TestResult.succeeded());
+	}
+
+	@Override
+	public void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+		final StringBuilder sb = record("benchmark", test.getSuiteName());
+		appendTestName(sb, test);
+		sb.append(",\"samples\":").append(result.getSamples())
+				.append(",\"opsPerSample\":").append(result.getOperationsPerSample())
+				.append(",\"mean\":").append(result.getMean())
+				.append(",\"stdDev\":").append(result.getStandardDeviation())
+				.append(",\"min\":").append(result.getMin())
+				.append(",\"p50\":").append(result.getP50())
+				.append(",\"p90\":").append(result.getP90())
+				.append(",\"p99\":").append(result.getP99())
+				.append(",\"max\":").append(result.getMax());
+		if (result.getSamples() > 1) {
+			sb.append(",\"ciLower\":").append(result.getConfidenceIntervalLower())
+					.append(",\"ciUpper\":").append(result.getConfidenceIntervalUpper());
+		}
+		writeLine(sb.append('}'));
+	}
+
+	@Override
+	public void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+		final StringBuilder sb = record("loadTest", test.getSuiteName());
+		appendTestName(sb, test);
+		sb.append(",\"threads\":").append(result.getThreads())
+				.append(",\"targetRate\":").append(result.getTargetRate())
+				.append(",\"throughput\":").append(result.getThroughput())
+				.append(",\"requests\":").append(result.getCount())
+				.append(",\"errors\":").append(result.getErrorCount())
+				.append(",\"min\":").append(result.getMinLatencyNanos())
+				.append(",\"mean\":").append(result.getMeanLatencyNanos())
+				.append(",\"p50\":").append(result.getLatencyNanosAtPercentile(50))
+				.append(",\"p90\":").append(result.getLatencyNanosAtPercentile(90))
+				.append(",\"p99\":").append(result.getLatencyNanosAtPercentile(99))
+				.append(",\"p999\":").append(result.getLatencyNanosAtPercentile(99.9))
+				.append(",\"max\":").append(result.getMaxLatencyNanos());
+		writeLine(sb.append('}'));
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		final TestResult result = results.remove(test);
+		final StringBuilder sb = record("test", test.getSuiteName());
+		appendTestName(sb, test);
+		final TestResult.Status status = result == null ? TestResult.Status.SUCCEEDED : result.getStatus();
+		sb.append(",\"status\":\"").append(status.name().toLowerCase(Locale.ROOT)).append('"');
+		appendTiming(sb, timing);
+		if (status == TestResult.Status.SKIPPED) {
+			sb.append(",\"message\":");
+			Escape.json(sb, result.getMessage());
+		} else if (status == TestResult.Status.FAILED) {
+			sb.append(",\"error\":");
+			appendError(sb, result.getError());
+		}
+		writeLine(sb.append('}'));
+	}
+
+	private void appendTestName(final StringBuilder sb, final LambdaTestCase test) {
+		sb.append(",\"section\":[");
+		String sep = "";
+		for (final String section : sectionPath(test)) {
+			sb.append(sep);
+			Escape.json(sb, section);
+			sep = ",";
+		}
+		sb.append("],\"name\":");
+		Escape.json(sb, test.getName());
+	}
+
+	@Override
+	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		writeLine(record("suiteStart", suiteName).append(",\"tests\":").append(tests.size())
+				.append(",\"timestamp\":").append(System.currentTimeMillis()).append('}'));
+	}
+
+	@Override
+	public void suiteWarning(final String suiteName, final String warning) {
+		final StringBuilder sb = record("suiteWarning", suiteName).append(",\"message\":");
+		Escape.json(sb, warning);
+		writeLine(sb.append('}'));
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		final StringBuilder sb = record("suiteFinished", suiteName);
+		appendTiming(sb, total);
+		writeLine(sb.append('}'));
+		flush();
+	}
+
+}
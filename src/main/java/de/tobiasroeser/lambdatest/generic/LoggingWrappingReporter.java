@@ -1,25 +1,44 @@
 package de.tobiasroeser.lambdatest.generic;
 
+import java.time.Duration;
 import java.util.List;
 
+import de.tobiasroeser.lambdatest.BenchmarkResult;
 import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.LoadTestResult;
 import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Timing;
 import de.tobiasroeser.lambdatest.internal.Logger;
 import de.tobiasroeser.lambdatest.internal.LoggerFactory;
 
 /**
  * A Reporter that logs and also wraps another reporter.
+ *
+ * Tests running longer than the slow test threshold (see
+ * {@link #setSlowTestThreshold(Duration)}) are logged with level WARN.
  */
 public class LoggingWrappingReporter implements Reporter {
 
 	private final Logger log = LoggerFactory.getLogger(LoggingWrappingReporter.class);
 
 	private final Reporter underlying;
+	private volatile long slowTestThresholdNanos = DefaultReporter.DEFAULT_SLOW_TEST_THRESHOLD.toNanos();
 
 	public LoggingWrappingReporter(final Reporter underlying) {
 		this.underlying = underlying;
 	}
 
+	/**
+	 * Set the threshold, above which a test is considered slow.
+	 *
+	 * @param threshold
+	 *            The threshold or `null` to never consider tests as slow.
+	 * @since 0.9.0
+	 */
+	public void setSlowTestThreshold(final Duration threshold) {
+		this.slowTestThresholdNanos = threshold == null ? Long.MAX_VALUE : threshold.toNanos();
+	}
+
 	protected String formatTestCase(final LambdaTestCase test) {
 		return "\"" + test.getSectionAndTestName(" / ") + "\" (" + test.getSuiteName() + ")";
 	}
@@ -72,4 +91,34 @@ public class LoggingWrappingReporter implements Reporter {
 		underlying.suiteWarning(suiteName, warning);
 	}
 
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		if (timing.getWallNanos() >= slowTestThresholdNanos) {
+			log.warn("Slow test: {} finished after {}", formatTestCase(test), timing);
+		} else if (log.isDebugEnabled()) {
+			log.debug("Test finished: {} after {}", formatTestCase(test), timing);
+		}
+		underlying.testFinished(test, timing);
+	}
+
+	@Override
+	public void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+		log.info("Benchmark: {}: {}", formatTestCase(test), result);
+		underlying.benchmarkResult(test, result);
+	}
+
+	@Override
+	public void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+		log.info("Load test: {}: {}", formatTestCase(test), result);
+		underlying.loadTestResult(test, result);
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		if (log.isDebugEnabled()) {
+			log.debug("Suite finished after {}: {}", total, suiteName);
+		}
+		underlying.suiteFinished(suiteName, total);
+	}
+
 }
@@ -0,0 +1,375 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.tobiasroeser.lambdatest.ExpectContext;
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Timing;
+
+/**
+ * A Reporter collecting metrics of the test run and writing them in the
+ * Prometheus text exposition format, e.g. into the textfile directory of the
+ * Prometheus node exporter.
+ *
+ * The following metrics are collected per suite and section:
+ *
+ * * `lambdatest_tests_total` - finished tests by `outcome` (`succeeded`, `failed`,
+ * `skipped`)
+ * * `lambdatest_expectations_total` - checked expectations (see
+ * {@link ExpectContext#getExpectationCount()})
+ * * `lambdatest_test_duration_seconds` - histogram of the wall-clock time of the
+ * tests
+ * * `lambdatest_test_cpu_seconds_total` and
+ * `lambdatest_test_allocated_bytes_total` - resource usage of the tests
+ *
+ * And per suite:
+ *
+ * * `lambdatest_suite_duration_seconds` - wall-clock time of the last run
+ * * `lambdatest_suite_warnings_total` - reported suite warnings
+ *
+ * Counters are striped ({@link LongAdder}), so parallel tests do not contend
+ * on them. The file is rewritten atomically (write and rename) with all
+ * metrics collected so far, each time a suite finished.
+ *
+ * To count expectations, this reporter must be called from the test threads,
+ * e.g. it must not be wrapped in an {@link AsyncReporter}. Expectations are
+ * only counted while tests reported to this reporter are running (see
+ * {@link ExpectContext#startCountingExpectations()}).
+ *
+ * @since 0.9.0
+ */
+public class OpenMetricsReporter implements Reporter {
+
+	/** The upper bounds of the duration histogram buckets in seconds. */
+	private static final double[] BUCKETS = { 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 30, 60 };
+
+	private final Path file;
+	private final Map<Labels, TestMetrics> testMetrics = new ConcurrentHashMap<>();
+	private final Map<String, SuiteMetrics> suiteMetrics = new ConcurrentHashMap<>();
+	private final Map<LambdaTestCase, RunningTest> runningTests = new ConcurrentHashMap<>();
+
+	/**
+	 * The labels of the per section metrics.
+	 */
+	private static class Labels implements Comparable<Labels> {
+		private final String suite;
+		private final String section;
+
+		Labels(final String suite, final String section) {
+			this.suite = suite;
+			this.section = section;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Labels)) {
+				return false;
+			}
+			final Labels other = (Labels) obj;
+			return suite.equals(other.suite) && section.equals(other.section);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * suite.hashCode() + section.hashCode();
+		}
+
+		@Override
+		public int compareTo(final Labels other) {
+			final int cmp = suite.compareTo(other.suite);
+			return cmp != 0 ? cmp : section.compareTo(other.section);
+		}
+
+		String format(final String extraName, final String extraValue) {
+			final StringBuilder sb = new StringBuilder("{suite=");
+			quote(sb, suite).append(",section=");
+			quote(sb, section);
+			if (extraName != null) {
+				sb.append(',').append(extraName).append('=');
+				quote(sb, extraValue);
+			}
+			return sb.append('}').toString();
+		}
+	}
+
+	private static class TestMetrics {
+		private final LongAdder succeeded = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder skipped = new LongAdder();
+		private final LongAdder expectations = new LongAdder();
+		/** Non-cumulative counts per bucket, the last one is +Inf. */
+		private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+		private final DoubleAdder durationSum = new DoubleAdder();
+		private final DoubleAdder cpuSum = new DoubleAdder();
+		private final LongAdder allocatedSum = new LongAdder();
+
+		TestMetrics() {
+			for (int i = 0; i < buckets.length; ++i) {
+				buckets[i] = new LongAdder();
+			}
+		}
+	}
+
+	private static class SuiteMetrics {
+		private final LongAdder warnings = new LongAdder();
+		private volatile double lastDuration = Double.NaN;
+	}
+
+	private static class RunningTest {
+		private final long expectationsAtStart;
+		private volatile TestResult.Status status;
+
+		RunningTest() {
+			ExpectContext.startCountingExpectations();
+			expectationsAtStart = ExpectContext.getExpectationCount();
+		}
+	}
+
+	/**
+	 * @param file
+	 *            The file to write the metrics to, e.g.
+	 *            `/var/lib/node_exporter/textfile/lambdatest.prom`.
+	 */
+	public OpenMetricsReporter(final Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	private static StringBuilder quote(final StringBuilder sb, final String value) {
+		sb.append('"');
+		for (int i = 0; i < value.length(); ++i) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			default:
+				sb.append(c);
+			}
+		}
+		return sb.append('"');
+	}
+
+	private static String number(final double value) {
+		if (Double.isInfinite(value)) {
+			return value > 0 ? "+Inf" : "-Inf";
+		}
+		return String.format(Locale.ROOT, "%s", value);
+	}
+
+	private static Labels labels(final LambdaTestCase test) {
+		return new Labels(test.getSuiteName(), test.getSection().map(s -> s.getFullName(" / ")).getOrElse(""));
+	}
+
+	private SuiteMetrics suite(final String suiteName) {
+		return suiteMetrics.computeIfAbsent(suiteName, name -> new SuiteMetrics());
+	}
+
+	@Override
+	public void testStart(final LambdaTestCase test) {
+		final RunningTest previous = runningTests.put(test, new RunningTest());
+		if (previous != null) {
+			ExpectContext.stopCountingExpectations();
+		}
+	}
+
+	private void setStatus(final LambdaTestCase test, final TestResult.Status status) {
+		final RunningTest running = runningTests.get(test);
+		if (running != null) {
+			running.status = status;
+		}
+	}
+
+	@Override
+	public void testSkipped(final LambdaTestCase test, final String message) {
+		setStatus(test, TestResult.Status.SKIPPED);
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		setStatus(test, TestResult.Status.FAILED);
+	}
+
+	@Override
+	public void testSucceeded(final LambdaTestCase test) {
+		setStatus(test, TestResult.Status.SUCCEEDED);
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		final RunningTest running = runningTests.remove(test);
+		final TestMetrics metrics = testMetrics.computeIfAbsent(labels(test), labels -> new TestMetrics());
+		final TestResult.Status status = running == null || running.status == null ? TestResult.Status.SUCCEEDED
+				: running.status;
+		switch (status) {
+		case FAILED:
+			metrics.failed.increment();
+			break;
+		case SKIPPED:
+			metrics.skipped.increment();
+			break;
+		default:
+			metrics.succeeded.increment();
+		}
+		if (running != null) {
+			metrics.expectations.add(ExpectContext.getExpectationCount() - running.expectationsAtStart);
+			ExpectContext.stopCountingExpectations();
+		}
+
+		final double seconds = timing.getWallNanos() / 1e9;
+		int bucket = 0;
+		while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) {
+			++bucket;
+		}
+		metrics.buckets[bucket].increment();
+		metrics.durationSum.add(seconds);
+		if (timing.getCpuNanos() >= 0) {
+			metrics.cpuSum.add(timing.getCpuNanos() / 1e9);
+		}
+		if (timing.getAllocatedBytes() >= 0) {
+			metrics.allocatedSum.add(timing.getAllocatedBytes());
+		}
+	}
+
+	@Override
+	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		suite(suiteName);
+	}
+
+	@Override
+	public void suiteWarning(final String suiteName, final String warning) {
+		suite(suiteName).warnings.increment();
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		suite(suiteName).lastDuration = total.getWallNanos() / 1e9;
+		write();
+	}
+
+	/**
+	 * Formats all metrics collected so far in the Prometheus text exposition
+	 * format, which is also understood by OpenMetrics parsers.
+	 */
+	public String format() {
+		final Map<Labels, TestMetrics> tests = new TreeMap<>(testMetrics);
+		final Map<String, SuiteMetrics> suites = new TreeMap<>(suiteMetrics);
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("# TYPE lambdatest_tests_total counter\n");
+		sb.append("# HELP lambdatest_tests_total Finished test cases by outcome.\n");
+		for (final Map.Entry<Labels, TestMetrics> e : tests.entrySet()) {
+			sb.append("lambdatest_tests_total").append(e.getKey().format("outcome", "succeeded")).append(' ')
+					.append(e.getValue().succeeded.sum()).append('\n');
+			sb.append("lambdatest_tests_total").append(e.getKey().format("outcome", "failed")).append(' ')
+					.append(e.getValue().failed.sum()).append('\n');
+			sb.append("lambdatest_tests_total").append(e.getKey().format("outcome", "skipped")).append(' ')
+					.append(e.getValue().skipped.sum()).append('\n');
+		}
+
+		sb.append("# TYPE lambdatest_expectations_total counter\n");
+		sb.append("# HELP lambdatest_expectations_total Checked expectations.\n");
+		for (final Map.Entry<Labels, TestMetrics> e : tests.entrySet()) {
+			sb.append("lambdatest_expectations_total").append(e.getKey().format(null, null)).append(' ')
+					.append(e.getValue().expectations.sum()).append('\n');
+		}
+
+		sb.append("# TYPE lambdatest_test_duration_seconds histogram\n");
+		sb.append("# HELP lambdatest_test_duration_seconds Wall-clock time of test cases.\n");
+		for (final Map.Entry<Labels, TestMetrics> e : tests.entrySet()) {
+			final TestMetrics metrics = e.getValue();
+			long cumulative = 0;
+			for (int i = 0; i < metrics.buckets.length; ++i) {
+				cumulative += metrics.buckets[i].sum();
+				final String le = i < BUCKETS.length ? number(BUCKETS[i]) : "+Inf";
+				sb.append("lambdatest_test_duration_seconds_bucket").append(e.getKey().format("le", le)).append(' ')
+						.append(cumulative).append('\n');
+			}
+			sb.append("lambdatest_test_duration_seconds_sum").append(e.getKey().format(null, null)).append(' ')
+					.append(number(metrics.durationSum.sum())).append('\n');
+			sb.append("lambdatest_test_duration_seconds_count").append(e.getKey().format(null, null)).append(' ')
+					.append(cumulative).append('\n');
+		}
+
+		sb.append("# TYPE lambdatest_test_cpu_seconds_total counter\n");
+		sb.append("# HELP lambdatest_test_cpu_seconds_total CPU time of test cases.\n");
+		for (final Map.Entry<Labels, TestMetrics> e : tests.entrySet()) {
+			sb.append("lambdatest_test_cpu_seconds_total").append(e.getKey().format(null, null)).append(' ')
+					.append(number(e.getValue().cpuSum.sum())).append('\n');
+		}
+
+		sb.append("# TYPE lambdatest_test_allocated_bytes_total counter\n");
+		sb.append("# HELP lambdatest_test_allocated_bytes_total Heap memory allocated by test cases.\n");
+		for (final Map.Entry<Labels, TestMetrics> e : tests.entrySet()) {
+			sb.append("lambdatest_test_allocated_bytes_total").append(e.getKey().format(null, null)).append(' ')
+					.append(e.getValue().allocatedSum.sum()).append('\n');
+		}
+
+		sb.append("# TYPE lambdatest_suite_duration_seconds gauge\n");
+		sb.append("# HELP lambdatest_suite_duration_seconds Wall-clock time of the last run of the suite.\n");
+		for (final Map.Entry<String, SuiteMetrics> e : suites.entrySet()) {
+			if (!Double.isNaN(e.getValue().lastDuration)) {
+				sb.append("lambdatest_suite_duration_seconds{suite=");
+				quote(sb, e.getKey()).append("} ").append(number(e.getValue().lastDuration)).append('\n');
+			}
+		}
+
+		sb.append("# TYPE lambdatest_suite_warnings_total counter\n");
+		sb.append("# HELP lambdatest_suite_warnings_total Reported suite warnings.\n");
+		for (final Map.Entry<String, SuiteMetrics> e : suites.entrySet()) {
+			sb.append("lambdatest_suite_warnings_total{suite=");
+			quote(sb, e.getKey()).append("} ").append(e.getValue().warnings.sum()).append('\n');
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Writes all metrics collected so far. To not expose a partially written
+	 * file to a concurrent reader, the metrics are written into a temporary
+	 * file, which then replaces the target file.
+	 */
+	public synchronized void write() {
+		try {
+			final Path dir = file.toAbsolutePath().getParent();
+			Files.createDirectories(dir);
+			final Path tmp = Files.createTempFile(dir, "." + file.getFileName(), ".tmp");
+			try {
+				Files.write(tmp, format().getBytes(StandardCharsets.UTF_8));
+				try {
+					Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (final AtomicMoveNotSupportedException e) {
+					Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Could not write metrics to " + file, e);
+		}
+	}
+
+}
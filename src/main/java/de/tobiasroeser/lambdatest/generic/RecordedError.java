@@ -0,0 +1,74 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * An error of a test, which was recorded and is now replayed, e.g. by the
+ * {@link BinaryLogReader}. It represents the original error with its type,
+ * message and stack trace, as the original error object is not available.
+ */
+class RecordedError extends AssertionError {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String type;
+	private final String stackTrace;
+	private final boolean assertion;
+
+	RecordedError(final String type, final String message, final String stackTrace, final boolean assertion) {
+		super(message);
+		this.type = type;
+		this.stackTrace = stackTrace;
+		this.assertion = assertion;
+		setStackTrace(new StackTraceElement[0]);
+	}
+
+	/**
+	 * The class name of the original error.
+	 */
+	String getType() {
+		return type;
+	}
+
+	/**
+	 * `true` if the original error was an {@link AssertionError}.
+	 */
+	boolean isAssertion() {
+		return assertion;
+	}
+
+	/**
+	 * The class name of the given error, or of the original error if it is a
+	 * recorded error.
+	 */
+	static String typeOf(final Throwable error) {
+		return error instanceof RecordedError ? ((RecordedError) error).getType() : error.getClass().getName();
+	}
+
+	/**
+	 * `true` if the given error is (or was recorded from) an
+	 * {@link AssertionError}.
+	 */
+	static boolean isAssertion(final Throwable error) {
+		return error instanceof RecordedError ? ((RecordedError) error).isAssertion()
+				: error instanceof AssertionError;
+	}
+
+	@Override
+	public String toString() {
+		final String message = getMessage();
+		return message == null ? type : type + ": " + message;
+	}
+
+	@Override
+	public void printStackTrace(final PrintStream s) {
+		s.print(stackTrace != null ? stackTrace : toString() + System.lineSeparator());
+	}
+
+	@Override
+	public void printStackTrace(final PrintWriter s) {
+		s.print(stackTrace != null ? stackTrace : toString() + System.lineSeparator());
+	}
+
+}
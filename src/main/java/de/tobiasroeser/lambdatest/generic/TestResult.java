@@ -0,0 +1,53 @@
+package de.tobiasroeser.lambdatest.generic;
+
+/**
+ * The outcome of a test case, as reported by the test runner. Used by
+ * reporters, which need to hold the outcome until the test is finished.
+ */
+class TestResult {
+
+	enum Status {
+		SUCCEEDED, FAILED, SKIPPED
+	}
+
+	private final Status status;
+	private final String message;
+	private final Throwable error;
+
+	private TestResult(final Status status, final String message, final Throwable error) {
+		this.status = status;
+		this.message = message;
+		this.error = error;
+	}
+
+	static TestResult succeeded() {
+		return new TestResult(Status.SUCCEEDED, null, null);
+	}
+
+	static TestResult skipped(final String message) {
+		return new TestResult(Status.SKIPPED, message, null);
+	}
+
+	static TestResult failed(final Throwable error) {
+		return new TestResult(Status.FAILED, error.getMessage(), error);
+	}
+
+	Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * The skip message or the message of the error, if any.
+	 */
+	String getMessage() {
+		return message;
+	}
+
+	/**
+	 * The error of a failed test, or `null`.
+	 */
+	Throwable getError() {
+		return error;
+	}
+
+}
@@ -0,0 +1,304 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.internal.ChannelWriter;
+import de.tobiasroeser.lambdatest.internal.Escape;
+
+/**
+ * A Reporter writing a timeline of the test run in the Trace Event Format,
+ * which can be opened with `chrome://tracing` or https://ui.perfetto.dev.
+ *
+ * Each thread running tests gets its own track, showing the tests it ran
+ * nested in their sections. This makes idle threads and tests, which
+ * serialize the end of a parallel test run, visible. Suites are shown on a
+ * separate track.
+ *
+ * Events are streamed to the file as they complete. The file is flushed when
+ * a suite finished and completed by {@link #close()}, but an unclosed file
+ * can be loaded as well.
+ *
+ * As the threads are determined when the events are reported, this reporter
+ * must be called from the test threads, e.g. it must not be wrapped in an
+ * {@link AsyncReporter}.
+ *
+ * @since 0.9.0
+ */
+public class TraceEventReporter implements Reporter, Closeable {
+
+	private static final int PID = 1;
+	/** The track of the suites. */
+	private static final long SUITE_TID = 0;
+
+	private final Path file;
+	private final long originNanos = System.nanoTime();
+	private final Map<LambdaTestCase, RunningTest> runningTests = new ConcurrentHashMap<>();
+	private final Map<String, Long> runningSuites = new ConcurrentHashMap<>();
+
+	/** All below is guarded by this. */
+	private final Map<Long, ThreadTrack> tracks = new HashMap<>();
+	private ChannelWriter writer;
+	private boolean closed;
+
+	private static class RunningTest {
+		private final long tid;
+		private final long startNanos;
+		private volatile String status = "unknown";
+
+		RunningTest(final long tid, final long startNanos) {
+			this.tid = tid;
+			this.startNanos = startNanos;
+		}
+	}
+
+	/**
+	 * The open sections of a thread, from outermost to innermost.
+	 */
+	private static class ThreadTrack {
+		private final long tid;
+		private String suiteName;
+		private final List<Section> sections = new ArrayList<>();
+		private final List<Long> sectionStarts = new ArrayList<>();
+
+		ThreadTrack(final long tid) {
+			this.tid = tid;
+		}
+	}
+
+	/**
+	 * @param file
+	 *            The file to write to. It will be truncated, when the first
+	 *            event is written.
+	 */
+	public TraceEventReporter(final Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Appends an event. Must be called while holding the lock.
+	 */
+	private void write(final CharSequence event) {
+		if (closed) {
+			return;
+		}
+		try {
+			if (writer == null) {
+				final Path parent = file.toAbsolutePath().getParent();
+				if (parent != null) {
+					Files.createDirectories(parent);
+				}
+				writer = ChannelWriter.create(file);
+				writer.write("[\n");
+				writer.write(metadata("process_name", SUITE_TID, "LambdaTest"));
+				writer.write(",\n").write(metadata("thread_name", SUITE_TID, "Suites"));
+			}
+			writer.write(",\n").write(event);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Could not write to " + file, e);
+		}
+	}
+
+	private static String metadata(final String name, final long tid, final String value) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("{\"name\":\"").append(name).append("\",\"ph\":\"M\",\"pid\":").append(PID).append(",\"tid\":")
+				.append(tid).append(",\"args\":{\"name\":");
+		Escape.json(sb, value);
+		return sb.append("}}").toString();
+	}
+
+	private static String micros(final long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+	}
+
+	/**
+	 * A complete event (with start and duration).
+	 */
+	private StringBuilder span(final String name, final String category, final long tid, final long startNanos,
+			final long endNanos) {
+		final StringBuilder sb = new StringBuilder(128);
+		sb.append("{\"name\":");
+		Escape.json(sb, name);
+		sb.append(",\"cat\":\"").append(category).append("\",\"ph\":\"X\",\"pid\":").append(PID)
+				.append(",\"tid\":").append(tid)
+				.append(",\"ts\":").append(micros(startNanos - originNanos))
+				.append(",\"dur\":").append(micros(Math.max(0, endNanos - startNanos)));
+		return sb;
+	}
+
+	private ThreadTrack track(final Thread thread) {
+		ThreadTrack track = tracks.get(thread.getId());
+		if (track == null) {
+			track = new ThreadTrack(thread.getId());
+			tracks.put(thread.getId(), track);
+			write(metadata("thread_name", thread.getId(), thread.getName()));
+		}
+		return track;
+	}
+
+	/**
+	 * Closes the innermost sections of the track, until only `keep` sections
+	 * are open.
+	 */
+	private void closeSections(final ThreadTrack track, final int keep, final long nowNanos) {
+		for (int i = track.sections.size() - 1; i >= keep; --i) {
+			write(span(track.sections.get(i).getName(), "section", track.tid, track.sectionStarts.get(i), nowNanos)
+					.append(",\"args\":{\"suite\":").append(Escape.json(new StringBuilder(), track.suiteName))
+					.append("}}"));
+			track.sections.remove(i);
+			track.sectionStarts.remove(i);
+		}
+	}
+
+	@Override
+	public void testStart(final LambdaTestCase test) {
+		final long now = System.nanoTime();
+		final Thread thread = Thread.currentThread();
+		final List<Section> path = new ArrayList<>();
+		for (Section s = test.getSection().orNull(); s != null; s = s.getParent()) {
+			path.add(s);
+		}
+		Collections.reverse(path);
+
+		synchronized (this) {
+			final ThreadTrack track = track(thread);
+			int common = 0;
+			if (test.getSuiteName().equals(track.suiteName)) {
+				while (common < path.size() && common < track.sections.size()
+						&& path.get(common) == track.sections.get(common)) {
+					++common;
+				}
+			}
+			closeSections(track, common, now);
+			track.suiteName = test.getSuiteName();
+			for (int i = common; i < path.size(); ++i) {
+				track.sections.add(path.get(i));
+				track.sectionStarts.add(now);
+			}
+		}
+		runningTests.put(test, new RunningTest(thread.getId(), now));
+	}
+
+	private void setStatus(final LambdaTestCase test, final String status) {
+		final RunningTest running = runningTests.get(test);
+		if (running != null) {
+			running.status = status;
+		}
+	}
+
+	@Override
+	public void testSkipped(final LambdaTestCase test, final String message) {
+		setStatus(test, "skipped");
+	}
+
+	@Override
+	public void testFailed(final LambdaTestCase test, final Throwable error) {
+		setStatus(test, "failed");
+	}
+
+	@Override
+	public void testSucceeded(final LambdaTestCase test) {
+		setStatus(test, "succeeded");
+	}
+
+	@Override
+	public void testFinished(final LambdaTestCase test, final Timing timing) {
+		final long now = System.nanoTime();
+		final RunningTest running = runningTests.remove(test);
+		if (running == null) {
+			return;
+		}
+		final StringBuilder sb = span(test.getName(), "test", running.tid, running.startNanos, now);
+		sb.append(",\"args\":{\"suite\":");
+		Escape.json(sb, test.getSuiteName());
+		sb.append(",\"test\":");
+		Escape.json(sb, test.getSectionAndTestName(" / "));
+		sb.append(",\"status\":\"").append(running.status).append("\",\"cpuNanos\":").append(timing.getCpuNanos())
+				.append(",\"allocatedBytes\":").append(timing.getAllocatedBytes()).append("}}");
+		synchronized (this) {
+			write(sb);
+		}
+	}
+
+	@Override
+	public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+		runningSuites.put(suiteName, System.nanoTime());
+	}
+
+	@Override
+	public void suiteWarning(final String suiteName, final String warning) {
+		final StringBuilder sb = new StringBuilder(128);
+		sb.append("{\"name\":");
+		Escape.json(sb, warning);
+		sb.append(",\"cat\":\"warning\",\"ph\":\"i\",\"s\":\"p\",\"pid\":").append(PID).append(",\"tid\":")
+				.append(SUITE_TID).append(",\"ts\":").append(micros(System.nanoTime() - originNanos))
+				.append(",\"args\":{\"suite\":");
+		Escape.json(sb, suiteName);
+		sb.append("}}");
+		synchronized (this) {
+			write(sb);
+		}
+	}
+
+	@Override
+	public void suiteFinished(final String suiteName, final Timing total) {
+		final long now = System.nanoTime();
+		final Long start = runningSuites.remove(suiteName);
+		synchronized (this) {
+			for (final ThreadTrack track : tracks.values()) {
+				if (suiteName.equals(track.suiteName)) {
+					closeSections(track, 0, now);
+					track.suiteName = null;
+				}
+			}
+			if (start != null) {
+				write(span(suiteName, "suite", SUITE_TID, start, now).append('}'));
+			}
+			if (writer != null) {
+				try {
+					writer.flush();
+				} catch (final IOException e) {
+					throw new UncheckedIOException("Could not write to " + file, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes all open sections and completes the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		final long now = System.nanoTime();
+		for (final ThreadTrack track : tracks.values()) {
+			closeSections(track, 0, now);
+		}
+		closed = true;
+		if (writer != null) {
+			writer.write("\n]\n");
+			writer.close();
+		}
+	}
+
+}
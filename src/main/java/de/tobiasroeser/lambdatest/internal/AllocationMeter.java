@@ -0,0 +1,60 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import de.tobiasroeser.lambdatest.RunnableWithException;
+
+/**
+ * Measures the bytes allocated by a block of code in the current thread.
+ *
+ * Allocations of other threads, e.g. started by the block, are not measured.
+ */
+public class AllocationMeter {
+
+	/**
+	 * Runs the block `warmup` times without measuring it, so the JIT compiler
+	 * can optimize it (e.g. eliminate allocations by escape analysis), and then
+	 * `iterations` times measuring it.
+	 *
+	 * @return The total number of bytes allocated by the measured iterations.
+	 * @throws UnsupportedOperationException
+	 *             If the JVM does not support measuring allocated bytes.
+	 * @throws Exception
+	 *             The first exception thrown by the block.
+	 */
+	public static long measure(final int warmup, final int iterations, final RunnableWithException block)
+			throws Exception {
+		if (!ThreadMetrics.isAllocationSupported()) {
+			throw new UnsupportedOperationException("Measuring allocated bytes is not supported by this JVM");
+		}
+		if (warmup < 0) {
+			throw new IllegalArgumentException("The number of warmup iterations must not be negative");
+		}
+		if (iterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is required");
+		}
+		for (int i = 0; i < warmup; ++i) {
+			block.run();
+		}
+		final long overhead = overhead();
+		final long start = ThreadMetrics.allocatedBytes();
+		for (int i = 0; i < iterations; ++i) {
+			block.run();
+		}
+		final long end = ThreadMetrics.allocatedBytes();
+		return Math.max(0, end - start - overhead);
+	}
+
+	/**
+	 * The bytes allocated by reading the counter itself, which differs between
+	 * JVM versions.
+	 */
+	private static long overhead() {
+		long min = Long.MAX_VALUE;
+		for (int i = 0; i < 3; ++i) {
+			final long start = ThreadMetrics.allocatedBytes();
+			final long end = ThreadMetrics.allocatedBytes();
+			min = Math.min(min, end - start);
+		}
+		return min;
+	}
+
+}
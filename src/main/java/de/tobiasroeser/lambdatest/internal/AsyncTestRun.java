@@ -0,0 +1,153 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.tobiasroeser.lambdatest.ExpectContext;
+import de.tobiasroeser.lambdatest.TestTimeoutError;
+
+/**
+ * A single run of an asynchronous test case.
+ *
+ * The run tracks the completion of the `CompletionStage` returned by the test
+ * case with callbacks, so no thread is blocked while the test case is
+ * outstanding. A timeout is enforced by the shared {@link Scheduler}.
+ */
+public class AsyncTestRun {
+
+	private final String testName;
+	private final Callable<? extends CompletionStage<?>> test;
+	private final long timeoutMillis;
+	private final AtomicBoolean started = new AtomicBoolean();
+	private final AtomicBoolean completed = new AtomicBoolean();
+	/** Completes with the error of the test case, or `null` if it succeeded. */
+	private final CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+	private volatile long startNanos;
+	private volatile long endNanos;
+
+	/**
+	 * @param timeoutMillis
+	 *            The timeout in milliseconds, or `0` for no timeout.
+	 */
+	public AsyncTestRun(final String testName, final Callable<? extends CompletionStage<?>> test,
+			final long timeoutMillis) {
+		this.testName = testName;
+		this.test = test;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Starts the test case, unless it was already started. The test case is
+	 * called by the current thread without expect context, but only to create
+	 * its `CompletionStage`.
+	 *
+	 * @return `true`, if the test case was started by this call.
+	 */
+	public boolean start() {
+		if (!started.compareAndSet(false, true)) {
+			return false;
+		}
+		startNanos = System.nanoTime();
+		final CompletionStage<?> stage;
+		// the current thread might run another test case, whose expect context must not be used
+		final ExpectContext outer = ExpectContext.swapThreadContext(null);
+		try {
+			stage = test.call();
+			if (stage == null) {
+				throw new NullPointerException("Test \"" + testName + "\" returned null instead of a CompletionStage");
+			}
+		} catch (final Throwable t) {
+			complete(t);
+			return true;
+		} finally {
+			ExpectContext.swapThreadContext(outer);
+		}
+		final ScheduledFuture<?> timeout = timeoutMillis <= 0 ? null
+				: Scheduler.getInstance().schedule(() -> {
+					// claim first, so the completion caused by the cancellation is ignored, and cancel
+					// before completing, so the stage is cancelled when the runner reports the timeout
+					if (claim()) {
+						cancel(stage);
+						finish(new TestTimeoutError(testName, timeoutMillis,
+								"The CompletionStage returned by the test did not complete in time."));
+					}
+				}, timeoutMillis);
+		stage.whenComplete((result, error) -> {
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+			complete(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+		});
+		return true;
+	}
+
+	private static void cancel(final CompletionStage<?> stage) {
+		try {
+			stage.toCompletableFuture().cancel(true);
+		} catch (final UnsupportedOperationException e) {
+			// this stage can't be cancelled
+		}
+	}
+
+	private boolean complete(final Throwable error) {
+		if (!claim()) {
+			return false;
+		}
+		finish(error);
+		return true;
+	}
+
+	/**
+	 * Claims the completion of this run.
+	 *
+	 * @return `true`, if the caller must {@link #finish(Throwable)} the run.
+	 */
+	private boolean claim() {
+		return completed.compareAndSet(false, true);
+	}
+
+	private void finish(final Throwable error) {
+		endNanos = System.nanoTime();
+		outcome.complete(error);
+	}
+
+	public boolean isStarted() {
+		return started.get();
+	}
+
+	/**
+	 * Completes with the error of the test case, or with `null`, if it
+	 * succeeded.
+	 */
+	public CompletableFuture<Throwable> getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Waits for the test case to complete.
+	 *
+	 * @return The error of the test case, or `null`, if it succeeded.
+	 */
+	public Throwable await() throws InterruptedException {
+		try {
+			return outcome.get();
+		} catch (final ExecutionException e) {
+			// the outcome is never completed exceptionally
+			return e.getCause();
+		}
+	}
+
+	/**
+	 * The elapsed wall-clock time from the start to the completion of the
+	 * test case in nanoseconds, or until now, if it is still outstanding.
+	 */
+	public long getWallNanos() {
+		return (outcome.isDone() ? endNanos : System.nanoTime()) - startNanos;
+	}
+
+}
@@ -0,0 +1,254 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+import de.tobiasroeser.lambdatest.Timing;
+
+/**
+ * The performance baseline of a test suite, stored in a properties file.
+ *
+ * The keys are the section path and name of the test cases. Test cases are
+ * stored as `test:<wall nanos>,...` with the last
+ * {@value #MAX_RUNS} recorded runs, and benchmarks as
+ * `benchmark:<samples>,<mean>,<standard deviation>`. Entries are written
+ * sorted by key, so the file can be reviewed and diffed.
+ *
+ * This class is thread-safe.
+ */
+public class BaselineFile {
+
+	/** The maximal number of recorded runs kept per test case. */
+	public static final int MAX_RUNS = 10;
+
+	private static final String TEST_PREFIX = "test:";
+	private static final String BENCHMARK_PREFIX = "benchmark:";
+
+	/**
+	 * Loads the baseline from the given file, or creates an empty one, if the
+	 * file does not exist.
+	 */
+	public static BaselineFile load(final Path file) throws IOException {
+		final BaselineFile baseline = new BaselineFile(file);
+		if (Files.exists(file)) {
+			final Properties properties = new Properties();
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+				properties.load(reader);
+			}
+			for (final String key : properties.stringPropertyNames()) {
+				final String value = properties.getProperty(key);
+				try {
+					if (value.startsWith(TEST_PREFIX)) {
+						final String[] parts = value.substring(TEST_PREFIX.length()).split(",");
+						final long[] runs = new long[parts.length];
+						for (int i = 0; i < parts.length; ++i) {
+							runs[i] = Long.parseLong(parts[i].trim());
+						}
+						baseline.testRuns.put(key, runs);
+					} else if (value.startsWith(BENCHMARK_PREFIX)) {
+						final String[] parts = value.substring(BENCHMARK_PREFIX.length()).split(",");
+						if (parts.length != 3) {
+							throw new NumberFormatException("Expected 3 values");
+						}
+						baseline.benchmarks.put(key, new double[] { Double.parseDouble(parts[0].trim()),
+								Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()) });
+					} else {
+						throw new NumberFormatException("Unknown type");
+					}
+				} catch (final NumberFormatException e) {
+					throw new IOException("Malformed baseline entry \"" + key + "\" in " + file + ": " + value, e);
+				}
+			}
+		}
+		return baseline;
+	}
+
+	private final Path file;
+	private final Map<String, long[]> testRuns = new TreeMap<>();
+	/** Samples, mean and standard deviation per benchmark. */
+	private final Map<String, double[]> benchmarks = new TreeMap<>();
+
+	private BaselineFile(final Path file) {
+		this.file = file;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Checks the wall-clock time of a test case against its baseline.
+	 *
+	 * @return The description of the regression, or `null`, if the test case
+	 *         is not slower than its baseline or has no baseline.
+	 */
+	public synchronized String checkTest(final String key, final long wallNanos, final double threshold,
+			final long minimumDifferenceNanos) {
+		final long[] runs = testRuns.get(key);
+		if (runs == null) {
+			return null;
+		}
+		final double mean = Statistics.mean(runs);
+		final double difference = wallNanos - mean;
+		if (difference <= mean * threshold || difference <= minimumDifferenceNanos) {
+			return null;
+		}
+		if (runs.length >= 2) {
+			// upper bound of the prediction interval of a single new run
+			final double limit = Statistics.tCriticalValue99(runs.length - 1)
+					* Statistics.standardDeviation(runs) * Math.sqrt(1 + 1.0 / runs.length);
+			if (difference <= limit) {
+				return null;
+			}
+		}
+		return "Performance regression: took " + Timing.formatNanos(wallNanos) + ", baseline mean "
+				+ Timing.formatNanos(Math.round(mean)) + " of " + runs.length + " run(s) ("
+				+ formatChange(difference, mean) + ")";
+	}
+
+	/**
+	 * Checks the result of a benchmark against its baseline.
+	 *
+	 * @return The description of the regression, or `null`, if the benchmark
+	 *         is not slower than its baseline or has no baseline.
+	 */
+	public synchronized String checkBenchmark(final String key, final BenchmarkResult result,
+			final double threshold) {
+		final double[] baseline = benchmarks.get(key);
+		if (baseline == null) {
+			return null;
+		}
+		final double baselineSamples = baseline[0];
+		final double baselineMean = baseline[1];
+		final double baselineStdDev = baseline[2];
+		final double difference = result.getMean() - baselineMean;
+		if (difference <= baselineMean * threshold) {
+			return null;
+		}
+		if (baselineSamples >= 2 && result.getSamples() >= 2) {
+			// Welch's t-test, as the variances might differ
+			final double baselineVariance = baselineStdDev * baselineStdDev / baselineSamples;
+			final double variance = result.getStandardDeviation() * result.getStandardDeviation()
+					/ result.getSamples();
+			final double standardError = Math.sqrt(baselineVariance + variance);
+			if (standardError > 0) {
+				final double t = difference / standardError;
+				final double degreesOfFreedom = (baselineVariance + variance) * (baselineVariance + variance)
+						/ (baselineVariance * baselineVariance / (baselineSamples - 1)
+								+ variance * variance / (result.getSamples() - 1));
+				if (t <= Statistics.tCriticalValue99(degreesOfFreedom)) {
+					return null;
+				}
+			}
+		}
+		return "Performance regression: mean " + BenchmarkResult.formatNanos(result.getMean())
+				+ "/op, baseline mean " + BenchmarkResult.formatNanos(baselineMean) + "/op ("
+				+ formatChange(difference, baselineMean) + ")";
+	}
+
+	private static String formatChange(final double difference, final double baseline) {
+		return baseline > 0 ? String.format(Locale.ROOT, "%+.0f%%", 100 * difference / baseline) : "new";
+	}
+
+	/**
+	 * Records a run of a test case, keeping the last {@value #MAX_RUNS} runs.
+	 */
+	public synchronized void recordTest(final String key, final long wallNanos) {
+		final long[] runs = testRuns.get(key);
+		final long[] newRuns;
+		if (runs == null) {
+			newRuns = new long[] { wallNanos };
+		} else {
+			final int keep = Math.min(runs.length, MAX_RUNS - 1);
+			// the copy is padded with an empty slot for the new run
+			newRuns = Arrays.copyOfRange(runs, runs.length - keep, runs.length + 1);
+			newRuns[keep] = wallNanos;
+		}
+		testRuns.put(key, newRuns);
+	}
+
+	/**
+	 * Records the result of a benchmark, replacing the previous one.
+	 */
+	public synchronized void recordBenchmark(final String key, final BenchmarkResult result) {
+		benchmarks.put(key, new double[] { result.getSamples(), result.getMean(), result.getStandardDeviation() });
+	}
+
+	/**
+	 * Writes the baseline to its file, creating missing parent directories.
+	 */
+	public synchronized void write() throws IOException {
+		final Map<String, String> entries = new TreeMap<>();
+		for (final Map.Entry<String, long[]> entry : testRuns.entrySet()) {
+			final StringBuilder value = new StringBuilder(TEST_PREFIX);
+			for (int i = 0; i < entry.getValue().length; ++i) {
+				value.append(i == 0 ? "" : ",").append(entry.getValue()[i]);
+			}
+			entries.put(entry.getKey(), value.toString());
+		}
+		for (final Map.Entry<String, double[]> entry : benchmarks.entrySet()) {
+			final double[] values = entry.getValue();
+			entries.put(entry.getKey(),
+					BENCHMARK_PREFIX + (long) values[0] + "," + values[1] + "," + values[2]);
+		}
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+			writer.write("# LambdaTest performance baseline" + System.lineSeparator());
+			for (final Map.Entry<String, String> entry : entries.entrySet()) {
+				writer.write(escapeKey(entry.getKey()) + "=" + entry.getValue() + System.lineSeparator());
+			}
+		}
+	}
+
+	/**
+	 * Escapes a key as defined by {@link Properties#load(Reader)}.
+	 */
+	private static String escapeKey(final String key) {
+		final StringBuilder sb = new StringBuilder(key.length());
+		for (int i = 0; i < key.length(); ++i) {
+			final char c = key.charAt(i);
+			switch (c) {
+			case '\\':
+			case ' ':
+			case '=':
+			case ':':
+			case '#':
+			case '!':
+				sb.append('\\').append(c);
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\f':
+				sb.append("\\f");
+				break;
+			default:
+				if (c < 0x20 || c > 0x7e) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,71 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.util.concurrent.Callable;
+
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+
+/**
+ * Measures the time per invocation of a block of code.
+ *
+ * The iterations are measured in batches, each taking about 100 microseconds, so the
+ * overhead of reading the clock is negligible even for very short blocks.
+ * Each batch results in one sample of the time per invocation. The batches
+ * are kept small enough, that there are at least 30 samples, if there are at
+ * least 30 iterations.
+ */
+public class Benchmark {
+
+	/** The targeted duration of a batch. */
+	private static final long TARGET_BATCH_NANOS = 100000;
+
+	/** The minimal number of samples, if there are enough iterations. */
+	private static final int MIN_SAMPLES = 30;
+
+	private final Blackhole blackhole = new Blackhole();
+
+	/**
+	 * Runs the block `warmup` times without measuring it, and then
+	 * `iterations` times measuring it.
+	 *
+	 * @throws Exception
+	 *             The first exception thrown by the block.
+	 */
+	public BenchmarkResult run(final int warmup, final int iterations, final Callable<?> block) throws Exception {
+		if (warmup < 0) {
+			throw new IllegalArgumentException("The number of warmup iterations must not be negative");
+		}
+		if (iterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is required");
+		}
+		final long warmupStart = System.nanoTime();
+		for (int i = 0; i < warmup; ++i) {
+			blackhole.consume(block.call());
+		}
+		final long warmupNanos = System.nanoTime() - warmupStart;
+		final int batchSize = batchSize(warmup, warmupNanos, iterations);
+
+		final double[] samples = new double[(iterations + batchSize - 1) / batchSize];
+		int remaining = iterations;
+		for (int sample = 0; sample < samples.length; ++sample) {
+			final int ops = Math.min(batchSize, remaining);
+			final long start = System.nanoTime();
+			for (int i = 0; i < ops; ++i) {
+				blackhole.consume(block.call());
+			}
+			samples[sample] = (double) (System.nanoTime() - start) / ops;
+			remaining -= ops;
+		}
+		return BenchmarkResult.of(samples, batchSize);
+	}
+
+	private static int batchSize(final int warmup, final long warmupNanos, final int iterations) {
+		final int maxBatchSize = Math.max(1, iterations / MIN_SAMPLES);
+		if (warmup == 0) {
+			// without warmup, we have no estimation, so measure each invocation
+			return 1;
+		}
+		final long nanosPerOp = Math.max(1, warmupNanos / warmup);
+		return (int) Math.max(1, Math.min(maxBatchSize, TARGET_BATCH_NANOS / nanosPerOp));
+	}
+
+}
@@ -0,0 +1,23 @@
+package de.tobiasroeser.lambdatest.internal;
+
+/**
+ * Consumes values, so the JIT compiler can't eliminate the code computing
+ * them as dead code.
+ *
+ * The consumed value is compared to two volatile fields, which never both
+ * hold it, so the comparison can't be optimized away, but never results in a
+ * write.
+ */
+public class Blackhole {
+
+	private volatile Object obj1 = new Object();
+	private volatile Object obj2 = new Object();
+
+	public void consume(final Object obj) {
+		if (obj == obj1 && obj == obj2) {
+			// unreachable, as both fields hold different objects
+			throw new IllegalStateException("Blackhole failed");
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Finds the first frame of the current stack, which is not a framework frame
+ * (see {@link StackTraces#isFrameworkFrame(StackTraceElement)}).
+ *
+ * On JVMs providing `java.lang.StackWalker` (Java 9+), only the top frames
+ * are walked until the call site is found. Otherwise, the complete stack
+ * trace is taken.
+ */
+public class CallSite {
+
+	private static final Logger log = LoggerFactory.getLogger(CallSite.class);
+
+	/** The stack walker instance, `null` if unavailable. */
+	private static final Object walker;
+	/** `StackWalker.walk(Function)`, `null` if unavailable. */
+	private static final MethodHandle walk;
+	/** `StackWalker.StackFrame.toStackTraceElement()`, `null` if unavailable. */
+	private static final MethodHandle toStackTraceElement;
+
+	static {
+		Object instance = null;
+		MethodHandle walkHandle = null;
+		MethodHandle toElementHandle = null;
+		try {
+			final Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+			final Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+			final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			instance = walkerClass.getMethod("getInstance").invoke(null);
+			walkHandle = lookup.unreflect(walkerClass.getMethod("walk", Function.class))
+					.asType(MethodType.methodType(Object.class, Object.class, Function.class));
+			toElementHandle = lookup.unreflect(frameClass.getMethod("toStackTraceElement"))
+					.asType(MethodType.methodType(StackTraceElement.class, Object.class));
+		} catch (final ClassNotFoundException e) {
+			// Java 8
+			instance = null;
+		} catch (final Exception e) {
+			log.debug("Could not access StackWalker", e);
+			instance = null;
+		}
+		walker = instance;
+		walk = instance != null ? walkHandle : null;
+		toStackTraceElement = instance != null ? toElementHandle : null;
+	}
+
+	/**
+	 * The first non-framework frame of the current stack, or `null` if there
+	 * is none.
+	 */
+	public static StackTraceElement find() {
+		if (walker != null) {
+			final Function<Stream<?>, StackTraceElement> firstNonFrameworkFrame = frames -> frames
+					.map(CallSite::toStackTraceElement)
+					.filter(frame -> !StackTraces.isFrameworkFrame(frame))
+					.findFirst()
+					.orElse(null);
+			try {
+				final Object callSite = walk.invokeExact(walker, firstNonFrameworkFrame);
+				return (StackTraceElement) callSite;
+			} catch (final RuntimeException | Error e) {
+				throw e;
+			} catch (final Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+		for (final StackTraceElement frame : new Throwable().getStackTrace()) {
+			if (!StackTraces.isFrameworkFrame(frame)) {
+				return frame;
+			}
+		}
+		return null;
+	}
+
+	private static StackTraceElement toStackTraceElement(final Object frame) {
+		try {
+			return (StackTraceElement) toStackTraceElement.invokeExact(frame);
+		} catch (final RuntimeException | Error e) {
+			throw e;
+		} catch (final Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
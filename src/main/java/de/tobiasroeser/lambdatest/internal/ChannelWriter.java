@@ -0,0 +1,111 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A buffered UTF-8 text writer on top of a {@link FileChannel}.
+ *
+ * Text is encoded into a fixed-size direct buffer, which is written to the
+ * channel only when it is full or on {@link #flush()}, so the memory usage is
+ * constant regardless of the amount of written text. In contrast to a
+ * {@link java.io.Writer}, it also supports to overwrite already written
+ * regions with {@link #writeAt(long, CharSequence)}.
+ *
+ * This class is not thread-safe.
+ */
+public class ChannelWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private long position;
+
+	public ChannelWriter(final FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.position = channel.position();
+	}
+
+	/**
+	 * Creates (or truncates) the given file and opens a writer for it.
+	 */
+	public static ChannelWriter create(final Path file) throws IOException {
+		return new ChannelWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING));
+	}
+
+	/**
+	 * The position (in bytes), the next written text will start at.
+	 */
+	public long position() {
+		return position + bytes.position();
+	}
+
+	public ChannelWriter write(final CharSequence text) throws IOException {
+		final CharBuffer chars = CharBuffer.wrap(text);
+		while (true) {
+			final CoderResult result = encoder.encode(chars, bytes, true);
+			if (result.isOverflow()) {
+				writeBuffer();
+			} else {
+				break;
+			}
+		}
+		encoder.reset();
+		return this;
+	}
+
+	/**
+	 * Overwrites already written text at the given byte position. The caller is
+	 * responsible to not change the byte length of the overwritten region.
+	 */
+	public void writeAt(final long bytePosition, final CharSequence text) throws IOException {
+		if (bytePosition >= position) {
+			// still (partly) in the buffer
+			flush();
+		}
+		final ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+		long pos = bytePosition;
+		while (encoded.hasRemaining()) {
+			pos += channel.write(encoded, pos);
+		}
+	}
+
+	private void writeBuffer() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			position += channel.write(bytes);
+		}
+		bytes.clear();
+	}
+
+	/**
+	 * Writes all buffered text to the channel.
+	 */
+	public void flush() throws IOException {
+		writeBuffer();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Helper to escape text for machine readable report formats.
+ */
+public class Escape {
+
+	/**
+	 * Escapes text to be used in XML attributes or text content. Characters
+	 * not allowed in XML 1.0 are replaced by `?`.
+	 */
+	public static String xml(final String text) {
+		if (text == null) {
+			return "";
+		}
+		final StringBuilder sb = new StringBuilder(text.length() + 16);
+		for (int i = 0; i < text.length(); ++i) {
+			final char c = text.charAt(i);
+			switch (c) {
+			case '<':
+				sb.append("&lt;");
+				break;
+			case '>':
+				sb.append("&gt;");
+				break;
+			case '&':
+				sb.append("&amp;");
+				break;
+			case '"':
+				sb.append("&quot;");
+				break;
+			case '\'':
+				sb.append("&apos;");
+				break;
+			case '\n':
+			case '\r':
+			case '\t':
+				sb.append(c);
+				break;
+			default:
+				sb.append(c < 0x20 || c == 0xfffe || c == 0xffff ? '?' : c);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the given text as quoted JSON string, or `null` if the text is
+	 * `null`.
+	 */
+	public static StringBuilder json(final StringBuilder sb, final String text) {
+		if (text == null) {
+			return sb.append("null");
+		}
+		sb.append('"');
+		for (int i = 0; i < text.length(); ++i) {
+			final char c = text.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"');
+	}
+
+	/**
+	 * The full stack trace of the given throwable including its causes.
+	 */
+	public static String stackTrace(final Throwable throwable) {
+		final StringWriter sw = new StringWriter();
+		final PrintWriter pw = new PrintWriter(sw);
+		throwable.printStackTrace(pw);
+		pw.flush();
+		return sw.toString();
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import de.tobiasroeser.lambdatest.F0;
+
+/**
+ * Coordinates with the garbage collector, to check whether an object can be
+ * collected.
+ */
+public class GarbageCollection {
+
+	/** The time to wait for the collection after the first request. */
+	private static final long WAIT_MILLIS = 50;
+
+	/** The number of chunks of 1 MiB allocated to trigger a collection. */
+	private static final int PRESSURE_CHUNKS = 64;
+
+	/**
+	 * A weak reference to an object, which is only strongly reachable until
+	 * the supplier returns.
+	 */
+	public static class Watched {
+		private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+		private final WeakReference<Object> reference;
+		private final String type;
+
+		private Watched(final Object object) {
+			this.reference = new WeakReference<>(object, queue);
+			this.type = object.getClass().getName();
+		}
+
+		/**
+		 * The class name of the watched object.
+		 */
+		public String getType() {
+			return type;
+		}
+
+		public boolean isCollected() {
+			return reference.get() == null;
+		}
+	}
+
+	/**
+	 * Watches the object created by the supplier. It is created in this
+	 * method, so no stack frame of the caller references it.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the supplier returns `null`.
+	 */
+	public static Watched watch(final F0<?> supplier) {
+		final Object object = supplier.apply();
+		if (object == null) {
+			throw new IllegalArgumentException("The supplier must not return null");
+		}
+		return new Watched(object);
+	}
+
+	/**
+	 * Requests garbage collections until the watched object is collected, at
+	 * most the given number of times, waiting a bit longer after each request.
+	 * If explicit requests seem to be ignored (e.g. with
+	 * `-XX:+DisableExplicitGC`), the later attempts also allocate garbage to
+	 * trigger a collection.
+	 *
+	 * @return `true`, if the object was collected.
+	 */
+	public static boolean awaitCollected(final Watched watched, final int attempts) throws InterruptedException {
+		final Blackhole blackhole = new Blackhole();
+		for (int attempt = 1; attempt <= attempts; ++attempt) {
+			if (watched.isCollected()) {
+				return true;
+			}
+			if (attempt > attempts / 2) {
+				for (int i = 0; i < PRESSURE_CHUNKS; ++i) {
+					blackhole.consume(new byte[1024 * 1024]);
+				}
+			}
+			System.gc();
+			if (watched.queue.remove(WAIT_MILLIS * attempt) != null) {
+				return true;
+			}
+		}
+		return watched.isCollected();
+	}
+
+}
@@ -0,0 +1,244 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Custom Java Flight Recorder events of LambdaTest, which tie the data of a
+ * recording (CPU samples, GC, allocations, ...) to test suites and test cases.
+ *
+ * The events are disabled by default and need to be enabled with the system
+ * property `lambdatest.jfr=true`. As the JFR API is not available on all
+ * supported JVMs, the event types are defined at runtime with
+ * `jdk.jfr.EventFactory`, if present. While the JVM is not recording, creating
+ * an event costs only a check of the event type.
+ *
+ * Usage:
+ *
+ * [source,java]
+ * ----
+ * final JfrEvent.Span span = JfrEvent.TEST.begin();
+ * // ...
+ * if (span != null) {
+ *   span.end(suiteName, sectionName, testName, outcome);
+ * }
+ * ----
+ */
+public class JfrEvent {
+
+	/**
+	 * The system property to enable the events.
+	 */
+	public static final String ENABLE_PROPERTY = "lambdatest.jfr";
+
+	private static final Logger log = LoggerFactory.getLogger(JfrEvent.class);
+
+	private static final String NAME_PREFIX = "de.tobiasroeser.lambdatest.";
+
+	/** Handles to methods of `jdk.jfr.Event`, `null` if disabled. */
+	private static final MethodHandle eventBegin;
+	private static final MethodHandle eventCommit;
+	private static final MethodHandle eventSet;
+
+	static {
+		MethodHandle begin = null;
+		MethodHandle commit = null;
+		MethodHandle set = null;
+		if (Boolean.getBoolean(ENABLE_PROPERTY)) {
+			try {
+				final Class<?> eventClass = Class.forName("jdk.jfr.Event");
+				final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				begin = lookup.unreflect(eventClass.getMethod("begin"))
+						.asType(MethodType.methodType(void.class, Object.class));
+				commit = lookup.unreflect(eventClass.getMethod("commit"))
+						.asType(MethodType.methodType(void.class, Object.class));
+				set = lookup.unreflect(eventClass.getMethod("set", int.class, Object.class))
+						.asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+			} catch (final ReflectiveOperationException | LinkageError e) {
+				log.warn("Java Flight Recorder events are not supported by this JVM", e);
+				begin = null;
+				commit = null;
+				set = null;
+			}
+		}
+		eventBegin = begin;
+		eventCommit = commit;
+		eventSet = set;
+	}
+
+	/**
+	 * A test suite, from the start of its first test case until it finished.
+	 */
+	public static final JfrEvent SUITE = new JfrEvent("Suite", "Test Suite", "A LambdaTest test suite", false,
+			field(String.class, "suite", "Suite"),
+			field(int.class, "tests", "Test Cases"));
+
+	/**
+	 * A test case run.
+	 */
+	public static final JfrEvent TEST = new JfrEvent("Test", "Test Case", "A LambdaTest test case", false,
+			field(String.class, "suite", "Suite"),
+			field(String.class, "section", "Section"),
+			field(String.class, "test", "Test Case"),
+			field(String.class, "outcome", "Outcome"));
+
+	/**
+	 * A failed expectation, with the stack trace where it failed.
+	 */
+	public static final JfrEvent EXPECTATION_FAILED = new JfrEvent("ExpectationFailed", "Expectation Failed",
+			"A failed expectation of a LambdaTest test case", true,
+			field(String.class, "message", "Message"),
+			field(boolean.class, "collected", "Collected"));
+
+	/**
+	 * An invocation of a method of a proxy created with `TestProxy`.
+	 */
+	public static final JfrEvent PROXY_INVOCATION = new JfrEvent("ProxyInvocation", "Proxy Invocation",
+			"An invocation of a LambdaTest TestProxy", false,
+			field(String.class, "proxy", "Proxy"),
+			field(String.class, "method", "Method"));
+
+	private static Object[] field(final Class<?> type, final String name, final String label) {
+		return new Object[] { type, name, label };
+	}
+
+	/** `() -> jdk.jfr.Event`, `null` if disabled. */
+	private final MethodHandle newEvent;
+	/** `() -> boolean`, `null` if disabled. */
+	private final MethodHandle isEnabled;
+
+	private JfrEvent(final String name, final String label, final String description, final boolean stackTrace,
+			final Object[]... fields) {
+		MethodHandle newEvent = null;
+		MethodHandle isEnabled = null;
+		if (eventBegin != null) {
+			try {
+				final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+				final Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+				final Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+				final Constructor<?> annotation = annotationClass.getConstructor(Class.class, Object.class);
+				final Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class,
+						List.class);
+
+				final List<Object> annotations = Arrays.asList(
+						annotation.newInstance(Class.forName("jdk.jfr.Name"), NAME_PREFIX + name),
+						annotation.newInstance(Class.forName("jdk.jfr.Label"), label),
+						annotation.newInstance(Class.forName("jdk.jfr.Description"), description),
+						annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[] { "LambdaTest" }),
+						annotation.newInstance(Class.forName("jdk.jfr.StackTrace"), stackTrace));
+				final List<Object> values = new ArrayList<>(fields.length);
+				for (final Object[] field : fields) {
+					values.add(valueDescriptor.newInstance(field[0], field[1], Arrays.asList(
+							annotation.newInstance(Class.forName("jdk.jfr.Label"), field[2]))));
+				}
+
+				final Object factory = factoryClass.getMethod("create", List.class, List.class).invoke(null,
+						annotations, values);
+				factoryClass.getMethod("register").invoke(factory);
+				final Object eventType = factoryClass.getMethod("getEventType").invoke(factory);
+				final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				newEvent = lookup.unreflect(factoryClass.getMethod("newEvent")).bindTo(factory)
+						.asType(MethodType.methodType(Object.class));
+				isEnabled = lookup.unreflect(Class.forName("jdk.jfr.EventType").getMethod("isEnabled"))
+						.bindTo(eventType);
+			} catch (final ReflectiveOperationException | LinkageError | RuntimeException e) {
+				log.warn("Could not register Java Flight Recorder event {}", name, e);
+				newEvent = null;
+				isEnabled = null;
+			}
+		}
+		this.newEvent = newEvent;
+		this.isEnabled = isEnabled;
+	}
+
+	/**
+	 * `true`, if events of this type are recorded by at least one running
+	 * recording.
+	 */
+	public boolean isEnabled() {
+		if (isEnabled == null) {
+			return false;
+		}
+		try {
+			return (boolean) isEnabled.invokeExact();
+		} catch (final Throwable e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Starts a new event with a duration.
+	 *
+	 * @return The started event or `null`, if the event type is not recorded.
+	 */
+	public Span begin() {
+		if (!isEnabled()) {
+			return null;
+		}
+		try {
+			final Object event = newEvent.invokeExact();
+			eventBegin.invokeExact(event);
+			return new Span(event);
+		} catch (final Throwable e) {
+			log.debug("Could not begin Java Flight Recorder event", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Records an event without duration, if the event type is recorded.
+	 *
+	 * @param values
+	 *            The values of all fields of the event type, in the order of
+	 *            their definition.
+	 */
+	public void emit(final Object... values) {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			commit(newEvent.invokeExact(), values);
+		} catch (final Throwable e) {
+			log.debug("Could not create Java Flight Recorder event", e);
+		}
+	}
+
+	private static void commit(final Object event, final Object[] values) {
+		try {
+			for (int i = 0; i < values.length; ++i) {
+				eventSet.invokeExact(event, i, values[i]);
+			}
+			eventCommit.invokeExact(event);
+		} catch (final Throwable e) {
+			log.debug("Could not commit Java Flight Recorder event", e);
+		}
+	}
+
+	/**
+	 * A started event.
+	 */
+	public static class Span {
+		private final Object event;
+
+		private Span(final Object event) {
+			this.event = event;
+		}
+
+		/**
+		 * Ends and commits the event.
+		 *
+		 * @param values
+		 *            The values of all fields of the event type, in the order
+		 *            of their definition.
+		 */
+		public void end(final Object... values) {
+			commit(event, values);
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package de.tobiasroeser.lambdatest.internal;
+
+/**
+ * A histogram of latencies in nanoseconds with a bounded relative error, in
+ * the spirit of HdrHistogram.
+ *
+ * Values are counted in log-linear buckets: below 128 each value has its own
+ * bucket, above each power of two is divided into 128 linear sub-buckets. So
+ * recording is a constant time array increment without allocation, and
+ * percentiles are accurate to 1/128 (less than 0.8%) over the whole range of
+ * positive `long` values.
+ *
+ * This class is not thread-safe. Use one histogram per thread and
+ * {@link #add(LatencyHistogram)} them afterwards.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_GROUPS = 64 - SUB_BUCKET_BITS;
+
+	private final long[] counts = new long[BUCKET_GROUPS * SUB_BUCKET_COUNT];
+	private long totalCount;
+	private long min = Long.MAX_VALUE;
+	private long max = Long.MIN_VALUE;
+	private double sum;
+
+	private static int indexOf(final long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		final int group = shift + 1;
+		final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return group * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	/**
+	 * The highest value counted in the bucket with the given index.
+	 */
+	private static long highestValueOf(final int index) {
+		final int group = index / SUB_BUCKET_COUNT;
+		final long subBucket = index % SUB_BUCKET_COUNT;
+		if (group == 0) {
+			return subBucket;
+		}
+		final int shift = group - 1;
+		final long lowest = (subBucket + SUB_BUCKET_COUNT) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as `0`.
+	 */
+	public void record(final long value) {
+		final long v = Math.max(0, value);
+		++counts[indexOf(v)];
+		++totalCount;
+		sum += v;
+		if (v < min) {
+			min = v;
+		}
+		if (v > max) {
+			max = v;
+		}
+	}
+
+	/**
+	 * Adds all values of the other histogram to this one.
+	 */
+	public void add(final LatencyHistogram other) {
+		for (int i = 0; i < counts.length; ++i) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * The smallest recorded value, or `0`, if empty.
+	 */
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	/**
+	 * The largest recorded value, or `0`, if empty.
+	 */
+	public long getMax() {
+		return totalCount == 0 ? 0 : max;
+	}
+
+	/**
+	 * The mean of the recorded values, or `0`, if empty.
+	 */
+	public double getMean() {
+		return totalCount == 0 ? 0 : sum / totalCount;
+	}
+
+	/**
+	 * The value at the given percentile, i.e. the highest value of the bucket
+	 * containing it, but at most the largest recorded value.
+	 *
+	 * @param percentile
+	 *            The percentile between `0` and `100`.
+	 * @return The value or `0`, if empty.
+	 */
+	public long getValueAtPercentile(final double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("The percentile must be between 0 and 100");
+		}
+		if (totalCount == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; ++i) {
+			cumulative += counts[i];
+			if (cumulative >= rank) {
+				return Math.min(highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+}
@@ -0,0 +1,323 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the heap size of the objects reachable from a root object, by
+ * walking the object graph reflectively.
+ *
+ * Objects are visited once by identity, so shared objects and cycles are
+ * accounted once. Class objects, static fields and referents of
+ * {@link Reference}s (e.g. of a `WeakHashMap`) are not followed, as they are
+ * not retained by the root.
+ *
+ * Field offsets are read with `sun.misc.Unsafe`, if available, so the sizes
+ * reflect the actual field layout and fields of JDK classes can be read
+ * without opening their modules. Otherwise, the layout is approximated and
+ * fields, which can't be made accessible, are not followed. The layout of
+ * each class is computed once and cached.
+ */
+public class ObjectGraph {
+
+	private static final Logger log = LoggerFactory.getLogger(ObjectGraph.class);
+
+	private static final Object unsafe;
+	private static final MethodHandle objectFieldOffset;
+	private static final MethodHandle getObject;
+	private static final MethodHandle arrayBaseOffset;
+	private static final MethodHandle arrayIndexScale;
+
+	private static final int referenceSize;
+	private static final int objectHeaderSize;
+	private static final int objectAlignment;
+
+	static {
+		Object u = null;
+		MethodHandle fieldOffset = null;
+		MethodHandle get = null;
+		MethodHandle baseOffset = null;
+		MethodHandle indexScale = null;
+		try {
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			u = theUnsafe.get(null);
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			fieldOffset = lookup.unreflect(unsafeClass.getMethod("objectFieldOffset", Field.class)).bindTo(u);
+			get = lookup.unreflect(unsafeClass.getMethod("getObject", Object.class, long.class)).bindTo(u);
+			baseOffset = lookup.unreflect(unsafeClass.getMethod("arrayBaseOffset", Class.class)).bindTo(u);
+			indexScale = lookup.unreflect(unsafeClass.getMethod("arrayIndexScale", Class.class)).bindTo(u);
+		} catch (final Exception | LinkageError e) {
+			log.debug("Unsafe is not available, object sizes are approximated", e);
+			u = null;
+		}
+		unsafe = u;
+		objectFieldOffset = fieldOffset;
+		getObject = get;
+		arrayBaseOffset = baseOffset;
+		arrayIndexScale = indexScale;
+
+		int refSize = "32".equals(System.getProperty("sun.arch.data.model")) ? 4 : 8;
+		if (unsafe != null) {
+			try {
+				refSize = (int) arrayIndexScale.invoke(Object[].class);
+			} catch (final Throwable e) {
+				// keep the guess
+			}
+		} else if (refSize == 8 && !"false".equals(vmOption("UseCompressedOops"))) {
+			refSize = 4;
+		}
+		referenceSize = refSize;
+		// compressed class pointers are used together with compressed references
+		objectHeaderSize = refSize == 4 ? 12 : 16;
+		int alignment = 8;
+		try {
+			final String value = vmOption("ObjectAlignmentInBytes");
+			if (value != null) {
+				alignment = Integer.parseInt(value);
+			}
+		} catch (final NumberFormatException e) {
+			// keep the default
+		}
+		objectAlignment = alignment;
+	}
+
+	/**
+	 * The value of a HotSpot VM option, or `null`, if not available.
+	 */
+	private static String vmOption(final String name) {
+		try {
+			return ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class)
+					.getVMOption(name).getValue();
+		} catch (final RuntimeException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The shallow size and the reference fields of the instances of a class.
+	 * For arrays, the size of the header and of each element.
+	 */
+	private static class Layout {
+		final long size;
+		final int elementSize;
+		/** The reference fields, which can be read. */
+		final Field[] fields;
+		/** The offsets of the fields for Unsafe, or `-1` to read by reflection. */
+		final long[] offsets;
+
+		Layout(final long size, final int elementSize, final Field[] fields, final long[] offsets) {
+			this.size = size;
+			this.elementSize = elementSize;
+			this.fields = fields;
+			this.offsets = offsets;
+		}
+	}
+
+	private static final ClassValue<Layout> layouts = new ClassValue<Layout>() {
+		@Override
+		protected Layout computeValue(final Class<?> type) {
+			return layout(type);
+		}
+	};
+
+	private static Layout layout(final Class<?> type) {
+		if (type.isArray()) {
+			return arrayLayout(type);
+		}
+		final List<Field> fields = new ArrayList<>();
+		final List<Long> offsets = new ArrayList<>();
+		long end = objectHeaderSize;
+		long approximated = objectHeaderSize;
+		boolean exact = unsafe != null;
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			for (final Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				final int fieldSize = fieldSize(field.getType());
+				approximated += fieldSize;
+				long offset = -1;
+				if (unsafe != null) {
+					try {
+						offset = (long) objectFieldOffset.invoke(field);
+						end = Math.max(end, offset + fieldSize);
+					} catch (final Throwable e) {
+						// e.g. hidden classes and records, read by reflection instead
+						offset = -1;
+						exact = false;
+					}
+				}
+				if (field.getType().isPrimitive()
+						|| (c == Reference.class && field.getName().equals("referent"))) {
+					continue;
+				}
+				if (offset < 0) {
+					try {
+						field.setAccessible(true);
+					} catch (final RuntimeException e) {
+						log.debug("Cannot read field {}.{}", c.getName(), field.getName(), e);
+						continue;
+					}
+				}
+				fields.add(field);
+				offsets.add(offset);
+			}
+		}
+		final long[] offsetArray = new long[offsets.size()];
+		for (int i = 0; i < offsetArray.length; ++i) {
+			offsetArray[i] = offsets.get(i);
+		}
+		final long size = align(exact ? end : Math.max(end, approximated));
+		return new Layout(size, 0, fields.toArray(new Field[fields.size()]), offsetArray);
+	}
+
+	private static int fieldSize(final Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		} else if (type == int.class || type == float.class) {
+			return 4;
+		} else if (type == short.class || type == char.class) {
+			return 2;
+		} else if (type == byte.class || type == boolean.class) {
+			return 1;
+		} else {
+			return referenceSize;
+		}
+	}
+
+	private static long align(final long size) {
+		return (size + objectAlignment - 1) / objectAlignment * objectAlignment;
+	}
+
+	private static Layout arrayLayout(final Class<?> arrayType) {
+		if (unsafe != null) {
+			try {
+				return new Layout((int) arrayBaseOffset.invoke(arrayType), (int) arrayIndexScale.invoke(arrayType),
+						new Field[0], new long[0]);
+			} catch (final Throwable e) {
+				// approximate
+			}
+		}
+		final int elementSize = fieldSize(arrayType.getComponentType());
+		// the elements start after the length, aligned to their size
+		final long header = (objectHeaderSize + 4 + elementSize - 1) / elementSize * elementSize;
+		return new Layout(header, elementSize, new Field[0], new long[0]);
+	}
+
+	private static Object read(final Object object, final Field field, final long offset) {
+		try {
+			return offset >= 0 ? getObject.invoke(object, offset) : field.get(object);
+		} catch (final Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The estimated size of an object graph.
+	 */
+	public static class Footprint {
+		private long bytes;
+		private long objects;
+		/** Number of objects and bytes per class. */
+		private final Map<Class<?>, long[]> classes = new HashMap<>();
+
+		private void add(final Class<?> type, final long size) {
+			bytes += size;
+			objects += 1;
+			long[] entry = classes.get(type);
+			if (entry == null) {
+				entry = new long[2];
+				classes.put(type, entry);
+			}
+			entry[0] += 1;
+			entry[1] += size;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		public long getObjects() {
+			return objects;
+		}
+
+		/**
+		 * Describes the classes with the most bytes, one per line, e.g.
+		 * `java.util.HashMap$Node: 10 objects, 320 bytes`.
+		 */
+		public String describeLargestClasses(final int count) {
+			final List<Map.Entry<Class<?>, long[]>> entries = new ArrayList<>(classes.entrySet());
+			Collections.sort(entries, (a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+			final StringBuilder sb = new StringBuilder();
+			for (final Map.Entry<Class<?>, long[]> entry : entries.subList(0, Math.min(count, entries.size()))) {
+				if (sb.length() > 0) {
+					sb.append("\n");
+				}
+				sb.append(entry.getKey().getName()).append(": ").append(entry.getValue()[0]).append(" objects, ")
+						.append(entry.getValue()[1]).append(" bytes");
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Measures the objects reachable from the given root.
+	 *
+	 * The graph must not be modified concurrently, otherwise the result is
+	 * undefined.
+	 */
+	public static Footprint measure(final Object root) {
+		final Footprint footprint = new Footprint();
+		final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		// iteratively, as e.g. long linked lists would overflow the stack
+		final Deque<Object> pending = new ArrayDeque<>();
+		if (root != null) {
+			pending.push(root);
+		}
+		while (!pending.isEmpty()) {
+			final Object object = pending.pop();
+			if (object instanceof Class || !visited.add(object)) {
+				continue;
+			}
+			final Class<?> type = object.getClass();
+			if (type.isArray()) {
+				final Layout layout = layouts.get(type);
+				footprint.add(type, align(layout.size + (long) Array.getLength(object) * layout.elementSize));
+				if (!type.getComponentType().isPrimitive()) {
+					for (final Object element : (Object[]) object) {
+						if (element != null) {
+							pending.push(element);
+						}
+					}
+				}
+			} else {
+				final Layout layout = layouts.get(type);
+				footprint.add(type, layout.size);
+				for (int i = 0; i < layout.fields.length; ++i) {
+					final Object value = read(object, layout.fields[i], layout.offsets[i]);
+					if (value != null) {
+						pending.push(value);
+					}
+				}
+			}
+		}
+		return footprint;
+	}
+
+}
@@ -0,0 +1,224 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+/**
+ * Captures the output of the current thread to `System.out` and `System.err`.
+ *
+ * While at least one thread captures its output, `System.out` and
+ * `System.err` are replaced by streams, which append the output of capturing
+ * threads to a buffer of that thread and pass all other output through to the
+ * original streams. Each thread reuses its buffer. When the output exceeds
+ * the limit, only its tail is kept.
+ *
+ * Output written by other threads, e.g. threads started by the capturing
+ * thread, is not captured.
+ */
+public class OutputCapture {
+
+	private static final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+	/** All below is guarded by the class. */
+	private static int activeCaptures;
+	private static PrintStream originalOut;
+	private static PrintStream originalErr;
+	private static PrintStream capturingOut;
+	private static PrintStream capturingErr;
+
+	/**
+	 * Starts capturing the output of the current thread.
+	 *
+	 * @param limit
+	 *            The maximal number of bytes to keep.
+	 * @return The capture, which must be stopped by the current thread, or
+	 *         `null`, if the current thread already captures its output.
+	 */
+	public static Capture start(final int limit) {
+		final Buffer buffer = buffers.get();
+		if (buffer.active) {
+			return null;
+		}
+		buffer.reset(limit);
+		synchronized (OutputCapture.class) {
+			if (activeCaptures == 0) {
+				originalOut = System.out;
+				originalErr = System.err;
+				capturingOut = new PrintStream(new CapturingStream(originalOut), true);
+				capturingErr = new PrintStream(new CapturingStream(originalErr), true);
+				System.setOut(capturingOut);
+				System.setErr(capturingErr);
+			}
+			++activeCaptures;
+		}
+		buffer.active = true;
+		return new Capture(buffer);
+	}
+
+	private static void release() {
+		synchronized (OutputCapture.class) {
+			if (--activeCaptures == 0) {
+				// someone else might have replaced the streams in the meantime
+				if (System.out == capturingOut) {
+					System.setOut(originalOut);
+				}
+				if (System.err == capturingErr) {
+					System.setErr(originalErr);
+				}
+				originalOut = null;
+				originalErr = null;
+				capturingOut = null;
+				capturingErr = null;
+			}
+		}
+	}
+
+	public static class Capture {
+		private final Buffer buffer;
+		private boolean stopped;
+
+		private Capture(final Buffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * Stops capturing.
+		 *
+		 * @return The captured output, or its tail if it exceeded the limit.
+		 */
+		public Captured stop() {
+			if (stopped) {
+				throw new IllegalStateException("Capture already stopped");
+			}
+			stopped = true;
+			buffer.active = false;
+			release();
+			return new Captured(buffer.content(), buffer.total - buffer.size);
+		}
+	}
+
+	public static class Captured {
+		private final String output;
+		private final long truncatedBytes;
+
+		private Captured(final String output, final long truncatedBytes) {
+			this.output = output;
+			this.truncatedBytes = truncatedBytes;
+		}
+
+		public String getOutput() {
+			return output;
+		}
+
+		/**
+		 * The number of bytes dropped from the start of the output, as it
+		 * exceeded the limit.
+		 */
+		public long getTruncatedBytes() {
+			return truncatedBytes;
+		}
+
+		public boolean isEmpty() {
+			return output.isEmpty() && truncatedBytes == 0;
+		}
+	}
+
+	/**
+	 * A ring buffer keeping the tail of the output of one thread.
+	 */
+	private static class Buffer {
+		private volatile boolean active;
+		private byte[] bytes = new byte[0];
+		private int limit;
+		/** The index of the oldest byte. */
+		private int start;
+		private int size;
+		private long total;
+
+		void reset(final int limit) {
+			this.limit = Math.max(1, limit);
+			if (bytes.length > this.limit) {
+				bytes = new byte[0];
+			}
+			start = 0;
+			size = 0;
+			total = 0;
+		}
+
+		void write(final byte[] b, final int off, final int len) {
+			total += len;
+			int from = off;
+			int count = len;
+			if (count >= limit) {
+				// only the tail fits
+				from = off + len - limit;
+				count = limit;
+				start = 0;
+				size = 0;
+			}
+			if (size + count > bytes.length && bytes.length < limit) {
+				// grow, as long as the buffer is not full
+				final byte[] grown = new byte[Math.min(limit, Math.max(size + count, 2 * bytes.length))];
+				copyTo(grown);
+				bytes = grown;
+				start = 0;
+			}
+			for (int i = 0; i < count; ++i) {
+				bytes[(start + size) % bytes.length] = b[from + i];
+				if (size < bytes.length) {
+					++size;
+				} else {
+					start = (start + 1) % bytes.length;
+				}
+			}
+		}
+
+		private void copyTo(final byte[] target) {
+			final int firstPart = Math.min(size, bytes.length - start);
+			System.arraycopy(bytes, start, target, 0, firstPart);
+			System.arraycopy(bytes, 0, target, firstPart, size - firstPart);
+		}
+
+		String content() {
+			final byte[] content = new byte[size];
+			if (size > 0) {
+				copyTo(content);
+			}
+			return new String(content, Charset.defaultCharset());
+		}
+	}
+
+	/**
+	 * Writes the output of capturing threads into their buffer, and passes all
+	 * other output through.
+	 */
+	private static class CapturingStream extends OutputStream {
+		private final PrintStream original;
+
+		CapturingStream(final PrintStream original) {
+			this.original = original;
+		}
+
+		@Override
+		public void write(final int b) {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			final Buffer buffer = buffers.get();
+			if (buffer.active) {
+				buffer.write(b, off, len);
+			} else {
+				original.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() {
+			original.flush();
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free multi-producer single-consumer queue backed by a ring
+ * buffer.
+ *
+ * Each slot carries a sequence number, which tells producers whether the slot
+ * is free and the consumer whether it was published (see Dmitry Vyukov's
+ * bounded MPMC queue). Producers only contend on a single CAS to claim a slot,
+ * the consumer never contends at all.
+ *
+ * {@link #offer(Object)} may be called from any thread, all other methods must
+ * only be called from the single consumer thread.
+ *
+ * @param <E>
+ *            The element type.
+ */
+public class RingBuffer<E> {
+
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	/**
+	 * @param capacity
+	 *            The minimal capacity, rounded up to the next power of two.
+	 */
+	public RingBuffer(final int capacity) {
+		if (capacity < 1 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		final int size = Integer.highestOneBit(capacity) == capacity ? capacity
+				: Integer.highestOneBit(capacity) << 1;
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; ++i) {
+			sequences.set(i, i);
+		}
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Adds an element, if there is free space. Can be called from any thread.
+	 *
+	 * @return `true` if the element was added, `false` if the buffer is full.
+	 */
+	public boolean offer(final E element) {
+		if (element == null) {
+			throw new NullPointerException("element");
+		}
+		long pos = tail.get();
+		while (true) {
+			final int index = (int) (pos & mask);
+			final long diff = sequences.get(index) - pos;
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					elements.lazySet(index, element);
+					// publish
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = tail.get();
+			} else if (diff < 0) {
+				// the consumer did not yet free this slot
+				return false;
+			} else {
+				// another producer claimed this slot
+				pos = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest element. Must only be called from the consumer thread.
+	 *
+	 * @return The element or `null` if the buffer is empty.
+	 */
+	public E poll() {
+		final int index = (int) (head & mask);
+		if (sequences.get(index) != head + 1) {
+			return null;
+		}
+		final E element = elements.get(index);
+		elements.lazySet(index, null);
+		// free the slot for the next round
+		sequences.set(index, head + mask + 1);
+		++head;
+		return element;
+	}
+
+	/**
+	 * Removes up to `max` elements and passes them in order to the given
+	 * consumer. Must only be called from the consumer thread.
+	 *
+	 * @return The number of drained elements.
+	 */
+	public int drain(final Procedure1<? super E> consumer, final int max) {
+		int count = 0;
+		E element;
+		while (count < max && (element = poll()) != null) {
+			consumer.apply(element);
+			++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Must only be called from the consumer thread.
+	 */
+	public boolean isEmpty() {
+		return sequences.get((int) (head & mask)) != head + 1;
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler for short, non-blocking tasks, e.g. starting asynchronous test
+ * cases and their timeouts.
+ *
+ * All tasks share a single daemon thread, so tasks must not block.
+ */
+public class Scheduler {
+
+	private static final Scheduler instance = new Scheduler();
+
+	public static Scheduler getInstance() {
+		return instance;
+	}
+
+	// END OF STATIC PART
+
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private Scheduler() {
+		scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			final Thread thread = new Thread(runnable, "LambdaTest-Scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// most timeouts get cancelled, so don't let them pile up in the queue
+		scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Runs the given task as soon as possible.
+	 */
+	public void execute(final Runnable task) {
+		scheduler.execute(task);
+	}
+
+	/**
+	 * Runs the given task once after the given delay.
+	 */
+	public ScheduledFuture<?> schedule(final Runnable task, final long delayMillis) {
+		return scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+}
@@ -0,0 +1,173 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simple sampling profiler, which periodically captures the stack trace of a
+ * thread and aggregates them as collapsed stacks, the input format of flame
+ * graph tools.
+ *
+ * All samplings share a single daemon thread.
+ */
+public class StackSampler {
+
+	private static final StackSampler instance = new StackSampler();
+
+	public static StackSampler getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Writes the collapsed stacks into the given file, one stack per line,
+	 * with the frames from the outermost to the innermost separated by `;`,
+	 * followed by a space and the number of samples.
+	 *
+	 * @param rootFrame
+	 *            If not `null`, a frame prepended to all stacks, e.g. to tell
+	 *            the stacks of different profiles apart, when merged.
+	 */
+	public static void writeCollapsed(final Map<String, Long> stacks, final String rootFrame, final Path file)
+			throws IOException {
+		final Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		final String prefix = rootFrame == null ? "" : rootFrame.replaceAll("[;\r\n]", "_") + ";";
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (final Map.Entry<String, Long> stack : stacks.entrySet()) {
+				writer.append(prefix).append(stack.getKey()).append(' ').append(String.valueOf(stack.getValue()))
+						.append('\n');
+			}
+		}
+	}
+
+	// END OF STATIC PART
+
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private StackSampler() {
+		scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			final Thread thread = new Thread(runnable, "LambdaTest-Sampler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// most samplings never start, so don't let them pile up in the queue
+		scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Starts sampling the given thread after a delay.
+	 *
+	 * @param thread
+	 *            The thread to sample.
+	 * @param delayMillis
+	 *            The delay before the first sample in milliseconds.
+	 * @param intervalMillis
+	 *            The interval between samples in milliseconds.
+	 * @param boundaryMethod
+	 *            If not `null`, the fully qualified name of a method
+	 *            (`package.Class.method`). The stacks are cut below its
+	 *            innermost invocation, to leave out the frames of the calling
+	 *            framework.
+	 * @return The sampling, which must be stopped.
+	 */
+	public Sampling sample(final Thread thread, final long delayMillis, final long intervalMillis,
+			final String boundaryMethod) {
+		final Sampling sampling = new Sampling(thread, boundaryMethod);
+		synchronized (sampling) {
+			sampling.future = scheduler.scheduleAtFixedRate(sampling::takeSample, delayMillis, intervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+		return sampling;
+	}
+
+	public class Sampling {
+
+		private final Thread thread;
+		private final String boundaryMethod;
+		private final Map<String, Long> stacks = new TreeMap<>();
+		private int sampleCount;
+		private boolean stopped;
+		private ScheduledFuture<?> future;
+
+		private Sampling(final Thread thread, final String boundaryMethod) {
+			this.thread = thread;
+			this.boundaryMethod = boundaryMethod;
+		}
+
+		private void takeSample() {
+			synchronized (this) {
+				if (stopped) {
+					return;
+				}
+			}
+			// might be expensive, so we do it outside the lock
+			final String stack = collapse(thread.getStackTrace());
+			synchronized (this) {
+				if (stopped || stack.isEmpty()) {
+					return;
+				}
+				stacks.merge(stack, 1L, Long::sum);
+				++sampleCount;
+			}
+		}
+
+		private String collapse(final StackTraceElement[] trace) {
+			// the trace starts with the innermost frame
+			int outermost = trace.length - 1;
+			if (boundaryMethod != null) {
+				for (int i = 0; i < trace.length; ++i) {
+					if (boundaryMethod.equals(trace[i].getClassName() + "." + trace[i].getMethodName())) {
+						outermost = i - 1;
+						break;
+					}
+				}
+			}
+			final StringBuilder sb = new StringBuilder();
+			for (int i = outermost; i >= 0; --i) {
+				if (sb.length() > 0) {
+					sb.append(';');
+				}
+				String className = trace[i].getClassName();
+				final int lambda = className.indexOf("$$Lambda");
+				if (lambda >= 0) {
+					// the generated lambda class names differ between runs
+					className = className.substring(0, lambda + "$$Lambda".length());
+				}
+				sb.append(className).append('.').append(trace[i].getMethodName());
+			}
+			return sb.toString();
+		}
+
+		/**
+		 * Stops this sampling. Can be called from any thread.
+		 *
+		 * @return The collapsed stacks and their number of samples.
+		 */
+		public synchronized Map<String, Long> stop() {
+			stopped = true;
+			if (future != null) {
+				future.cancel(false);
+			}
+			return new TreeMap<>(stacks);
+		}
+
+		/**
+		 * The number of samples taken so far.
+		 */
+		public synchronized int getSampleCount() {
+			return sampleCount;
+		}
+
+	}
+
+}
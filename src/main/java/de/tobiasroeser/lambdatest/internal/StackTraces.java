@@ -0,0 +1,205 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import de.tobiasroeser.lambdatest.CapturedOutput;
+import de.tobiasroeser.lambdatest.MultipleFailuresError;
+
+/**
+ * Renders stack traces like {@link Throwable#printStackTrace()}, but
+ * optionally without the frames of test frameworks, reflection and
+ * LambdaTest itself, which are the same for each failure and rarely of
+ * interest.
+ */
+public class StackTraces {
+
+	/** Packages and classes, whose frames are framework frames. */
+	private static final String[] FRAMEWORK_PREFIXES = {
+			"java.lang.reflect.",
+			"java.lang.invoke.",
+			"jdk.internal.reflect.",
+			"sun.reflect.",
+			"org.junit.",
+			"junit.framework.",
+			"org.testng.",
+			"org.apache.maven.surefire.",
+			"org.gradle.",
+			"org.eclipse.jdt.internal.junit.",
+			"org.eclipse.jdt.internal.junit4.",
+			"org.eclipse.jdt.internal.junit5.",
+			"com.intellij.",
+			"de.tobiasroeser.lambdatest.internal."
+	};
+
+	/** Classes of LambdaTest, whose frames (including nested classes) are framework frames. */
+	private static final Set<String> FRAMEWORK_CLASSES = new HashSet<>(Arrays.asList(
+			"de.tobiasroeser.lambdatest.Assert",
+			"de.tobiasroeser.lambdatest.Expect",
+			"de.tobiasroeser.lambdatest.ExpectBase",
+			"de.tobiasroeser.lambdatest.ExpectCollection",
+			"de.tobiasroeser.lambdatest.ExpectContext",
+			"de.tobiasroeser.lambdatest.ExpectDouble",
+			"de.tobiasroeser.lambdatest.ExpectMap",
+			"de.tobiasroeser.lambdatest.ExpectString",
+			"de.tobiasroeser.lambdatest.Intercept",
+			"de.tobiasroeser.lambdatest.TempFile",
+			"de.tobiasroeser.lambdatest.generic.DefaultTestCase",
+			"de.tobiasroeser.lambdatest.generic.FreeSpecBase",
+			"de.tobiasroeser.lambdatest.junit.FreeSpec",
+			"de.tobiasroeser.lambdatest.junit.FreeSpecRunner",
+			"de.tobiasroeser.lambdatest.junit5.FreeSpec",
+			"de.tobiasroeser.lambdatest.testng.FreeSpec",
+			"de.tobiasroeser.lambdatest.proxy.SubclassProxyFactory",
+			"de.tobiasroeser.lambdatest.proxy.TestProxy"));
+
+	/**
+	 * `true`, if the frame belongs to a test framework, reflection or
+	 * LambdaTest.
+	 */
+	public static boolean isFrameworkFrame(final StackTraceElement frame) {
+		final String className = frame.getClassName();
+		for (final String prefix : FRAMEWORK_PREFIXES) {
+			if (className.startsWith(prefix)) {
+				return true;
+			}
+		}
+		final int nested = className.indexOf('$');
+		return FRAMEWORK_CLASSES.contains(nested < 0 ? className : className.substring(0, nested));
+	}
+
+	/**
+	 * Renders the stack trace of the given error including its causes and
+	 * suppressed errors.
+	 *
+	 * @param filter
+	 *            If `true`, framework frames are left out, unless all frames of
+	 *            a trace are framework frames.
+	 */
+	public static String render(final Throwable error, final boolean filter) {
+		final StringBuilder sb = new StringBuilder();
+		final Set<Throwable> dejaVu = Collections.newSetFromMap(new IdentityHashMap<>());
+		render(sb, error, new StackTraceElement[0], "", "", filter, dejaVu);
+		return sb.toString();
+	}
+
+	private static void render(final StringBuilder sb, final Throwable error, final StackTraceElement[] enclosing,
+			final String caption, final String prefix, final boolean filter, final Set<Throwable> dejaVu) {
+		if (!dejaVu.add(error)) {
+			sb.append(prefix).append(caption).append("[CIRCULAR REFERENCE: ").append(error).append("]\n");
+			return;
+		}
+		sb.append(prefix).append(caption).append(error).append('\n');
+
+		final StackTraceElement[] trace = error.getStackTrace();
+		// frames in common with the enclosing trace
+		int m = trace.length - 1;
+		int n = enclosing.length - 1;
+		while (m >= 0 && n >= 0 && trace[m].equals(enclosing[n])) {
+			--m;
+			--n;
+		}
+		final int inCommon = trace.length - 1 - m;
+
+		boolean allFiltered = filter;
+		for (int i = 0; i <= m && allFiltered; ++i) {
+			allFiltered = isFrameworkFrame(trace[i]);
+		}
+		int filtered = 0;
+		for (int i = 0; i <= m; ++i) {
+			if (filter && !allFiltered && isFrameworkFrame(trace[i])) {
+				++filtered;
+			} else {
+				sb.append(prefix).append("\tat ").append(trace[i]).append('\n');
+			}
+		}
+		if (filtered > 0) {
+			sb.append(prefix).append("\t... ").append(filtered).append(" framework frames filtered\n");
+		}
+		if (inCommon > 0) {
+			sb.append(prefix).append("\t... ").append(inCommon).append(" more\n");
+		}
+
+		for (final Throwable suppressed : error.getSuppressed()) {
+			render(sb, suppressed, trace, "Suppressed: ", prefix + "\t", filter, dejaVu);
+		}
+		final Throwable cause = error.getCause();
+		if (cause != null) {
+			render(sb, cause, trace, "Caused by: ", prefix, filter, dejaVu);
+		}
+	}
+
+	/**
+	 * Renders only the messages of the given error, its causes and the
+	 * {@link CapturedOutput} attached to it, without any stack frames.
+	 */
+	public static String renderMessages(final Throwable error) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(error).append('\n');
+		for (final Throwable suppressed : error.getSuppressed()) {
+			if (suppressed instanceof CapturedOutput) {
+				sb.append(suppressed.getMessage()).append('\n');
+			}
+		}
+		Throwable last = error;
+		for (Throwable cause = error.getCause(); cause != null && cause != last; last = cause, cause = cause
+				.getCause()) {
+			sb.append("Caused by: ").append(cause).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A fingerprint of the stack trace of the given error, its causes, its
+	 * suppressed errors and, for a {@link MultipleFailuresError}, its failures.
+	 * It ignores messages and {@link CapturedOutput}. Errors of the same types
+	 * thrown at the same code locations have the same fingerprint.
+	 *
+	 * @param filter
+	 *            If `true`, framework frames are ignored.
+	 */
+	public static long fingerprint(final Throwable error, final boolean filter) {
+		final Set<Throwable> dejaVu = Collections.newSetFromMap(new IdentityHashMap<>());
+		// FNV-1a
+		return fingerprint(0xcbf29ce484222325L, error, filter, dejaVu);
+	}
+
+	private static long fingerprint(long hash, final Throwable error, final boolean filter,
+			final Set<Throwable> dejaVu) {
+		for (Throwable t = error; t != null && dejaVu.add(t); t = t.getCause()) {
+			hash = fingerprint(hash, t.getClass().getName());
+			for (final StackTraceElement frame : t.getStackTrace()) {
+				if (!filter || !isFrameworkFrame(frame)) {
+					hash = fingerprint(hash, frame.toString());
+				}
+			}
+			// the frames of a MultipleFailuresError itself are framework frames only
+			if (t instanceof MultipleFailuresError) {
+				for (final AssertionError failure : ((MultipleFailuresError) t).getFailures()) {
+					hash = fingerprint(hash, failure, filter, dejaVu);
+				}
+			}
+			for (final Throwable suppressed : t.getSuppressed()) {
+				if (!(suppressed instanceof CapturedOutput)) {
+					hash = fingerprint(hash, suppressed, filter, dejaVu);
+				}
+			}
+		}
+		return hash;
+	}
+
+	private static long fingerprint(long hash, final String value) {
+		for (int i = 0; i < value.length(); ++i) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		// separator
+		hash ^= 0xff;
+		hash *= 0x100000001b3L;
+		return hash;
+	}
+
+}
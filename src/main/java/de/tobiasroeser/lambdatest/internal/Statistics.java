@@ -0,0 +1,73 @@
+package de.tobiasroeser.lambdatest.internal;
+
+/**
+ * Statistical helpers for measurements.
+ */
+public class Statistics {
+
+	/**
+	 * Two-sided critical values of the Student t-distribution for a confidence
+	 * level of 99% and 1 to 30 degrees of freedom.
+	 */
+	private static final double[] T_CRITICAL_VALUES_99 = {
+			63.657, 9.925, 5.841, 4.604, 4.032, 3.707, 3.499, 3.355, 3.250, 3.169,
+			3.106, 3.055, 3.012, 2.977, 2.947, 2.921, 2.898, 2.878, 2.861, 2.845,
+			2.831, 2.819, 2.807, 2.797, 2.787, 2.779, 2.771, 2.763, 2.756, 2.750 };
+
+	/** The quantile of the standard normal distribution for 99% (two-sided). */
+	private static final double Z_CRITICAL_VALUE_99 = 2.5758;
+
+	private Statistics() {
+		// no instances
+	}
+
+	/**
+	 * The two-sided critical value of the Student t-distribution for a
+	 * confidence level of 99%.
+	 *
+	 * @param degreesOfFreedom
+	 *            The degrees of freedom, which might be fractional (e.g. of
+	 *            Welch's t-test), but at least 1.
+	 */
+	public static double tCriticalValue99(final double degreesOfFreedom) {
+		// rounding down is conservative
+		final int df = Math.max(1, (int) Math.floor(degreesOfFreedom));
+		if (df <= T_CRITICAL_VALUES_99.length) {
+			return T_CRITICAL_VALUES_99[df - 1];
+		}
+		// Cornish-Fisher expansion up to the second order term, accurate to
+		// 0.001 above 30 degrees of freedom
+		final double z = Z_CRITICAL_VALUE_99;
+		final double z3 = z * z * z;
+		final double z5 = z3 * z * z;
+		return z + (z3 + z) / (4 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * df * df);
+	}
+
+	/**
+	 * The sample mean of the values.
+	 */
+	public static double mean(final long[] values) {
+		double sum = 0;
+		for (final long value : values) {
+			sum += value;
+		}
+		return sum / values.length;
+	}
+
+	/**
+	 * The sample standard deviation of the values, or `0` for less than two
+	 * values.
+	 */
+	public static double standardDeviation(final long[] values) {
+		if (values.length < 2) {
+			return 0;
+		}
+		final double mean = mean(values);
+		double squares = 0;
+		for (final long value : values) {
+			squares += (value - mean) * (value - mean);
+		}
+		return Math.sqrt(squares / (values.length - 1));
+	}
+
+}
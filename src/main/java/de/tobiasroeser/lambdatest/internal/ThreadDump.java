@@ -0,0 +1,115 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Creates human readable thread dumps including deadlock detection.
+ *
+ * In contrast to {@link ThreadInfo#toString()}, which only contains the first
+ * few stack frames, the full stack traces are included.
+ */
+public class ThreadDump {
+
+	/**
+	 * Creates a dump of all live threads. Deadlocked threads, if any, are
+	 * reported first, followed by the thread `first` (if not `null`) and all
+	 * other threads.
+	 *
+	 * @param first
+	 *            The thread of most interest, e.g. a hung test thread.
+	 */
+	public static String create(final Thread first) {
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		final StringBuilder sb = new StringBuilder();
+
+		final boolean lockedMonitors = threads.isObjectMonitorUsageSupported();
+		final boolean lockedSynchronizers = threads.isSynchronizerUsageSupported();
+
+		final long[] deadlocked = lockedSynchronizers
+				? threads.findDeadlockedThreads()
+				: threads.findMonitorDeadlockedThreads();
+		if (deadlocked != null && deadlocked.length > 0) {
+			sb.append("Found ").append(deadlocked.length).append(" deadlocked threads:\n");
+			for (final ThreadInfo info : threads.getThreadInfo(deadlocked, lockedMonitors, lockedSynchronizers)) {
+				if (info != null) {
+					format(sb, info);
+				}
+			}
+		} else {
+			sb.append("No deadlocks found.\n");
+		}
+
+		final ThreadInfo[] infos = threads.dumpAllThreads(lockedMonitors, lockedSynchronizers);
+		sb.append("\nThread dump:\n");
+		final long firstId = first == null ? -1 : first.getId();
+		for (final ThreadInfo info : infos) {
+			if (info.getThreadId() == firstId) {
+				format(sb, info);
+			}
+		}
+		for (final ThreadInfo info : infos) {
+			if (info.getThreadId() != firstId) {
+				format(sb, info);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void format(final StringBuilder sb, final ThreadInfo info) {
+		sb.append('"').append(info.getThreadName()).append("\" Id=").append(info.getThreadId()).append(' ')
+				.append(info.getThreadState());
+		if (info.getLockName() != null) {
+			sb.append(" on ").append(info.getLockName());
+		}
+		if (info.getLockOwnerName() != null) {
+			sb.append(" owned by \"").append(info.getLockOwnerName()).append("\" Id=")
+					.append(info.getLockOwnerId());
+		}
+		if (info.isSuspended()) {
+			sb.append(" (suspended)");
+		}
+		if (info.isInNative()) {
+			sb.append(" (in native)");
+		}
+		sb.append('\n');
+
+		final StackTraceElement[] stackTrace = info.getStackTrace();
+		final MonitorInfo[] monitors = info.getLockedMonitors();
+		for (int i = 0; i < stackTrace.length; ++i) {
+			sb.append("\tat ").append(stackTrace[i]).append('\n');
+			if (i == 0 && info.getLockInfo() != null) {
+				switch (info.getThreadState()) {
+				case BLOCKED:
+					sb.append("\t-  blocked on ").append(info.getLockInfo()).append('\n');
+					break;
+				case WAITING:
+				case TIMED_WAITING:
+					sb.append("\t-  waiting on ").append(info.getLockInfo()).append('\n');
+					break;
+				default:
+				}
+			}
+			if (monitors != null) {
+				for (final MonitorInfo monitor : monitors) {
+					if (monitor.getLockedStackDepth() == i) {
+						sb.append("\t-  locked ").append(monitor).append('\n');
+					}
+				}
+			}
+		}
+
+		final LockInfo[] synchronizers = info.getLockedSynchronizers();
+		if (synchronizers != null && synchronizers.length > 0) {
+			sb.append("\n\tNumber of locked synchronizers = ").append(synchronizers.length).append('\n');
+			for (final LockInfo lock : synchronizers) {
+				sb.append("\t- ").append(lock).append('\n');
+			}
+		}
+		sb.append('\n');
+	}
+
+}
@@ -0,0 +1,98 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import de.tobiasroeser.lambdatest.Timing;
+
+/**
+ * Measures wall-clock time, CPU time and allocated bytes of the current
+ * thread, as far as supported by the JVM.
+ *
+ * Allocated bytes are only available on JVMs providing
+ * `com.sun.management.ThreadMXBean` (e.g. HotSpot).
+ */
+public class ThreadMetrics {
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final boolean cpuTimeSupported;
+	private static final boolean allocationSupported;
+
+	static {
+		boolean cpu = false;
+		try {
+			cpu = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+		} catch (final UnsupportedOperationException e) {
+			// not supported
+		}
+		cpuTimeSupported = cpu;
+
+		boolean alloc = false;
+		try {
+			if (threads instanceof com.sun.management.ThreadMXBean) {
+				final com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+				alloc = sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled();
+			}
+		} catch (final LinkageError | UnsupportedOperationException e) {
+			// not a HotSpot-like JVM
+		}
+		allocationSupported = alloc;
+	}
+
+	public static boolean isCpuTimeSupported() {
+		return cpuTimeSupported;
+	}
+
+	public static boolean isAllocationSupported() {
+		return allocationSupported;
+	}
+
+	/**
+	 * The CPU time of the current thread in nanoseconds, or `-1` if not
+	 * supported.
+	 */
+	public static long cpuTimeNanos() {
+		return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+	}
+
+	/**
+	 * The total number of bytes allocated by the current thread, or `-1` if not
+	 * supported.
+	 */
+	public static long allocatedBytes() {
+		return allocationSupported
+				? ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId())
+				: -1;
+	}
+
+	/**
+	 * Starts a new measurement for the current thread.
+	 */
+	public static Measurement start() {
+		return new Measurement();
+	}
+
+	/**
+	 * A running measurement. It must be stopped by the thread which started it.
+	 */
+	public static class Measurement {
+		private final long wallStart = System.nanoTime();
+		private final long cpuStart = cpuTimeNanos();
+		private final long allocStart = allocatedBytes();
+
+		/**
+		 * The wall-clock time elapsed since the start.
+		 */
+		public long wallNanos() {
+			return System.nanoTime() - wallStart;
+		}
+
+		public Timing stop() {
+			final long wall = System.nanoTime() - wallStart;
+			final long cpu = cpuStart < 0 ? -1 : cpuTimeNanos() - cpuStart;
+			final long alloc = allocStart < 0 ? -1 : allocatedBytes() - allocStart;
+			return new Timing(wall, cpu, alloc);
+		}
+	}
+
+}
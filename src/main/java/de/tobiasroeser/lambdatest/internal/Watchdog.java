@@ -0,0 +1,148 @@
+package de.tobiasroeser.lambdatest.internal;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A watchdog to enforce timeouts of running threads.
+ *
+ * All watches share a single daemon thread. When a watch expires before it was
+ * finished, a thread dump is captured and the watched thread gets interrupted.
+ * If the watched thread does not react to the interruption within a grace
+ * period, an optional callback is notified.
+ */
+public class Watchdog {
+
+	private static final Watchdog instance = new Watchdog();
+
+	public static Watchdog getInstance() {
+		return instance;
+	}
+
+	// END OF STATIC PART
+
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private Watchdog() {
+		scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			final Thread thread = new Thread(runnable, "LambdaTest-Watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// we cancel most watches, so don't let them pile up in the queue
+		scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Starts watching the given thread.
+	 *
+	 * @param thread
+	 *            The thread to interrupt, if the watch is not finished in time.
+	 * @param timeoutMillis
+	 *            The timeout in milliseconds.
+	 * @param onUnresponsive
+	 *            Called from the watchdog thread, if the watched thread did not
+	 *            finish the watch within `timeoutMillis` after it was
+	 *            interrupted. May be `null`.
+	 * @return The watch, which must be finished by the watched thread.
+	 */
+	public Watch watch(final Thread thread, final long timeoutMillis, final Procedure1<Watch> onUnresponsive) {
+		final Watch watch = new Watch(thread, timeoutMillis, onUnresponsive);
+		synchronized (watch) {
+			watch.future = scheduler.schedule(watch::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		return watch;
+	}
+
+	public class Watch {
+
+		private final Thread thread;
+		private final long timeoutMillis;
+		private final Procedure1<Watch> onUnresponsive;
+		private boolean finished;
+		private boolean expired;
+		private String diagnostic;
+		private ScheduledFuture<?> future;
+
+		private Watch(final Thread thread, final long timeoutMillis, final Procedure1<Watch> onUnresponsive) {
+			this.thread = thread;
+			this.timeoutMillis = timeoutMillis;
+			this.onUnresponsive = onUnresponsive;
+		}
+
+		private void expire() {
+			synchronized (this) {
+				if (finished) {
+					return;
+				}
+			}
+			// might be expensive, so we do it outside the lock
+			final String dump = ThreadDump.create(thread);
+			synchronized (this) {
+				if (finished) {
+					return;
+				}
+				expired = true;
+				diagnostic = dump;
+				thread.interrupt();
+				if (onUnresponsive != null) {
+					future = scheduler.schedule(this::checkResponsive, timeoutMillis, TimeUnit.MILLISECONDS);
+				}
+			}
+		}
+
+		private void checkResponsive() {
+			synchronized (this) {
+				if (finished) {
+					return;
+				}
+			}
+			onUnresponsive.apply(this);
+		}
+
+		/**
+		 * Finishes this watch. Must be called by the watched thread.
+		 *
+		 * If the watch has already expired, the interrupted state of the current
+		 * thread is cleared, as the interruption was caused by this watchdog.
+		 *
+		 * @return `true` if the watch was finished in time, `false` if it has
+		 *         expired.
+		 */
+		public boolean finish() {
+			synchronized (this) {
+				finished = true;
+				if (future != null) {
+					future.cancel(false);
+				}
+				if (!expired) {
+					return true;
+				}
+			}
+			Thread.interrupted();
+			return false;
+		}
+
+		public synchronized boolean isExpired() {
+			return expired;
+		}
+
+		/**
+		 * The thread dump captured at expiration, or `null` if not expired.
+		 */
+		public synchronized String getDiagnostic() {
+			return diagnostic;
+		}
+
+		public long getTimeoutMillis() {
+			return timeoutMillis;
+		}
+
+		public Thread getThread() {
+			return thread;
+		}
+
+	}
+
+}
@@ -10,19 +10,14 @@ import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.ParentRunner;
 import org.junit.runners.model.InitializationError;
 
-import de.tobiasroeser.lambdatest.ExpectContext;
-import de.tobiasroeser.lambdatest.Reporter;
 import de.tobiasroeser.lambdatest.generic.DefaultTestCase;
 
 public class FreeSpecRunner extends ParentRunner<DefaultTestCase> {
 
 	private final List<DefaultTestCase> testCases;
 	private final Class<?> freeSpecClass;
-	private final boolean expectFailFast;
 	private final FreeSpec freeSpec;
 
-	private volatile boolean testNeverRun = true;
-
 	public FreeSpecRunner(final Class<?> freeSpecClass) throws InitializationError {
 		super(freeSpecClass);
 		if (!FreeSpec.class.isAssignableFrom(freeSpecClass)) {
@@ -34,7 +29,6 @@ public class FreeSpecRunner extends ParentRunner<DefaultTestCase> {
 		try {
 			freeSpec = (FreeSpec) freeSpecClass.newInstance();
 			testCases = Collections.unmodifiableList(freeSpec.getTestCases());
-			expectFailFast = freeSpec.getExpectFailFast();
 
 		} catch (final Exception e) {
 			throw new InitializationError("Could not instantiate test class " + freeSpecClass.getName());
@@ -51,57 +45,25 @@ public class FreeSpecRunner extends ParentRunner<DefaultTestCase> {
 		return testCases;
 	}
 
-	private Reporter reporter() {
-		return freeSpec.getReporter();
+	@Override
+	public void run(final RunNotifier notifier) {
+		try {
+			super.run(notifier);
+		} finally {
+			freeSpec.finishSuite();
+		}
 	}
 
 	@Override
 	protected void runChild(final DefaultTestCase testCase, final RunNotifier runNotifier) {
-		if (testNeverRun) {
-			synchronized (this) {
-				if (testNeverRun) {
-					reporter().suiteStart(freeSpec.getSuiteName(), testCases);
-					testNeverRun = false;
-				}
-			}
-		}
-
 		final Description description = getDescription();
 		runNotifier.fireTestStarted(description);
 
 		try {
-			ExpectContext.setup(expectFailFast);
-			Throwable uncatchedTestError = null;
-			Throwable delayedTestError = null;
-			try {
-				reporter().testStart(testCase);
-				testCase.getTest().run();
-			} catch (final Throwable t) {
-				uncatchedTestError = t;
-			}
-			try {
-				ExpectContext.finish();
-			} catch (final Throwable t) {
-				delayedTestError = t;
-			}
-			if (uncatchedTestError != null && delayedTestError != null) {
-				throw new AssertionError(
-						"An error occured (see root cause) after some expectations failed. Failed Expectations:\n"
-								+ delayedTestError.getMessage(),
-						uncatchedTestError);
-			} else if (uncatchedTestError != null) {
-				// if this was a SkipException, we still detect it, else some
-				// other errors occurred before
-				throw uncatchedTestError;
-			} else if (delayedTestError != null) {
-				throw delayedTestError;
-			}
-			reporter().testSucceeded(testCase);
+			freeSpec.runTestCase(testCase, AssumptionViolatedException.class);
 		} catch (final AssumptionViolatedException e) {
-			reporter().testSkipped(testCase, e.getMessage());
 			runNotifier.fireTestAssumptionFailed(new Failure(description, e));
 		} catch (final Throwable e) {
-			reporter().testFailed(testCase, e);
 			runNotifier.fireTestFailure(new Failure(description, e));
 		} finally {
 			runNotifier.fireTestFinished(description);
@@ -6,13 +6,35 @@ import de.tobiasroeser.lambdatest.generic.DefaultTestCase;
 import de.tobiasroeser.lambdatest.generic.FreeSpecBase;
 import de.tobiasroeser.lambdatest.internal.Util;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestInstancePostProcessor;
 import org.opentest4j.TestSkippedException;
 
 import java.util.*;
 
+@ExtendWith(FreeSpec.FinishSuiteExtension.class)
 public class FreeSpec extends FreeSpecBase implements LambdaTest {
 
-    private volatile boolean testNeverRun = true;
+    /**
+     * Reports the end of the suite after all tests of the test class ran,
+     * regardless of the test instance lifecycle.
+     *
+     * The test instance is stored in the store of the test class, which closes
+     * it after all tests of the class ran.
+     */
+    static class FinishSuiteExtension implements TestInstancePostProcessor {
+        @Override
+        public void postProcessTestInstance(final Object testInstance, final ExtensionContext context) {
+            ExtensionContext classContext = context;
+            while (classContext.getTestMethod().isPresent() && classContext.getParent().isPresent()) {
+                classContext = classContext.getParent().get();
+            }
+            final FreeSpec freeSpec = (FreeSpec) testInstance;
+            classContext.getStore(ExtensionContext.Namespace.create(FinishSuiteExtension.class))
+                    .getOrComputeIfAbsent(freeSpec, key -> (ExtensionContext.Store.CloseableResource) freeSpec::finishSuite);
+        }
+    }
 
     @Override
     public void pending(final String reason) {
@@ -33,7 +55,7 @@ public class FreeSpec extends FreeSpecBase implements LambdaTest {
 
     private DynamicTest testFor(DefaultTestCase testCase) {
         return DynamicTest.dynamicTest(testCase.getName(), () -> {
-            runTestCase(testCase);
+            runTestCase(testCase, TestSkippedException.class);
         });
     }
 
@@ -87,52 +109,4 @@ public class FreeSpec extends FreeSpecBase implements LambdaTest {
         List<DynamicNode> res = Util.concat(topLevelContainers, topLevelTests);
         return res;
     }
-
-    private void runTestCase(DefaultTestCase testCase) throws Throwable {
-        if (testNeverRun) {
-            synchronized (this) {
-                if (testNeverRun) {
-                    getReporter().suiteStart(getSuiteName(), getTestCases());
-                    testNeverRun = false;
-                }
-            }
-        }
-
-        try {
-            ExpectContext.setup(getExpectFailFast());
-            Throwable uncaughtTestError = null;
-            Throwable delayedTestError = null;
-            try {
-                getReporter().testStart(testCase);
-                testCase.getTest().run();
-            } catch (final Throwable t) {
-                uncaughtTestError = t;
-            }
-            try {
-                ExpectContext.finish();
-            } catch (final Throwable t) {
-                delayedTestError = t;
-            }
-            if (uncaughtTestError != null && delayedTestError != null) {
-                throw new AssertionError(
-                        "An error occurred (see root cause) after some expectations failed. Failed Expectations:\n"
-                                + delayedTestError.getMessage(),
-                        uncaughtTestError
-                );
-            } else if (uncaughtTestError != null) {
-                // if this was a SkipException, we still detect it, else some
-                // other errors occurred before
-                throw uncaughtTestError;
-            } else if (delayedTestError != null) {
-                throw delayedTestError;
-            }
-            getReporter().testSucceeded(testCase);
-        } catch (final TestSkippedException e) {
-            getReporter().testSkipped(testCase, e.getMessage());
-            throw e;
-        } catch (final Throwable e) {
-            getReporter().testFailed(testCase, e);
-            throw e;
-        }
-    }
 }
@@ -0,0 +1,422 @@
+package de.tobiasroeser.lambdatest.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the bytecode of a subclass proxy.
+ *
+ * The generated class extends a given superclass, implements the given
+ * interfaces and overrides all given methods. Each overridden method delegates
+ * to the {@link java.lang.reflect.InvocationHandler} stored in the instance
+ * field {@link #HANDLER_FIELD}, passing the {@link Method} object found at the
+ * same index in the static field {@link #METHODS_FIELD}. Thus, the proxy
+ * behaves exactly like a {@link java.lang.reflect.Proxy}, but is not limited to
+ * interfaces.
+ *
+ * The generated code contains no branches, so we do not need to emit stack map
+ * frames.
+ */
+class ProxyClassGenerator {
+
+	static final String HANDLER_FIELD = "lambdatest$handler";
+	static final String METHODS_FIELD = "lambdatest$methods";
+
+	private static final int CLASS_VERSION = 52; // Java 8
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_PROTECTED = 0x0004;
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_SUPER = 0x0020;
+	private static final int ACC_SYNTHETIC = 0x1000;
+
+	private static final String HANDLER_TYPE = "java/lang/reflect/InvocationHandler";
+	private static final String HANDLER_DESC = "Ljava/lang/reflect/InvocationHandler;";
+	private static final String METHODS_DESC = "[Ljava/lang/reflect/Method;";
+	private static final String INVOKE_DESC = "(Ljava/lang/Object;Ljava/lang/reflect/Method;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private final ConstantPool pool = new ConstantPool();
+	private final String className;
+	private final Class<?> superclass;
+	private final List<Class<?>> interfaces;
+	private final List<Method> methods;
+	private final boolean defaultConstructor;
+
+	/**
+	 * @param className
+	 *            The binary name of the class to generate.
+	 * @param superclass
+	 *            The class to extend.
+	 * @param interfaces
+	 *            The interfaces to implement.
+	 * @param methods
+	 *            The methods to override. The index of each method is also its
+	 *            index in {@link #METHODS_FIELD}.
+	 * @param defaultConstructor
+	 *            If `true`, a no-arg constructor invoking the no-arg constructor
+	 *            of the superclass is generated.
+	 */
+	ProxyClassGenerator(final String className, final Class<?> superclass, final List<Class<?>> interfaces,
+			final List<Method> methods, final boolean defaultConstructor) {
+		this.className = className;
+		this.superclass = superclass;
+		this.interfaces = interfaces;
+		this.methods = methods;
+		this.defaultConstructor = defaultConstructor;
+	}
+
+	byte[] generate() {
+		try {
+			// first generate all members, to populate the constant pool
+			final ByteArrayOutputStream membersBytes = new ByteArrayOutputStream();
+			final DataOutputStream members = new DataOutputStream(membersBytes);
+
+			members.writeShort(2);
+			writeField(members, ACC_PUBLIC | ACC_SYNTHETIC, HANDLER_FIELD, HANDLER_DESC);
+			writeField(members, ACC_PUBLIC | ACC_STATIC | ACC_SYNTHETIC, METHODS_FIELD, METHODS_DESC);
+
+			members.writeShort(methods.size() + (defaultConstructor ? 1 : 0));
+			if (defaultConstructor) {
+				writeConstructor(members);
+			}
+			for (int i = 0; i < methods.size(); ++i) {
+				writeMethod(members, i, methods.get(i));
+			}
+			// no class attributes
+			members.writeShort(0);
+
+			final int thisClass = pool.classRef(internalName(className));
+			final int superClass = pool.classRef(internalName(superclass.getName()));
+			final int[] interfaceRefs = new int[interfaces.size()];
+			for (int i = 0; i < interfaceRefs.length; ++i) {
+				interfaceRefs[i] = pool.classRef(internalName(interfaces.get(i).getName()));
+			}
+
+			final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+			final DataOutputStream out = new DataOutputStream(classBytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(CLASS_VERSION);
+			pool.writeTo(out);
+			out.writeShort(ACC_PUBLIC | ACC_SUPER | ACC_SYNTHETIC);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(interfaceRefs.length);
+			for (final int ref : interfaceRefs) {
+				out.writeShort(ref);
+			}
+			membersBytes.writeTo(out);
+			out.flush();
+			return classBytes.toByteArray();
+		} catch (final IOException e) {
+			// we only write to memory
+			throw new IllegalStateException("Could not generate proxy class " + className, e);
+		}
+	}
+
+	private void writeField(final DataOutputStream out, final int access, final String name, final String desc)
+			throws IOException {
+		out.writeShort(access);
+		out.writeShort(pool.utf8(name));
+		out.writeShort(pool.utf8(desc));
+		out.writeShort(0);
+	}
+
+	private void writeConstructor(final DataOutputStream out) throws IOException {
+		final Code code = new Code();
+		code.op(0x2a); // aload_0
+		code.op(0xb7); // invokespecial
+		code.u2(pool.methodRef(internalName(superclass.getName()), "<init>", "()V", false));
+		code.op(0xb1); // return
+		writeCode(out, ACC_PUBLIC, "<init>", "()V", code, 1, 1);
+	}
+
+	private void writeMethod(final DataOutputStream out, final int index, final Method method) throws IOException {
+		final Class<?>[] params = method.getParameterTypes();
+		final Code code = new Code();
+
+		// this.handler.invoke(this, methods[index], args)
+		code.op(0x2a); // aload_0
+		code.op(0xb4); // getfield
+		code.u2(pool.fieldRef(internalName(className), HANDLER_FIELD, HANDLER_DESC));
+		code.op(0x2a); // aload_0
+		code.op(0xb2); // getstatic
+		code.u2(pool.fieldRef(internalName(className), METHODS_FIELD, METHODS_DESC));
+		code.op(0x11); // sipush
+		code.u2(index);
+		code.op(0x32); // aaload
+
+		int maxStack = 4;
+		int slot = 1;
+		if (params.length == 0) {
+			// like java.lang.reflect.Proxy, we pass null for no arguments
+			code.op(0x01); // aconst_null
+		} else {
+			code.op(0x11); // sipush
+			code.u2(params.length);
+			code.op(0xbd); // anewarray
+			code.u2(pool.classRef("java/lang/Object"));
+			for (int i = 0; i < params.length; ++i) {
+				code.op(0x59); // dup
+				code.op(0x11); // sipush
+				code.u2(i);
+				slot += load(code, params[i], slot);
+				box(code, params[i]);
+				code.op(0x53); // aastore
+			}
+			// 3 refs, array, array copy, index, wide value
+			maxStack = 8;
+		}
+
+		code.op(0xb9); // invokeinterface
+		code.u2(pool.methodRef(HANDLER_TYPE, "invoke", INVOKE_DESC, true));
+		code.u1(4);
+		code.u1(0);
+
+		returnValue(code, method.getReturnType());
+
+		final int access = method.getModifiers() & (ACC_PUBLIC | ACC_PROTECTED | ACC_PRIVATE);
+		writeCode(out, access, method.getName(), methodDescriptor(method), code, maxStack, slot);
+	}
+
+	private void writeCode(final DataOutputStream out, final int access, final String name, final String desc,
+			final Code code, final int maxStack, final int maxLocals) throws IOException {
+		out.writeShort(access);
+		out.writeShort(pool.utf8(name));
+		out.writeShort(pool.utf8(desc));
+		out.writeShort(1);
+		out.writeShort(pool.utf8("Code"));
+		final byte[] bytes = code.toByteArray();
+		out.writeInt(2 + 2 + 4 + bytes.length + 2 + 2);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+		// no exception table, no attributes
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+
+	/**
+	 * Emits the load instruction for a parameter.
+	 *
+	 * @return The number of local variable slots used by the parameter.
+	 */
+	private int load(final Code code, final Class<?> type, final int slot) {
+		if (type == long.class) {
+			code.op(0x16); // lload
+		} else if (type == float.class) {
+			code.op(0x17); // fload
+		} else if (type == double.class) {
+			code.op(0x18); // dload
+		} else if (type.isPrimitive()) {
+			code.op(0x15); // iload
+		} else {
+			code.op(0x19); // aload
+		}
+		code.u1(slot);
+		return type == long.class || type == double.class ? 2 : 1;
+	}
+
+	private void box(final Code code, final Class<?> type) {
+		if (type.isPrimitive()) {
+			final String wrapper = internalName(wrapperType(type).getName());
+			code.op(0xb8); // invokestatic
+			code.u2(pool.methodRef(wrapper, "valueOf", "(" + descriptor(type) + ")L" + wrapper + ";", false));
+		}
+	}
+
+	private void returnValue(final Code code, final Class<?> type) {
+		if (type == void.class) {
+			code.op(0x57); // pop
+			code.op(0xb1); // return
+		} else if (type.isPrimitive()) {
+			final String wrapper = internalName(wrapperType(type).getName());
+			code.op(0xc0); // checkcast
+			code.u2(pool.classRef(wrapper));
+			code.op(0xb6); // invokevirtual
+			code.u2(pool.methodRef(wrapper, type.getName() + "Value", "()" + descriptor(type), false));
+			if (type == long.class) {
+				code.op(0xad); // lreturn
+			} else if (type == float.class) {
+				code.op(0xae); // freturn
+			} else if (type == double.class) {
+				code.op(0xaf); // dreturn
+			} else {
+				code.op(0xac); // ireturn
+			}
+		} else {
+			if (type != Object.class) {
+				code.op(0xc0); // checkcast
+				code.u2(pool.classRef(type.isArray() ? descriptor(type) : internalName(type.getName())));
+			}
+			code.op(0xb0); // areturn
+		}
+	}
+
+	static Class<?> wrapperType(final Class<?> primitive) {
+		if (primitive == boolean.class) {
+			return Boolean.class;
+		} else if (primitive == byte.class) {
+			return Byte.class;
+		} else if (primitive == char.class) {
+			return Character.class;
+		} else if (primitive == short.class) {
+			return Short.class;
+		} else if (primitive == int.class) {
+			return Integer.class;
+		} else if (primitive == long.class) {
+			return Long.class;
+		} else if (primitive == float.class) {
+			return Float.class;
+		} else if (primitive == double.class) {
+			return Double.class;
+		} else {
+			return Void.class;
+		}
+	}
+
+	static String internalName(final String binaryName) {
+		return binaryName.replace('.', '/');
+	}
+
+	static String descriptor(final Class<?> type) {
+		if (type.isArray()) {
+			return internalName(type.getName());
+		} else if (type == void.class) {
+			return "V";
+		} else if (type == boolean.class) {
+			return "Z";
+		} else if (type == byte.class) {
+			return "B";
+		} else if (type == char.class) {
+			return "C";
+		} else if (type == short.class) {
+			return "S";
+		} else if (type == int.class) {
+			return "I";
+		} else if (type == long.class) {
+			return "J";
+		} else if (type == float.class) {
+			return "F";
+		} else if (type == double.class) {
+			return "D";
+		} else {
+			return "L" + internalName(type.getName()) + ";";
+		}
+	}
+
+	static String methodDescriptor(final Method method) {
+		final StringBuilder desc = new StringBuilder("(");
+		for (final Class<?> param : method.getParameterTypes()) {
+			desc.append(descriptor(param));
+		}
+		return desc.append(")").append(descriptor(method.getReturnType())).toString();
+	}
+
+	/**
+	 * A growing byte buffer for method bytecode.
+	 */
+	private static class Code extends ByteArrayOutputStream {
+		void op(final int opcode) {
+			write(opcode);
+		}
+
+		void u1(final int value) {
+			write(value);
+		}
+
+		void u2(final int value) {
+			write(value >>> 8);
+			write(value);
+		}
+	}
+
+	/**
+	 * The constant pool of the generated class. Equal entries are only stored
+	 * once.
+	 */
+	private static class ConstantPool {
+		private final Map<String, Integer> indexes = new LinkedHashMap<>();
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private int nextIndex = 1;
+
+		private interface EntryWriter {
+			void write(DataOutputStream out) throws IOException;
+		}
+
+		private int entry(final String key, final EntryWriter writer) {
+			final Integer existing = indexes.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			try {
+				writer.write(out);
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+			final int index = nextIndex++;
+			indexes.put(key, index);
+			return index;
+		}
+
+		int utf8(final String value) {
+			return entry("U:" + value, o -> {
+				o.writeByte(1);
+				o.writeUTF(value);
+			});
+		}
+
+		int classRef(final String internalName) {
+			final int name = utf8(internalName);
+			return entry("C:" + internalName, o -> {
+				o.writeByte(7);
+				o.writeShort(name);
+			});
+		}
+
+		int nameAndType(final String name, final String desc) {
+			final int n = utf8(name);
+			final int d = utf8(desc);
+			return entry("NT:" + name + ":" + desc, o -> {
+				o.writeByte(12);
+				o.writeShort(n);
+				o.writeShort(d);
+			});
+		}
+
+		int fieldRef(final String owner, final String name, final String desc) {
+			final int c = classRef(owner);
+			final int nt = nameAndType(name, desc);
+			return entry("F:" + owner + "." + name + ":" + desc, o -> {
+				o.writeByte(9);
+				o.writeShort(c);
+				o.writeShort(nt);
+			});
+		}
+
+		int methodRef(final String owner, final String name, final String desc, final boolean isInterface) {
+			final int c = classRef(owner);
+			final int nt = nameAndType(name, desc);
+			return entry((isInterface ? "IM:" : "M:") + owner + "." + name + ":" + desc, o -> {
+				o.writeByte(isInterface ? 11 : 10);
+				o.writeShort(c);
+				o.writeShort(nt);
+			});
+		}
+
+		void writeTo(final DataOutputStream target) throws IOException {
+			out.flush();
+			target.writeShort(nextIndex);
+			bytes.writeTo(target);
+		}
+	}
+
+}
@@ -0,0 +1,369 @@
+package de.tobiasroeser.lambdatest.proxy;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tobiasroeser.lambdatest.internal.LoggerFactory;
+
+/**
+ * Creates proxy instances of (abstract or concrete) classes by generating a
+ * subclass at runtime.
+ *
+ * Generated classes are cached per class loader and type set, so creating many
+ * proxies of the same types only generates bytecode once. The cache only holds
+ * weak references to the class loaders, types and generated classes, so it
+ * does not prevent class loaders from being unloaded. A proxy class, which was
+ * collected as it has no instances anymore, is generated again on demand.
+ *
+ * Whenever possible, the proxy class is defined in the same class loader and
+ * package as the proxied class, so that package-private classes and methods
+ * can be proxied too. Proxy instances are created without invoking any
+ * constructor of the proxied class, if the JVM supports it.
+ *
+ * @see ProxyClassGenerator
+ */
+class SubclassProxyFactory {
+
+	private static final String FALLBACK_PACKAGE = "de.tobiasroeser.lambdatest.proxy.generated";
+
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	/** Generated proxy classes by class loader and types. */
+	private static final Map<CacheKey, WeakReference<Class<?>>> cache = new ConcurrentHashMap<>();
+
+	/** The instantiation details of generated proxy classes, bound to their lifetime. */
+	private static final ClassValue<ProxyClass> proxyClasses = new ClassValue<ProxyClass>() {
+		@Override
+		protected ProxyClass computeValue(final Class<?> type) {
+			try {
+				final Field handlerField = type.getField(ProxyClassGenerator.HANDLER_FIELD);
+				final boolean samePackage = !type.getName().startsWith(FALLBACK_PACKAGE + ".");
+				return new ProxyClass(type, handlerField, instantiator(type, type.getSuperclass(), samePackage));
+			} catch (final ReflectiveOperationException e) {
+				throw new IllegalArgumentException("Could not initialize proxy class " + type.getName(), e);
+			}
+		}
+	};
+
+	/**
+	 * The cache key of a class loader and the proxied types, only weakly
+	 * referencing them. Keys, whose referents were collected, are only equal
+	 * to themselves.
+	 */
+	private static class CacheKey {
+		/** `null` for the bootstrap class loader. */
+		private final WeakReference<ClassLoader> classLoader;
+		private final List<WeakReference<Class<?>>> types;
+		private final int hashCode;
+
+		CacheKey(final ClassLoader classLoader, final List<Class<?>> types) {
+			this.classLoader = classLoader == null ? null : new WeakReference<>(classLoader);
+			this.types = new ArrayList<>(types.size());
+			for (final Class<?> type : types) {
+				this.types.add(new WeakReference<>(type));
+			}
+			this.hashCode = 31 * System.identityHashCode(classLoader) + types.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CacheKey)) {
+				return false;
+			}
+			final CacheKey other = (CacheKey) obj;
+			if (hashCode != other.hashCode || types.size() != other.types.size()) {
+				return false;
+			}
+			if ((classLoader == null) != (other.classLoader == null)) {
+				return false;
+			}
+			if (classLoader != null) {
+				final ClassLoader loader = classLoader.get();
+				if (loader == null || loader != other.classLoader.get()) {
+					return false;
+				}
+			}
+			for (int i = 0; i < types.size(); ++i) {
+				final Class<?> type = types.get(i).get();
+				if (type == null || type != other.types.get(i).get()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * A generated proxy class with everything needed to create instances.
+	 */
+	private static class ProxyClass {
+		private final Class<?> type;
+		private final Field handlerField;
+		private final Constructor<?> constructor;
+
+		ProxyClass(final Class<?> type, final Field handlerField, final Constructor<?> constructor) {
+			this.type = type;
+			this.handlerField = handlerField;
+			this.constructor = constructor;
+		}
+
+		Object newInstance(final InvocationHandler handler) {
+			try {
+				final Object proxy = constructor.newInstance();
+				handlerField.set(proxy, handler);
+				return proxy;
+			} catch (final ReflectiveOperationException e) {
+				throw new IllegalArgumentException("Could not instantiate proxy class " + type.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new proxy instance.
+	 *
+	 * @param classLoader
+	 *            The class loader used, if the proxy class can not be defined in
+	 *            the class loader of the superclass.
+	 * @param superclass
+	 *            The non-final class the proxy should extend.
+	 * @param interfaces
+	 *            Additional interfaces, the proxy should implement.
+	 * @param handler
+	 *            The handler, all method invocations will be delegated to.
+	 */
+	static Object newProxyInstance(final ClassLoader classLoader, final Class<?> superclass,
+			final List<Class<?>> interfaces, final InvocationHandler handler) {
+		if (superclass.isPrimitive() || superclass.isArray() || Modifier.isFinal(superclass.getModifiers())) {
+			throw new IllegalArgumentException("Cannot create a proxy for final class " + superclass.getName());
+		}
+		final List<Class<?>> types = new ArrayList<>(interfaces.size() + 1);
+		types.add(superclass);
+		types.addAll(interfaces);
+		final CacheKey key = new CacheKey(classLoader, types);
+		final WeakReference<Class<?>> cached = cache.get(key);
+		Class<?> type = cached == null ? null : cached.get();
+		if (type == null) {
+			synchronized (cache) {
+				final WeakReference<Class<?>> recheck = cache.get(key);
+				type = recheck == null ? null : recheck.get();
+				if (type == null) {
+					type = generate(classLoader, superclass, interfaces);
+					// drop the entries of collected proxy classes
+					cache.values().removeIf(ref -> ref.get() == null);
+					cache.put(key, new WeakReference<>(type));
+				}
+			}
+		}
+		return proxyClasses.get(type).newInstance(handler);
+	}
+
+	/**
+	 * Generates the proxy class and initializes its methods.
+	 */
+	private static Class<?> generate(final ClassLoader classLoader, final Class<?> superclass,
+			final List<Class<?>> interfaces) {
+		final String simpleName = superclass.getName().substring(superclass.getName().lastIndexOf('.') + 1);
+		final String suffix = "$$LambdaTestProxy$" + counter.incrementAndGet();
+
+		Class<?> type = null;
+		List<Method> methods = null;
+		if (superclass.getClassLoader() != null && !superclass.getName().startsWith("java.")
+				&& allVisible(superclass.getClassLoader(), interfaces)) {
+			final String className = superclass.getName() + suffix;
+			methods = collectMethods(superclass, interfaces, true);
+			final byte[] bytes = new ProxyClassGenerator(className, superclass, interfaces, methods,
+					hasDefaultConstructor(superclass, true)).generate();
+			try {
+				type = defineInSamePackage(superclass, className, bytes);
+			} catch (final Exception e) {
+				LoggerFactory.getLogger(SubclassProxyFactory.class).debug(
+						"Could not define proxy class in package of {}. Falling back to own class loader.",
+						superclass.getName(), e);
+			}
+		}
+
+		if (type == null) {
+			final ClassLoader parent = allVisible(classLoader, interfaces) && isVisible(classLoader, superclass)
+					? classLoader
+					: superclass.getClassLoader();
+			final String className = FALLBACK_PACKAGE + "." + simpleName + suffix;
+			methods = collectMethods(superclass, interfaces, false);
+			final byte[] bytes = new ProxyClassGenerator(className, superclass, interfaces, methods,
+					hasDefaultConstructor(superclass, false)).generate();
+			type = new ProxyClassLoader(parent).define(className, bytes);
+		}
+
+		try {
+			final Field methodsField = type.getField(ProxyClassGenerator.METHODS_FIELD);
+			methodsField.set(null, methods.toArray(new Method[0]));
+			return type;
+		} catch (final ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Could not initialize proxy class " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Collects all methods, the proxy class must override. Methods are
+	 * identified by their name and descriptor, the most specific declaration
+	 * wins. Final, static and private methods can not be overridden and are
+	 * skipped, as are package-private methods if the proxy lives in another
+	 * package.
+	 */
+	private static List<Method> collectMethods(final Class<?> superclass, final List<Class<?>> interfaces,
+			final boolean samePackage) {
+		final Map<String, Method> methods = new LinkedHashMap<>();
+		for (Class<?> c = superclass; c != null; c = c.getSuperclass()) {
+			for (final Method method : c.getDeclaredMethods()) {
+				if (c == Object.class && !Modifier.isPublic(method.getModifiers())) {
+					// skip finalize and clone
+					continue;
+				}
+				methods.putIfAbsent(method.getName() + ProxyClassGenerator.methodDescriptor(method), method);
+			}
+			for (final Class<?> i : c.getInterfaces()) {
+				for (final Method method : i.getMethods()) {
+					methods.putIfAbsent(method.getName() + ProxyClassGenerator.methodDescriptor(method), method);
+				}
+			}
+		}
+		for (final Class<?> i : interfaces) {
+			for (final Method method : i.getMethods()) {
+				methods.putIfAbsent(method.getName() + ProxyClassGenerator.methodDescriptor(method), method);
+			}
+		}
+
+		final List<Method> result = new ArrayList<>(methods.size());
+		for (final Method method : methods.values()) {
+			final int mod = method.getModifiers();
+			final boolean packagePrivate = !Modifier.isPublic(mod) && !Modifier.isProtected(mod);
+			if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || Modifier.isPrivate(mod)
+					|| (packagePrivate && !(samePackage && isSamePackage(method.getDeclaringClass(), superclass)))) {
+				continue;
+			}
+			result.add(method);
+		}
+		return result;
+	}
+
+	private static boolean isSamePackage(final Class<?> a, final Class<?> b) {
+		final String aName = a.getName();
+		final String bName = b.getName();
+		return a.getClassLoader() == b.getClassLoader()
+				&& aName.substring(0, Math.max(0, aName.lastIndexOf('.')))
+						.equals(bName.substring(0, Math.max(0, bName.lastIndexOf('.'))));
+	}
+
+	private static boolean hasDefaultConstructor(final Class<?> superclass, final boolean samePackage) {
+		try {
+			final int mod = superclass.getDeclaredConstructor().getModifiers();
+			return Modifier.isPublic(mod) || Modifier.isProtected(mod) || (samePackage && !Modifier.isPrivate(mod));
+		} catch (final NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static boolean isVisible(final ClassLoader classLoader, final Class<?> type) {
+		try {
+			return Class.forName(type.getName(), false, classLoader) == type;
+		} catch (final ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	private static boolean allVisible(final ClassLoader classLoader, final List<Class<?>> types) {
+		for (final Class<?> type : types) {
+			if (!isVisible(classLoader, type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Defines the class in the class loader and package of the given `neighbor`.
+	 * On Java 9+ we use `MethodHandles.privateLookupIn`, on Java 8 we use the
+	 * protected `ClassLoader.defineClass`.
+	 */
+	private static Class<?> defineInSamePackage(final Class<?> neighbor, final String className, final byte[] bytes)
+			throws Exception {
+		Method privateLookupIn = null;
+		try {
+			privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class,
+					MethodHandles.Lookup.class);
+		} catch (final NoSuchMethodException e) {
+			// Java 8
+		}
+		if (privateLookupIn != null) {
+			final Object lookup = privateLookupIn.invoke(null, neighbor, MethodHandles.lookup());
+			return (Class<?>) MethodHandles.Lookup.class.getMethod("defineClass", byte[].class).invoke(lookup, bytes);
+		} else {
+			final Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class,
+					int.class, int.class, java.security.ProtectionDomain.class);
+			defineClass.setAccessible(true);
+			return (Class<?>) defineClass.invoke(neighbor.getClassLoader(), className, bytes, 0, bytes.length,
+					neighbor.getProtectionDomain());
+		}
+	}
+
+	/**
+	 * Finds a constructor to create proxy instances. We prefer to not invoke any
+	 * constructor of the superclass (as it may have side effects or call proxied
+	 * methods before the handler is set), which is supported by the
+	 * `sun.reflect.ReflectionFactory` of most JVMs. Otherwise, the generated
+	 * default constructor is used.
+	 */
+	private static Constructor<?> instantiator(final Class<?> type, final Class<?> superclass,
+			final boolean samePackage) {
+		try {
+			final Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+			final Object factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+			final Constructor<?> constructor = (Constructor<?>) factoryClass
+					.getMethod("newConstructorForSerialization", Class.class, Constructor.class)
+					.invoke(factory, type, Object.class.getDeclaredConstructor());
+			constructor.setAccessible(true);
+			return constructor;
+		} catch (final Exception e) {
+			LoggerFactory.getLogger(SubclassProxyFactory.class)
+					.debug("Could not create proxy instantiator without constructor invocation.", e);
+		}
+		if (hasDefaultConstructor(superclass, samePackage)) {
+			try {
+				return type.getConstructor();
+			} catch (final NoSuchMethodException e) {
+				// handled below
+			}
+		}
+		throw new IllegalArgumentException(
+				"Cannot create a proxy for class " + superclass.getName() + " without an accessible no-arg constructor");
+	}
+
+	private static class ProxyClassLoader extends ClassLoader {
+		ProxyClassLoader(final ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(final String className, final byte[] bytes) {
+			return defineClass(className, bytes, 0, bytes.length);
+		}
+	}
+
+}
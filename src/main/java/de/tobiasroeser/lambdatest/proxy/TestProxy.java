@@ -2,11 +2,13 @@ package de.tobiasroeser.lambdatest.proxy;
 
 import static de.tobiasroeser.lambdatest.internal.Util.decapitalize;
 import static de.tobiasroeser.lambdatest.internal.Util.exists;
+import static de.tobiasroeser.lambdatest.internal.Util.filter;
 import static de.tobiasroeser.lambdatest.internal.Util.filterType;
 import static de.tobiasroeser.lambdatest.internal.Util.find;
 import static de.tobiasroeser.lambdatest.internal.Util.map;
 import static de.tobiasroeser.lambdatest.internal.Util.mkString;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -18,10 +20,11 @@ import java.util.List;
 import java.util.Map;
 
 import de.tobiasroeser.lambdatest.Optional;
+import de.tobiasroeser.lambdatest.internal.JfrEvent;
 import de.tobiasroeser.lambdatest.internal.LoggerFactory;
 
 /**
- * Utility class for simple mocking of interfaces.
+ * Utility class for simple mocking of interfaces and classes.
  *
  * The idea is, to isolate a class under test from its dependencies, by using
  * mocks or dummies as dependencies. As some interfaces are rather large and
@@ -33,7 +36,8 @@ import de.tobiasroeser.lambdatest.internal.LoggerFactory;
  * {@link #proxy(ClassLoader, List, List, List)} or the more compact
  * {@link #proxy(Object[]) proxy(Object..)} A new proxy class will be created
  * (using the optionally given ClassLoader) which implements all the given
- * interfaces. Additionally, you can provide one ore more delegate objects.
+ * interfaces. If you also give a (potentially abstract) class, the proxy class
+ * will be a runtime-generated subclass of it. Additionally, you can provide one ore more delegate objects.
  * Whenever a method is invoked on the proxy, the given objects will be checked
  * if they contain a method with a matching signature, and if so, that method
  * will be invoked an behalf of the proxy. If there are no object(s) or no
@@ -83,10 +87,17 @@ public class TestProxy {
 	/**
 	 * Creates a proxy object.
 	 *
+	 * If one of the given `types` is a class (no interface), the proxy will be
+	 * an instance of a runtime-generated subclass of it, which also implements
+	 * all other (interface) types. Such a class can be abstract, but must not be
+	 * final. Generated proxy classes are cached, so creating multiple proxies
+	 * for the same types is cheap.
+	 *
 	 * @param classLoader
 	 *            The classloader to load the interfaces.
-	 * @param interfaces
-	 *            Die Interfaces, die das Proxy-Objekt implementieren soll.
+	 * @param types
+	 *            The interfaces and the optional (at most one) class the proxy
+	 *            object should implement or extend.
 	 * @param delegates
 	 *            The objects to which method-invocations of the proxy will be
 	 *            delegated to.
@@ -95,12 +106,29 @@ public class TestProxy {
 	 *
 	 * @throws UnsupportedOperationException
 	 *             If no delegate method was found.
+	 * @throws IllegalArgumentException
+	 *             If more than one class or a final class was given.
 	 */
 	@SuppressWarnings("unchecked")
-	public static <T> T proxy(final ClassLoader classLoader, final List<Class<?>> interfaces,
+	public static <T> T proxy(final ClassLoader classLoader, final List<Class<?>> types,
 			final List<Object> delegates, final List<Option> options) {
 
-		return (T) Proxy.newProxyInstance(classLoader, interfaces.toArray(new Class<?>[0]), (proxy, method, args) -> {
+		final InvocationHandler handler = invocationHandler(types, delegates, options);
+
+		final List<Class<?>> classes = filter(types, t -> !t.isInterface());
+		if (classes.isEmpty()) {
+			return (T) Proxy.newProxyInstance(classLoader, types.toArray(new Class<?>[0]), handler);
+		} else if (classes.size() == 1) {
+			final List<Class<?>> interfaces = filter(types, t -> t.isInterface());
+			return (T) SubclassProxyFactory.newProxyInstance(classLoader, classes.get(0), interfaces, handler);
+		} else {
+			throw new IllegalArgumentException("A proxy can only extend one class, but got: " + mkString(classes, ", "));
+		}
+	}
+
+	private static InvocationHandler invocationHandler(final List<Class<?>> types, final List<Object> delegates,
+			final List<Option> options) {
+		return (proxy, method, args) -> {
 			final String methodName = method.getName();
 			final Optional<IgnoreMethod> ignore = find(filterType(options, IgnoreMethod.class),
 					i -> i.getName().equals(methodName));
@@ -117,13 +145,14 @@ public class TestProxy {
 					resetAccessible = true;
 					m.setAccessible(true);
 				}
+				final JfrEvent.Span event = JfrEvent.PROXY_INVOCATION.begin();
 				try {
 					final Object invokeReturn = m.invoke(handler.get().a(), args);
 					return invokeReturn;
 				} catch (final InvocationTargetException e) {
 					LoggerFactory.getLogger(TestProxy.class)
 							.debug("The invoked method [" + method + "] of proxy " + "Proxy["
-									+ mkString(interfaces, " & ") + "]@"
+									+ mkString(types, " & ") + "]@"
 									+ System.identityHashCode(proxy) + " throw an exception", e.getCause());
 					// the underlying method throw an exception, which we simply
 					// pass through
@@ -132,13 +161,16 @@ public class TestProxy {
 					if (resetAccessible) {
 						m.setAccessible(false);
 					}
+					if (event != null) {
+						event.end(mkString(types, " & "), method.toString());
+					}
 				}
 			} else if (methodName.equals("toString") && args == null) {
-				return "Proxy[" + mkString(interfaces, " & ") + "]@" + System.identityHashCode(proxy);
+				return "Proxy[" + mkString(types, " & ") + "]@" + System.identityHashCode(proxy);
 			} else {
 				final String methodSignature = methodSignature(method);
 
-				final String optionalMethodSignature = hasTypeParameter(interfaces)
+				final String optionalMethodSignature = hasTypeParameter(types)
 						? "\nOR ==>  " + methodSignatureWithoutGenerics(method) + " { ... } "
 						: "";
 
@@ -151,11 +183,11 @@ public class TestProxy {
 								optionalMethodSignature +
 								"\n");
 			}
-		});
+		};
 	}
 
-	private static boolean hasTypeParameter(List<Class<?>> interfaces) {
-		return exists(interfaces, i -> i.getTypeParameters().length > 0);
+	private static boolean hasTypeParameter(List<Class<?>> types) {
+		return exists(types, t -> t.getTypeParameters().length > 0);
 	}
 
 	private static String methodSignatureWithoutGenerics(final Method method) {
@@ -237,15 +269,16 @@ public class TestProxy {
 	 * @param classLoaderOrInterfaceOrDelegateOrOption
 	 *            Variable set of parameters used the following way: 1) if instance
 	 *            of {@link Option}, than used as option, 2) if instance of
-	 *            ClassLoader, then used to create the proxy instance, 3) if a class
-	 *            (no interface), used as delegate object, 4) else it will be used
-	 *            as interface to be implemented by the proxy.
+	 *            ClassLoader, then used to create the proxy instance, 3) if a
+	 *            {@link Class}, it will be used as interface to be implemented or
+	 *            (at most one) class to be extended by the proxy, 4) else it will
+	 *            be used as delegate object.
 	 *
 	 * @see #proxy(ClassLoader, List, List, List)
 	 */
 	public static <T> T proxy(final Object... classLoaderOrInterfaceOrDelegateOrOption) {
 		ClassLoader cl = null;
-		final List<Class<?>> interfaces = new LinkedList<>();
+		final List<Class<?>> types = new LinkedList<>();
 		final List<Object> delegates = new LinkedList<>();
 		final List<Option> options = new LinkedList<>();
 		for (final Object object : classLoaderOrInterfaceOrDelegateOrOption) {
@@ -254,12 +287,12 @@ public class TestProxy {
 			} else if (object instanceof ClassLoader) {
 				cl = (ClassLoader) object;
 			} else if (object instanceof Class<?>) {
-				interfaces.add((Class<?>) object);
+				types.add((Class<?>) object);
 			} else {
 				delegates.add(object);
 			}
 		}
-		return proxy(cl != null ? cl : TestProxy.class.getClassLoader(), interfaces, delegates, options);
+		return proxy(cl != null ? cl : TestProxy.class.getClassLoader(), types, delegates, options);
 	}
 
 }
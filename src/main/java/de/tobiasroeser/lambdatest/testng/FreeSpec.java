@@ -6,10 +6,10 @@ import java.util.Iterator;
 import org.testng.Assert;
 import org.testng.SkipException;
 import org.testng.TestException;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
-import de.tobiasroeser.lambdatest.ExpectContext;
 import de.tobiasroeser.lambdatest.LambdaTest;
 import de.tobiasroeser.lambdatest.RunnableWithException;
 import de.tobiasroeser.lambdatest.generic.DefaultTestCase;
@@ -38,11 +38,9 @@ import de.tobiasroeser.lambdatest.internal.Util;
  */
 public class FreeSpec extends FreeSpecBase implements LambdaTest {
 
-	private volatile boolean testNeverRun = true;
-
 	@Override
 	public void setRunInParallel(final boolean runInParallel) {
-		if (!testNeverRun) {
+		if (isSuiteStarted()) {
 			getReporter().suiteWarning(getSuiteName(), "Tests already started. Cannot change settings.");
 			return;
 		}
@@ -51,7 +49,7 @@ public class FreeSpec extends FreeSpecBase implements LambdaTest {
 
 	@Override
 	public void setExpectFailFast(final boolean failFast) {
-		if (!testNeverRun) {
+		if (isSuiteStarted()) {
 			getReporter().suiteWarning(getSuiteName(), "Tests already started. Cannot change settings.");
 			return;
 		}
@@ -85,51 +83,9 @@ public class FreeSpec extends FreeSpecBase implements LambdaTest {
 		throw new SkipException(reason);
 	}
 
-	private void runTestCase(final DefaultTestCase testCase) throws Throwable {
-		if (testNeverRun) {
-			synchronized (this) {
-				if (testNeverRun) {
-					getReporter().suiteStart(getSuiteName(), getTestCases());
-					testNeverRun = false;
-				}
-			}
-		}
-
-		try {
-			ExpectContext.setup(getExpectFailFast());
-			Throwable uncaughtTestError = null;
-			Throwable delayedTestError = null;
-			try {
-				getReporter().testStart(testCase);
-				testCase.getTest().run();
-			} catch (final Throwable t) {
-				uncaughtTestError = t;
-			}
-			try {
-				ExpectContext.finish();
-			} catch (final Throwable t) {
-				delayedTestError = t;
-			}
-			if (uncaughtTestError != null && delayedTestError != null) {
-				throw new AssertionError(
-						"An error occurred (see root cause) after some expectations failed. Failed Expectations:\n"
-								+ delayedTestError.getMessage(),
-						uncaughtTestError);
-			} else if (uncaughtTestError != null) {
-				// if this was a SkipException, we still detect it, else some
-				// other errors occurred before
-				throw uncaughtTestError;
-			} else if (delayedTestError != null) {
-				throw delayedTestError;
-			}
-			getReporter().testSucceeded(testCase);
-		} catch (final SkipException e) {
-			getReporter().testSkipped(testCase, e.getMessage());
-			throw e;
-		} catch (final Throwable e) {
-			getReporter().testFailed(testCase, e);
-			throw e;
-		}
+	@AfterClass(alwaysRun = true)
+	public void reportSuiteFinished() {
+		finishSuite();
 	}
 
 	@DataProvider(name = "freeSpecTestCases", parallel = false)
@@ -143,7 +99,7 @@ public class FreeSpec extends FreeSpecBase implements LambdaTest {
 
 	@Test(dataProvider = "freeSpecTestCases")
 	public void runFreeSpecTestCases(final DefaultTestCase testCase) throws Throwable {
-		runTestCase(testCase);
+		runTestCase(testCase, SkipException.class);
 	}
 
 	@DataProvider(name = "freeSpecParallelTestCases", parallel = true)
@@ -157,7 +113,7 @@ public class FreeSpec extends FreeSpecBase implements LambdaTest {
 
 	@Test(dataProvider = "freeSpecParallelTestCases")
 	public void runFreeSpecParallelTestCases(final DefaultTestCase testCase) throws Throwable {
-		runTestCase(testCase);
+		runTestCase(testCase, SkipException.class);
 	}
 
 }
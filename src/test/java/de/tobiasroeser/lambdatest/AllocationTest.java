@@ -0,0 +1,77 @@
+package de.tobiasroeser.lambdatest;
+
+import static de.tobiasroeser.lambdatest.Expect.expectAllocatesAtMost;
+import static de.tobiasroeser.lambdatest.Expect.expectNoAllocation;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.internal.ThreadMetrics;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class AllocationTest extends FreeSpec {
+
+	/** Makes allocations escape, so they can't be eliminated. */
+	static volatile Object sink;
+
+	/**
+	 * Runs the given code in a separate thread without expect context, so
+	 * expectations fail fast.
+	 *
+	 * @return The error thrown by the code.
+	 */
+	private static Throwable inOtherThread(final RunnableWithException code) throws InterruptedException {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				code.run();
+			} catch (final Throwable t) {
+				error.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		return error.get();
+	}
+
+	private void requireAllocationSupport() {
+		if (!ThreadMetrics.isAllocationSupported()) {
+			pending("Measuring allocated bytes is not supported by this JVM");
+		}
+	}
+
+	public AllocationTest() {
+
+		test("expectNoAllocation should succeed for a block without allocations", () -> {
+			requireAllocationSupport();
+			final long[] counter = new long[1];
+			expectNoAllocation(() -> counter[0]++);
+			expectTrue(counter[0] == Expect.DEFAULT_ALLOCATION_WARMUP + Expect.DEFAULT_ALLOCATION_ITERATIONS);
+		});
+
+		test("expectNoAllocation should fail for an allocating block with the bytes per invocation", () -> {
+			requireAllocationSupport();
+			final Throwable error = inOtherThread(() -> expectNoAllocation(() -> sink = new byte[1000]));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage())
+					.startsWith("Expected at most 0 bytes allocated per invocation, but allocated 10")
+					.contains(" invocations after 10000 warmup invocations)");
+		});
+
+		test("expectAllocatesAtMost should succeed within the budget", () -> {
+			requireAllocationSupport();
+			expectAllocatesAtMost(2000, 100, 1000, () -> sink = new byte[1000]);
+		});
+
+		test("expectAllocatesAtMost should fail when exceeding the budget", () -> {
+			requireAllocationSupport();
+			final Throwable error = inOtherThread(
+					() -> expectAllocatesAtMost(100, 100, 1000, () -> sink = new byte[1000]));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage()).contains(" bytes in 1000 invocations after 100 warmup invocations)");
+		});
+
+	}
+
+}
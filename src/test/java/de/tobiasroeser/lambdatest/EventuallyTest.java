@@ -0,0 +1,170 @@
+package de.tobiasroeser.lambdatest;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectEventually;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class EventuallyTest extends FreeSpec {
+
+	/**
+	 * Runs the given code in a separate thread without expect context, so
+	 * expectations fail fast.
+	 *
+	 * @return The error thrown by the code.
+	 */
+	private static Throwable inOtherThread(final RunnableWithException code) throws InterruptedException {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				code.run();
+			} catch (final Throwable t) {
+				error.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		return error.get();
+	}
+
+	private static void setLater(final AtomicBoolean flag, final long delayMillis) {
+		final Thread thread = new Thread(() -> {
+			try {
+				Thread.sleep(delayMillis);
+			} catch (final InterruptedException e) {
+				return;
+			}
+			flag.set(true);
+		});
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public EventuallyTest() {
+
+		section("expectEventually", () -> {
+
+			test("should succeed, when the block succeeds in time", () -> {
+				final AtomicBoolean done = new AtomicBoolean();
+				setLater(done, 50);
+				expectEventually(Duration.ofSeconds(10), () -> expectTrue(done.get(), "not done"));
+			});
+
+			test("should fail with the attempt count and the last failure", () -> {
+				final AtomicInteger attempts = new AtomicInteger();
+				final Throwable error = inOtherThread(() -> expectEventually(Duration.ofMillis(100),
+						() -> expectEquals(attempts.incrementAndGet(), -1)));
+				expectTrue(error instanceof AssertionError);
+				expectString(error.getMessage())
+						.startsWith("Expectation did not hold within 100 ms after " + attempts.get() + " attempts.");
+				expectTrue(error.getCause() instanceof AssertionError);
+				expectString(error.getCause().getMessage()).contains("Actual " + attempts.get());
+			});
+
+			test("should fail fast inside the block, even if expectations are collected", () -> {
+				final AtomicInteger attempts = new AtomicInteger();
+				final AtomicBoolean done = new AtomicBoolean();
+				setLater(done, 50);
+				final Throwable error = inOtherThread(() -> {
+					ExpectContext.setup(false);
+					try {
+						expectEventually(Duration.ofSeconds(10), () -> {
+							attempts.incrementAndGet();
+							expectTrue(done.get());
+						});
+						ExpectContext.finish();
+					} finally {
+						ExpectContext.clear();
+					}
+				});
+				expectEquals(error, null);
+				expectTrue(attempts.get() > 1);
+			});
+
+			test("should check again, when woken up", () -> {
+				final Eventually.WakeUp wakeUp = new Eventually.WakeUp();
+				final AtomicBoolean done = new AtomicBoolean();
+				final Eventually.PollPolicy policy = Eventually.PollPolicy.DEFAULT
+						.withInitialDelay(Duration.ofSeconds(30));
+				final Thread signaller = new Thread(() -> {
+					try {
+						Thread.sleep(50);
+					} catch (final InterruptedException e) {
+						return;
+					}
+					done.set(true);
+					wakeUp.signal();
+				});
+				signaller.start();
+				final long start = System.nanoTime();
+				expectEventually(Duration.ofSeconds(60), policy.withWakeUp(wakeUp), () -> expectTrue(done.get()));
+				expectTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+			});
+
+		});
+
+		section("expectEventuallyAsync", () -> {
+
+			test("should complete many waits on the shared scheduler", () -> {
+				final AtomicBoolean done = new AtomicBoolean();
+				final List<CompletableFuture<Void>> waits = new ArrayList<>();
+				final int threadsBefore = Thread.activeCount();
+				for (int i = 0; i < 1000; ++i) {
+					waits.add(Eventually.expectEventuallyAsync(Duration.ofSeconds(10), () -> expectTrue(done.get()))
+							.toCompletableFuture());
+				}
+				expectTrue(Thread.activeCount() - threadsBefore < 10);
+				setLater(done, 50);
+				CompletableFuture.allOf(waits.toArray(new CompletableFuture<?>[0])).get();
+			});
+
+			test("should complete exceptionally, if the block does not succeed in time", () -> {
+				final CompletableFuture<Void> wait = Eventually
+						.expectEventuallyAsync(Duration.ofMillis(50), () -> expectTrue(false, "never"))
+						.toCompletableFuture();
+				final ExecutionException e = intercept(ExecutionException.class, () -> wait.get());
+				expectTrue(e.getCause() instanceof AssertionError);
+				expectString(e.getCause().getMessage()).startsWith("Expectation did not hold within 50 ms after ");
+			});
+
+			test("should complete exceptionally with other errors of the block", () -> {
+				final CompletableFuture<Void> wait = Eventually
+						.expectEventuallyAsync(Duration.ofSeconds(10), () -> {
+							throw new StackOverflowError("deep");
+						})
+						.toCompletableFuture();
+				final ExecutionException e = intercept(ExecutionException.class, () -> wait.get(10, TimeUnit.SECONDS));
+				expectTrue(e.getCause() instanceof StackOverflowError);
+			});
+
+			test("should check again, when woken up", () -> {
+				final Eventually.WakeUp wakeUp = new Eventually.WakeUp();
+				final AtomicBoolean done = new AtomicBoolean();
+				final CompletableFuture<Void> wait = Eventually.expectEventuallyAsync(Duration.ofSeconds(60),
+						Eventually.PollPolicy.DEFAULT.withInitialDelay(Duration.ofSeconds(30)).withWakeUp(wakeUp),
+						() -> expectTrue(done.get())).toCompletableFuture();
+				Thread.sleep(50);
+				final long start = System.nanoTime();
+				done.set(true);
+				wakeUp.signal();
+				wait.get();
+				expectTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+			});
+
+		});
+
+	}
+
+}
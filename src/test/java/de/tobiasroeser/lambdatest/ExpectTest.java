@@ -173,6 +173,51 @@ public class ExpectTest {
 		assertEquals(ExpectContext.threadContext(), null);
 	}
 
+	@Test
+	public void testManyFailingAssertsAreCollected() throws Exception {
+		ExpectContext.clear();
+		ExpectContext.setup(false);
+		for (int i = 0; i < 30; ++i) {
+			Expect.expectEquals(i, -1, "NUMBER " + i);
+		}
+		final MultipleFailuresError error = intercept(MultipleFailuresError.class, () -> {
+			ExpectContext.finish();
+		});
+		assertEquals(error.getFailures().size(), 30);
+		assertEquals(error.getFailures().get(29).getMessage().startsWith("NUMBER 29"), true);
+		final String message = error.getMessage();
+		assertEquals(message.startsWith("30 expectations failed\n"), true);
+		assertEquals(message.contains("NUMBER 19"), true);
+		assertEquals(message.contains("NUMBER 20"), false);
+		assertEquals(message.contains("\tat de.tobiasroeser.lambdatest.ExpectTest.testManyFailingAssertsAreCollected"),
+				true);
+		assertEquals(message.contains("... and 10 more failed expectations"), true);
+		assertEquals(ExpectContext.threadContext(), null);
+	}
+
+	@Test
+	public void testCollectionPolicyLimitsAndGroupsFailures() throws Exception {
+		ExpectContext.clear();
+		ExpectContext.setup(false, ExpectContext.CollectionPolicy.DEFAULT
+				.withMaxErrors(2)
+				.withGroupByMessage(true)
+				.withCallSiteOnly(true));
+		for (int i = 0; i < 1000; ++i) {
+			Expect.expectEquals(i % 5, -1, "ROW");
+		}
+		final MultipleFailuresError error = intercept(MultipleFailuresError.class, () -> {
+			ExpectContext.finish();
+		});
+		assertEquals(error.getFailedCount(), 1000L);
+		assertEquals(error.getFailures().size(), 2);
+		final AssertionError first = error.getFailures().get(0);
+		assertEquals(first.getMessage().endsWith(" (failed 200 times)"), true);
+		assertEquals(first.toString().startsWith("java.lang.AssertionError: ROW"), true);
+		assertEquals(first.getStackTrace().length, 1);
+		assertEquals(first.getStackTrace()[0].getMethodName(), "testCollectionPolicyLimitsAndGroupsFailures");
+		assertEquals(error.getMessage().startsWith("1000 expectations failed (2 collected)\n"), true);
+	}
+
 	@Test
 	public void testExpectNotNull() {
 		ExpectContext.clear();
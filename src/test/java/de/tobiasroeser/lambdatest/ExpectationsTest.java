@@ -0,0 +1,111 @@
+package de.tobiasroeser.lambdatest;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class ExpectationsTest extends FreeSpec {
+
+	/**
+	 * Runs the given code with its own expect context in a separate thread, to
+	 * not interfere with the expect context of the outer test.
+	 *
+	 * @return The error thrown by the code or when finishing the context.
+	 */
+	private static Throwable inOwnContext(final boolean failEarly, final ProcedureWithException<Expectations> code)
+			throws InterruptedException {
+		return inOwnContext(failEarly, ExpectContext.CollectionPolicy.DEFAULT, code);
+	}
+
+	private static Throwable inOwnContext(final boolean failEarly, final ExpectContext.CollectionPolicy policy,
+			final ProcedureWithException<Expectations> code) throws InterruptedException {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			ExpectContext.setup(failEarly, policy);
+			try {
+				code.apply(ExpectContext.expectations());
+				ExpectContext.finish();
+			} catch (final Throwable t) {
+				ExpectContext.clear();
+				error.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		return error.get();
+	}
+
+	public ExpectationsTest() {
+
+		test("Bound expectations should be usable as test parameter", expect -> {
+			expect.expectEquals(1, 1);
+			expect.expectString("abc").hasLength(3).startsWith("a");
+			expect.expectCollection(Arrays.asList(1, 2)).hasSize(2);
+		});
+
+		test("Failures in other threads should be collected", () -> {
+			final Throwable error = inOwnContext(false, expect -> {
+				CompletableFuture.runAsync(() -> expect.expectEquals(1, 2, "ASYNC")).get();
+				expect.expectTrue(true);
+			});
+			expectTrue(error instanceof AssertionError);
+			expectTrue(error.getMessage().startsWith("ASYNC"));
+		});
+
+		test("Failures of fluent expectations in other threads should be collected", () -> {
+			final Throwable error = inOwnContext(false, expect -> {
+				final List<Integer> values = Arrays.asList(1, 2, 3);
+				values.parallelStream().forEach(v -> expect.expectMap(Collections.singletonMap(v, v))
+						.keys().hasSize(2));
+			});
+			expectTrue(error instanceof MultipleFailuresError);
+			expectEquals(((MultipleFailuresError) error).getFailures().size(), 3);
+		});
+
+		test("Failures in other threads should be created according to the policy of the bound context", () -> {
+			final Throwable error = inOwnContext(false,
+					ExpectContext.CollectionPolicy.DEFAULT.withCallSiteOnly(true).withMaxErrors(1), expect -> {
+						final Thread thread = new Thread(() -> {
+							expect.expectEquals(1, 2, "FIRST");
+							expect.expectString("a").isEqual("b");
+						});
+						thread.start();
+						thread.join();
+					});
+			expectTrue(error instanceof MultipleFailuresError);
+			final List<AssertionError> failures = ((MultipleFailuresError) error).getFailures();
+			expectEquals(failures.size(), 1);
+			expectTrue(failures.get(0).getMessage().startsWith("FIRST"));
+			expectTrue(failures.get(0).getStackTrace().length <= 1,
+					"Stack trace: " + Arrays.toString(failures.get(0).getStackTrace()));
+		});
+
+		test("Swallowed fail-fast failures in other threads should fail the test", () -> {
+			final Throwable error = inOwnContext(true, expect -> {
+				final CompletableFuture<Void> future = CompletableFuture
+						.runAsync(() -> expect.expectNotNull(null, "SWALLOWED"));
+				// the error is swallowed by ignoring the future's outcome
+				future.exceptionally(t -> null).get();
+			});
+			expectTrue(error instanceof AssertionError);
+			expectTrue(error.getMessage().startsWith("SWALLOWED"));
+		});
+
+		test("Fail-fast failures in the test thread should be thrown", () -> {
+			final Throwable error = inOwnContext(true, expect -> {
+				expect.expectFalse(true, "FIRST");
+				expect.expectFalse(true, "SECOND");
+			});
+			expectTrue(error.getMessage().startsWith("FIRST"));
+		});
+
+	}
+
+}
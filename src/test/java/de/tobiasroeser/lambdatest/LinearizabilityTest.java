@@ -0,0 +1,206 @@
+package de.tobiasroeser.lambdatest;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.Linearizability.History;
+import de.tobiasroeser.lambdatest.Linearizability.Model;
+import de.tobiasroeser.lambdatest.Linearizability.Operation;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class LinearizabilityTest extends FreeSpec {
+
+	/**
+	 * Runs the given code in a separate thread without expect context, so
+	 * expectations fail fast.
+	 *
+	 * @return The error thrown by the code.
+	 */
+	private static Throwable inOtherThread(final RunnableWithException code) throws InterruptedException {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				code.run();
+			} catch (final Throwable t) {
+				error.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		return error.get();
+	}
+
+	/**
+	 * Runs the given code concurrently in the given number of threads.
+	 */
+	private static void concurrently(final int threads, final RunnableWithException code) throws Exception {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final List<Thread> started = new ArrayList<>();
+		for (int i = 0; i < threads; ++i) {
+			final Thread thread = new Thread(() -> {
+				try {
+					code.run();
+				} catch (final Throwable t) {
+					error.compareAndSet(null, t);
+				}
+			});
+			thread.start();
+			started.add(thread);
+		}
+		for (final Thread thread : started) {
+			thread.join();
+		}
+		if (error.get() != null) {
+			throw new AssertionError("Thread failed", error.get());
+		}
+	}
+
+	/**
+	 * A FIFO queue with `offer` and `poll`.
+	 */
+	private static class QueueModel implements Model<List<Object>> {
+		@Override
+		public List<Object> initialState() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public List<Object> step(final List<Object> state, final Operation operation) {
+			if (operation.getName().equals("offer")) {
+				if (!Boolean.TRUE.equals(operation.getOutput())) {
+					return null;
+				}
+				final List<Object> newState = new ArrayList<>(state);
+				newState.add(operation.getInput());
+				return newState;
+			} else {
+				if (state.isEmpty()) {
+					return operation.getOutput() == null ? state : null;
+				}
+				return state.get(0).equals(operation.getOutput()) ? state.subList(1, state.size()) : null;
+			}
+		}
+	}
+
+	/**
+	 * A map with `put` and `get` of `Arrays.asList(key, value)` inputs,
+	 * partitioned by key.
+	 */
+	private static class MapModel implements Model<Map<Object, Object>> {
+		@Override
+		public Map<Object, Object> initialState() {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public Map<Object, Object> step(final Map<Object, Object> state, final Operation operation) {
+			final List<?> input = (List<?>) operation.getInput();
+			final Object previous = state.get(input.get(0));
+			if (previous == null ? operation.getOutput() != null : !previous.equals(operation.getOutput())) {
+				return null;
+			}
+			if (operation.getName().equals("put")) {
+				final Map<Object, Object> newState = new HashMap<>(state);
+				newState.put(input.get(0), input.get(1));
+				return newState;
+			}
+			return state;
+		}
+
+		@Override
+		public Object partition(final Operation operation) {
+			return ((List<?>) operation.getInput()).get(0);
+		}
+	}
+
+	public LinearizabilityTest() {
+
+		test("A history of a concurrent queue should be linearizable", () -> {
+			final ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>();
+			final History history = new History();
+			concurrently(4, () -> {
+				for (int i = 0; i < 500; ++i) {
+					final Integer value = i;
+					if (i % 2 == 0) {
+						history.record("offer", value, () -> queue.offer(value));
+					} else {
+						history.record("poll", null, () -> queue.poll());
+					}
+				}
+			});
+			final long start = System.nanoTime();
+			final Linearizability.Result result = Linearizability.check(history, new QueueModel());
+			expectTrue(System.nanoTime() - start < 10_000_000_000L, "Check took too long");
+			expectTrue(result.isLinearizable(), result.toString());
+			expectEquals(result.getLinearization().size(), 2000);
+		});
+
+		test("Overlapping operations should be linearized in any order", () -> {
+			final History history = new History();
+			// poll responds before offer, but both overlap
+			history.record("offer", 1, () -> history.record("poll", null, () -> 1) != null);
+			final Linearizability.Result result = Linearizability.check(history, new QueueModel());
+			expectTrue(result.isLinearizable());
+			expectEquals(result.getLinearization().get(0).getName(), "offer");
+		});
+
+		test("Operations should respect the real-time order", () -> {
+			final History history = new History();
+			history.record("poll", null, () -> 1);
+			history.record("offer", 1, () -> true);
+			final Linearizability.Result result = Linearizability.check(history, new QueueModel());
+			expectTrue(!result.isLinearizable());
+		});
+
+		test("A non-linearizable history should fail with the longest linearization", () -> {
+			final History history = new History();
+			history.record("offer", 1, () -> true);
+			history.record("offer", 2, () -> true);
+			history.record("poll", null, () -> 2);
+			final Throwable error = inOtherThread(() -> Linearizability.expectLinearizable(history, new QueueModel()));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage())
+					.startsWith("History of 3 operations is not linearizable.\nLongest valid linearization (2 operations):\n  offer(1) -> true [")
+					.contains("None of these operations could be linearized next:\n  poll() -> 2 [");
+		});
+
+		test("A lost update should not be linearizable", () -> {
+			final History history = new History();
+			// both puts overlap, but none sees the value of the other
+			history.record("put", Arrays.asList("a", 1), () -> history.record("put", Arrays.asList("a", 2), () -> null));
+			final Linearizability.Result result = Linearizability.check(history, new MapModel());
+			expectTrue(!result.isLinearizable());
+			expectEquals(result.getBlocked().size(), 1);
+		});
+
+		test("Partitions should be checked independently", () -> {
+			final ConcurrentHashMap<Object, Object> map = new ConcurrentHashMap<>();
+			final History history = new History();
+			concurrently(4, () -> {
+				for (int i = 0; i < 1000; ++i) {
+					final List<Object> input = Arrays.asList("key" + (i % 50), i);
+					if (i % 3 == 0) {
+						history.record("get", input, () -> map.get(input.get(0)));
+					} else {
+						history.record("put", input, () -> map.put(input.get(0), input.get(1)));
+					}
+				}
+			});
+			Linearizability.expectLinearizable(history, new MapModel());
+			expectEquals(Linearizability.check(history, new MapModel()).getLinearization().size(), 4000);
+		});
+
+	}
+
+}
@@ -0,0 +1,118 @@
+package de.tobiasroeser.lambdatest;
+
+import static de.tobiasroeser.lambdatest.Expect.expectCollectable;
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectRetainedSizeAtMost;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.internal.ObjectGraph;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class RetentionTest extends FreeSpec {
+
+	/**
+	 * Runs the given code in a separate thread without expect context, so
+	 * expectations fail fast.
+	 *
+	 * @return The error thrown by the code.
+	 */
+	private static Throwable inOtherThread(final RunnableWithException code) throws InterruptedException {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				code.run();
+			} catch (final Throwable t) {
+				error.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		return error.get();
+	}
+
+	private static class Node {
+		Node next;
+		final long value;
+
+		Node(final long value) {
+			this.value = value;
+		}
+	}
+
+	public RetentionTest() {
+
+		test("expectCollectable should succeed for an unreferenced object", () -> {
+			expectCollectable(() -> new byte[1000]);
+		});
+
+		test("expectCollectable should fail for a leaked object", () -> {
+			final List<Object> leak = new ArrayList<>();
+			final Throwable error = inOtherThread(() -> expectCollectable(() -> {
+				final Object object = new Node(1);
+				leak.add(object);
+				return object;
+			}));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage()).startsWith(
+					"Expected object of type de.tobiasroeser.lambdatest.RetentionTest$Node to be collectable, but it was still reachable after 10 garbage collection requests");
+			expectEquals(leak.size(), 1);
+		});
+
+		test("The retained size of an array should include its elements", () -> {
+			final long bytes = ObjectGraph.measure(new long[100]).getBytes();
+			expectTrue(bytes >= 800 && bytes <= 832, "Unexpected size " + bytes);
+			expectRetainedSizeAtMost(new long[100], 832);
+		});
+
+		test("Cycles and shared objects should be accounted once", () -> {
+			final Node first = new Node(1);
+			final Node second = new Node(2);
+			first.next = second;
+			second.next = first;
+			final ObjectGraph.Footprint footprint = ObjectGraph.measure(first);
+			expectEquals(footprint.getObjects(), 2L);
+			expectEquals(ObjectGraph.measure(second).getBytes(), footprint.getBytes());
+			expectEquals(ObjectGraph.measure(new Node[] { first, second, first }).getObjects(), 3L);
+		});
+
+		test("A long linked list should not overflow the stack", () -> {
+			Node head = null;
+			for (int i = 0; i < 100000; ++i) {
+				final Node node = new Node(i);
+				node.next = head;
+				head = node;
+			}
+			expectEquals(ObjectGraph.measure(head).getObjects(), 100000L);
+		});
+
+		test("expectRetainedSizeAtMost should fail with the largest classes", () -> {
+			final Map<Integer, String> cache = new HashMap<>();
+			for (int i = 0; i < 1000; ++i) {
+				cache.put(i, "value" + i);
+			}
+			final Throwable error = inOtherThread(() -> expectRetainedSizeAtMost(cache, 1000));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage())
+					.startsWith("Expected at most 1000 bytes retained, but ")
+					.contains("java.util.HashMap$Node: 1000 objects, ");
+		});
+
+		test("Weakly referenced objects should not be retained", () -> {
+			final byte[] key = new byte[100000];
+			final Map<Object, String> cache = new WeakHashMap<>();
+			cache.put(key, "value");
+			expectRetainedSizeAtMost(cache, 10000);
+			expectEquals(cache.size(), 1);
+		});
+
+	}
+
+}
@@ -0,0 +1,114 @@
+package de.tobiasroeser.lambdatest;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class StressTest extends FreeSpec {
+
+	/**
+	 * Runs the given code in a separate thread without expect context, so
+	 * expectations fail fast.
+	 *
+	 * @return The error thrown by the code.
+	 */
+	private static Throwable inOtherThread(final RunnableWithException code) throws InterruptedException {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				code.run();
+			} catch (final Throwable t) {
+				error.set(t);
+			}
+		});
+		thread.start();
+		thread.join();
+		return error.get();
+	}
+
+	public StressTest() {
+
+		test("A stress test should count the outcomes of all iterations", () -> {
+			final StressResult result = Stress.forState(() -> new AtomicInteger())
+					.actor(counter -> counter.incrementAndGet())
+					.actor(counter -> counter.incrementAndGet())
+					.arbiter(counter -> counter.get())
+					.run(100000)
+					.expectOnly("1, 2, 2", "2, 1, 2")
+					.expectForbidden("1, 1, 1", "2, 2, 2");
+			expectEquals(result.getIterations(), 100000L);
+			expectEquals(result.getCount("1, 2, 2") + result.getCount("2, 1, 2"), 100000L);
+		});
+
+		test("Actors without result should not be part of the outcome", () -> {
+			final StressResult result = Stress.forState(() -> new ConcurrentHashMap<String, Integer>())
+					.actorWithoutResult(map -> map.merge("a", 1, Integer::sum))
+					.actorWithoutResult(map -> map.merge("a", 1, Integer::sum))
+					.arbiter(map -> map.get("a"))
+					.batchSize(100)
+					.run(10000);
+			expectEquals(result.getOutcomes().size(), 1);
+			expectEquals(result.getCount("2"), 10000L);
+		});
+
+		test("Forbidden outcomes should fail with all observed outcomes", () -> {
+			final Throwable error = inOtherThread(() -> Stress.forState(() -> "state")
+					.actor(state -> 1)
+					.actor(state -> new int[] { 2, 3 })
+					.run(100)
+					.expectForbidden("1, [2, 3]"));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage())
+					.startsWith("Forbidden outcomes were observed: [1, [2, 3]]")
+					.contains("Observed outcomes in 100 iterations:\n  [1, [2, 3]]: 100");
+		});
+
+		test("Outcomes not observed should fail", () -> {
+			final Throwable error = inOtherThread(() -> Stress.forState(() -> "state")
+					.actor(state -> 1)
+					.run(10)
+					.expectObserved("2"));
+			expectTrue(error instanceof AssertionError);
+			expectString(error.getMessage()).startsWith("Outcome [2] was not observed");
+		});
+
+		test("An interrupt should stop a run with a deadlocked actor", () -> {
+			final CountDownLatch never = new CountDownLatch(1);
+			final AtomicReference<Throwable> error = new AtomicReference<>();
+			final Thread runner = new Thread(() -> {
+				try {
+					Stress.forState(() -> "state")
+							.actorWithoutResult(state -> never.await())
+							.actor(state -> 1)
+							.run(1000);
+				} catch (final Throwable t) {
+					error.set(t);
+				}
+			});
+			runner.start();
+			Thread.sleep(200);
+			runner.interrupt();
+			runner.join(5000);
+			expectTrue(!runner.isAlive(), "The run did not stop");
+			expectTrue(error.get() instanceof InterruptedException, "Unexpected error " + error.get());
+		});
+
+		test("Errors of actors should be thrown", () -> {
+			intercept(IllegalStateException.class, "ACTOR", () -> Stress.forState(() -> "state")
+					.actor(state -> {
+						throw new IllegalStateException("ACTOR");
+					})
+					.actor(state -> 1)
+					.run(1000));
+		});
+
+	}
+
+}
@@ -0,0 +1,193 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.generic.AsyncReporter.OverflowPolicy;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class AsyncReporterTest extends FreeSpec {
+
+	/**
+	 * Records all events. Intentionally not thread-safe.
+	 */
+	class RecordingReporter implements Reporter {
+		final List<String> events = new ArrayList<>();
+		final List<Thread> threads = new ArrayList<>();
+		volatile CountDownLatch blockOnStart;
+
+		private void record(final String event) {
+			events.add(event);
+			threads.add(Thread.currentThread());
+		}
+
+		@Override
+		public void testStart(final LambdaTestCase test) {
+			final CountDownLatch latch = blockOnStart;
+			if (latch != null) {
+				try {
+					latch.await();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			record("start " + test.getName());
+		}
+
+		@Override
+		public void testSkipped(final LambdaTestCase test, final String message) {
+			record("skipped " + test.getName());
+		}
+
+		@Override
+		public void testFailed(final LambdaTestCase test, final Throwable error) {
+			record("failed " + test.getName());
+		}
+
+		@Override
+		public void testSucceeded(final LambdaTestCase test) {
+			record("succeeded " + test.getName());
+		}
+
+		@Override
+		public void suiteStart(final String suiteName, final List<? extends LambdaTestCase> tests) {
+			record("suiteStart " + suiteName);
+		}
+
+		@Override
+		public void suiteWarning(final String suiteName, final String warning) {
+			record("warning " + warning);
+		}
+
+		@Override
+		public void suiteFinished(final String suiteName, final Timing total) {
+			record("suiteFinished " + suiteName);
+		}
+	}
+
+	private static long consumerThreads() {
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().startsWith("LambdaTest-AsyncReporter-")).count();
+	}
+
+	private static LambdaTestCase testCase(final String name) {
+		return new DefaultTestCase(name, "suite", () -> {
+		});
+	}
+
+	public AsyncReporterTest() {
+
+		test("Events from parallel threads should be delivered completely and in order per thread", () -> {
+			final RecordingReporter recorder = new RecordingReporter();
+			final AsyncReporter reporter = new AsyncReporter(recorder, 16, OverflowPolicy.BLOCK);
+			reporter.suiteStart("suite", new ArrayList<>());
+			final List<Thread> producers = new ArrayList<>();
+			for (int t = 0; t < 4; ++t) {
+				final int thread = t;
+				producers.add(new Thread(() -> {
+					for (int i = 0; i < 500; ++i) {
+						reporter.testSucceeded(testCase(thread + ":" + i));
+					}
+				}));
+			}
+			producers.forEach(Thread::start);
+			for (final Thread producer : producers) {
+				producer.join();
+			}
+			reporter.suiteFinished("suite", Timing.ZERO);
+
+			expectEquals(recorder.events.size(), 2002);
+			expectEquals(recorder.events.get(0), "suiteStart suite");
+			expectEquals(recorder.events.get(2001), "suiteFinished suite");
+			final int[] next = new int[4];
+			for (final String event : recorder.events.subList(1, 2001)) {
+				final String[] parts = event.substring("succeeded ".length()).split(":");
+				final int thread = Integer.parseInt(parts[0]);
+				expectEquals(Integer.parseInt(parts[1]), next[thread]++);
+			}
+			expectTrue(!recorder.threads.contains(Thread.currentThread()));
+			reporter.close();
+		});
+
+		test("A full buffer should drop test events with the DROP policy", () -> {
+			final RecordingReporter recorder = new RecordingReporter();
+			final CountDownLatch latch = new CountDownLatch(1);
+			recorder.blockOnStart = latch;
+			final AsyncReporter reporter = new AsyncReporter(recorder, 4, OverflowPolicy.DROP);
+			for (int i = 0; i < 100; ++i) {
+				reporter.testStart(testCase("t" + i));
+			}
+			expectTrue(reporter.getDroppedCount() > 0);
+			latch.countDown();
+			reporter.suiteFinished("suite", Timing.ZERO);
+
+			expectEquals(reporter.getDroppedCount(), 0L);
+			expectTrue(recorder.events.size() < 100);
+			expectString(recorder.events.get(recorder.events.size() - 2)).startsWith("warning Dropped ");
+			expectEquals(recorder.events.get(recorder.events.size() - 1), "suiteFinished suite");
+			reporter.close();
+		});
+
+		test("The DROP policy should never drop test failures", () -> {
+			final RecordingReporter recorder = new RecordingReporter();
+			final CountDownLatch latch = new CountDownLatch(1);
+			recorder.blockOnStart = latch;
+			final AsyncReporter reporter = new AsyncReporter(recorder, 4, OverflowPolicy.DROP);
+			reporter.testStart(testCase("blocking"));
+			final Thread producer = new Thread(() -> {
+				for (int i = 0; i < 20; ++i) {
+					reporter.testFailed(testCase("t" + i), new AssertionError());
+				}
+			});
+			producer.start();
+			Thread.sleep(100);
+			// the producer waits for free space
+			expectTrue(producer.isAlive());
+			latch.countDown();
+			producer.join();
+			reporter.suiteFinished("suite", Timing.ZERO);
+
+			expectEquals(recorder.events.size(), 22);
+			for (int i = 0; i < 20; ++i) {
+				expectEquals(recorder.events.get(i + 1), "failed t" + i);
+			}
+			reporter.close();
+		});
+
+		test("The background thread should be started with the first event and stopped by close", () -> {
+			// threads of the reporters of previous tests may still be stopping
+			final long before = consumerThreads();
+			final RecordingReporter recorder = new RecordingReporter();
+			final AsyncReporter reporter = new AsyncReporter(recorder);
+			expectTrue(consumerThreads() <= before);
+			expectTrue(reporter.flush(1000));
+			expectTrue(consumerThreads() <= before);
+
+			reporter.suiteFinished("suite", Timing.ZERO);
+			expectEquals(recorder.events.size(), 1);
+			final Thread consumer = recorder.threads.get(0);
+			expectTrue(consumer.getName().startsWith("LambdaTest-AsyncReporter-"));
+			reporter.close();
+			consumer.join(5000);
+			expectTrue(!consumer.isAlive());
+		});
+
+		test("Events reported after close should be delivered synchronously", () -> {
+			final RecordingReporter recorder = new RecordingReporter();
+			final AsyncReporter reporter = new AsyncReporter(recorder);
+			reporter.close();
+			reporter.testSucceeded(testCase("late"));
+			expectEquals(recorder.events.size(), 1);
+			expectEquals(recorder.threads.get(0), Thread.currentThread());
+		});
+	}
+
+}
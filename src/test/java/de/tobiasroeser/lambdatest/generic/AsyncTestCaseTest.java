@@ -0,0 +1,121 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tobiasroeser.lambdatest.TestTimeoutError;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class AsyncTestCaseTest extends FreeSpec {
+
+	public AsyncTestCaseTest() {
+
+		test("A completing async test should succeed", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.testAsync("async", () -> CompletableFuture.supplyAsync(() -> 42)
+					.thenAccept(result -> expectEquals(result, 42)));
+			expectEquals(suite.runAll().size(), 0);
+			expectString(suite.out.toString()).contains("async");
+		});
+
+		test("A failing async test should fail with the original error", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.testAsync("async", () -> CompletableFuture.supplyAsync(() -> 42)
+					.thenAccept(result -> expectEquals(result, 43)));
+			final List<Throwable> errors = suite.runAll();
+			expectEquals(errors.size(), 1);
+			expectTrue(errors.get(0) instanceof AssertionError);
+			expectString(errors.get(0).getMessage()).contains("Actual 42 is not equal to 43");
+		});
+
+		test("An async test not completing within its timeout should fail and be cancelled", () -> {
+			final TestSuite suite = new TestSuite();
+			final CompletableFuture<Void> never = new CompletableFuture<>();
+			suite.testAsync("never", Duration.ofMillis(50), () -> never);
+			final List<Throwable> errors = suite.runAll();
+			expectEquals(errors.size(), 1);
+			expectTrue(errors.get(0) instanceof TestTimeoutError);
+			expectString(errors.get(0).getMessage()).startsWith("Test \"never\" did not complete within its timeout of 50 ms");
+			expectTrue(never.isCancelled());
+		});
+
+		test("Async tests running in parallel should be outstanding at the same time", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setRunInParallel(true);
+			suite.setDefaultTimeout(Duration.ofSeconds(10));
+			final int count = 200;
+			final AtomicInteger started = new AtomicInteger();
+			final CompletableFuture<Void> allStarted = new CompletableFuture<>();
+			for (int i = 0; i < count; ++i) {
+				suite.testAsync("async " + i, () -> {
+					if (started.incrementAndGet() == count) {
+						allStarted.complete(null);
+					}
+					// completes only, if all tests are outstanding at the same time
+					return allStarted.thenRunAsync(() -> {
+					});
+				});
+			}
+			expectEquals(suite.runAll().size(), 0);
+			expectEquals(started.get(), count);
+		});
+
+		test("Async tests running in parallel should respect the limit of outstanding tests", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setRunInParallel(true);
+			suite.setMaxOutstandingAsyncTests(5);
+			final AtomicInteger outstanding = new AtomicInteger();
+			final AtomicInteger maxOutstanding = new AtomicInteger();
+			for (int i = 0; i < 50; ++i) {
+				suite.testAsync("async " + i, () -> {
+					maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+					return CompletableFuture.runAsync(() -> {
+						try {
+							Thread.sleep(2);
+						} catch (final InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						outstanding.decrementAndGet();
+					});
+				});
+			}
+			expectEquals(suite.runAll().size(), 0);
+			// the test framework might start the test it waits for in addition
+			expectTrue(maxOutstanding.get() <= 6, "Max outstanding tests: " + maxOutstanding.get());
+		});
+
+		test("Async tests should not be started by the thread completing another one", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setRunInParallel(true);
+			suite.setMaxOutstandingAsyncTests(1);
+			final AtomicReference<String> startingThread = new AtomicReference<>();
+			suite.testAsync("first", () -> {
+				final CompletableFuture<Void> result = new CompletableFuture<>();
+				new Thread(() -> {
+					try {
+						Thread.sleep(50);
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					result.complete(null);
+				}, "completing").start();
+				return result;
+			});
+			suite.testAsync("second", () -> {
+				startingThread.set(Thread.currentThread().getName());
+				return CompletableFuture.completedFuture(null);
+			});
+			expectEquals(suite.runAll().size(), 0);
+			expectString(startingThread.get()).isNotEqual("completing");
+		});
+
+	}
+
+}
@@ -0,0 +1,107 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectDouble;
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tobiasroeser.lambdatest.BenchmarkResult;
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.TestTimeoutError;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class BenchmarkTest extends FreeSpec {
+
+	class Suite extends TestSuite {
+		final List<BenchmarkResult> results = new ArrayList<>();
+
+		public Suite() {
+			setReporter(new DefaultReporter(new PrintStream(out)) {
+				@Override
+				public void benchmarkResult(final LambdaTestCase test, final BenchmarkResult result) {
+					results.add(result);
+					super.benchmarkResult(test, result);
+				}
+			});
+		}
+	}
+
+	public BenchmarkTest() {
+
+		section("A benchmark", () -> {
+
+			test("should run the warmup and all iterations and report the result", () -> {
+				final Suite suite = new Suite();
+				final AtomicInteger invocations = new AtomicInteger();
+				suite.benchmark("bench", 100, 1000, () -> invocations.incrementAndGet());
+				expectEquals(suite.runAll().size(), 0);
+				expectEquals(invocations.get(), 1100);
+				expectEquals(suite.results.size(), 1);
+				final BenchmarkResult result = suite.results.get(0);
+				expectTrue(result.getSamples() >= 30, "Samples: " + result.getSamples());
+				expectTrue(result.getMin() <= result.getP50());
+				expectTrue(result.getP50() <= result.getP99());
+				expectTrue(result.getP99() <= result.getMax());
+				expectTrue(result.getConfidenceIntervalLower() <= result.getMean());
+				expectTrue(result.getMean() <= result.getConfidenceIntervalUpper());
+				expectString(suite.out.toString()).contains("- bench").contains("(benchmark: ");
+			});
+
+			test("should fail with the exception of the block", () -> {
+				final Suite suite = new Suite();
+				suite.benchmark("bench", 0, 10, () -> {
+					throw new IllegalStateException("BENCH");
+				});
+				final List<Throwable> errors = suite.runAll();
+				expectEquals(errors.size(), 1);
+				expectEquals(errors.get(0).getMessage(), "BENCH");
+				expectEquals(suite.results.size(), 0);
+			});
+
+			test("should fail, if it exceeds its timeout", () -> {
+				final Suite suite = new Suite();
+				suite.benchmark("bench", Duration.ofMillis(50), 0, 1000, () -> Thread.sleep(10));
+				final List<Throwable> errors = suite.runAll();
+				expectEquals(errors.size(), 1);
+				expectTrue(errors.get(0) instanceof TestTimeoutError, "error: " + errors.get(0));
+				expectEquals(((TestTimeoutError) errors.get(0)).getTimeoutMillis(), 50L);
+				expectEquals(suite.results.size(), 0);
+			});
+
+		});
+
+		section("A benchmark result", () -> {
+
+			test("should compute mean, percentiles and confidence interval", () -> {
+				final BenchmarkResult result = BenchmarkResult
+						.of(new double[] { 10, 9, 8, 7, 6, 5, 4, 3, 2, 1 }, 4);
+				expectEquals(result.getSamples(), 10);
+				expectEquals(result.getOperationsPerSample(), 4L);
+				expectDouble(result.getMean()).isCloseTo(5.5, 1e-9);
+				expectDouble(result.getMin()).isCloseTo(1.0, 1e-9);
+				expectDouble(result.getMax()).isCloseTo(10.0, 1e-9);
+				expectDouble(result.getP50()).isCloseTo(5.0, 1e-9);
+				expectDouble(result.getP90()).isCloseTo(9.0, 1e-9);
+				expectDouble(result.getP99()).isCloseTo(10.0, 1e-9);
+				expectDouble(result.getStandardDeviation()).isCloseTo(3.02765, 1e-5);
+				// t(0.995, 9) = 3.250
+				expectDouble(result.getConfidenceIntervalHalfWidth()).isCloseTo(3.11164, 1e-5);
+			});
+
+			test("should have no confidence interval for a single sample", () -> {
+				final BenchmarkResult result = BenchmarkResult.of(new double[] { 1500 }, 1);
+				expectTrue(Double.isNaN(result.getConfidenceIntervalHalfWidth()));
+				expectString(result.toString()).startsWith("1.50 us/op +/- n/a");
+			});
+
+		});
+
+	}
+
+}
@@ -1,11 +1,18 @@
 package de.tobiasroeser.lambdatest.generic;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Arrays;
+
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import de.tobiasroeser.lambdatest.MultipleFailuresError;
 import de.tobiasroeser.lambdatest.Optional;
 import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
 import de.tobiasroeser.lambdatest.generic.DefaultReporter;
 
 public class DefaultReporterTest {
@@ -43,4 +50,149 @@ public class DefaultReporterTest {
 		Assert.assertEquals(reporter.findSameOrInParent(s2, s1), Optional.lift(expected));
 	}
 
+	@Test
+	public void testSlowTestsAreReported() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DefaultReporter reporter = new DefaultReporter(new PrintStream(bytes));
+		reporter.setSlowTestThreshold(Duration.ofMillis(10));
+
+		reporter.testFinished(new DefaultTestCase("fast", "suite", () -> {
+		}), new Timing(1000000L, -1, -1));
+		reporter.testFinished(new DefaultTestCase("slow", "suite", () -> {
+		}), new Timing(20000000L, -1, -1));
+		reporter.suiteFinished("suite", new Timing(21000000L, -1, -1));
+
+		final String output = bytes.toString();
+		Assert.assertFalse(output.contains("fast"), output);
+		Assert.assertTrue(output.contains("(slow: 20 ms (cpu: n/a, allocated: n/a))"), output);
+		Assert.assertTrue(output.contains("Slowest tests:"), output);
+		Assert.assertTrue(output.contains("- slow"), output);
+	}
+
+	@Test
+	public void testGroupedOutputPrintsCompleteSectionsAsBlocks() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DefaultReporter reporter = new DefaultReporter(new PrintStream(bytes));
+		reporter.setGroupedOutput(true);
+
+		final Section s1 = new Section("section1", null);
+		final Section s2 = new Section("section2", null);
+		final DefaultTestCase a = new DefaultTestCase(s1, "testA", "suite", () -> {
+		});
+		final DefaultTestCase b = new DefaultTestCase(s1, "testB", "suite", () -> {
+		});
+		final DefaultTestCase c = new DefaultTestCase(s2, "testC", "suite", () -> {
+		});
+		reporter.suiteStart("suite", Arrays.asList(a, b, c));
+
+		// finish in reverse order, like parallel tests could do
+		reporter.testSucceeded(c);
+		reporter.testFinished(c, Timing.ZERO);
+		reporter.testSucceeded(b);
+		reporter.testFinished(b, Timing.ZERO);
+		Assert.assertFalse(bytes.toString().contains("testB"), bytes.toString());
+		reporter.testSucceeded(a);
+		reporter.testFinished(a, Timing.ZERO);
+		reporter.suiteFinished("suite", Timing.ZERO);
+
+		final String output = bytes.toString();
+		final int posS2 = output.indexOf("section2");
+		final int posC = output.indexOf("testC");
+		final int posS1 = output.indexOf("section1");
+		final int posA = output.indexOf("testA");
+		final int posB = output.indexOf("testB");
+		Assert.assertTrue(0 <= posS2 && posS2 < posC && posC < posS1 && posS1 < posA && posA < posB, output);
+	}
+
+	@Test
+	public void testFrameworkFramesAreFiltered() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DefaultReporter reporter = new DefaultReporter(new PrintStream(bytes));
+
+		final AssertionError error = new AssertionError("failed");
+		error.setStackTrace(new StackTraceElement[] {
+				new StackTraceElement("de.tobiasroeser.lambdatest.Expect", "expectEquals", "Expect.java", 1),
+				new StackTraceElement("my.Test", "lambda$new$0", "Test.java", 10),
+				new StackTraceElement("de.tobiasroeser.lambdatest.generic.FreeSpecBase", "runTestCase",
+						"FreeSpecBase.java", 1),
+				new StackTraceElement("sun.reflect.NativeMethodAccessorImpl", "invoke", null, -1),
+				new StackTraceElement("org.testng.TestRunner", "run", "TestRunner.java", 1),
+				new StackTraceElement("my.Main", "main", "Main.java", 20) });
+		reporter.testFailed(new DefaultTestCase("test", "suite", () -> {
+		}), error);
+
+		final String output = bytes.toString();
+		Assert.assertTrue(output.contains("java.lang.AssertionError: failed"), output);
+		Assert.assertTrue(output.contains("\tat my.Test.lambda$new$0(Test.java:10)"), output);
+		Assert.assertTrue(output.contains("\tat my.Main.main(Main.java:20)"), output);
+		Assert.assertTrue(output.contains("\t... 4 framework frames filtered"), output);
+		Assert.assertFalse(output.contains("testng"), output);
+		Assert.assertFalse(output.contains("FreeSpecBase"), output);
+	}
+
+	private static AssertionError dataDrivenError(final int i) {
+		return new AssertionError("failed for " + i, new IllegalStateException("cause " + i));
+	}
+
+	@Test
+	public void testRepeatedStackTracesArePrintedOnce() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DefaultReporter reporter = new DefaultReporter(new PrintStream(bytes));
+
+		for (int i = 0; i < 3; ++i) {
+			reporter.testFailed(new DefaultTestCase("test " + i, "suite", () -> {
+			}), dataDrivenError(i));
+		}
+
+		final String output = bytes.toString();
+		Assert.assertTrue(output.contains("failed for 0"), output);
+		Assert.assertTrue(output.contains("failed for 1"), output);
+		Assert.assertTrue(output.contains("Caused by: java.lang.IllegalStateException: cause 2"), output);
+		Assert.assertTrue(output.contains("same stack trace as test \"test 0\" (seen 3 times)"), output);
+		Assert.assertEquals(output.split("\tat .*dataDrivenError").length - 1, 1, output);
+	}
+
+	private static MultipleFailuresError multipleFailures(final int line) {
+		final AssertionError failure = new AssertionError("failed in line " + line);
+		failure.setStackTrace(new StackTraceElement[] {
+				new StackTraceElement("my.Test", "lambda$new$0", "Test.java", line) });
+		final MultipleFailuresError error = new MultipleFailuresError(Arrays.asList(failure, failure));
+		error.setStackTrace(new StackTraceElement[] {
+				new StackTraceElement("de.tobiasroeser.lambdatest.ExpectContext", "finish", "ExpectContext.java", 1),
+				new StackTraceElement("de.tobiasroeser.lambdatest.generic.FreeSpecBase", "runTestCase",
+						"FreeSpecBase.java", 1) });
+		return error;
+	}
+
+	@Test
+	public void testMultipleFailuresAreDeduplicatedByTheirFailures() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DefaultReporter reporter = new DefaultReporter(new PrintStream(bytes));
+
+		reporter.testFailed(new DefaultTestCase("test 0", "suite", () -> {
+		}), multipleFailures(10));
+		reporter.testFailed(new DefaultTestCase("test 1", "suite", () -> {
+		}), multipleFailures(20));
+		reporter.testFailed(new DefaultTestCase("test 2", "suite", () -> {
+		}), multipleFailures(20));
+
+		final String output = bytes.toString();
+		Assert.assertFalse(output.contains("same stack trace as test \"test 0\""), output);
+		Assert.assertTrue(output.contains("same stack trace as test \"test 1\" (seen 2 times)"), output);
+	}
+
+	@Test
+	public void testCausesAreReportedWithoutStacktraces() {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DefaultReporter reporter = new DefaultReporter(new PrintStream(bytes), false);
+
+		reporter.testFailed(new DefaultTestCase("test", "suite", () -> {
+		}), dataDrivenError(1));
+
+		final String output = bytes.toString();
+		Assert.assertTrue(output.contains("java.lang.AssertionError: failed for 1"), output);
+		Assert.assertTrue(output.contains("Caused by: java.lang.IllegalStateException: cause 1"), output);
+		Assert.assertFalse(output.contains("\tat "), output);
+	}
+
 }
@@ -0,0 +1,191 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+import static de.tobiasroeser.lambdatest.TempFile.withTempDirP;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.Reporter;
+import de.tobiasroeser.lambdatest.Section;
+import de.tobiasroeser.lambdatest.Timing;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class FileReporterTest extends FreeSpec {
+
+	private static final AssertionError FAILURE = new AssertionError("expected <1>",
+			new IllegalStateException("root"));
+
+	private static String read(final Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reports a suite with a succeeded, a skipped and a failed test.
+	 */
+	private static void reportSuite(final Reporter reporter) {
+		final Section section = new Section("A <section>", null);
+		final DefaultTestCase ok = new DefaultTestCase(section, "works", "my.Suite", () -> {
+		});
+		final DefaultTestCase pending = new DefaultTestCase(section, "is pending", "my.Suite", () -> {
+		});
+		final DefaultTestCase failed = new DefaultTestCase(null, "fails \"badly\"", "my.Suite", () -> {
+		});
+		reporter.suiteStart("my.Suite", Arrays.asList(ok, pending, failed));
+		reporter.testStart(ok);
+		reporter.testSucceeded(ok);
+		reporter.testFinished(ok, new Timing(1500000000L, 1000L, 2048L));
+		reporter.testStart(pending);
+		reporter.testSkipped(pending, "Pending");
+		reporter.testFinished(pending, new Timing(0, 0, 0));
+		reporter.testStart(failed);
+		reporter.testFailed(failed, FAILURE);
+		reporter.testFinished(failed, new Timing(1000L, -1, -1));
+		reporter.suiteWarning("my.Suite", "Test name is not unique");
+		reporter.suiteFinished("my.Suite", new Timing(2000000000L, 1000L, 2048L));
+	}
+
+	public FileReporterTest() {
+
+		test("JUnitXmlReporter should write a complete report per suite", () -> withTempDirP((final File dir) -> {
+			final JUnitXmlReporter reporter = new JUnitXmlReporter(dir.toPath().resolve("reports"));
+			reportSuite(reporter);
+			final String xml = read(reporter.getReportFile("my.Suite"));
+			expectString(xml)
+					.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"my.Suite\"")
+					.matches("(?s).*tests=\"3\" failures=\"1\" errors=\"0\" skipped=\"1\" time=\"2.000\"\\s*>.*")
+					.contains("<testcase name=\"A &lt;section&gt; / works\" classname=\"my.Suite\" time=\"1.500\"/>")
+					.contains("<skipped message=\"Pending\"/>")
+					.contains("<failure message=\"expected &lt;1&gt;\" type=\"java.lang.AssertionError\">")
+					.contains("Caused by: java.lang.IllegalStateException: root")
+					.contains("<system-err>Test name is not unique\n</system-err>")
+					.endsWith("</testsuite>\n");
+		}));
+
+		test("JsonLinesReporter should write one record per test and suite event", () -> withTempDirP((final File dir) -> {
+			final Path file = dir.toPath().resolve("results.jsonl");
+			final JsonLinesReporter reporter = new JsonLinesReporter(file);
+			reportSuite(reporter);
+			reporter.close();
+			final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			expectEquals(lines.size(), 6);
+			expectString(lines.get(0)).startsWith("{\"event\":\"suiteStart\",\"suite\":\"my.Suite\",\"tests\":3,");
+			expectEquals(lines.get(1),
+					"{\"event\":\"test\",\"suite\":\"my.Suite\",\"section\":[\"A <section>\"],\"name\":\"works\","
+							+ "\"status\":\"succeeded\",\"wallNanos\":1500000000,\"cpuNanos\":1000,\"allocatedBytes\":2048}");
+			expectString(lines.get(2)).contains("\"status\":\"skipped\"").endsWith(",\"message\":\"Pending\"}");
+			expectString(lines.get(3))
+					.contains("\"section\":[],\"name\":\"fails \\\"badly\\\"\",\"status\":\"failed\"")
+					.contains("\"error\":{\"type\":\"java.lang.AssertionError\",\"message\":\"expected <1>\"")
+					.endsWith("\"causes\":[{\"type\":\"java.lang.IllegalStateException\",\"message\":\"root\"}]}}");
+			expectEquals(lines.get(4),
+					"{\"event\":\"suiteWarning\",\"suite\":\"my.Suite\",\"message\":\"Test name is not unique\"}");
+			expectString(lines.get(5)).startsWith("{\"event\":\"suiteFinished\",\"suite\":\"my.Suite\",\"wallNanos\":2000000000");
+		}));
+
+		test("BinaryLogReader should replay a binary log like the original events", () -> withTempDirP((final File dir) -> {
+			// the second run defines its sections again
+			final Path direct = dir.toPath().resolve("direct.jsonl");
+			try (JsonLinesReporter reporter = new JsonLinesReporter(direct)) {
+				reportSuite(reporter);
+				reportSuite(reporter);
+			}
+			final Path log = dir.toPath().resolve("events.bin");
+			try (BinaryLogReporter reporter = new BinaryLogReporter(log)) {
+				reportSuite(reporter);
+				reportSuite(reporter);
+			}
+			final Path replayed = dir.toPath().resolve("replayed.jsonl");
+			try (JsonLinesReporter reporter = new JsonLinesReporter(replayed)) {
+				new BinaryLogReader(log).replay(reporter);
+			}
+
+			final List<String> expected = Files.readAllLines(direct, StandardCharsets.UTF_8);
+			final List<String> actual = Files.readAllLines(replayed, StandardCharsets.UTF_8);
+			expectEquals(actual.size(), 12);
+			// the suite starts contain a timestamp
+			expectEquals(actual.subList(1, 6), expected.subList(1, 6));
+			expectEquals(actual.subList(7, 12), expected.subList(7, 12));
+		}));
+
+		test("TraceEventReporter should write spans of tests and sections per thread", () -> withTempDirP((final File dir) -> {
+			final Path file = dir.toPath().resolve("trace.json");
+			final TraceEventReporter reporter = new TraceEventReporter(file);
+			final Section section = new Section("section", null);
+			final DefaultTestCase t1 = new DefaultTestCase(section, "test1", "my.Suite", () -> {
+			});
+			final DefaultTestCase t2 = new DefaultTestCase(null, "test2", "my.Suite", () -> {
+			});
+			reporter.suiteStart("my.Suite", Arrays.asList(t1, t2));
+			final Thread worker = new Thread(() -> {
+				reporter.testStart(t1);
+				reporter.testSucceeded(t1);
+				reporter.testFinished(t1, Timing.ZERO);
+			}, "worker-1");
+			worker.start();
+			worker.join();
+			reporter.testStart(t2);
+			reporter.testFailed(t2, FAILURE);
+			reporter.testFinished(t2, Timing.ZERO);
+			reporter.suiteFinished("my.Suite", Timing.ZERO);
+			reporter.close();
+
+			final String json = read(file);
+			expectString(json)
+					.startsWith("[\n{\"name\":\"process_name\",\"ph\":\"M\"")
+					.contains("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + worker.getId()
+							+ ",\"args\":{\"name\":\"worker-1\"}}")
+					.matches("(?s).*\\{\"name\":\"test1\",\"cat\":\"test\",\"ph\":\"X\",\"pid\":1,\"tid\":"
+							+ worker.getId() + ",.*\"status\":\"succeeded\".*")
+					.matches("(?s).*\\{\"name\":\"section\",\"cat\":\"section\",\"ph\":\"X\",\"pid\":1,\"tid\":"
+							+ worker.getId() + ",.*")
+					.contains("\"status\":\"failed\"")
+					.contains("{\"name\":\"my.Suite\",\"cat\":\"suite\",\"ph\":\"X\",\"pid\":1,\"tid\":0,")
+					.endsWith("\n]\n");
+		}));
+
+		test("OpenMetricsReporter should write counters and duration histograms", () -> withTempDirP((final File dir) -> {
+			final Path file = dir.toPath().resolve("metrics").resolve("lambdatest.prom");
+			final OpenMetricsReporter reporter = new OpenMetricsReporter(file);
+			final DefaultTestCase checking = new DefaultTestCase(null, "checks", "other.Suite", () -> {
+			});
+			reporter.suiteStart("other.Suite", Arrays.asList(checking));
+			reporter.testStart(checking);
+			expectEquals(1, 1);
+			expectTrue("abc".startsWith("a"));
+			reporter.testSucceeded(checking);
+			reporter.testFinished(checking, new Timing(20000000L, 10000000L, 1024L));
+			reporter.suiteFinished("other.Suite", Timing.ZERO);
+			reportSuite(reporter);
+
+			final String metrics = read(file);
+			expectString(metrics)
+					.startsWith("# TYPE lambdatest_tests_total counter\n")
+					.contains("lambdatest_tests_total{suite=\"my.Suite\",section=\"A <section>\",outcome=\"succeeded\"} 1\n")
+					.contains("lambdatest_tests_total{suite=\"my.Suite\",section=\"A <section>\",outcome=\"skipped\"} 1\n")
+					.contains("lambdatest_tests_total{suite=\"my.Suite\",section=\"\",outcome=\"failed\"} 1\n")
+					.contains("lambdatest_expectations_total{suite=\"other.Suite\",section=\"\"} 2\n")
+					.contains("lambdatest_test_duration_seconds_bucket{suite=\"my.Suite\",section=\"A <section>\",le=\"1.0\"} 1\n")
+					.contains("lambdatest_test_duration_seconds_bucket{suite=\"my.Suite\",section=\"A <section>\",le=\"5.0\"} 2\n")
+					.contains("lambdatest_test_duration_seconds_bucket{suite=\"my.Suite\",section=\"A <section>\",le=\"+Inf\"} 2\n")
+					.contains("lambdatest_test_duration_seconds_sum{suite=\"my.Suite\",section=\"A <section>\"} 1.5\n")
+					.contains("lambdatest_test_duration_seconds_count{suite=\"my.Suite\",section=\"A <section>\"} 2\n")
+					.contains("lambdatest_test_cpu_seconds_total{suite=\"other.Suite\",section=\"\"} 0.01\n")
+					.contains("lambdatest_suite_duration_seconds{suite=\"my.Suite\"} 2.0\n")
+					.contains("lambdatest_suite_warnings_total{suite=\"my.Suite\"} 1\n")
+					.containsNot("# UNIT")
+					.endsWith("lambdatest_suite_warnings_total{suite=\"other.Suite\"} 0\n");
+			// the temporary file was renamed
+			expectEquals(file.getParent().toFile().list().length, 1);
+		}));
+
+	}
+
+}
@@ -0,0 +1,163 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNull;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+import static de.tobiasroeser.lambdatest.TempFile.withTempDirP;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.internal.JfrEvent;
+import de.tobiasroeser.lambdatest.proxy.TestProxy;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+/**
+ * The JFR API is used reflectively, as it is not available on all supported
+ * JVMs. The events are enabled by a dedicated surefire execution with
+ * `-Dlambdatest.jfr=true`, as they must be enabled before {@link JfrEvent} is
+ * initialized.
+ */
+public class JfrEventTest extends FreeSpec {
+
+	private static final String[] EVENT_NAMES = { "Suite", "Test", "ExpectationFailed", "ProxyInvocation" };
+
+	/**
+	 * Invokes the public method with the given name and matching arguments.
+	 */
+	private static Object call(final Object target, final String name, final Object... args) throws Exception {
+		final Class<?> type = target instanceof Class ? (Class<?>) target : target.getClass();
+		for (final Method method : type.getMethods()) {
+			if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+				boolean matches = true;
+				for (int i = 0; i < args.length; ++i) {
+					matches &= method.getParameterTypes()[i].isInstance(args[i]);
+				}
+				if (matches) {
+					return method.invoke(target instanceof Class ? null : target, args);
+				}
+			}
+		}
+		throw new NoSuchMethodException(type.getName() + "." + name);
+	}
+
+	private void requireJfr() {
+		try {
+			Class.forName("jdk.jfr.Recording");
+		} catch (final ClassNotFoundException e) {
+			pending("Java Flight Recorder is not available on this JVM");
+		}
+	}
+
+	private static Object startRecording() throws Exception {
+		final Object recording = Class.forName("jdk.jfr.Recording").newInstance();
+		for (final String name : EVENT_NAMES) {
+			call(recording, "enable", "de.tobiasroeser.lambdatest." + name);
+		}
+		call(recording, "start");
+		return recording;
+	}
+
+	/**
+	 * Stops the recording and reads its LambdaTest events, each as array of
+	 * the event name followed by the values of the given fields.
+	 */
+	private static List<Object[]> stopRecording(final Object recording, final File file, final String... fields)
+			throws Exception {
+		call(recording, "stop");
+		call(recording, "dump", file.toPath());
+		call(recording, "close");
+		final List<Object[]> events = new ArrayList<>();
+		for (final Object event : (List<?>) call(Class.forName("jdk.jfr.consumer.RecordingFile"), "readAllEvents",
+				file.toPath())) {
+			final String name = (String) call(call(event, "getEventType"), "getName");
+			if (name.startsWith("de.tobiasroeser.lambdatest.")) {
+				final Object[] values = new Object[fields.length + 1];
+				values[0] = name.substring("de.tobiasroeser.lambdatest.".length());
+				for (int i = 0; i < fields.length; ++i) {
+					values[i + 1] = call(event, "hasField", fields[i]).equals(Boolean.TRUE)
+							? call(event, "getValue", fields[i])
+							: null;
+				}
+				events.add(values);
+			}
+		}
+		return events;
+	}
+
+	private static List<Object[]> eventsNamed(final List<Object[]> events, final String name) {
+		final List<Object[]> result = new ArrayList<>();
+		for (final Object[] event : events) {
+			if (event[0].equals(name)) {
+				result.add(event);
+			}
+		}
+		return result;
+	}
+
+	public JfrEventTest() {
+
+		test("Without an active recording no events should be created", () -> {
+			expectTrue(!JfrEvent.TEST.isEnabled());
+			expectNull(JfrEvent.TEST.begin());
+			expectNull(JfrEvent.SUITE.begin());
+			expectNull(JfrEvent.PROXY_INVOCATION.begin());
+			// must not fail
+			JfrEvent.EXPECTATION_FAILED.emit("message", false);
+		});
+
+		test("A recording should contain the events of suites, tests, failed expectations and proxies",
+				() -> withTempDirP(dir -> {
+					requireJfr();
+					final Object recording = startRecording();
+					if (!JfrEvent.TEST.isEnabled()) {
+						call(recording, "close");
+						pending("JfrEvent was initialized without -D" + JfrEvent.ENABLE_PROPERTY + "=true");
+					}
+
+					final TestSuite suite = new TestSuite();
+					suite.section("A section", () -> {
+						suite.test("passing", () -> {
+							final Runnable proxy = TestProxy.proxy(Runnable.class, new Object() {
+								@SuppressWarnings("unused")
+								public void run() {
+								}
+							});
+							proxy.run();
+						});
+						suite.test("failing", () -> expectEquals(1, 2));
+					});
+					expectEquals(suite.runAll().size(), 1);
+
+					final List<Object[]> events = stopRecording(recording, new File(dir, "test.jfr"), "suite",
+							"tests", "section", "test", "outcome", "message", "collected", "proxy", "method");
+
+					final List<Object[]> suites = eventsNamed(events, "Suite");
+					expectEquals(suites.size(), 1);
+					expectEquals(suites.get(0)[1], suite.getSuiteName());
+					expectEquals(suites.get(0)[2], 2);
+
+					final List<Object[]> tests = eventsNamed(events, "Test");
+					expectEquals(tests.size(), 2);
+					for (final Object[] test : tests) {
+						expectEquals(test[1], suite.getSuiteName());
+						expectEquals(test[3], "A section");
+						expectEquals(test[5], test[4].equals("passing") ? "succeeded" : "failed");
+					}
+
+					final List<Object[]> failures = eventsNamed(events, "ExpectationFailed");
+					expectEquals(failures.size(), 1);
+					expectEquals(failures.get(0)[6], "Actual 1 is not equal to 2.");
+					expectEquals(failures.get(0)[7], true);
+
+					final List<Object[]> invocations = eventsNamed(events, "ProxyInvocation");
+					expectEquals(invocations.size(), 1);
+					expectEquals(invocations.get(0)[8], "interface java.lang.Runnable");
+					expectEquals(invocations.get(0)[9], "public abstract void java.lang.Runnable.run()");
+				}));
+
+	}
+
+}
@@ -0,0 +1,142 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tobiasroeser.lambdatest.LambdaTestCase;
+import de.tobiasroeser.lambdatest.LoadTestResult;
+import de.tobiasroeser.lambdatest.TestTimeoutError;
+import de.tobiasroeser.lambdatest.internal.LatencyHistogram;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class LoadTestTest extends FreeSpec {
+
+	class Suite extends TestSuite {
+		final List<LoadTestResult> results = new ArrayList<>();
+
+		public Suite() {
+			setReporter(new DefaultReporter(new PrintStream(out)) {
+				@Override
+				public void loadTestResult(final LambdaTestCase test, final LoadTestResult result) {
+					results.add(result);
+					super.loadTestResult(test, result);
+				}
+			});
+		}
+	}
+
+	public LoadTestTest() {
+
+		section("A load test", () -> {
+
+			test("should send requests at the target rate and report the result", () -> {
+				final Suite suite = new Suite();
+				final AtomicInteger requests = new AtomicInteger();
+				suite.loadTest("load", 2, 2000, Duration.ofMillis(200), () -> requests.incrementAndGet());
+				expectEquals(suite.runAll().size(), 0);
+				expectEquals(requests.get(), 400);
+				expectEquals(suite.results.size(), 1);
+				final LoadTestResult result = suite.results.get(0);
+				expectEquals(result.getCount(), 400L);
+				expectEquals(result.getErrorCount(), 0L);
+				// the last request is scheduled 199.5 ms after the start
+				expectTrue(result.getElapsedNanos() >= Duration.ofMillis(199).toNanos());
+				expectString(suite.out.toString()).contains("- load").contains("(load test: ");
+			});
+
+			test("should account the waiting time of requests delayed by a stall", () -> {
+				final Suite suite = new Suite();
+				final AtomicInteger requests = new AtomicInteger();
+				suite.loadTest("load", 1, 1000, Duration.ofMillis(200), () -> {
+					if (requests.incrementAndGet() == 10) {
+						Thread.sleep(100);
+					}
+				});
+				expectEquals(suite.runAll().size(), 0);
+				final LoadTestResult result = suite.results.get(0);
+				expectTrue(result.getMaxLatencyNanos() >= Duration.ofMillis(100).toNanos());
+				// about 100 requests were scheduled during the stall
+				expectTrue(result.getLatencyNanosAtPercentile(75) >= Duration.ofMillis(20).toNanos(),
+						"p75: " + result.getLatencyNanosAtPercentile(75));
+			});
+
+			test("should fail, if requests fail", () -> {
+				final Suite suite = new Suite();
+				suite.loadTest("load", 1, 1000, Duration.ofMillis(10), () -> {
+					throw new IllegalStateException("REQUEST");
+				});
+				final List<Throwable> errors = suite.runAll();
+				expectEquals(errors.size(), 1);
+				expectEquals(errors.get(0).getMessage(), "10 of 10 requests failed (see cause)");
+				expectEquals(errors.get(0).getCause().getMessage(), "REQUEST");
+			});
+
+			test("should fail, if its expectations fail", () -> {
+				final Suite suite = new Suite();
+				suite.loadTest("load", 1, 1000, Duration.ofMillis(10), () -> {
+				}, result -> {
+					result.expectLatencyAtPercentileAtMost(99.9, Duration.ofSeconds(1));
+					result.expectThroughputAtLeast(1e9);
+				});
+				final List<Throwable> errors = suite.runAll();
+				expectEquals(errors.size(), 1);
+				expectString(errors.get(0).getMessage()).startsWith("Expected a throughput of at least 1000.00M/s");
+			});
+
+			test("should run with its own timeout instead of the default timeout", () -> {
+				final Suite suite = new Suite();
+				suite.setDefaultTimeout(Duration.ofMillis(50));
+				suite.loadTest("load", Duration.ofSeconds(10), 1, 1000, Duration.ofMillis(200), () -> {
+				});
+				suite.loadTest("load with default timeout", 1, 1000, Duration.ofMillis(200), () -> {
+				});
+				final List<Throwable> errors = suite.runAll();
+				expectEquals(errors.size(), 1);
+				expectTrue(errors.get(0) instanceof TestTimeoutError, "error: " + errors.get(0));
+				expectEquals(((TestTimeoutError) errors.get(0)).getTimeoutMillis(), 50L);
+				expectEquals(suite.results.size(), 1);
+			});
+
+		});
+
+		section("A latency histogram", () -> {
+
+			test("should compute percentiles with less than 1% error", () -> {
+				final LatencyHistogram histogram = new LatencyHistogram();
+				for (long value = 1; value <= 100000; ++value) {
+					histogram.record(value * 1000);
+				}
+				expectEquals(histogram.getTotalCount(), 100000L);
+				expectEquals(histogram.getMin(), 1000L);
+				expectEquals(histogram.getMax(), 100000000L);
+				for (final double percentile : new double[] { 1, 50, 90, 99, 99.9 }) {
+					final double expected = percentile * 1000000;
+					final long actual = histogram.getValueAtPercentile(percentile);
+					expectTrue(Math.abs(actual - expected) / expected < 0.01, "p" + percentile + ": " + actual);
+				}
+				expectEquals(histogram.getValueAtPercentile(100), 100000000L);
+			});
+
+			test("should merge histograms", () -> {
+				final LatencyHistogram first = new LatencyHistogram();
+				final LatencyHistogram second = new LatencyHistogram();
+				first.record(5);
+				second.record(Long.MAX_VALUE);
+				first.add(second);
+				expectEquals(first.getTotalCount(), 2L);
+				expectEquals(first.getValueAtPercentile(50), 5L);
+				expectEquals(first.getValueAtPercentile(100), Long.MAX_VALUE);
+			});
+
+		});
+
+	}
+
+}
@@ -0,0 +1,104 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import de.tobiasroeser.lambdatest.CapturedOutput;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class OutputCaptureTest extends FreeSpec {
+
+	class Suite extends TestSuite {
+		public Suite() {
+			setCaptureOutput(true);
+		}
+	}
+
+	private static CapturedOutput capturedOutput(final Throwable error) {
+		for (final Throwable suppressed : error.getSuppressed()) {
+			if (suppressed instanceof CapturedOutput) {
+				return (CapturedOutput) suppressed;
+			}
+		}
+		return null;
+	}
+
+	public OutputCaptureTest() {
+
+		test("The output of a failed test should be attached to its error", () -> {
+			final Suite suite = new Suite();
+			suite.test("chatty", () -> {
+				System.out.println("to out");
+				System.err.println("to err");
+				throw new AssertionError("failed");
+			});
+			final List<Throwable> errors = new ArrayList<>();
+			suite.runInThread(0, errors).join();
+			expectEquals(errors.size(), 1);
+			final CapturedOutput output = capturedOutput(errors.get(0));
+			expectTrue(output != null);
+			expectEquals(output.getOutput(), "to out" + System.lineSeparator() + "to err" + System.lineSeparator());
+			expectString(output.getMessage()).startsWith("Output of test \"chatty\":\n");
+		});
+
+		test("Only the tail of a long output should be kept", () -> {
+			final Suite suite = new Suite();
+			suite.test("very chatty", () -> {
+				for (int i = 0; i < 100000; ++i) {
+					System.out.print("0123456789");
+				}
+				System.out.print("end");
+				throw new AssertionError("failed");
+			});
+			final List<Throwable> errors = new ArrayList<>();
+			suite.runInThread(0, errors).join();
+			final CapturedOutput output = capturedOutput(errors.get(0));
+			expectEquals(output.getOutput().length(), 64 * 1024);
+			expectEquals(output.getTruncatedBytes(), 1000003L - 64 * 1024);
+			expectString(output.getOutput()).endsWith("789end");
+		});
+
+		test("Parallel tests should capture their own output", () -> {
+			final Suite suite = new Suite();
+			final CountDownLatch printed = new CountDownLatch(2);
+			for (final String name : new String[] { "a", "b" }) {
+				suite.test(name, () -> {
+					System.out.print("from " + name);
+					printed.countDown();
+					printed.await();
+					throw new AssertionError("failed");
+				});
+			}
+			final List<Throwable> errors = new ArrayList<>();
+			final Thread a = suite.runInThread(0, errors);
+			final Thread b = suite.runInThread(1, errors);
+			a.join();
+			b.join();
+			expectEquals(errors.size(), 2);
+			for (final Throwable error : errors) {
+				final CapturedOutput output = capturedOutput(error);
+				expectTrue(output.getMessage().endsWith(":\n" + output.getOutput()));
+				expectTrue(output.getOutput().equals("from a") || output.getOutput().equals("from b"));
+			}
+			expectTrue(!capturedOutput(errors.get(0)).getOutput().equals(capturedOutput(errors.get(1)).getOutput()));
+		});
+
+		test("The output of a succeeded test should be discarded", () -> {
+			final PrintStream original = System.out;
+			final Suite suite = new Suite();
+			suite.test("chatty", () -> System.out.println("discarded"));
+			final List<Throwable> errors = new ArrayList<>();
+			suite.runInThread(0, errors).join();
+			expectEquals(errors.size(), 0);
+			expectTrue(System.out == original);
+		});
+
+	}
+
+}
@@ -0,0 +1,101 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+import static de.tobiasroeser.lambdatest.TempFile.withTempDirP;
+
+import java.io.File;
+import java.util.List;
+
+import de.tobiasroeser.lambdatest.PerformanceBaseline;
+import de.tobiasroeser.lambdatest.TempFile;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class PerformanceBaselineTest extends FreeSpec {
+
+	class Suite extends TestSuite {
+		public Suite(final PerformanceBaseline baseline) {
+			setPerformanceBaseline(baseline);
+		}
+	}
+
+	private static File baselineFile(final File dir) {
+		return new File(dir, Suite.class.getName().replaceAll("[^A-Za-z0-9._-]", "_") + ".baseline");
+	}
+
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public PerformanceBaselineTest() {
+
+		test("Updating should record test cases and benchmarks", () -> withTempDirP(dir -> {
+			for (int run = 0; run < 12; ++run) {
+				final Suite suite = new Suite(PerformanceBaseline.in(dir.toPath()).withUpdate(true));
+				suite.test("a test", () -> {
+				});
+				suite.section("a section", () -> suite.benchmark("a benchmark", 10, 100, () -> "x".hashCode()));
+				suite.test("a failing test", () -> {
+					throw new AssertionError();
+				});
+				expectEquals(suite.runAll().size(), 1);
+			}
+			final String content = TempFile.readFile(baselineFile(dir));
+			expectString(content).contains("a\\ test=test:").contains("a\\ section\\ /\\ a\\ benchmark=benchmark:");
+			expectString(content).containsNot("failing");
+			// only the last 10 runs are kept
+			final String runs = content.substring(content.indexOf("a\\ test=test:"));
+			expectEquals(runs.substring(0, runs.indexOf('\n')).split(",").length, 10);
+		}));
+
+		test("A test case slower than its baseline should fail", () -> withTempDirP(dir -> {
+			TempFile.writeToFile(baselineFile(dir), "slow\\ test=test:1000000,1000000,1000000\n");
+			final Suite suite = new Suite(PerformanceBaseline.in(dir.toPath()).withUpdate(false));
+			suite.test("slow test", () -> sleep(50));
+			final List<Throwable> errors = suite.runAll();
+			expectEquals(errors.size(), 1);
+			expectString(errors.get(0).getMessage()).startsWith("Performance regression: took ")
+					.contains("baseline mean 1 ms of 3 run(s)");
+		}));
+
+		test("A test case slower than its baseline should warn, if configured", () -> withTempDirP(dir -> {
+			TempFile.writeToFile(baselineFile(dir), "slow\\ test=test:1000000\n");
+			final Suite suite = new Suite(
+					PerformanceBaseline.in(dir.toPath()).withUpdate(false).withFailOnRegression(false));
+			suite.test("slow test", () -> sleep(50));
+			expectEquals(suite.runAll().size(), 0);
+			expectString(suite.out.toString()).contains("slow test: Performance regression: took ");
+		}));
+
+		test("A test case within the variation of its baseline should succeed", () -> withTempDirP(dir -> {
+			TempFile.writeToFile(baselineFile(dir), "test=test:10000000,100000000,50000000\n");
+			final Suite suite = new Suite(PerformanceBaseline.in(dir.toPath()).withUpdate(false));
+			suite.test("test", () -> sleep(80));
+			expectEquals(suite.runAll().size(), 0);
+		}));
+
+		test("A benchmark significantly slower than its baseline should fail", () -> withTempDirP(dir -> {
+			TempFile.writeToFile(baselineFile(dir), "bench=benchmark:100,0.001,0.0001\n");
+			final Suite suite = new Suite(PerformanceBaseline.in(dir.toPath()).withUpdate(false));
+			suite.benchmark("bench", 10, 100, () -> sleep(1));
+			final List<Throwable> errors = suite.runAll();
+			expectEquals(errors.size(), 1);
+			expectString(errors.get(0).getMessage()).startsWith("Performance regression: mean ");
+		}));
+
+		test("A malformed baseline should be reported and ignored", () -> withTempDirP(dir -> {
+			TempFile.writeToFile(baselineFile(dir), "test=tests:1\n");
+			final Suite suite = new Suite(PerformanceBaseline.in(dir.toPath()).withUpdate(false));
+			suite.test("test", () -> sleep(20));
+			expectEquals(suite.runAll().size(), 0);
+			expectTrue(suite.out.toString().contains("Could not load performance baseline"));
+		}));
+
+	}
+
+}
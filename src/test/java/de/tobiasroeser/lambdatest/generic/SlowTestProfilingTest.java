@@ -0,0 +1,45 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectFalse;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.TempFile.withTempDirP;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class SlowTestProfilingTest extends FreeSpec {
+
+	public SlowTestProfilingTest() {
+
+		test("A test exceeding the profiling threshold should be profiled", () -> withTempDirP((final File dir) -> {
+			final TestSuite suite = new TestSuite();
+			suite.setSlowTestProfiling(Duration.ofMillis(20), dir.toPath());
+			suite.section("A section", () -> {
+				suite.test("sleeping", () -> Thread.sleep(200));
+			});
+			suite.runFirst();
+			final Path profile = dir.toPath().resolve(suite.getSuiteName().replaceAll("[^A-Za-z0-9._-]", "_"))
+					.resolve("A_section___sleeping.collapsed");
+			final String collapsed = new String(Files.readAllBytes(profile), StandardCharsets.UTF_8);
+			expectString(collapsed)
+					.matches("(?s)A section / sleeping;de\\.tobiasroeser\\.lambdatest\\.generic\\.SlowTestProfilingTest\\$\\$Lambda\\.run;.*java\\.lang\\.Thread\\.sleep[0-9]* [0-9]+\n.*")
+					.containsNot("runTestCase");
+		}));
+
+		test("A test finishing within the profiling threshold should not be profiled", () -> withTempDirP((final File dir) -> {
+			final TestSuite suite = new TestSuite();
+			suite.setSlowTestProfiling(Duration.ofSeconds(10), dir.toPath());
+			suite.test("fast", () -> {
+			});
+			suite.runFirst();
+			expectFalse(dir.toPath().resolve(suite.getSuiteName().replaceAll("[^A-Za-z0-9._-]", "_")).toFile().exists());
+		}));
+
+	}
+
+}
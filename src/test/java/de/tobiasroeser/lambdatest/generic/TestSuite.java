@@ -0,0 +1,101 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A suite to run test cases from within a test, reporting to {@link #out}.
+ *
+ * All test cases are run in separate threads, to not interfere with the
+ * expect context of the outer test.
+ */
+class TestSuite extends FreeSpecBase {
+
+	static class PendingException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/** The output of the default reporter. */
+	final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	/** Whether the thread of the last {@link #runFirst()} was interrupted after running the test case. */
+	volatile boolean interruptedAfterRun;
+
+	TestSuite() {
+		setReporter(new DefaultReporter(new PrintStream(out)));
+	}
+
+	@Override
+	public void pending(final String reason) {
+		throw new PendingException();
+	}
+
+	/**
+	 * Runs all test cases one after another and finishes the suite.
+	 *
+	 * @return The errors of the failed test cases.
+	 */
+	List<Throwable> runAll() throws InterruptedException {
+		final List<Throwable> errors = new ArrayList<>();
+		final Thread thread = new Thread(() -> {
+			for (final DefaultTestCase testCase : getTestCases()) {
+				try {
+					runTestCase(testCase, PendingException.class);
+				} catch (final Throwable t) {
+					errors.add(t);
+				}
+			}
+			finishSuite();
+		});
+		thread.start();
+		thread.join();
+		return errors;
+	}
+
+	/**
+	 * Runs the first test case and rethrows its error.
+	 */
+	void runFirst() throws Exception {
+		final Throwable[] error = new Throwable[1];
+		final Thread thread = new Thread(() -> {
+			try {
+				runTestCase(getTestCases().get(0), PendingException.class);
+			} catch (final Throwable t) {
+				error[0] = t;
+			}
+			interruptedAfterRun = Thread.currentThread().isInterrupted();
+		});
+		thread.start();
+		thread.join();
+		if (error[0] instanceof Exception) {
+			throw (Exception) error[0];
+		} else if (error[0] instanceof Error) {
+			throw (Error) error[0];
+		} else if (error[0] != null) {
+			throw new RuntimeException(error[0]);
+		}
+	}
+
+	/**
+	 * Starts running the test case with the given index, adding its error to
+	 * the given list.
+	 *
+	 * @return The started thread.
+	 */
+	Thread runInThread(final int index, final List<Throwable> errors) {
+		final Thread thread = new Thread(() -> {
+			try {
+				runTestCase(getTestCases().get(index), PendingException.class);
+			} catch (final Throwable t) {
+				synchronized (errors) {
+					errors.add(t);
+				}
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+}
@@ -0,0 +1,132 @@
+package de.tobiasroeser.lambdatest.generic;
+
+import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectFalse;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
+import static de.tobiasroeser.lambdatest.Expect.expectTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasroeser.lambdatest.MultipleFailuresError;
+import de.tobiasroeser.lambdatest.TestTimeoutError;
+import de.tobiasroeser.lambdatest.testng.FreeSpec;
+
+public class TimeoutTest extends FreeSpec {
+
+	public TimeoutTest() {
+
+		test("A test exceeding its timeout should fail with a thread dump", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.test("sleeping", Duration.ofMillis(50), () -> Thread.sleep(10000));
+			final TestTimeoutError e = intercept(TestTimeoutError.class,
+					() -> suite.runFirst());
+			expectString(e.getMessage()).startsWith("Test \"sleeping\" timed out after 50 ms");
+			expectString(e.getDiagnostic()).contains("Thread dump:").contains("java.lang.Thread.sleep");
+			expectFalse(suite.interruptedAfterRun);
+		});
+
+		test("A test finishing within its timeout should succeed", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.test("fast", Duration.ofSeconds(10), () -> {
+			});
+			suite.runFirst();
+		});
+
+		test("The default timeout should apply to tests without timeout", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setDefaultTimeout(Duration.ofMillis(50));
+			suite.test("sleeping", () -> Thread.sleep(10000));
+			intercept(TestTimeoutError.class,
+					() -> suite.runFirst());
+		});
+
+		test("A test timeout should override the default timeout", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setDefaultTimeout(Duration.ofMillis(10));
+			suite.test("sleeping", Duration.ofSeconds(10), () -> Thread.sleep(100));
+			suite.runFirst();
+		});
+
+		test("A deadlocked test should fail after its timeout and the grace period", () -> {
+			final TestSuite suite = new TestSuite();
+			final Object first = new Object();
+			final Object second = new Object();
+			final CountDownLatch locked = new CountDownLatch(2);
+			suite.test("deadlocked", Duration.ofMillis(100), () -> {
+				final Thread other = new Thread(() -> {
+					synchronized (second) {
+						locked.countDown();
+						awaitUninterruptibly(locked);
+						synchronized (first) {
+						}
+					}
+				});
+				other.setDaemon(true);
+				other.start();
+				synchronized (first) {
+					locked.countDown();
+					awaitUninterruptibly(locked);
+					synchronized (second) {
+					}
+				}
+			});
+			final long start = System.nanoTime();
+			final TestTimeoutError e = intercept(TestTimeoutError.class,
+					() -> suite.runFirst());
+			expectTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+			expectString(e.getMessage())
+					.startsWith("Test \"deadlocked\" timed out after 100 ms and did not respond to the interruption");
+			expectString(e.getDiagnostic()).contains("Found 2 deadlocked threads:");
+		});
+
+		test("Failed expectations of a test with timeout should be collected", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setExpectFailFast(false);
+			suite.test("failing", Duration.ofSeconds(10), () -> {
+				expectEquals(1, 2);
+				expectEquals(3, 4);
+			});
+			final MultipleFailuresError e = intercept(MultipleFailuresError.class,
+					() -> suite.runFirst());
+			expectEquals(e.getFailures().size(), 2);
+		});
+
+		test("An expired suite timeout should interrupt the running test and fail the remaining tests", () -> {
+			final TestSuite suite = new TestSuite();
+			suite.setSuiteTimeout(Duration.ofMillis(100));
+			suite.test("fast", () -> {
+			});
+			suite.test("sleeping", Duration.ofSeconds(10), () -> Thread.sleep(10000));
+			suite.test("not run", () -> {
+			});
+			final List<Throwable> errors = suite.runAll();
+			expectEquals(errors.size(), 2);
+			expectTrue(errors.get(0) instanceof TestTimeoutError);
+			expectString(errors.get(0).getMessage())
+					.startsWith("Test \"sleeping\" timed out after ")
+					.contains("The suite timeout of 100 ms expired.\n");
+			expectTrue(errors.get(1) instanceof TestTimeoutError);
+			expectEquals(errors.get(1).getMessage(),
+					"Test \"not run\" was not run, as the suite timeout of 100 ms expired.");
+		});
+	}
+
+	private static void awaitUninterruptibly(final CountDownLatch latch) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			} catch (final InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
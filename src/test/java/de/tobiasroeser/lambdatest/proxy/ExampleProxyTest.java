@@ -1,8 +1,13 @@
 package de.tobiasroeser.lambdatest.proxy;
 
+import static de.tobiasroeser.lambdatest.Expect.expectCollectable;
 import static de.tobiasroeser.lambdatest.Expect.expectEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectNotEquals;
+import static de.tobiasroeser.lambdatest.Expect.expectString;
 import static de.tobiasroeser.lambdatest.Expect.expectTrue;
 
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -57,6 +62,33 @@ public class ExampleProxyTest extends FreeSpec {
 		T pass(T t1);
 	}
 
+	static abstract class AbstractDependency {
+		private final String greeting;
+
+		AbstractDependency(final String greeting) {
+			this.greeting = greeting;
+		}
+
+		public abstract String hello();
+
+		protected abstract int count(long from, double factor);
+
+		abstract boolean packagePrivate(char c);
+
+		public String greeting() {
+			return greeting;
+		}
+	}
+
+	static class ConcreteDependency {
+		public String hello() {
+			return "Hello Concrete!";
+		}
+	}
+
+	static final class FinalDependency {
+	}
+
 	public ExampleProxyTest() {
 
 		test("A proxy without delegates as optional dependencies should be sufficient", () -> {
@@ -147,6 +179,87 @@ public class ExampleProxyTest extends FreeSpec {
 			Expect.expectString(proxy.baz(Arrays.asList("abc"))).contains("abc");
 		});
 
+		section("A proxy of an abstract class", () -> {
+			test("should delegate abstract methods of all visibilities", () -> {
+				final AbstractDependency dep = TestProxy.proxy(AbstractDependency.class, new Object() {
+					@SuppressWarnings("unused")
+					public String hello() {
+						return "Hello Abstract!";
+					}
+
+					@SuppressWarnings("unused")
+					public int count(final long from, final double factor) {
+						return (int) (from * factor);
+					}
+
+					@SuppressWarnings("unused")
+					public boolean packagePrivate(final char c) {
+						return c == 'x';
+					}
+				});
+				expectEquals(dep.hello(), "Hello Abstract!");
+				expectEquals(dep.count(21L, 2.0), 42);
+				expectTrue(dep.packagePrivate('x'));
+			});
+
+			test("should fail with a nice message for missing delegates", () -> {
+				final AbstractDependency dep = TestProxy.proxy(AbstractDependency.class);
+				intercept(UnsupportedOperationException.class, "(?s).*\\Qpublic String greeting()\\E.*",
+						() -> dep.greeting());
+			});
+
+			test("should also implement additional interfaces", () -> {
+				final Object dep = TestProxy.proxy(AbstractDependency.class, Runnable.class);
+				expectTrue(dep instanceof AbstractDependency);
+				expectTrue(dep instanceof Runnable);
+				expectString(dep.toString()).startsWith("Proxy[" + AbstractDependency.class + " & " + Runnable.class);
+			});
+
+			test("should reuse the generated class", () -> {
+				final AbstractDependency dep1 = TestProxy.proxy(AbstractDependency.class);
+				final AbstractDependency dep2 = TestProxy.proxy(AbstractDependency.class);
+				expectEquals(dep1.getClass(), dep2.getClass());
+				expectNotEquals(TestProxy.proxy(AbstractDependency.class, Runnable.class).getClass(), dep1.getClass());
+			});
+
+			test("should not keep the class loader of the proxied class alive", () -> {
+				final URL classes = ExampleProxyTest.class.getProtectionDomain().getCodeSource().getLocation();
+				expectCollectable(() -> {
+					final URLClassLoader loader = new URLClassLoader(new URL[] { classes }, null);
+					final Class<?> type;
+					try {
+						type = loader.loadClass(ConcreteDependency.class.getName());
+					} catch (final ClassNotFoundException e) {
+						throw new IllegalStateException(e);
+					}
+					expectTrue(type != ConcreteDependency.class);
+					final Object proxy = TestProxy.proxy(loader, Arrays.<Class<?>>asList(type),
+							Arrays.<Object>asList(), Arrays.<TestProxy.Option>asList());
+					expectTrue(type.isInstance(proxy));
+					return loader;
+				});
+			});
+		});
+
+		test("A proxy of a concrete class should delegate overridden methods", () -> {
+			final ConcreteDependency dep = TestProxy.proxy(ConcreteDependency.class, new Object() {
+				@SuppressWarnings("unused")
+				public String hello() {
+					return "Hello Proxy!";
+				}
+			});
+			expectEquals(dep.hello(), "Hello Proxy!");
+		});
+
+		test("A proxy of a final class should fail", () -> {
+			intercept(IllegalArgumentException.class, () -> TestProxy.proxy(FinalDependency.class));
+		});
+
+		test("A proxy extending two classes should fail", () -> {
+			intercept(IllegalArgumentException.class,
+					() -> TestProxy.proxy(AbstractDependency.class, ConcreteDependency.class));
+		});
+
 		section("A proxy with with missing implementation should print a nice (copy 'n paste -able) method signature",
 				() -> {
 					test("case: int foobar(String s1, int i2)",